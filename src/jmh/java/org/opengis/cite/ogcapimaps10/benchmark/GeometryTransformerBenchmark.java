@@ -0,0 +1,91 @@
+package org.opengis.cite.ogcapimaps10.benchmark;
+
+import static org.opengis.cite.ogcapimaps10.OgcApiMaps10.DEFAULT_CRS;
+
+import java.util.concurrent.TimeUnit;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.opengis.cite.ogcapimaps10.conformance.crs.query.crs.CoordinateSystem;
+import org.opengis.cite.ogcapimaps10.util.BBox;
+import org.opengis.cite.ogcapimaps10.util.GeometryTransformer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the transformation of bounding boxes and polygons from CRS84 to UTM 32N, as
+ * done by the bbox-crs and crs tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryTransformerBenchmark {
+
+	private static final CoordinateSystem EPSG_25832 = new CoordinateSystem(
+			"http://www.opengis.net/def/crs/EPSG/0/25832");
+
+	@Param({ "10", "1000" })
+	private int vertices;
+
+	private final GeometryFactory geometryFactory = new GeometryFactory();
+
+	private GeometryTransformer transformer;
+
+	private BBox bbox;
+
+	private Polygon polygon;
+
+	/**
+	 * Creates the transformer and a circular polygon around Münster.
+	 */
+	@Setup
+	public void createGeometries() {
+		transformer = new GeometryTransformer(DEFAULT_CRS, EPSG_25832);
+		bbox = new BBox(7.5, 51.8, 7.7, 52.0, DEFAULT_CRS);
+		Coordinate[] ring = new Coordinate[vertices + 1];
+		for (int i = 0; i < vertices; i++) {
+			double angle = 2 * Math.PI * i / vertices;
+			ring[i] = new Coordinate(7.6 + 0.1 * Math.cos(angle), 51.9 + 0.1 * Math.sin(angle));
+		}
+		ring[vertices] = ring[0];
+		polygon = geometryFactory.createPolygon(ring);
+	}
+
+	/**
+	 * @return a new transformer, the transform is looked up in the cache
+	 */
+	@Benchmark
+	public GeometryTransformer createTransformer() {
+		return new GeometryTransformer(DEFAULT_CRS, EPSG_25832);
+	}
+
+	/**
+	 * @return the transformed bbox
+	 */
+	@Benchmark
+	public BBox transformBBox() {
+		return transformer.transform(bbox);
+	}
+
+	/**
+	 * @return the transformed polygon
+	 */
+	@Benchmark
+	public Polygon transformPolygon() {
+		return transformer.transform(polygon);
+	}
+
+}
@@ -0,0 +1,133 @@
+package org.opengis.cite.ogcapimaps10.benchmark;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.opengis.cite.ogcapimaps10.domain.ImageInfo;
+import org.opengis.cite.ogcapimaps10.util.ImageProbe;
+import org.opengis.cite.ogcapimaps10.util.RasterAnalysis;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the decoding of map images and the detection of blank maps. The images are
+ * rendered once per trial: either a blank image or a map-like image with polygons and
+ * lines on a background, encoded as PNG or JPEG.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageBenchmark {
+
+	@Param({ "png", "jpeg" })
+	private String format;
+
+	@Param({ "blank", "map" })
+	private String content;
+
+	@Param({ "256", "1024" })
+	private int size;
+
+	private byte[] data;
+
+	private BufferedImage decoded;
+
+	/**
+	 * Renders and encodes the image.
+	 * @throws IOException if the image could not be encoded
+	 */
+	@Setup
+	public void renderImage() throws IOException {
+		BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setColor(new Color(0xF2EFE9));
+		graphics.fillRect(0, 0, size, size);
+		if ("map".equals(content))
+			drawMap(graphics);
+		graphics.dispose();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		if (!ImageIO.write(image, format, out))
+			throw new IllegalStateException("No writer for " + format);
+		data = out.toByteArray();
+		decoded = ImageProbe.read(data);
+	}
+
+	/**
+	 * @return the dimensions read from the header
+	 */
+	@Benchmark
+	public ImageInfo probe() {
+		return ImageProbe.probe(data);
+	}
+
+	/**
+	 * @return the completely decoded image
+	 */
+	@Benchmark
+	public BufferedImage read() {
+		return ImageProbe.read(data);
+	}
+
+	/**
+	 * @return <code>true</code> if the image is blank, as detected by decoding the
+	 * complete image
+	 */
+	@Benchmark
+	public boolean isUniformFullDecode() {
+		return RasterAnalysis.isUniform(ImageProbe.read(data));
+	}
+
+	/**
+	 * @return <code>true</code> if the image is blank, as detected from a subsampled
+	 * preview
+	 */
+	@Benchmark
+	public boolean isUniformSubsampled() {
+		return ImageProbe.isUniform(data, ImageProbe.readSubsampled(data, 64));
+	}
+
+	/**
+	 * @return <code>true</code> if the already decoded image is blank
+	 */
+	@Benchmark
+	public boolean isUniformDecoded() {
+		return RasterAnalysis.isUniform(decoded);
+	}
+
+	private void drawMap(Graphics2D graphics) {
+		Random random = new Random(42);
+		graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		for (int i = 0; i < 50; i++) {
+			graphics.setColor(new Color(random.nextInt(0xFFFFFF)));
+			int x = random.nextInt(size);
+			int y = random.nextInt(size);
+			graphics.fillRect(x, y, 1 + random.nextInt(size / 4), 1 + random.nextInt(size / 4));
+		}
+		graphics.setStroke(new BasicStroke(2));
+		graphics.setColor(Color.DARK_GRAY);
+		for (int i = 0; i < 100; i++)
+			graphics.drawLine(random.nextInt(size), random.nextInt(size), random.nextInt(size), random.nextInt(size));
+	}
+
+}
@@ -0,0 +1,95 @@
+package org.opengis.cite.ogcapimaps10.benchmark;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.opengis.cite.ogcapimaps10.util.BBox;
+import org.opengis.cite.ogcapimaps10.util.JsonUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.restassured.path.json.JsonPath;
+
+/**
+ * Benchmarks the link lookup and the parsing of the spatial extent of the collections
+ * of the <code>/collections</code> fixture used by the unit tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonUtilsBenchmark {
+
+	private static final String COLLECTIONS = "/org/opengis/cite/ogcapimaps10/conformance/core/collections/"
+			+ "collections.json";
+
+	private List<Map<String, Object>> collections;
+
+	private List<Map<String, Object>> links;
+
+	/**
+	 * Parses the fixture.
+	 * @throws Exception if the fixture could not be read
+	 */
+	@Setup
+	public void parseFixture() throws Exception {
+		try (InputStream json = JsonUtilsBenchmark.class.getResourceAsStream(COLLECTIONS)) {
+			JsonPath jsonPath = new JsonPath(json);
+			collections = jsonPath.getList("collections");
+			links = jsonPath.getList("links");
+		}
+	}
+
+	/**
+	 * @return the first link of the document
+	 */
+	@Benchmark
+	public Map<String, Object> findFirstLinkByRel() {
+		return JsonUtils.findLinkByRel(links, "self");
+	}
+
+	/**
+	 * @return <code>null</code>, all links of the document are compared
+	 */
+	@Benchmark
+	public Map<String, Object> findMissingLinkByRel() {
+		return JsonUtils.findLinkByRel(links, "http://www.opengis.net/def/rel/ogc/1.0/map");
+	}
+
+	/**
+	 * @param blackhole consumes the extents
+	 */
+	@Benchmark
+	public void parseSpatialExtent(Blackhole blackhole) {
+		for (Map<String, Object> collection : collections) {
+			BBox extent = JsonUtils.parseSpatialExtent(collection);
+			blackhole.consume(extent);
+		}
+	}
+
+	/**
+	 * @param blackhole consumes the query parameters
+	 */
+	@Benchmark
+	public void parseSpatialExtentAsQueryParameter(Blackhole blackhole) {
+		for (Map<String, Object> collection : collections) {
+			BBox extent = JsonUtils.parseSpatialExtent(collection);
+			if (extent != null)
+				blackhole.consume(extent.asQueryParameter());
+		}
+	}
+
+}
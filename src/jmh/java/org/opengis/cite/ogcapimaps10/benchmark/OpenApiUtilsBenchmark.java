@@ -0,0 +1,79 @@
+package org.opengis.cite.ogcapimaps10.benchmark;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.opengis.cite.ogcapimaps10.openapi3.OpenApiUtils;
+import org.opengis.cite.ogcapimaps10.openapi3.TestPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.reprezen.kaizen.oasparser.OpenApi3Parser;
+import com.reprezen.kaizen.oasparser.model3.OpenApi3;
+
+/**
+ * Benchmarks the identification of the test points in the OpenAPI definitions used by
+ * the unit tests. The definitions are parsed once, only the traversal of the model is
+ * measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpenApiUtilsBenchmark {
+
+	@Param({ "openapi.json", "openapi_moreComplex.json", "openapi-flurstueck.json" })
+	private String definition;
+
+	private OpenApi3 apiModel;
+
+	private URI iut;
+
+	/**
+	 * Parses the OpenAPI definition.
+	 * @throws Exception if the definition could not be parsed
+	 */
+	@Setup
+	public void parseDefinition() throws Exception {
+		iut = new URI("http://localhost:8080/example");
+		apiModel = new OpenApi3Parser()
+			.parse(OpenApiUtils.class.getResource("/org/opengis/cite/ogcapimaps10/openapi3/" + definition), true);
+	}
+
+	/**
+	 * @return the test points of the conformance declaration
+	 */
+	@Benchmark
+	public List<TestPoint> retrieveTestPointsForConformance() {
+		return OpenApiUtils.retrieveTestPointsForConformance(apiModel, iut);
+	}
+
+	/**
+	 * @return the test points of all collections
+	 */
+	@Benchmark
+	public List<TestPoint> retrieveTestPointsForCollections() {
+		return OpenApiUtils.retrieveTestPointsForCollections(apiModel, iut, -1);
+	}
+
+	/**
+	 * @return the test points of the features of one collection
+	 */
+	@Benchmark
+	public List<TestPoint> retrieveTestPointsForFeature() {
+		return OpenApiUtils.retrieveTestPointsForFeature(apiModel, iut, "flurstueck", "1");
+	}
+
+}
@@ -0,0 +1,90 @@
+package org.opengis.cite.ogcapimaps10.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.util.concurrent.TimeUnit;
+
+import org.opengis.cite.ogcapimaps10.domain.DiscoveredResources;
+import org.opengis.cite.ogcapimaps10.standin.StandInServer;
+import org.opengis.cite.ogcapimaps10.util.HttpTransport;
+import org.opengis.cite.ogcapimaps10.util.ResourceDiscovery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the discovery and map requests through the pooled HTTP transport against
+ * the {@link StandInServer}, without network access. The server is run without emulated
+ * latency, so the overhead of the client is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StandInServerBenchmark {
+
+	@Param({ "png", "jpeg" })
+	private String format;
+
+	private StandInServer server;
+
+	private HttpTransport transport;
+
+	private ResourceDiscovery discovery;
+
+	private String mapUrl;
+
+	/**
+	 * Starts the stand-in server.
+	 * @throws IOException if the server could not be started
+	 */
+	@Setup
+	public void startServer() throws IOException {
+		server = new StandInServer().start();
+		transport = new HttpTransport();
+		discovery = new ResourceDiscovery(transport, null);
+		mapUrl = server.getRootUri() + "collections/buildings/map?width=256&height=256&f=" + format;
+	}
+
+	/**
+	 * Stops the stand-in server.
+	 */
+	@TearDown
+	public void stopServer() {
+		transport.close();
+		server.close();
+	}
+
+	/**
+	 * @return the landing page, conformance declaration and collections
+	 */
+	@Benchmark
+	public DiscoveredResources discover() {
+		return discovery.discover(server.getRootUri());
+	}
+
+	/**
+	 * @return the map, rendered once and then served from the cache of the server
+	 * @throws IOException if the map could not be requested
+	 */
+	@Benchmark
+	public byte[] requestMap() throws IOException {
+		HttpURLConnection connection = transport.openConnection(mapUrl);
+		try (InputStream in = connection.getInputStream()) {
+			return in.readAllBytes();
+		}
+	}
+
+}
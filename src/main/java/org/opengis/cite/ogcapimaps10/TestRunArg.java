@@ -72,7 +72,181 @@ public enum TestRunArg {
 	 * same resource follow the same portrayal rules or represent data with the same
 	 * reference and units of measure. true if passed, false otherwise.
 	 */
-	TIFF_PORTRAYAL_CONSISTENT;
+	TIFF_PORTRAYAL_CONSISTENT,
+
+	/**
+	 * The maximum number of keep-alive connections pooled per host by the shared HTTP
+	 * transport. Default is 8.
+	 */
+	MAX_CONNECTIONS_PER_HOST,
+
+	/**
+	 * The number of conformance classes (test blocks of the suite) run concurrently. A
+	 * value greater than 1 enables the parallel mode. Default is 1 (sequential).
+	 */
+	PARALLEL_TESTS,
+
+	/**
+	 * The maximum number of collections checked concurrently by conformance classes
+	 * iterating over collections. Default is 1 (sequential).
+	 */
+	COLLECTION_CONCURRENCY,
+
+	/**
+	 * The number of message body bytes of the requests and responses of a test kept in
+	 * memory for the failure report, 0 to keep no body text. The rest is written to a
+	 * temporary file, which is kept for the report of a failed test until the suite
+	 * finished. Default is 65536.
+	 */
+	MESSAGE_CAPTURE_BUDGET,
+
+	/**
+	 * How the requests and responses of a test are captured for the failure report.
+	 * Supported values are "lazy" (keep references to the last exchanges and format them
+	 * only if the test fails) and "eager" (reduce each message to the budget when it is
+	 * received). Default is "lazy".
+	 */
+	MESSAGE_CAPTURE_MODE,
+
+	/**
+	 * The number of response body bytes kept by the shared HTTP transport to revalidate
+	 * repeated GET requests with If-None-Match and If-Modified-Since, e.g. 16777216 (16
+	 * MiB). A value of 0 disables the cache. Default is 0.
+	 */
+	RESPONSE_CACHE_SIZE,
+
+	/**
+	 * Whether the optional load test of the map resources is run. Default is false.
+	 */
+	LOAD_TEST_ENABLED,
+
+	/**
+	 * The number of map requests sent by the load test. Default is 200.
+	 */
+	LOAD_TEST_REQUESTS,
+
+	/**
+	 * The number of map requests sent concurrently by the load test. Default is 8.
+	 */
+	LOAD_TEST_CONCURRENCY,
+
+	/**
+	 * The minimum number of map requests per second the load test has to achieve. Default
+	 * is 0 (not checked).
+	 */
+	LOAD_TEST_MIN_THROUGHPUT,
+
+	/**
+	 * The maximum median latency of the map requests of the load test in milliseconds.
+	 * Default is 0 (not checked).
+	 */
+	LOAD_TEST_MAX_P50,
+
+	/**
+	 * The maximum 95th percentile latency of the map requests of the load test in
+	 * milliseconds. Default is 0 (not checked).
+	 */
+	LOAD_TEST_MAX_P95,
+
+	/**
+	 * The maximum 99th percentile latency of the map requests of the load test in
+	 * milliseconds. Default is 0 (not checked).
+	 */
+	LOAD_TEST_MAX_P99,
+
+	/**
+	 * The maximum percentage of failed map requests of the load test. Default is 1.
+	 */
+	LOAD_TEST_MAX_ERROR_RATE,
+
+	/**
+	 * Whether the optional sweep over the tiles of the selected {@link #TILE_MATRIX_SET}
+	 * is run. Default is false.
+	 */
+	TILE_SWEEP_ENABLED,
+
+	/**
+	 * The first zoom level (tile matrix) requested by the tile sweep. Default is 0.
+	 */
+	TILE_SWEEP_MIN_ZOOM,
+
+	/**
+	 * The last zoom level (tile matrix) requested by the tile sweep, at most 24. Default
+	 * is 5.
+	 */
+	TILE_SWEEP_MAX_ZOOM,
+
+	/**
+	 * The maximum number of tiles within the extent of the collection requested per zoom
+	 * level by the tile sweep. Default is 32.
+	 */
+	TILE_SWEEP_TILES_PER_LEVEL,
+
+	/**
+	 * The number of tiles requested concurrently by the tile sweep. Default is 4.
+	 */
+	TILE_SWEEP_CONCURRENCY,
+
+	/**
+	 * Whether the optional checks of the conditional requests and the caching headers of
+	 * the map and tile resources are run. Default is false.
+	 */
+	CACHING_TEST_ENABLED,
+
+	/**
+	 * The connect timeout of the requests to the IUT in milliseconds, 0 for none. Default
+	 * is 10000.
+	 */
+	CONNECT_TIMEOUT,
+
+	/**
+	 * The timeout in milliseconds waiting for data of a response of the IUT, 0 for none.
+	 * Default is 60000.
+	 */
+	READ_TIMEOUT,
+
+	/**
+	 * The number of retries of an idempotent request failing with a connection error or a
+	 * 502, 503 or 504 response. A value of 0 disables retries. Default is 2.
+	 */
+	MAX_RETRIES,
+
+	/**
+	 * The delay before the first retry of a request in milliseconds, doubled for each
+	 * further retry and randomised. Default is 500.
+	 */
+	RETRY_BASE_DELAY,
+
+	/**
+	 * The number of consecutive requests to a host failing without a response (refused
+	 * connections, timeouts) after which further requests to it fail immediately for the
+	 * cool-down. A value of 0 disables the circuit breaker. Default is 0.
+	 */
+	CIRCUIT_BREAKER_THRESHOLD,
+
+	/**
+	 * The time in milliseconds requests to a failing host fail immediately before it is
+	 * tried again. Default is 30000.
+	 */
+	CIRCUIT_BREAKER_COOL_DOWN,
+
+	/**
+	 * The maximum sustained rate of requests per second sent to a host, e.g. 0.5 for one
+	 * request every 2 s. A value of 0 disables the limit. Default is 0.
+	 */
+	MAX_REQUESTS_PER_SECOND,
+
+	/**
+	 * The number of requests which may be sent to a host at once before
+	 * {@link #MAX_REQUESTS_PER_SECOND} applies. Default is that rate rounded up.
+	 */
+	REQUEST_BURST,
+
+	/**
+	 * The maximum number of requests in flight to a host, across all conformance classes
+	 * run in parallel. A value of 0 disables the limit. Default is 0.
+	 */
+	MAX_CONCURRENT_REQUESTS;
 
 	/** {@inheritDoc} */
 	@Override
@@ -2,23 +2,33 @@ package org.opengis.cite.ogcapimaps10.conformance;
 
 import static io.restassured.RestAssured.given;
 
-import java.io.ByteArrayOutputStream;
-import java.io.PrintStream;
 import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
 import java.net.URI;
+import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+import org.opengis.cite.ogcapimaps10.domain.DiscoveredResources;
+import org.opengis.cite.ogcapimaps10.domain.OpenApiIndex;
 import org.opengis.cite.ogcapimaps10.util.ClientUtils;
+import org.opengis.cite.ogcapimaps10.util.HttpTransport;
+import org.opengis.cite.ogcapimaps10.util.MessageCapture;
+import org.opengis.cite.ogcapimaps10.util.PhaseTimes;
 import org.opengis.cite.ogcapimaps10.util.RequestLimitFilter;
+import org.opengis.cite.ogcapimaps10.util.ResourceDiscovery;
+import org.opengis.cite.ogcapimaps10.util.TimingReport;
+import org.testng.ISuite;
 import org.testng.ITestContext;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
 
 import io.restassured.config.JsonConfig;
 import io.restassured.config.RestAssuredConfig;
-import io.restassured.filter.log.RequestLoggingFilter;
-import io.restassured.filter.log.ResponseLoggingFilter;
 import io.restassured.path.json.config.JsonPathConfig.NumberReturnType;
 import io.restassured.specification.RequestSpecification;
 
@@ -28,22 +38,28 @@ import io.restassured.specification.RequestSpecification;
  */
 public class CommonFixture {
 
-	private ByteArrayOutputStream requestOutputStream = new ByteArrayOutputStream();
-
-	private ByteArrayOutputStream responseOutputStream = new ByteArrayOutputStream();
-
-	protected RequestLoggingFilter requestLoggingFilter;
-
-	protected ResponseLoggingFilter responseLoggingFilter;
+	/**
+	 * Request and response messages captured by the current thread. Each thread gets its
+	 * own capture, so fixtures stay consistent when conformance classes run in parallel.
+	 */
+	private final ThreadLocal<MessageCapture> messageCapture = new ThreadLocal<>();
 
 	protected URI rootUri;
 
+	protected HttpTransport transport;
+
 	protected String basicAuthHeader = null;
 
+	private ISuite suite;
+
 	private String basicAuthUser = null;
 
 	private String basicAuthPassword = null;
 
+	private int messageCaptureBudget = MessageCapture.DEFAULT_BUDGET;
+
+	private MessageCapture.Mode messageCaptureMode = MessageCapture.Mode.LAZY;
+
 	/**
 	 * Initializes the common test fixture with a client component for interacting with
 	 * HTTP endpoints.
@@ -52,8 +68,18 @@ public class CommonFixture {
 	 */
 	@BeforeClass
 	public void initCommonFixture(ITestContext testContext) {
+		suite = testContext.getSuite();
+		Object captureBudget = suite.getAttribute(SuiteAttribute.MESSAGE_CAPTURE_BUDGET.getName());
+		if (captureBudget instanceof Integer)
+			messageCaptureBudget = (Integer) captureBudget;
+		Object captureMode = suite.getAttribute(SuiteAttribute.MESSAGE_CAPTURE_MODE.getName());
+		if (captureMode instanceof MessageCapture.Mode)
+			messageCaptureMode = (MessageCapture.Mode) captureMode;
 		initLogging();
 		rootUri = (URI) testContext.getSuite().getAttribute(SuiteAttribute.IUT.getName());
+		transport = (HttpTransport) testContext.getSuite().getAttribute(SuiteAttribute.HTTP_TRANSPORT.getName());
+		if (transport == null)
+			transport = HttpTransport.shared();
 		String basicAuth = testContext.getSuite().getParameter("basicAuth");
 		if (basicAuth == null)
 			basicAuth = System.getProperty("basicAuth");
@@ -83,6 +109,86 @@ public class CommonFixture {
 			conn.setRequestProperty("Authorization", basicAuthHeader);
 	}
 
+	/**
+	 * Opens a connection to the given URL using the pooled transport of the suite.
+	 * @param url the URL to request
+	 * @return a new connection, never <code>null</code>
+	 * @throws MalformedURLException if the URL is invalid
+	 */
+	protected HttpURLConnection openConnection(String url) throws MalformedURLException {
+		return httpTransport().openConnection(url);
+	}
+
+	/**
+	 * Opens a connection to the given URL using the pooled transport of the suite.
+	 * @param url the URL to request
+	 * @return a new connection, never <code>null</code>
+	 */
+	protected HttpURLConnection openConnection(URL url) {
+		return httpTransport().openConnection(url);
+	}
+
+	/**
+	 * Returns the landing page, conformance classes and collections of the IUT. They are
+	 * retrieved by the first conformance class asking for them and shared with all others
+	 * via {@link SuiteAttribute#DISCOVERED_RESOURCES}.
+	 * @return the discovered resources, never <code>null</code>
+	 */
+	protected DiscoveredResources getDiscoveredResources() {
+		if (suite == null)
+			return new ResourceDiscovery(httpTransport(), basicAuthHeader).discover(rootUri);
+		synchronized (suite) {
+			Object discovered = suite.getAttribute(SuiteAttribute.DISCOVERED_RESOURCES.getName());
+			if (discovered instanceof DiscoveredResources
+					&& rootUri.equals(((DiscoveredResources) discovered).getRootUri()))
+				return (DiscoveredResources) discovered;
+			DiscoveredResources resources = discover("discoverResources",
+					() -> new ResourceDiscovery(httpTransport(), basicAuthHeader).discover(rootUri));
+			suite.setAttribute(SuiteAttribute.DISCOVERED_RESOURCES.getName(), resources);
+			return resources;
+		}
+	}
+
+	/**
+	 * Returns the index of the API definition of the IUT. It is retrieved and parsed by
+	 * the first conformance class asking for it and shared with all others via
+	 * {@link SuiteAttribute#OPENAPI_INDEX}.
+	 * @return the index of the API definition, never <code>null</code>
+	 */
+	protected OpenApiIndex getOpenApiIndex() {
+		if (suite == null)
+			return new ResourceDiscovery(httpTransport(), basicAuthHeader)
+				.discoverApiDefinition(getDiscoveredResources());
+		DiscoveredResources resources = getDiscoveredResources();
+		synchronized (suite) {
+			Object index = suite.getAttribute(SuiteAttribute.OPENAPI_INDEX.getName());
+			if (index instanceof OpenApiIndex && ((OpenApiIndex) index).getRootUri().equals(rootUri))
+				return (OpenApiIndex) index;
+			OpenApiIndex openApiIndex = discover("discoverApiDefinition",
+					() -> new ResourceDiscovery(httpTransport(), basicAuthHeader).discoverApiDefinition(resources));
+			suite.setAttribute(SuiteAttribute.OPENAPI_INDEX.getName(), openApiIndex);
+			return openApiIndex;
+		}
+	}
+
+	/**
+	 * Returns the index of the API definition of the IUT, skipping the test if the
+	 * definition could not be retrieved or has no paths.
+	 * @return the index of the API definition with paths, never <code>null</code>
+	 * @throws SkipException if the API definition is not available
+	 */
+	protected OpenApiIndex requireOpenApiIndex() {
+		OpenApiIndex index = getOpenApiIndex();
+		if (index.getStatus() != 200)
+			throw new SkipException("Failed to retrieve API definition from " + index.getDefinitionUrl() + " (HTTP "
+					+ index.getStatus() + ")");
+		if (!index.isParsed())
+			throw new SkipException("Failed to parse API definition from " + index.getDefinitionUrl());
+		if (index.getPaths() == null)
+			throw new SkipException("API definition has no 'paths' object");
+		return index;
+	}
+
 	/**
 	 * <p>
 	 * clearMessages.
@@ -93,6 +199,17 @@ public class CommonFixture {
 		initLogging();
 	}
 
+	/**
+	 * Releases the temporary file of the messages captured by the last test method.
+	 */
+	@AfterClass(alwaysRun = true)
+	public void discardMessages() {
+		MessageCapture capture = messageCapture();
+		capture.discard();
+		if (MessageCapture.current() == capture)
+			MessageCapture.bind(null);
+	}
+
 	/**
 	 * <p>
 	 * getRequest.
@@ -100,7 +217,7 @@ public class CommonFixture {
 	 * @return a {@link java.lang.String} object
 	 */
 	public String getRequest() {
-		return requestOutputStream.toString();
+		return messageCapture().getRequests();
 	}
 
 	/**
@@ -110,7 +227,54 @@ public class CommonFixture {
 	 * @return a {@link java.lang.String} object
 	 */
 	public String getResponse() {
-		return responseOutputStream.toString();
+		return messageCapture().getResponses();
+	}
+
+	/**
+	 * @return the messages captured by the current thread since the last test method
+	 * started, never <code>null</code>
+	 */
+	public MessageCapture getMessageCapture() {
+		return messageCapture();
+	}
+
+	/**
+	 * Limits the collections to test according to the
+	 * {@link org.opengis.cite.ogcapimaps10.TestRunArg#NOOFCOLLECTIONS noofcollections}
+	 * argument.
+	 * @param noOfCollections the value of the argument, 0 or less for all collections
+	 * @param available the number of collections offered by the server
+	 * @return the number of collections to test
+	 */
+	protected static int collectionLimit(int noOfCollections, int available) {
+		return noOfCollections <= 0 ? available : Math.min(noOfCollections, available);
+	}
+
+	/**
+	 * Runs a task with the message capture of another thread, e.g. a task of the test
+	 * method run concurrently by
+	 * {@link org.opengis.cite.ogcapimaps10.util.ConcurrentTasks}, so its requests and
+	 * responses are part of the failure report of the test.
+	 * @param <R> the type of the result
+	 * @param capture the capture of the test method, never <code>null</code>
+	 * @param task the task, never <code>null</code>
+	 * @return the result of the task
+	 */
+	protected <R> R withMessageCapture(MessageCapture capture, Supplier<R> task) {
+		MessageCapture previous = messageCapture.get();
+		MessageCapture previousBound = MessageCapture.current();
+		messageCapture.set(capture);
+		MessageCapture.bind(capture);
+		try {
+			return task.get();
+		}
+		finally {
+			if (previous != null)
+				messageCapture.set(previous);
+			else
+				messageCapture.remove();
+			MessageCapture.bind(previousBound);
+		}
 	}
 
 	/**
@@ -121,10 +285,13 @@ public class CommonFixture {
 	 */
 	protected RequestSpecification init() {
 		JsonConfig jsonConfig = JsonConfig.jsonConfig().numberReturnType(NumberReturnType.DOUBLE);
-		RestAssuredConfig config = RestAssuredConfig.newConfig().jsonConfig(jsonConfig);
-		return given().filters(new RequestLimitFilter(), requestLoggingFilter, responseLoggingFilter)
-			.log()
-			.all()
+		RestAssuredConfig config = RestAssuredConfig.newConfig()
+			.jsonConfig(jsonConfig)
+			.httpClient(httpTransport().restAssuredHttpClientConfig());
+		// the capture records the exchanges as sent, a revalidated response as 304
+		return given()
+			.filters(new RequestLimitFilter(), httpTransport().restAssuredCacheFilter(), messageCapture(),
+					httpTransport().restAssuredMetricsFilter())
 			.with()
 			.config(config);
 	}
@@ -151,13 +318,57 @@ public class CommonFixture {
 	 * ClientUtils.buildGetRequest( endpoint, qryParams, mediaTypes ); }
 	 */
 
+	/**
+	 * Runs a discovery step with its own phase times and adds it to the timing report.
+	 * The time is excluded from the method running the step, so it is not counted twice.
+	 */
+	private <T> T discover(String step, Supplier<T> discovery) {
+		PhaseTimes outer = PhaseTimes.current();
+		PhaseTimes times = PhaseTimes.start();
+		long start = System.nanoTime();
+		T result;
+		try {
+			result = discovery.get();
+		}
+		finally {
+			PhaseTimes.bind(outer);
+		}
+		long nanos = System.nanoTime() - start;
+		if (outer != null)
+			outer.exclude(nanos);
+		Object report = suite.getAttribute(SuiteAttribute.TIMING_REPORT.getName());
+		if (report instanceof TimingReport)
+			((TimingReport) report).add(TimingReport.Kind.DISCOVERY, ResourceDiscovery.class.getName(), step, "SUCCESS",
+					TimeUnit.NANOSECONDS.toMillis(nanos), times);
+		return result;
+	}
+
+	private HttpTransport httpTransport() {
+		return transport != null ? transport : HttpTransport.shared();
+	}
+
 	private void initLogging() {
-		this.requestOutputStream = new ByteArrayOutputStream();
-		this.responseOutputStream = new ByteArrayOutputStream();
-		PrintStream requestPrintStream = new PrintStream(requestOutputStream, true);
-		PrintStream responsePrintStream = new PrintStream(responseOutputStream, true);
-		requestLoggingFilter = new RequestLoggingFilter(requestPrintStream);
-		responseLoggingFilter = new ResponseLoggingFilter(responsePrintStream);
+		MessageCapture previous = messageCapture.get();
+		if (previous != null)
+			previous.discard();
+		MessageCapture capture = newMessageCapture();
+		messageCapture.set(capture);
+		// plain requests of the test record their retries in it
+		MessageCapture.bind(capture);
+	}
+
+	private MessageCapture messageCapture() {
+		MessageCapture capture = messageCapture.get();
+		if (capture == null) {
+			capture = newMessageCapture();
+			messageCapture.set(capture);
+			MessageCapture.bind(capture);
+		}
+		return capture;
+	}
+
+	private MessageCapture newMessageCapture() {
+		return new MessageCapture(messageCaptureBudget, messageCaptureMode);
 	}
 
 }
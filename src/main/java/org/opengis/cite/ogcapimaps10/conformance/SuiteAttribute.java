@@ -5,9 +5,17 @@ import java.net.URI;
 import java.util.List;
 import java.util.Map;
 
+import org.opengis.cite.ogcapimaps10.domain.DiscoveredResources;
+import org.opengis.cite.ogcapimaps10.domain.OpenApiIndex;
 import org.opengis.cite.ogcapimaps10.domain.PngInteractiveTestResult;
 import org.opengis.cite.ogcapimaps10.domain.JpegInteractiveTestResult;
+import org.opengis.cite.ogcapimaps10.domain.LoadTestSettings;
 import org.opengis.cite.ogcapimaps10.domain.TiffInteractiveTestResult;
+import org.opengis.cite.ogcapimaps10.domain.TileSweepSettings;
+import org.opengis.cite.ogcapimaps10.util.HttpTransport;
+import org.opengis.cite.ogcapimaps10.util.MessageCapture;
+import org.opengis.cite.ogcapimaps10.util.TileSweep;
+import org.opengis.cite.ogcapimaps10.util.TimingReport;
 
 import com.reprezen.kaizen.oasparser.model3.OpenApi3;
 
@@ -25,6 +33,11 @@ public enum SuiteAttribute {
 	 */
 	CLIENT("httpClient", Client.class),
 
+	/**
+	 * The pooled HTTP transport shared by all conformance classes.
+	 */
+	HTTP_TRANSPORT("httpTransport", HttpTransport.class),
+
 	/**
 	 * The root URL.
 	 */
@@ -40,6 +53,46 @@ public enum SuiteAttribute {
 	 */
 	NO_OF_COLLECTIONS("noOfCollections", Integer.class),
 
+	/**
+	 * The maximum number of collections checked concurrently.
+	 */
+	COLLECTION_CONCURRENCY("collectionConcurrency", Integer.class),
+
+	/**
+	 * The number of message body bytes per test kept in memory for the failure report.
+	 */
+	MESSAGE_CAPTURE_BUDGET("messageCaptureBudget", Integer.class),
+
+	/**
+	 * How the messages of a test are captured for the failure report.
+	 */
+	MESSAGE_CAPTURE_MODE("messageCaptureMode", MessageCapture.Mode.class),
+
+	/**
+	 * The timings of discovery, fixture and test methods of the test run.
+	 */
+	TIMING_REPORT("timingReport", TimingReport.class),
+
+	/**
+	 * The settings of the optional map load test.
+	 */
+	LOAD_TEST_SETTINGS("loadTestSettings", LoadTestSettings.class),
+
+	/**
+	 * The settings of the optional tile sweep.
+	 */
+	TILE_SWEEP_SETTINGS("tileSweepSettings", TileSweepSettings.class),
+
+	/**
+	 * The results of the tile sweep, if it was run.
+	 */
+	TILE_SWEEP("tileSweep", TileSweep.class),
+
+	/**
+	 * Whether the optional HTTP caching checks are run.
+	 */
+	CACHING_TEST_ENABLED("cachingTestEnabled", Boolean.class),
+
 	/**
 	 * Parsed OpenApi3 document resource /api; Added during execution.
 	 */
@@ -50,6 +103,18 @@ public enum SuiteAttribute {
 	 */
 	REQUIREMENTCLASSES("requirementclasses", List.class),
 
+	/**
+	 * Landing page, conformance classes and collections retrieved once per test run;
+	 * Added during execution.
+	 */
+	DISCOVERED_RESOURCES("discoveredResources", DiscoveredResources.class),
+
+	/**
+	 * Paths, operations and parameters of the API definition retrieved once per test run;
+	 * Added during execution.
+	 */
+	OPENAPI_INDEX("openApiIndex", OpenApiIndex.class),
+
 	/**
 	 * Response of resource /collections; Added during execution.
 	 */
@@ -4,10 +4,10 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.opengis.cite.ogcapimaps10.conformance.CommonFixture;
+import org.opengis.cite.ogcapimaps10.domain.OpenApiIndex;
 import org.testng.ITestContext;
 import org.testng.SkipException;
 import org.testng.annotations.BeforeClass;
@@ -68,12 +68,16 @@ public class ApiOperationIdentifiers extends CommonFixture {
 					"Server does not declare conformance class " + CONF_API_OPERATIONS + ". Skipping A.62 tests.");
 		}
 
-		String apiDefinitionUrl = findServiceDescUrl();
-		if (apiDefinitionUrl == null) {
+		if (getDiscoveredResources().findLandingPageLinkHref(REL_SERVICE_DESC) == null) {
 			throw new SkipException("No API definition URL found (rel='service-desc') in landing page.");
 		}
 
-		parseApiDefinition(apiDefinitionUrl);
+		OpenApiIndex apiDefinition = requireOpenApiIndex();
+		this.apiOperations = new ArrayList<>();
+		for (String path : apiDefinition.getPaths()) {
+			OpenApiIndex.Operation getOperation = apiDefinition.getOperation(path, "get");
+			apiOperations.add(new PathOperation(path, getOperation != null ? getOperation.getOperationId() : null));
+		}
 	}
 
 	/**
@@ -120,44 +124,6 @@ public class ApiOperationIdentifiers extends CommonFixture {
 		}
 	}
 
-	@SuppressWarnings("unchecked")
-	private void parseApiDefinition(String apiDefinitionUrl) {
-		this.apiOperations = new ArrayList<>();
-
-		try {
-			Response response = init().accept("application/json").when().get(apiDefinitionUrl);
-			if (response.getStatusCode() != 200) {
-				throw new SkipException("Failed to retrieve API definition from " + apiDefinitionUrl + " (HTTP "
-						+ response.getStatusCode() + ")");
-			}
-
-			Map<String, Object> paths = response.jsonPath().getMap("paths");
-			if (paths == null) {
-				throw new SkipException("API definition has no 'paths' object");
-			}
-
-			for (Map.Entry<String, Object> pathEntry : paths.entrySet()) {
-				String path = pathEntry.getKey();
-				String operationId = null;
-				if (pathEntry.getValue() instanceof Map) {
-					Map<String, Object> pathItem = (Map<String, Object>) pathEntry.getValue();
-					Object getOperationObject = pathItem.get("get");
-					if (getOperationObject instanceof Map) {
-						Map<String, Object> getOperation = (Map<String, Object>) getOperationObject;
-						operationId = (String) getOperation.get("operationId");
-					}
-				}
-				apiOperations.add(new PathOperation(path, operationId));
-			}
-		}
-		catch (SkipException e) {
-			throw e;
-		}
-		catch (Exception e) {
-			throw new SkipException("Failed to parse API definition: " + e.getMessage());
-		}
-	}
-
 	private Set<String> fetchConformanceClasses() {
 		Set<String> classes = new HashSet<>();
 		String baseUrl = getBaseUrl();
@@ -176,29 +142,6 @@ public class ApiOperationIdentifiers extends CommonFixture {
 		return classes;
 	}
 
-	private String findServiceDescUrl() {
-		String baseUrl = getBaseUrl();
-		try {
-			Response response = init().accept("application/json").when().get(baseUrl);
-			if (response.getStatusCode() == 200) {
-				List<Map<String, Object>> links = response.jsonPath().getList("links");
-				if (links != null) {
-					for (Map<String, Object> link : links) {
-						String rel = (String) link.get("rel");
-						if (REL_SERVICE_DESC.equals(rel)) {
-							String href = (String) link.get("href");
-							return resolveUrl(baseUrl, href);
-						}
-					}
-				}
-			}
-		}
-		catch (Exception e) {
-			// Failed to fetch landing page
-		}
-		return null;
-	}
-
 	static String expectedSuffixForPath(String path, String basePath) {
 		String normalizedPath = normalizePath(path, basePath);
 		if (normalizedPath == null) {
@@ -304,31 +247,6 @@ public class ApiOperationIdentifiers extends CommonFixture {
 		return baseUrl;
 	}
 
-	private String resolveUrl(String baseUrl, String url) {
-		if (url == null) {
-			return null;
-		}
-		if (url.startsWith("http://") || url.startsWith("https://")) {
-			return url;
-		}
-		try {
-			URI base = URI.create(baseUrl);
-			return base.resolve(url).toString();
-		}
-		catch (Exception e) {
-			if (url.startsWith("/")) {
-				try {
-					URI base = URI.create(baseUrl);
-					return base.getScheme() + "://" + base.getAuthority() + url;
-				}
-				catch (Exception ex) {
-					return url;
-				}
-			}
-			return url;
-		}
-	}
-
 	private static boolean containsIgnoringScheme(Set<String> set, String value) {
 		String normalized = normalizeScheme(value);
 		for (String item : set) {
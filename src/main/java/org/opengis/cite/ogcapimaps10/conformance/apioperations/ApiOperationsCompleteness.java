@@ -8,13 +8,13 @@ import java.util.Map;
 import java.util.Set;
 
 import org.opengis.cite.ogcapimaps10.conformance.CommonFixture;
+import org.opengis.cite.ogcapimaps10.domain.DiscoveredResources;
+import org.opengis.cite.ogcapimaps10.domain.OpenApiIndex;
 import org.testng.ITestContext;
 import org.testng.SkipException;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
-import io.restassured.response.Response;
-
 /**
  * A.22.1. Abstract Test for Requirement API Operations completeness
  *
@@ -59,11 +59,8 @@ public class ApiOperationsCompleteness extends CommonFixture {
 	/** Map tileset link paths discovered from landing page and collections. */
 	private Set<String> actualTilesetPaths;
 
-	/** Paths defined in the OpenAPI definition. */
-	private Set<String> apiDefinitionPaths;
-
-	/** Parameters defined per path in the OpenAPI definition. */
-	private Map<String, Set<String>> apiDefinitionParameters;
+	/** Paths, operations and parameters of the OpenAPI definition. */
+	private OpenApiIndex apiDefinition;
 
 	/** Conformance classes declared by the server. */
 	private Set<String> conformanceClasses;
@@ -93,12 +90,11 @@ public class ApiOperationsCompleteness extends CommonFixture {
 					"Server does not declare conformance class " + CONF_API_OPERATIONS + ". Skipping A.61 tests.");
 		}
 
-		// Step 2: Fetch and parse OpenAPI definition (left side)
-		String apiDefinitionUrl = findServiceDescUrl();
-		if (apiDefinitionUrl == null) {
+		// Step 2: Get the OpenAPI definition (left side)
+		if (getDiscoveredResources().findLandingPageLinkHref(REL_SERVICE_DESC) == null) {
 			throw new SkipException("No API definition URL found (rel='service-desc') in landing page.");
 		}
-		parseApiDefinition(apiDefinitionUrl);
+		this.apiDefinition = requireOpenApiIndex();
 
 		// Step 3: Discover actual map resource links (right side)
 		discoverActualResources();
@@ -138,14 +134,14 @@ public class ApiOperationsCompleteness extends CommonFixture {
 		// provided by the API instance.
 		// ============================================================
 		for (String actualPath : actualMapPaths) {
-			if (!hasMatchingApiPath(actualPath, apiDefinitionPaths)) {
+			if (!hasMatchingApiPath(actualPath)) {
 				errors.add("[Part A] Map resource link '" + actualPath
 						+ "' has no matching path pattern in the API definition");
 			}
 		}
 
 		for (String actualPath : actualTilesetPaths) {
-			if (!hasMatchingApiPath(actualPath, apiDefinitionPaths)) {
+			if (!hasMatchingApiPath(actualPath)) {
 				errors.add("[Part A] Tileset resource link '" + actualPath
 						+ "' has no matching path pattern in the API definition");
 			}
@@ -158,7 +154,7 @@ public class ApiOperationsCompleteness extends CommonFixture {
 		// resources.
 		// ============================================================
 		Set<String> apiMapPaths = new HashSet<>();
-		for (String path : apiDefinitionPaths) {
+		for (String path : apiDefinition.getPaths()) {
 			if (path.contains("/map")) {
 				apiMapPaths.add(path);
 			}
@@ -177,7 +173,7 @@ public class ApiOperationsCompleteness extends CommonFixture {
 		}
 
 		for (String actualPath : actualMapPaths) {
-			if (!hasMatchingApiPath(actualPath, apiDefinitionPaths)) {
+			if (!hasMatchingApiPath(actualPath)) {
 				errors.add("[Part B] Resource link '" + actualPath
 						+ "' is not consistent with any path in the API definition");
 			}
@@ -207,8 +203,7 @@ public class ApiOperationsCompleteness extends CommonFixture {
 			}
 		}
 
-		for (Map.Entry<String, Set<String>> entry : apiDefinitionParameters.entrySet()) {
-			String path = entry.getKey();
+		for (String path : apiDefinition.getPaths()) {
 			// Only check direct map paths (e.g., /map, /collections/{id}/map)
 			// Skip paths that don't contain /map
 			if (!path.contains("/map")) {
@@ -219,7 +214,8 @@ public class ApiOperationsCompleteness extends CommonFixture {
 			if (path.contains("/tiles")) {
 				continue;
 			}
-			Set<String> definedParams = entry.getValue();
+			OpenApiIndex.Operation getOperation = apiDefinition.getOperation(path, "get");
+			Set<String> definedParams = getOperation != null ? getOperation.getParameterNames() : new HashSet<>();
 
 			// Determine if this is a collection-level path
 			boolean isCollectionLevel = path.contains("/collections/");
@@ -257,156 +253,31 @@ public class ApiOperationsCompleteness extends CommonFixture {
 	 * @return A set of conformance class URIs.
 	 */
 	private Set<String> fetchConformanceClasses() {
-		Set<String> classes = new HashSet<>();
-		String baseUrl = getBaseUrl();
-		try {
-			Response response = init().accept("application/json").when().get(baseUrl + "/conformance");
-			if (response.getStatusCode() == 200) {
-				List<String> conformsTo = response.jsonPath().getList("conformsTo");
-				if (conformsTo != null) {
-					classes.addAll(conformsTo);
-				}
-			}
-		}
-		catch (Exception e) {
-			// Failed to fetch conformance
-		}
-		return classes;
-	}
-
-	/**
-	 * Finds the API definition URL (rel="service-desc") from the landing page.
-	 * @return The API definition URL, or null if not found.
-	 */
-	private String findServiceDescUrl() {
-		String baseUrl = getBaseUrl();
-		try {
-			Response response = init().accept("application/json").when().get(baseUrl);
-			if (response.getStatusCode() == 200) {
-				List<Map<String, Object>> links = response.jsonPath().getList("links");
-				if (links != null) {
-					for (Map<String, Object> link : links) {
-						String rel = (String) link.get("rel");
-						if (REL_SERVICE_DESC.equals(rel)) {
-							String href = (String) link.get("href");
-							return resolveUrl(baseUrl, href);
-						}
-					}
-				}
-			}
-		}
-		catch (Exception e) {
-			// Failed to fetch landing page
-		}
-		return null;
-	}
-
-	/**
-	 * Parses the OpenAPI definition to extract paths and their parameters.
-	 * @param apiDefinitionUrl The URL of the API definition.
-	 */
-	@SuppressWarnings("unchecked")
-	private void parseApiDefinition(String apiDefinitionUrl) {
-		this.apiDefinitionPaths = new HashSet<>();
-		this.apiDefinitionParameters = new HashMap<>();
-
-		try {
-			Response response = init().accept("application/json").when().get(apiDefinitionUrl);
-			if (response.getStatusCode() != 200) {
-				throw new SkipException("Failed to retrieve API definition from " + apiDefinitionUrl + " (HTTP "
-						+ response.getStatusCode() + ")");
-			}
-
-			Map<String, Object> paths = response.jsonPath().getMap("paths");
-			if (paths == null) {
-				throw new SkipException("API definition has no 'paths' object");
-			}
-
-			// Pre-load components/parameters for resolving $ref
-			Map<String, Object> componentParameters = response.jsonPath().getMap("components.parameters");
-
-			for (Map.Entry<String, Object> pathEntry : paths.entrySet()) {
-				String path = pathEntry.getKey();
-				apiDefinitionPaths.add(path);
-
-				// Extract parameters for GET operation
-				Set<String> params = new HashSet<>();
-				try {
-					Map<String, Object> pathItem = (Map<String, Object>) pathEntry.getValue();
-					Map<String, Object> getOp = (Map<String, Object>) pathItem.get("get");
-					if (getOp != null) {
-						List<Map<String, Object>> parameters = (List<Map<String, Object>>) getOp.get("parameters");
-						if (parameters != null) {
-							for (Map<String, Object> param : parameters) {
-								String name = (String) param.get("name");
-								if (name != null) {
-									params.add(name);
-								}
-								// Handle $ref parameters — resolve to actual component
-								// to get the real parameter name
-								String ref = (String) param.get("$ref");
-								if (ref != null) {
-									String resolvedName = resolveRefParamName(ref, componentParameters);
-									if (resolvedName != null) {
-										params.add(resolvedName);
-									}
-								}
-							}
-						}
-					}
-				}
-				catch (Exception e) {
-					// Failed to parse parameters for this path
-				}
-				apiDefinitionParameters.put(path, params);
-			}
-		}
-		catch (SkipException e) {
-			throw e;
-		}
-		catch (Exception e) {
-			throw new SkipException("Failed to parse API definition: " + e.getMessage());
-		}
+		Set<String> conformsTo = getDiscoveredResources().getConformsTo();
+		return conformsTo != null ? conformsTo : new HashSet<>();
 	}
 
 	/**
 	 * Discovers actual map and tileset resource links from the landing page and
 	 * collections.
 	 */
-	@SuppressWarnings("unchecked")
 	private void discoverActualResources() {
 		this.actualMapPaths = new HashSet<>();
 		this.actualTilesetPaths = new HashSet<>();
 		String baseUrl = getBaseUrl();
+		DiscoveredResources discovered = getDiscoveredResources();
 
 		// 1. Check landing page links
-		try {
-			Response response = init().accept("application/json").when().get(baseUrl);
-			if (response.getStatusCode() == 200) {
-				List<Map<String, Object>> links = response.jsonPath().getList("links");
-				collectResourceLinks(links, baseUrl);
-			}
-		}
-		catch (Exception e) {
-			// Failed to check landing page
-		}
+		collectResourceLinks(discovered.findLandingPageLinks(REL_MAP), baseUrl);
+		collectResourceLinks(discovered.findLandingPageLinks(REL_TILESETS_MAP), baseUrl);
 
 		// 2. Check collections
-		try {
-			Response response = init().accept("application/json").when().get(baseUrl + "/collections");
-			if (response.getStatusCode() == 200) {
-				List<Map<String, Object>> collections = response.jsonPath().getList("collections");
-				if (collections != null) {
-					for (Map<String, Object> collection : collections) {
-						List<Map<String, Object>> links = (List<Map<String, Object>>) collection.get("links");
-						collectResourceLinks(links, baseUrl);
-					}
-				}
+		if (discovered.getCollections() != null) {
+			for (Map<String, Object> collection : discovered.getCollections()) {
+				collectResourceLinks(discovered.findLinks(collection, REL_MAP), baseUrl);
+				collectResourceLinks(discovered.findLinks(collection, REL_TILESETS_MAP), baseUrl);
 			}
 		}
-		catch (Exception e) {
-			// Failed to check collections
-		}
 	}
 
 	// ========================================================================
@@ -445,25 +316,14 @@ public class ApiOperationsCompleteness extends CommonFixture {
 	}
 
 	/**
-	 * Checks if an actual resource path matches any API definition path pattern. Converts
-	 * template paths (e.g., /collections/{collectionId}/map) to regex patterns and
-	 * matches against the actual path.
+	 * Checks if an actual resource path matches any API definition path pattern, e.g.
+	 * /collections/{collectionId}/map.
 	 * @param actualPath The actual resource path.
-	 * @param apiPaths The set of API definition paths (may contain templates).
 	 * @return true if a matching path pattern exists.
 	 */
-	private boolean hasMatchingApiPath(String actualPath, Set<String> apiPaths) {
+	private boolean hasMatchingApiPath(String actualPath) {
 		// Strip query parameters, format suffixes and base path for comparison
-		String cleanPath = stripBasePath(cleanPath(actualPath));
-
-		for (String apiPath : apiPaths) {
-			// Convert template path to regex: {param} -> [^/]+
-			String pattern = apiPath.replaceAll("\\{[^}]+\\}", "[^/]+");
-			if (cleanPath.matches(pattern)) {
-				return true;
-			}
-		}
-		return false;
+		return apiDefinition.findPath(stripBasePath(cleanPath(actualPath))) != null;
 	}
 
 	/**
@@ -496,37 +356,6 @@ public class ApiOperationsCompleteness extends CommonFixture {
 		return path;
 	}
 
-	/**
-	 * Resolves a $ref parameter to its actual "name" field by looking up the component
-	 * definition. For example, $ref "#/components/parameters/collections-maps" might
-	 * resolve to a component whose "name" field is "collections".
-	 * @param ref The $ref string (e.g., "#/components/parameters/collections-maps").
-	 * @param componentParameters The pre-loaded components/parameters map from the
-	 * OpenAPI definition.
-	 * @return The actual parameter name, or the ref key as fallback.
-	 */
-	@SuppressWarnings("unchecked")
-	private String resolveRefParamName(String ref, Map<String, Object> componentParameters) {
-		if (ref == null || !ref.contains("/")) {
-			return null;
-		}
-		String refKey = ref.substring(ref.lastIndexOf('/') + 1);
-
-		// Try to resolve from components/parameters
-		if (componentParameters != null && componentParameters.containsKey(refKey)) {
-			Object component = componentParameters.get(refKey);
-			if (component instanceof Map) {
-				String name = (String) ((Map<String, Object>) component).get("name");
-				if (name != null) {
-					return name;
-				}
-			}
-		}
-
-		// Fallback to ref key if component not found
-		return refKey;
-	}
-
 	/**
 	 * Extracts the path component from a URL.
 	 * @param url The URL string.
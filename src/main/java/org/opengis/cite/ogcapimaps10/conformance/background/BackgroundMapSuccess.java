@@ -3,11 +3,15 @@ package org.opengis.cite.ogcapimaps10.conformance.background;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.opengis.cite.ogcapimaps10.conformance.CommonFixture;
+import org.opengis.cite.ogcapimaps10.domain.DiscoveredResources;
+import org.opengis.cite.ogcapimaps10.domain.ImageInfo;
+import org.opengis.cite.ogcapimaps10.util.ImageProbe;
+import org.opengis.cite.ogcapimaps10.util.RasterAnalysis;
 import org.testng.Assert;
 import org.testng.SkipException;
 import org.testng.annotations.Test;
 
-import javax.imageio.ImageIO;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
@@ -82,85 +86,28 @@ public class BackgroundMapSuccess extends CommonFixture {
 	}
 
 	private void requireConformance(String... requiredClassSuffixes) throws Exception {
-		ObjectMapper objectMapper = new ObjectMapper();
-		String conformanceUrl = rootUri.toString() + "/conformance";
-		HttpURLConnection connection = (HttpURLConnection) new URL(conformanceUrl).openConnection();
-		connection.setInstanceFollowRedirects(true);
-		connection.setRequestMethod("GET");
-		connection.setRequestProperty("Accept", "application/json");
-
-		if (connection.getResponseCode() != 200) {
-			throw new SkipException("Failed to retrieve conformance: HTTP " + connection.getResponseCode());
+		DiscoveredResources discovered = getDiscoveredResources();
+		if (discovered.getConformanceStatus() != 200) {
+			throw new SkipException("Failed to retrieve conformance: HTTP " + discovered.getConformanceStatus());
 		}
 
-		Map<String, Object> data = objectMapper.readValue(connection.getInputStream(),
-				new TypeReference<Map<String, Object>>() {
-				});
-
-		List<String> conformsTo = objectMapper.convertValue(data.get("conformsTo"), new TypeReference<List<String>>() {
-		});
-
-		if (conformsTo == null) {
+		if (discovered.getConformsTo() == null) {
 			throw new SkipException("No 'conformsTo' array found in conformance response.");
 		}
 
 		for (String suffix : requiredClassSuffixes) {
-			boolean ok = conformsTo.stream().anyMatch(s -> s != null && s.endsWith(suffix));
-			if (!ok) {
+			if (!discovered.declaresConformanceEndingWith(suffix)) {
 				throw new SkipException("Test Skipped: SUT does not declare conformance to: " + suffix);
 			}
 		}
 	}
 
-	private Map<String, Object> findLinkByRel(List<Map<String, Object>> links, String rel) {
-		if (links == null)
-			return null;
-		for (Map<String, Object> link : links) {
-			Object relVal = link.get("rel");
-			if (relVal != null && matchesRelIgnoringScheme(relVal.toString(), rel)) {
-				return link;
-			}
-		}
-		return null;
-	}
-
-	private static boolean matchesRelIgnoringScheme(String actual, String expected) {
-		return normalizeScheme(actual).equals(normalizeScheme(expected));
-	}
-
-	private static String normalizeScheme(String rel) {
-		if (rel.startsWith("https://")) {
-			return "http://" + rel.substring("https://".length());
-		}
-		return rel;
-	}
-
 	/**
 	 * Checks whether the server declares conformance to the CRS requirements class
 	 * (/conf/crs).
 	 */
 	private boolean checkConformanceCrs() throws Exception {
-		ObjectMapper objectMapper = new ObjectMapper();
-		String conformanceUrl = rootUri.toString() + "/conformance";
-
-		HttpURLConnection connection = (HttpURLConnection) new URL(conformanceUrl).openConnection();
-		connection.setInstanceFollowRedirects(true);
-		connection.setRequestMethod("GET");
-		connection.setRequestProperty("Accept", "application/json");
-
-		if (connection.getResponseCode() != 200)
-			return false;
-
-		Map<String, Object> data = objectMapper.readValue(connection.getInputStream(),
-				new TypeReference<Map<String, Object>>() {
-				});
-
-		List<String> conformsTo = objectMapper.convertValue(data.get("conformsTo"), new TypeReference<List<String>>() {
-		});
-		if (conformsTo == null)
-			return false;
-
-		return conformsTo.stream().anyMatch(s -> s != null && s.endsWith("/conf/crs"));
+		return getDiscoveredResources().declaresConformanceEndingWith("/conf/crs");
 	}
 
 	private static String findMatchingVoidCrs(String crsUri) {
@@ -185,30 +132,16 @@ public class BackgroundMapSuccess extends CommonFixture {
 
 		System.out.println("  [CRS Discovery] Server supports /conf/crs: " + supportsCrsClass);
 
-		String apiUrl = rootUri.toString() + "/collections?f=json";
-
-		HttpURLConnection connection = (HttpURLConnection) new URL(apiUrl).openConnection();
-		connection.setRequestMethod("GET");
-		connection.setRequestProperty("Accept", "application/json");
-
-		if (connection.getResponseCode() != 200)
+		DiscoveredResources discovered = getDiscoveredResources();
+		if (discovered.getCollectionsStatus() != 200)
 			return null;
 
-		Map<String, Object> data = objectMapper.readValue(connection.getInputStream(),
-				new TypeReference<Map<String, Object>>() {
-				});
-
-		List<Map<String, Object>> collectionsList = objectMapper.convertValue(data.get("collections"),
-				new TypeReference<List<Map<String, Object>>>() {
-				});
+		List<Map<String, Object>> collectionsList = discovered.getCollections();
 		if (collectionsList == null || collectionsList.isEmpty())
 			return null;
 
 		for (Map<String, Object> collection : collectionsList) {
-			List<Map<String, Object>> collectionLinks = objectMapper.convertValue(collection.get("links"),
-					new TypeReference<List<Map<String, Object>>>() {
-					});
-			Map<String, Object> relMap = findLinkByRel(collectionLinks, MAP_REL_TYPE);
+			Map<String, Object> relMap = discovered.findLink(collection, MAP_REL_TYPE);
 			if (relMap == null || relMap.get("href") == null)
 				continue;
 
@@ -266,35 +199,19 @@ public class BackgroundMapSuccess extends CommonFixture {
 	 * bbox/width/height/f=image/png.
 	 */
 	private String getMapBaseUrlTemplateWithBbox(String bbox) throws Exception {
-		ObjectMapper objectMapper = new ObjectMapper();
-		String apiUrl = rootUri.toString() + "/collections?f=json";
-
-		HttpURLConnection connection = (HttpURLConnection) new URL(apiUrl).openConnection();
-		connection.setRequestMethod("GET");
-		connection.setRequestProperty("Accept", "application/json");
-
-		if (connection.getResponseCode() != 200) {
-			throw new SkipException("Failed to retrieve collections: HTTP " + connection.getResponseCode());
+		DiscoveredResources discovered = getDiscoveredResources();
+		if (discovered.getCollectionsStatus() != 200) {
+			throw new SkipException("Failed to retrieve collections: HTTP " + discovered.getCollectionsStatus());
 		}
 
-		Map<String, Object> data = objectMapper.readValue(connection.getInputStream(),
-				new TypeReference<Map<String, Object>>() {
-				});
-
-		List<Map<String, Object>> collectionsList = objectMapper.convertValue(data.get("collections"),
-				new TypeReference<List<Map<String, Object>>>() {
-				});
+		List<Map<String, Object>> collectionsList = discovered.getCollections();
 
 		if (collectionsList == null || collectionsList.isEmpty()) {
 			throw new SkipException("Test Skipped: No collections found.");
 		}
 
 		for (Map<String, Object> collection : collectionsList) {
-			List<Map<String, Object>> collectionLinks = objectMapper.convertValue(collection.get("links"),
-					new TypeReference<List<Map<String, Object>>>() {
-					});
-
-			Map<String, Object> relMap = findLinkByRel(collectionLinks, MAP_REL_TYPE);
+			Map<String, Object> relMap = discovered.findLink(collection, MAP_REL_TYPE);
 			if (relMap != null && relMap.get("href") != null) {
 				String mapUrl = relMap.get("href").toString();
 				URI uri = new URI(mapUrl);
@@ -312,7 +229,7 @@ public class BackgroundMapSuccess extends CommonFixture {
 
 	private HttpURLConnection sendMapRequest(String urlString) throws Exception {
 		URL url = new URL(urlString);
-		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		HttpURLConnection connection = openConnection(url);
 		connection.setConnectTimeout(30000);
 		connection.setReadTimeout(60000);
 		connection.setRequestMethod("GET");
@@ -326,7 +243,7 @@ public class BackgroundMapSuccess extends CommonFixture {
 	 */
 	private HttpURLConnection sendPreCheckRequest(String urlString) throws Exception {
 		URL url = new URL(urlString);
-		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		HttpURLConnection connection = openConnection(url);
 		connection.setConnectTimeout(5000);
 		connection.setReadTimeout(10000);
 		connection.setRequestMethod("GET");
@@ -368,43 +285,43 @@ public class BackgroundMapSuccess extends CommonFixture {
 		return rgb & 0xFFFFFF;
 	}
 
-	private static BufferedImage readImage(InputStream is) throws Exception {
-		BufferedImage img = ImageIO.read(is);
-		if (img == null) {
-			throw new IllegalStateException("Response could not be decoded as an image (ImageIO.read returned null).");
+	/**
+	 * Decodes only the top and the bottom row of the image, which hold the four corner
+	 * pixels.
+	 * @return the top row and the bottom row
+	 */
+	private static BufferedImage[] readCornerRows(InputStream is) throws Exception {
+		byte[] data = is.readAllBytes();
+		ImageInfo info = ImageProbe.probe(data);
+		if (info == null) {
+			throw new IllegalStateException("Response could not be decoded as an image.");
 		}
-		return img;
-	}
-
-	private static int rgb24At(BufferedImage img, int x, int y) {
-		return img.getRGB(x, y) & 0xFFFFFF;
-	}
-
-	private static int alphaAt(BufferedImage img, int x, int y) {
-		int argb = img.getRGB(x, y);
-		return (argb >>> 24) & 0xFF;
+		BufferedImage top = ImageProbe.readRegion(data, new Rectangle(0, 0, info.getWidth(), 1));
+		BufferedImage bottom = ImageProbe.readRegion(data, new Rectangle(0, info.getHeight() - 1, info.getWidth(), 1));
+		if (top == null || bottom == null) {
+			throw new IllegalStateException("Response could not be decoded as an image.");
+		}
+		return new BufferedImage[] { top, bottom };
 	}
 
 	/**
 	 * Samples corners and returns the first match. This reduces fragility when some
 	 * corners contain data due to styling or rendering.
 	 */
-	private static boolean anyCornerMatches(BufferedImage img, int expectedRgb24, Integer expectedAlphaOrNull) {
-		int w = img.getWidth();
-		int h = img.getHeight();
+	private static boolean anyCornerMatches(BufferedImage[] rows, int expectedRgb24, Integer expectedAlphaOrNull) {
+		int w = rows[0].getWidth();
 
-		int[][] pts = new int[][] { { 0, 0 }, { w - 1, 0 }, { 0, h - 1 }, { w - 1, h - 1 } };
+		for (BufferedImage row : rows) {
+			for (int x : new int[] { 0, w - 1 }) {
+				int rgb = RasterAnalysis.rgb24At(row, x, 0);
+				int a = RasterAnalysis.alphaAt(row, x, 0);
 
-		for (int[] p : pts) {
-			int x = p[0], y = p[1];
-			int rgb = rgb24At(img, x, y);
-			int a = alphaAt(img, x, y);
+				boolean rgbOk = (rgb == (expectedRgb24 & 0xFFFFFF));
+				boolean aOk = (expectedAlphaOrNull == null) || (a == expectedAlphaOrNull.intValue());
 
-			boolean rgbOk = (rgb == (expectedRgb24 & 0xFFFFFF));
-			boolean aOk = (expectedAlphaOrNull == null) || (a == expectedAlphaOrNull.intValue());
-
-			if (rgbOk && aOk)
-				return true;
+				if (rgbOk && aOk)
+					return true;
+			}
 		}
 		return false;
 	}
@@ -513,14 +430,17 @@ public class BackgroundMapSuccess extends CommonFixture {
 				Assert.assertEquals(connValid.getResponseCode(), 200,
 						"Failed: Valid bbox map request failed. Expected HTTP 200.");
 
-				BufferedImage imgValid = readImage(connValid.getInputStream());
+				BufferedImage[] imgValid = readCornerRows(connValid.getInputStream());
 
 				// Verify background alpha matches transparent setting
-				boolean alphaOkValid = anyCornerMatches(imgValid, rgb24At(imgValid, 0, 0), expectedBgAlpha)
-						|| anyCornerMatches(imgValid, rgb24At(imgValid, imgValid.getWidth() - 1, 0), expectedBgAlpha)
-						|| anyCornerMatches(imgValid, rgb24At(imgValid, 0, imgValid.getHeight() - 1), expectedBgAlpha)
-						|| anyCornerMatches(imgValid,
-								rgb24At(imgValid, imgValid.getWidth() - 1, imgValid.getHeight() - 1), expectedBgAlpha);
+				int validWidth = imgValid[0].getWidth();
+				boolean alphaOkValid = anyCornerMatches(imgValid, RasterAnalysis.rgb24At(imgValid[0], 0, 0),
+						expectedBgAlpha)
+						|| anyCornerMatches(imgValid, RasterAnalysis.rgb24At(imgValid[0], validWidth - 1, 0),
+								expectedBgAlpha)
+						|| anyCornerMatches(imgValid, RasterAnalysis.rgb24At(imgValid[1], 0, 0), expectedBgAlpha)
+						|| anyCornerMatches(imgValid, RasterAnalysis.rgb24At(imgValid[1], validWidth - 1, 0),
+								expectedBgAlpha);
 
 				System.out.println("    [Valid bbox] expected background alpha=" + expectedBgAlpha
 						+ " (resolved transparent=" + resolvedTransparent + ")");
@@ -555,7 +475,7 @@ public class BackgroundMapSuccess extends CommonFixture {
 				Assert.assertEquals(connVoidNoBg.getResponseCode(), 200,
 						"Failed: Void bbox map request failed. Expected HTTP 200.");
 
-				BufferedImage imgVoidNoBg = readImage(connVoidNoBg.getInputStream());
+				BufferedImage[] imgVoidNoBg = readCornerRows(connVoidNoBg.getInputStream());
 				int expectedBgRgbForVoid = parseExpectedColor(TEST_BG_HEX);
 
 				boolean voidDefaultOk = anyCornerMatches(imgVoidNoBg, expectedBgRgbForVoid, null);
@@ -572,7 +492,7 @@ public class BackgroundMapSuccess extends CommonFixture {
 				Assert.assertEquals(connVoidWithColor.getResponseCode(), 200,
 						"Failed: Void bbox map request failed. Expected HTTP 200.");
 
-				BufferedImage imgVoidWithColor = readImage(connVoidWithColor.getInputStream());
+				BufferedImage[] imgVoidWithColor = readCornerRows(connVoidWithColor.getInputStream());
 				int expectedVoidRgb = parseExpectedColor(TEST_VOID_HEX);
 
 				boolean voidColorOk = anyCornerMatches(imgVoidWithColor, expectedVoidRgb, null);
@@ -591,8 +511,9 @@ public class BackgroundMapSuccess extends CommonFixture {
 				Assert.assertEquals(connVoidNoTransp.getResponseCode(), 200,
 						"Failed: Void bbox map request failed. Expected HTTP 200.");
 
-				BufferedImage imgVoidNoTransp = readImage(connVoidNoTransp.getInputStream());
-				boolean voidTranspDefaultOk = anyCornerMatches(imgVoidNoTransp, rgb24At(imgVoidNoTransp, 0, 0), 0);
+				BufferedImage[] imgVoidNoTransp = readCornerRows(connVoidNoTransp.getInputStream());
+				boolean voidTranspDefaultOk = anyCornerMatches(imgVoidNoTransp,
+						RasterAnalysis.rgb24At(imgVoidNoTransp[0], 0, 0), 0);
 				System.out.println("    [Void Transparent Check] expected void alpha (default to transparent)=0");
 				Assert.assertTrue(voidTranspDefaultOk,
 						"Failed: When void-transparent is not specified, void areas must use the same transparency as transparent.");
@@ -604,8 +525,9 @@ public class BackgroundMapSuccess extends CommonFixture {
 				Assert.assertEquals(connVoidWithTransp.getResponseCode(), 200,
 						"Failed: Void bbox map request failed. Expected HTTP 200.");
 
-				BufferedImage imgVoidWithTransp = readImage(connVoidWithTransp.getInputStream());
-				boolean voidTranspOk = anyCornerMatches(imgVoidWithTransp, rgb24At(imgVoidWithTransp, 0, 0), 255);
+				BufferedImage[] imgVoidWithTransp = readCornerRows(connVoidWithTransp.getInputStream());
+				boolean voidTranspOk = anyCornerMatches(imgVoidWithTransp,
+						RasterAnalysis.rgb24At(imgVoidWithTransp[0], 0, 0), 255);
 				System.out.println("    [Void Transparent Check] expected void alpha (explicit false)=255");
 				Assert.assertTrue(voidTranspOk,
 						"Failed: When void-transparent=false is specified, void areas must be opaque.");
@@ -3,11 +3,14 @@ package org.opengis.cite.ogcapimaps10.conformance.background;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.opengis.cite.ogcapimaps10.conformance.CommonFixture;
+import org.opengis.cite.ogcapimaps10.domain.DiscoveredResources;
+import org.opengis.cite.ogcapimaps10.domain.ImageInfo;
+import org.opengis.cite.ogcapimaps10.util.ImageProbe;
+import org.opengis.cite.ogcapimaps10.util.RasterAnalysis;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 import org.testng.SkipException;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
@@ -19,6 +22,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 interface TestImageValidator {
 
@@ -84,7 +88,7 @@ interface TestImageValidator {
 	 * @return True if the background color matches.
 	 */
 	static boolean checkPixelColor(InputStream imageStream, String expectedColor) {
-		BufferedImage image;
+		byte[] data;
 		int expectedRGB;
 		int expectedColorValue;
 		final int SAMPLING_OFFSET = 10; // Pixel distance from the edge for sampling
@@ -107,22 +111,23 @@ interface TestImageValidator {
 		// Step 2: Image Reading and Decoding
 		// ------------------------------------
 		try {
-			image = ImageIO.read(imageStream);
-			if (image == null) {
-				System.err.println("Failed to decode image stream. Not a recognized format.");
-				return false;
-			}
+			data = imageStream.readAllBytes();
 		}
 		catch (IOException e) {
 			System.err.println("IO Error reading image stream: " + e.getMessage());
 			return false;
 		}
+		ImageInfo info = ImageProbe.probe(data);
+		if (info == null) {
+			System.err.println("Failed to decode image stream. Not a recognized format.");
+			return false;
+		}
 
 		// ------------------------------------
 		// Step 3 & 4: Sampling, Comparison, and Matching
 		// ------------------------------------
-		int width = image.getWidth();
-		int height = image.getHeight();
+		int width = info.getWidth();
+		int height = info.getHeight();
 
 		// Sample points: four corners
 		int[] sampleX = { SAMPLING_OFFSET, width - SAMPLING_OFFSET, SAMPLING_OFFSET, width - SAMPLING_OFFSET };
@@ -137,8 +142,13 @@ interface TestImageValidator {
 				continue;
 			}
 
-			int actualRGB = image.getRGB(x, y);
-			int actualColor = actualRGB & 0x00FFFFFF;
+			// Only the row holding the sample point is decoded
+			BufferedImage row = ImageProbe.readRegion(data, new Rectangle(0, y, width, 1));
+			if (row == null) {
+				System.err.println("Failed to decode image stream. Not a recognized format.");
+				return false;
+			}
+			int actualColor = RasterAnalysis.rgb24At(row, x, 0);
 
 			if (actualColor != expectedColorValue) {
 				System.err.printf("Assertion Failed: Pixel color mismatch at (%d, %d). Expected: 0x%X, Found: 0x%X%n",
@@ -178,27 +188,19 @@ public class BgcolorParameterDefinition extends CommonFixture {
 	 * requirement class is not declared, the test must be skipped (not failed).
 	 */
 	private void requireConformance(String... requiredClassSuffixes) throws Exception {
-		ObjectMapper objectMapper = new ObjectMapper();
-		String conformanceUrl = rootUri.toString() + "/conformance";
-		HttpURLConnection connection = (HttpURLConnection) new URL(conformanceUrl).openConnection();
-		connection.setRequestMethod("GET");
-		connection.setRequestProperty("Accept", "application/json");
-
-		if (connection.getResponseCode() != 200) {
-			throw new SkipException("Failed to retrieve conformance declaration: HTTP " + connection.getResponseCode());
+		DiscoveredResources discovered = getDiscoveredResources();
+		if (discovered.getConformanceStatus() != 200) {
+			throw new SkipException(
+					"Failed to retrieve conformance declaration: HTTP " + discovered.getConformanceStatus());
 		}
 
-		Map<String, Object> data = objectMapper.readValue(connection.getInputStream(),
-				new TypeReference<Map<String, Object>>() {
-				});
-		List<String> conformsTo = objectMapper.convertValue(data.getOrDefault("conformsTo", Collections.emptyList()),
-				new TypeReference<List<String>>() {
-				});
+		Set<String> conformsTo = discovered.getConformsTo() != null ? discovered.getConformsTo()
+				: Collections.emptySet();
 
 		for (String requiredSuffix : requiredClassSuffixes) {
 			boolean ok = false;
 			for (String uri : conformsTo) {
-				if (uri != null && uri.toLowerCase().contains(requiredSuffix.toLowerCase())) {
+				if (uri.toLowerCase().contains(requiredSuffix.toLowerCase())) {
 					ok = true;
 					break;
 				}
@@ -209,33 +211,6 @@ public class BgcolorParameterDefinition extends CommonFixture {
 		}
 	}
 
-	/**
-	 * Finds a specific link object from a list based on the relationship type (rel).
-	 */
-	public static Map<String, Object> findLinkByRel(List<Map<String, Object>> links, String expectedRel) {
-		if (links == null) {
-			return null;
-		}
-		for (Map<String, Object> link : links) {
-			Object rel = link.get("rel");
-			if (rel != null && matchesRelIgnoringScheme(rel.toString(), expectedRel)) {
-				return link;
-			}
-		}
-		return null;
-	}
-
-	private static boolean matchesRelIgnoringScheme(String actual, String expected) {
-		return normalizeScheme(actual).equals(normalizeScheme(expected));
-	}
-
-	private static String normalizeScheme(String rel) {
-		if (rel.startsWith("https://")) {
-			return "http://" + rel.substring("https://".length());
-		}
-		return rel;
-	}
-
 	/**
 	 * Helper class to hold map resource information including collection ID and base URL.
 	 */
@@ -258,31 +233,15 @@ public class BgcolorParameterDefinition extends CommonFixture {
 	 * lookup.
 	 */
 	private MapResourceInfo getMapResourceInfo() throws Exception {
-		ObjectMapper objectMapper = new ObjectMapper();
-		String apiUrl = rootUri.toString() + "/collections?f=json";
-
-		HttpURLConnection connection = (HttpURLConnection) new URL(apiUrl).openConnection();
-		connection.setRequestMethod("GET");
-		connection.setRequestProperty("Accept", "application/json");
-
-		if (connection.getResponseCode() != 200) {
-			throw new SkipException("Failed to retrieve collections: HTTP " + connection.getResponseCode());
+		DiscoveredResources discovered = getDiscoveredResources();
+		if (discovered.getCollectionsStatus() != 200) {
+			throw new SkipException("Failed to retrieve collections: HTTP " + discovered.getCollectionsStatus());
 		}
 
-		Map<String, Object> data = objectMapper.readValue(connection.getInputStream(),
-				new TypeReference<Map<String, Object>>() {
-				});
-
-		List<Map<String, Object>> collectionsList = objectMapper.convertValue(data.get("collections"),
-				new TypeReference<List<Map<String, Object>>>() {
-				});
+		List<Map<String, Object>> collectionsList = discovered.getCollections();
 
 		for (Map<String, Object> collection : collectionsList) {
-			List<Map<String, Object>> collectionLinks = objectMapper.convertValue(collection.get("links"),
-					new TypeReference<List<Map<String, Object>>>() {
-					});
-
-			Map<String, Object> relMap = findLinkByRel(collectionLinks, MAP_REL_TYPE);
+			Map<String, Object> relMap = discovered.findLink(collection, MAP_REL_TYPE);
 
 			if (relMap != null && relMap.containsKey("href")) {
 				String collectionId = (String) collection.get("id");
@@ -313,7 +272,7 @@ public class BgcolorParameterDefinition extends CommonFixture {
 			ObjectMapper objectMapper = new ObjectMapper();
 			String stylesUrl = rootUri.toString() + "/collections/" + collectionId + "/styles?f=json";
 
-			HttpURLConnection connection = (HttpURLConnection) new URL(stylesUrl).openConnection();
+			HttpURLConnection connection = openConnection(stylesUrl);
 			connection.setRequestMethod("GET");
 			connection.setRequestProperty("Accept", "application/json");
 			connection.setConnectTimeout(10000);
@@ -359,7 +318,7 @@ public class BgcolorParameterDefinition extends CommonFixture {
 			ObjectMapper objectMapper = new ObjectMapper();
 			String styleUrl = rootUri.toString() + "/collections/" + collectionId + "/styles/" + styleId + "?f=json";
 
-			HttpURLConnection connection = (HttpURLConnection) new URL(styleUrl).openConnection();
+			HttpURLConnection connection = openConnection(styleUrl);
 			connection.setRequestMethod("GET");
 			connection.setRequestProperty("Accept", "application/json");
 			connection.setConnectTimeout(10000);
@@ -416,7 +375,7 @@ public class BgcolorParameterDefinition extends CommonFixture {
 	 */
 	private HttpURLConnection sendMapRequest(String urlString) throws Exception {
 		URL url = new URL(urlString);
-		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		HttpURLConnection connection = openConnection(url);
 		connection.setConnectTimeout(30000);
 		connection.setReadTimeout(60000);
 		connection.setRequestMethod("GET");
@@ -3,11 +3,15 @@ package org.opengis.cite.ogcapimaps10.conformance.background;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.opengis.cite.ogcapimaps10.conformance.CommonFixture;
+import org.opengis.cite.ogcapimaps10.domain.DiscoveredResources;
+import org.opengis.cite.ogcapimaps10.domain.ImageInfo;
+import org.opengis.cite.ogcapimaps10.util.ImageProbe;
+import org.opengis.cite.ogcapimaps10.util.RasterAnalysis;
 import org.testng.Assert;
 import org.testng.SkipException;
 import org.testng.annotations.Test;
 
-import javax.imageio.ImageIO;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
@@ -70,86 +74,29 @@ public class VoidColorParameterDefinition extends CommonFixture {
 	}
 
 	private void requireConformance(String... requiredClassSuffixes) throws Exception {
-		ObjectMapper objectMapper = new ObjectMapper();
-		String conformanceUrl = rootUri.toString() + "/conformance";
-
-		HttpURLConnection connection = (HttpURLConnection) new URL(conformanceUrl).openConnection();
-		connection.setInstanceFollowRedirects(true);
-		connection.setRequestMethod("GET");
-		connection.setRequestProperty("Accept", "application/json");
-
-		if (connection.getResponseCode() != 200) {
-			throw new SkipException("Failed to retrieve conformance: HTTP " + connection.getResponseCode());
+		DiscoveredResources discovered = getDiscoveredResources();
+		if (discovered.getConformanceStatus() != 200) {
+			throw new SkipException("Failed to retrieve conformance: HTTP " + discovered.getConformanceStatus());
 		}
 
-		Map<String, Object> data = objectMapper.readValue(connection.getInputStream(),
-				new TypeReference<Map<String, Object>>() {
-				});
-
-		List<String> conformsTo = objectMapper.convertValue(data.get("conformsTo"), new TypeReference<List<String>>() {
-		});
-		if (conformsTo == null) {
+		if (discovered.getConformsTo() == null) {
 			throw new SkipException("No 'conformsTo' array found in conformance response.");
 		}
 
 		for (String suffix : requiredClassSuffixes) {
-			boolean ok = conformsTo.stream().anyMatch(s -> s != null && s.endsWith(suffix));
-			if (!ok) {
+			if (!discovered.declaresConformanceEndingWith(suffix)) {
 				throw new SkipException("Test Skipped: SUT does not declare conformance to: " + suffix);
 			}
 		}
 	}
 
-	private Map<String, Object> findLinkByRel(List<Map<String, Object>> links, String rel) {
-		if (links == null)
-			return null;
-		for (Map<String, Object> link : links) {
-			Object relVal = link.get("rel");
-			if (relVal != null && matchesRelIgnoringScheme(relVal.toString(), rel)) {
-				return link;
-			}
-		}
-		return null;
-	}
-
-	private static boolean matchesRelIgnoringScheme(String actual, String expected) {
-		return normalizeScheme(actual).equals(normalizeScheme(expected));
-	}
-
-	private static String normalizeScheme(String rel) {
-		if (rel.startsWith("https://")) {
-			return "http://" + rel.substring("https://".length());
-		}
-		return rel;
-	}
-
 	/**
 	 * Checks whether the server declares conformance to the CRS requirements class
 	 * (/conf/crs). If supported, the collection description enumerates supported CRSs in
 	 * its "crs" property and the crs query parameter can be used.
 	 */
 	private boolean checkConformanceCrs() throws Exception {
-		ObjectMapper objectMapper = new ObjectMapper();
-		String conformanceUrl = rootUri.toString() + "/conformance";
-
-		HttpURLConnection connection = (HttpURLConnection) new URL(conformanceUrl).openConnection();
-		connection.setInstanceFollowRedirects(true);
-		connection.setRequestMethod("GET");
-		connection.setRequestProperty("Accept", "application/json");
-
-		if (connection.getResponseCode() != 200)
-			return false;
-
-		Map<String, Object> data = objectMapper.readValue(connection.getInputStream(),
-				new TypeReference<Map<String, Object>>() {
-				});
-
-		List<String> conformsTo = objectMapper.convertValue(data.get("conformsTo"), new TypeReference<List<String>>() {
-		});
-		if (conformsTo == null)
-			return false;
-
-		return conformsTo.stream().anyMatch(s -> s != null && s.endsWith("/conf/crs"));
+		return getDiscoveredResources().declaresConformanceEndingWith("/conf/crs");
 	}
 
 	/**
@@ -183,32 +130,18 @@ public class VoidColorParameterDefinition extends CommonFixture {
 
 		System.out.println("  [CRS Discovery] Server supports /conf/crs: " + supportsCrsClass);
 
-		String collectionsUrl = rootUri.toString() + "/collections?f=json";
-
-		HttpURLConnection connection = (HttpURLConnection) new URL(collectionsUrl).openConnection();
-		connection.setRequestMethod("GET");
-		connection.setRequestProperty("Accept", "application/json");
-
-		if (connection.getResponseCode() != 200) {
-			throw new SkipException("Failed to retrieve collections: HTTP " + connection.getResponseCode());
+		DiscoveredResources discovered = getDiscoveredResources();
+		if (discovered.getCollectionsStatus() != 200) {
+			throw new SkipException("Failed to retrieve collections: HTTP " + discovered.getCollectionsStatus());
 		}
 
-		Map<String, Object> data = objectMapper.readValue(connection.getInputStream(),
-				new TypeReference<Map<String, Object>>() {
-				});
-
-		List<Map<String, Object>> collections = objectMapper.convertValue(data.get("collections"),
-				new TypeReference<List<Map<String, Object>>>() {
-				});
+		List<Map<String, Object>> collections = discovered.getCollections();
 		if (collections == null || collections.isEmpty()) {
 			throw new SkipException("Test Skipped: No collections found.");
 		}
 
 		for (Map<String, Object> collection : collections) {
-			List<Map<String, Object>> links = objectMapper.convertValue(collection.get("links"),
-					new TypeReference<List<Map<String, Object>>>() {
-					});
-			Map<String, Object> mapLink = findLinkByRel(links, MAP_REL_TYPE);
+			Map<String, Object> mapLink = discovered.findLink(collection, MAP_REL_TYPE);
 			if (mapLink == null || mapLink.get("href") == null)
 				continue;
 
@@ -271,7 +204,7 @@ public class VoidColorParameterDefinition extends CommonFixture {
 	 */
 	private HttpURLConnection sendMapRequest(String urlString) throws Exception {
 		URL url = new URL(urlString);
-		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		HttpURLConnection connection = openConnection(url);
 		connection.setConnectTimeout(30000);
 		connection.setReadTimeout(60000);
 		connection.setRequestMethod("GET");
@@ -285,7 +218,7 @@ public class VoidColorParameterDefinition extends CommonFixture {
 	 */
 	private HttpURLConnection sendPreCheckRequest(String urlString) throws Exception {
 		URL url = new URL(urlString);
-		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		HttpURLConnection connection = openConnection(url);
 		connection.setConnectTimeout(5000);
 		connection.setReadTimeout(10000);
 		connection.setRequestMethod("GET");
@@ -295,16 +228,23 @@ public class VoidColorParameterDefinition extends CommonFixture {
 	}
 
 	// Image + color helpers
-	private static BufferedImage readImage(InputStream is) throws Exception {
-		BufferedImage img = ImageIO.read(is);
-		if (img == null) {
-			throw new IllegalStateException("Response could not be decoded as an image (ImageIO.read returned null).");
+	/**
+	 * Decodes only the top and the bottom row of the image, which hold the four corner
+	 * pixels.
+	 * @return the top row and the bottom row
+	 */
+	private static BufferedImage[] readCornerRows(InputStream is) throws Exception {
+		byte[] data = is.readAllBytes();
+		ImageInfo info = ImageProbe.probe(data);
+		if (info == null) {
+			throw new IllegalStateException("Response could not be decoded as an image.");
 		}
-		return img;
-	}
-
-	private static int getRgb24At(BufferedImage img, int x, int y) {
-		return img.getRGB(x, y) & 0xFFFFFF;
+		BufferedImage top = ImageProbe.readRegion(data, new Rectangle(0, 0, info.getWidth(), 1));
+		BufferedImage bottom = ImageProbe.readRegion(data, new Rectangle(0, info.getHeight() - 1, info.getWidth(), 1));
+		if (top == null || bottom == null) {
+			throw new IllegalStateException("Response could not be decoded as an image.");
+		}
+		return new BufferedImage[] { top, bottom };
 	}
 
 	private static int parseExpectedColor(String expectedColor) {
@@ -333,13 +273,13 @@ public class VoidColorParameterDefinition extends CommonFixture {
 	 */
 	private static void assertAnyCornerMatchesVoidColor(InputStream imageStream, int expectedRgb24,
 			String assertionMessage) throws Exception {
-		BufferedImage img = readImage(imageStream);
-
-		int w = img.getWidth();
-		int h = img.getHeight();
+		BufferedImage[] rows = readCornerRows(imageStream);
+		BufferedImage top = rows[0];
+		BufferedImage bottom = rows[1];
+		int w = top.getWidth();
 
-		int[] samples = new int[] { getRgb24At(img, 0, 0), getRgb24At(img, w - 1, 0), getRgb24At(img, 0, h - 1),
-				getRgb24At(img, w - 1, h - 1) };
+		int[] samples = new int[] { RasterAnalysis.rgb24At(top, 0, 0), RasterAnalysis.rgb24At(top, w - 1, 0),
+				RasterAnalysis.rgb24At(bottom, 0, 0), RasterAnalysis.rgb24At(bottom, w - 1, 0) };
 
 		System.out.println("    [VoidColor Check] corners RGB24="
 				+ String.format("(%06X, %06X, %06X, %06X)", samples[0], samples[1], samples[2], samples[3])
@@ -3,11 +3,14 @@ package org.opengis.cite.ogcapimaps10.conformance.background;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.opengis.cite.ogcapimaps10.conformance.CommonFixture;
+import org.opengis.cite.ogcapimaps10.domain.DiscoveredResources;
+import org.opengis.cite.ogcapimaps10.util.ImageProbe;
+import org.opengis.cite.ogcapimaps10.util.RasterAnalysis;
 import org.testng.Assert;
 import org.testng.SkipException;
 import org.testng.annotations.Test;
 
-import javax.imageio.ImageIO;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
@@ -52,84 +55,28 @@ public class VoidTransparentParameterDefinition extends CommonFixture {
 			"https://www.opengis.net/def/crs/OGC/1.3/1534", "https://www.opengis.net/def/crs/OGC/1.3/153456");
 
 	private void requireConformance(String... requiredClassSuffixes) throws Exception {
-		ObjectMapper objectMapper = new ObjectMapper();
-		String conformanceUrl = rootUri.toString() + "/conformance";
-		HttpURLConnection connection = (HttpURLConnection) new URL(conformanceUrl).openConnection();
-		connection.setInstanceFollowRedirects(true);
-		connection.setRequestMethod("GET");
-		connection.setRequestProperty("Accept", "application/json");
-
-		if (connection.getResponseCode() != 200) {
-			throw new SkipException("Failed to retrieve conformance: HTTP " + connection.getResponseCode());
+		DiscoveredResources discovered = getDiscoveredResources();
+		if (discovered.getConformanceStatus() != 200) {
+			throw new SkipException("Failed to retrieve conformance: HTTP " + discovered.getConformanceStatus());
 		}
 
-		Map<String, Object> data = objectMapper.readValue(connection.getInputStream(),
-				new TypeReference<Map<String, Object>>() {
-				});
-
-		List<String> conformsTo = objectMapper.convertValue(data.get("conformsTo"), new TypeReference<List<String>>() {
-		});
-		if (conformsTo == null) {
+		if (discovered.getConformsTo() == null) {
 			throw new SkipException("No 'conformsTo' array found in conformance response.");
 		}
 
 		for (String suffix : requiredClassSuffixes) {
-			boolean ok = conformsTo.stream().anyMatch(s -> s != null && s.endsWith(suffix));
-			if (!ok) {
+			if (!discovered.declaresConformanceEndingWith(suffix)) {
 				throw new SkipException("Test Skipped: SUT does not declare conformance to: " + suffix);
 			}
 		}
 	}
 
-	private Map<String, Object> findLinkByRel(List<Map<String, Object>> links, String rel) {
-		if (links == null)
-			return null;
-		for (Map<String, Object> link : links) {
-			Object relVal = link.get("rel");
-			if (relVal != null && matchesRelIgnoringScheme(relVal.toString(), rel)) {
-				return link;
-			}
-		}
-		return null;
-	}
-
-	private static boolean matchesRelIgnoringScheme(String actual, String expected) {
-		return normalizeScheme(actual).equals(normalizeScheme(expected));
-	}
-
-	private static String normalizeScheme(String rel) {
-		if (rel.startsWith("https://")) {
-			return "http://" + rel.substring("https://".length());
-		}
-		return rel;
-	}
-
 	/**
 	 * Checks whether the server declares conformance to the CRS requirements class
 	 * (/conf/crs).
 	 */
 	private boolean checkConformanceCrs() throws Exception {
-		ObjectMapper objectMapper = new ObjectMapper();
-		String conformanceUrl = rootUri.toString() + "/conformance";
-
-		HttpURLConnection connection = (HttpURLConnection) new URL(conformanceUrl).openConnection();
-		connection.setInstanceFollowRedirects(true);
-		connection.setRequestMethod("GET");
-		connection.setRequestProperty("Accept", "application/json");
-
-		if (connection.getResponseCode() != 200)
-			return false;
-
-		Map<String, Object> data = objectMapper.readValue(connection.getInputStream(),
-				new TypeReference<Map<String, Object>>() {
-				});
-
-		List<String> conformsTo = objectMapper.convertValue(data.get("conformsTo"), new TypeReference<List<String>>() {
-		});
-		if (conformsTo == null)
-			return false;
-
-		return conformsTo.stream().anyMatch(s -> s != null && s.endsWith("/conf/crs"));
+		return getDiscoveredResources().declaresConformanceEndingWith("/conf/crs");
 	}
 
 	/**
@@ -158,32 +105,18 @@ public class VoidTransparentParameterDefinition extends CommonFixture {
 
 		System.out.println("  [CRS Discovery] Server supports /conf/crs: " + supportsCrsClass);
 
-		String apiUrl = rootUri.toString() + "/collections?f=json";
-
-		HttpURLConnection connection = (HttpURLConnection) new URL(apiUrl).openConnection();
-		connection.setRequestMethod("GET");
-		connection.setRequestProperty("Accept", "application/json");
-
-		if (connection.getResponseCode() != 200) {
-			throw new SkipException("Failed to retrieve collections: HTTP " + connection.getResponseCode());
+		DiscoveredResources discovered = getDiscoveredResources();
+		if (discovered.getCollectionsStatus() != 200) {
+			throw new SkipException("Failed to retrieve collections: HTTP " + discovered.getCollectionsStatus());
 		}
 
-		Map<String, Object> data = objectMapper.readValue(connection.getInputStream(),
-				new TypeReference<Map<String, Object>>() {
-				});
-
-		List<Map<String, Object>> collectionsList = objectMapper.convertValue(data.get("collections"),
-				new TypeReference<List<Map<String, Object>>>() {
-				});
+		List<Map<String, Object>> collectionsList = discovered.getCollections();
 		if (collectionsList == null || collectionsList.isEmpty()) {
 			throw new SkipException("Test Skipped: No collections found.");
 		}
 
 		for (Map<String, Object> collection : collectionsList) {
-			List<Map<String, Object>> collectionLinks = objectMapper.convertValue(collection.get("links"),
-					new TypeReference<List<Map<String, Object>>>() {
-					});
-			Map<String, Object> relMap = findLinkByRel(collectionLinks, MAP_REL_TYPE);
+			Map<String, Object> relMap = discovered.findLink(collection, MAP_REL_TYPE);
 			if (relMap == null || relMap.get("href") == null)
 				continue;
 
@@ -243,7 +176,7 @@ public class VoidTransparentParameterDefinition extends CommonFixture {
 
 	private HttpURLConnection sendMapRequest(String urlString) throws Exception {
 		URL url = new URL(urlString);
-		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		HttpURLConnection connection = openConnection(url);
 		connection.setConnectTimeout(30000);
 		connection.setReadTimeout(60000);
 		connection.setRequestMethod("GET");
@@ -257,7 +190,7 @@ public class VoidTransparentParameterDefinition extends CommonFixture {
 	 */
 	private HttpURLConnection sendPreCheckRequest(String urlString) throws Exception {
 		URL url = new URL(urlString);
-		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		HttpURLConnection connection = openConnection(url);
 		connection.setConnectTimeout(5000);
 		connection.setReadTimeout(10000);
 		connection.setRequestMethod("GET");
@@ -269,23 +202,21 @@ public class VoidTransparentParameterDefinition extends CommonFixture {
 	// ==========================================================
 	// Image helpers (Alpha checks on void areas)
 	// ==========================================================
-	private static BufferedImage readImage(InputStream is) throws Exception {
-		BufferedImage img = ImageIO.read(is);
-		if (img == null) {
-			throw new IllegalStateException("Response could not be decoded as an image (ImageIO.read returned null).");
+	/**
+	 * Decodes only the top left pixel of the image.
+	 */
+	private static BufferedImage readCorner(InputStream is) throws Exception {
+		BufferedImage corner = ImageProbe.readRegion(is.readAllBytes(), new Rectangle(0, 0, 1, 1));
+		if (corner == null) {
+			throw new IllegalStateException("Response could not be decoded as an image.");
 		}
-		return img;
-	}
-
-	private static int getAlphaAt(BufferedImage img, int x, int y) {
-		int argb = img.getRGB(x, y);
-		return (argb >>> 24) & 0xFF;
+		return corner;
 	}
 
 	private static void assertCornerAlpha(InputStream imageStream, int expectedAlpha, String assertionMessage)
 			throws Exception {
-		BufferedImage img = readImage(imageStream);
-		int actualAlpha = getAlphaAt(img, 0, 0);
+		BufferedImage corner = readCorner(imageStream);
+		int actualAlpha = RasterAnalysis.alphaAt(corner, 0, 0);
 
 		System.out.println("    [Alpha Check] corner(0,0) alpha=" + actualAlpha + " (expected " + expectedAlpha + ")");
 		Assert.assertEquals(actualAlpha, expectedAlpha, assertionMessage);
@@ -1,19 +1,15 @@
 package org.opengis.cite.ogcapimaps10.conformance.collectionSelection;
 
-import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import org.opengis.cite.ogcapimaps10.conformance.CommonFixture;
+import org.opengis.cite.ogcapimaps10.domain.OpenApiIndex;
 import org.testng.SkipException;
 import org.testng.annotations.Test;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 /**
  * Implements Abstract Test A.11: /conf/collections-selection/collections-parameter
  *
@@ -43,8 +39,6 @@ public class CollectionsParameterTest extends CommonFixture {
 
 	private static final String REL_MAP = "http://www.opengis.net/def/rel/ogc/1.0/map";
 
-	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
-
 	/**
 	 * A.11 Abstract Test for Requirement
 	 * /req/collections-selection/collections-parameter.
@@ -70,14 +64,14 @@ public class CollectionsParameterTest extends CommonFixture {
 
 		// Discover collection IDs — full namespaced IDs preserved as-is (colons not
 		// stripped)
-		List<String> collectionIds = discoverCollectionIds(landingPageUrl);
+		List<String> collectionIds = discoverCollectionIds();
 		if (collectionIds.isEmpty()) {
 			throw new SkipException("No collections found at " + landingPageUrl + "/collections. Skipping A.11 test.");
 		}
 
 		// --- Assertion A: OAS declares 'collections' query parameter
 		// [Req11/param-defined] ---
-		if (!checkOasCollectionsParam(landingPageUrl)) {
+		if (!checkOasCollectionsParam()) {
 			errors.add("[Req11/param-defined] The OpenAPI document does not declare 'collections'"
 					+ " as an optional query parameter for the map operation path.");
 		}
@@ -143,27 +137,10 @@ public class CollectionsParameterTest extends CommonFixture {
 	 * @param landingPageUrl the IUT landing page URL
 	 * @return the dataset map URL, never null (falls back to base + "/map")
 	 */
-	@SuppressWarnings("unchecked")
 	private String findDatasetMapUrl(String landingPageUrl) {
-		try {
-			Map<String, Object> landingPage = fetchJson(landingPageUrl + "?f=json");
-			if (landingPage != null) {
-				List<Map<String, Object>> links = (List<Map<String, Object>>) landingPage.get("links");
-				if (links != null) {
-					for (Map<String, Object> link : links) {
-						String rel = (String) link.get("rel");
-						if (rel != null && matchesRelIgnoringScheme(rel, REL_MAP)) {
-							String href = (String) link.get("href");
-							if (href != null) {
-								return resolveUrl(landingPageUrl, href);
-							}
-						}
-					}
-				}
-			}
-		}
-		catch (Exception e) {
-			// fall through to default
+		String href = getDiscoveredResources().findLandingPageLinkHref(REL_MAP);
+		if (href != null) {
+			return resolveUrl(landingPageUrl, href);
 		}
 		String base = landingPageUrl.endsWith("/") ? landingPageUrl.substring(0, landingPageUrl.length() - 1)
 				: landingPageUrl;
@@ -174,31 +151,15 @@ public class CollectionsParameterTest extends CommonFixture {
 	 * Retrieves available collection IDs from the {@code /collections} endpoint. Full
 	 * namespaced IDs (e.g. {@code NaturalEarth:cultural:ne_10m_admin_0_countries}) are
 	 * returned as-is without any encoding or modification.
-	 * @param landingPageUrl the IUT landing page URL
 	 * @return list of collection IDs; empty if none found or endpoint unreachable
 	 */
-	@SuppressWarnings("unchecked")
-	private List<String> discoverCollectionIds(String landingPageUrl) {
+	private List<String> discoverCollectionIds() {
 		List<String> ids = new ArrayList<>();
-		try {
-			String base = landingPageUrl.endsWith("/") ? landingPageUrl.substring(0, landingPageUrl.length() - 1)
-					: landingPageUrl;
-			Map<String, Object> response = fetchJson(base + "/collections?f=json");
-			if (response != null) {
-				List<Map<String, Object>> collections = (List<Map<String, Object>>) response.get("collections");
-				if (collections != null) {
-					for (Map<String, Object> collection : collections) {
-						String id = (String) collection.get("id");
-						if (id != null && !id.isEmpty()) {
-							ids.add(id);
-						}
-					}
-				}
+		for (String id : getDiscoveredResources().getCollectionIds()) {
+			if (!id.isEmpty()) {
+				ids.add(id);
 			}
 		}
-		catch (Exception e) {
-			// return whatever was collected
-		}
 		return ids;
 	}
 
@@ -208,91 +169,29 @@ public class CollectionsParameterTest extends CommonFixture {
 	 *
 	 * <p>
 	 * Parameters may be defined inline or via {@code $ref} (e.g. {@code {"$ref":
-	 * "#/components/parameters/collections"}}). Both forms are resolved before checking
-	 * the parameter name and location.
-	 * @param landingPageUrl the IUT landing page URL
+	 * "#/components/parameters/collections"}}); the shared API definition index has
+	 * resolved both forms.
 	 * @return {@code true} if the parameter is declared, {@code false} otherwise
 	 */
-	@SuppressWarnings("unchecked")
-	private boolean checkOasCollectionsParam(String landingPageUrl) {
-		try {
-			String base = landingPageUrl.endsWith("/") ? landingPageUrl.substring(0, landingPageUrl.length() - 1)
-					: landingPageUrl;
-			Map<String, Object> api = fetchJson(base + "/api?f=json");
-			if (api == null) {
-				return false;
-			}
-			// Load reusable parameter definitions from components/parameters
-			Map<String, Object> componentParams = new java.util.LinkedHashMap<>();
-			Map<String, Object> components = (Map<String, Object>) api.get("components");
-			if (components != null) {
-				Map<String, Object> cp = (Map<String, Object>) components.get("parameters");
-				if (cp != null) {
-					componentParams.putAll(cp);
-				}
+	private boolean checkOasCollectionsParam() {
+		OpenApiIndex apiDefinition = getOpenApiIndex();
+		if (apiDefinition.getPaths() == null) {
+			return false;
+		}
+		for (String path : apiDefinition.getPaths()) {
+			OpenApiIndex.Operation getOperation = apiDefinition.getOperation(path, "get");
+			if (getOperation == null) {
+				continue;
 			}
-			Map<String, Object> paths = (Map<String, Object>) api.get("paths");
-			if (paths == null) {
-				return false;
+			// Parameter must be optional: required field absent or explicitly false
+			OpenApiIndex.Parameter parameter = getOperation.findParameter("collections", "query");
+			if (parameter != null && !parameter.isRequired()) {
+				return true;
 			}
-			for (Map.Entry<String, Object> pathEntry : paths.entrySet()) {
-				Map<String, Object> pathItem = (Map<String, Object>) pathEntry.getValue();
-				Map<String, Object> getOp = (Map<String, Object>) pathItem.get("get");
-				if (getOp == null) {
-					continue;
-				}
-				List<Map<String, Object>> parameters = (List<Map<String, Object>>) getOp.get("parameters");
-				if (parameters == null) {
-					continue;
-				}
-				for (Map<String, Object> param : parameters) {
-					// Resolve $ref before checking — e.g. {"$ref":
-					// "#/components/parameters/collections"}
-					Map<String, Object> resolved = resolveParamRef(param, componentParams);
-					if ("collections".equals(resolved.get("name")) && "query".equals(resolved.get("in"))) {
-						// Parameter must be optional: required field absent or explicitly
-						// false
-						Object required = resolved.get("required");
-						if (required == null || Boolean.FALSE.equals(required)) {
-							return true;
-						}
-					}
-				}
-			}
-		}
-		catch (Exception e) {
-			// fall through
 		}
 		return false;
 	}
 
-	/**
-	 * Resolves a parameter object that may be an inline definition or a {@code $ref}
-	 * pointing to {@code #/components/parameters/{name}}.
-	 * @param param the raw parameter map from the OAS paths section
-	 * @param componentParams the map of named parameters from
-	 * {@code components/parameters}
-	 * @return the resolved parameter map, or the original if no {@code $ref} is present
-	 * or resolution fails
-	 */
-	@SuppressWarnings("unchecked")
-	private Map<String, Object> resolveParamRef(Map<String, Object> param, Map<String, Object> componentParams) {
-		String ref = (String) param.get("$ref");
-		if (ref == null) {
-			return param;
-		}
-		// "#/components/parameters/collections" → key "collections"
-		String prefix = "#/components/parameters/";
-		if (ref.startsWith(prefix)) {
-			String key = ref.substring(prefix.length());
-			Map<String, Object> resolved = (Map<String, Object>) componentParams.get(key);
-			if (resolved != null) {
-				return resolved;
-			}
-		}
-		return param;
-	}
-
 	/**
 	 * Makes an HTTP GET request using the raw URL string without applying any additional
 	 * percent-encoding. This preserves colons ({@code :}) in namespaced collection IDs
@@ -303,7 +202,7 @@ public class CollectionsParameterTest extends CommonFixture {
 	private int getStatusRaw(String rawUrl) {
 		try {
 			URL url = new URL(rawUrl);
-			HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+			HttpURLConnection conn = openConnection(url);
 			conn.setRequestMethod("GET");
 			conn.setConnectTimeout(10000);
 			conn.setReadTimeout(10000);
@@ -315,28 +214,6 @@ public class CollectionsParameterTest extends CommonFixture {
 		}
 	}
 
-	private Map<String, Object> fetchJson(String urlString) {
-		try {
-			URL url = new URL(urlString);
-			HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-			conn.setRequestMethod("GET");
-			conn.setRequestProperty("Accept", "application/json");
-			conn.setConnectTimeout(10000);
-			conn.setReadTimeout(10000);
-			applyAuth(conn);
-			if (conn.getResponseCode() == 200) {
-				try (InputStream is = conn.getInputStream()) {
-					return OBJECT_MAPPER.readValue(is, new TypeReference<Map<String, Object>>() {
-					});
-				}
-			}
-		}
-		catch (Exception e) {
-			// return null
-		}
-		return null;
-	}
-
 	private String resolveUrl(String baseUrl, String url) {
 		if (url.startsWith("http://") || url.startsWith("https://")) {
 			return url;
@@ -349,15 +226,4 @@ public class CollectionsParameterTest extends CommonFixture {
 		}
 	}
 
-	private boolean matchesRelIgnoringScheme(String actual, String expected) {
-		return normalizeScheme(actual).equals(normalizeScheme(expected));
-	}
-
-	private String normalizeScheme(String rel) {
-		if (rel.startsWith("https://")) {
-			return "http://" + rel.substring("https://".length());
-		}
-		return rel;
-	}
-
 }
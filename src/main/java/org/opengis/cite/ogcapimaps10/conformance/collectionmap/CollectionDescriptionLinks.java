@@ -56,7 +56,7 @@ public class CollectionDescriptionLinks extends CommonDataFixture {
 			throw new SkipException("No collections are available to test Requirement /req/collection-map/desc-links.");
 		}
 
-		int limit = Math.min(noOfCollections, collections.size());
+		int limit = collectionLimit(noOfCollections, collections.size());
 		for (int index = 0; index < limit; index++) {
 			String collectionId = valueAsString(collections.get(index).get("id"));
 			Assert.assertNotNull(collectionId, "Collection at index " + index + " must include an 'id' value.");
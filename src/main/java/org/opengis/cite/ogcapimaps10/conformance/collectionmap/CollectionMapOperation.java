@@ -3,12 +3,20 @@ package org.opengis.cite.ogcapimaps10.conformance.collectionmap;
 import static io.restassured.http.Method.GET;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.opengis.cite.ogcapimaps10.conformance.CommonDataFixture;
+import org.opengis.cite.ogcapimaps10.conformance.SuiteAttribute;
+import org.opengis.cite.ogcapimaps10.util.ConcurrentTasks;
+import org.opengis.cite.ogcapimaps10.util.MessageCapture;
 import org.testng.Assert;
+import org.testng.ITestContext;
 import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import io.restassured.path.json.JsonPath;
@@ -26,6 +34,20 @@ public class CollectionMapOperation extends CommonDataFixture {
 
 	private static final String MAP_REL_COMPACT = "ogc-rel:map";
 
+	private int collectionConcurrency = 1;
+
+	/**
+	 * Reads the maximum number of collections checked concurrently.
+	 * @param testContext the test context
+	 */
+	@BeforeClass
+	public void collectionConcurrency(ITestContext testContext) {
+		Object concurrency = testContext.getSuite().getAttribute(SuiteAttribute.COLLECTION_CONCURRENCY.getName());
+		if (concurrency != null) {
+			this.collectionConcurrency = (Integer) concurrency;
+		}
+	}
+
 	/**
 	 * <pre>
 	 * Abstract test A.48
@@ -57,10 +79,45 @@ public class CollectionMapOperation extends CommonDataFixture {
 					"No collections are available to test Requirement /req/collection-map/map-operation.");
 		}
 
+		int limit = collectionLimit(noOfCollections, collections.size());
+		List<Integer> indexes = IntStream.range(0, limit).boxed().collect(Collectors.toList());
+		// the workers report their requests to the capture of the test
+		MessageCapture capture = getMessageCapture();
+		List<CollectionResult> results = ConcurrentTasks.map(indexes, collectionConcurrency,
+				index -> withMessageCapture(capture, () -> verifyCollection(collections.get(index), index)));
+
+		List<AssertionError> errors = new ArrayList<>();
 		int mapCollections = 0;
-		int limit = Math.min(noOfCollections, collections.size());
-		for (int index = 0; index < limit; index++) {
-			String collectionId = valueAsString(collections.get(index).get("id"));
+		for (CollectionResult result : results) {
+			if (result.error != null) {
+				errors.add(result.error);
+			}
+			else if (result.hasMapLink) {
+				mapCollections++;
+			}
+		}
+		if (errors.size() == 1) {
+			throw errors.get(0);
+		}
+		if (!errors.isEmpty()) {
+			throw new AssertionError(errors.size() + " collections failed:\n"
+					+ errors.stream().map(AssertionError::getMessage).collect(Collectors.joining("\n")));
+		}
+
+		if (mapCollections == 0) {
+			throw new SkipException("No collection descriptions include a map link to test Requirement "
+					+ "/req/collection-map/map-operation.");
+		}
+	}
+
+	/**
+	 * Verifies the map resource of a single collection. Failed assertions are returned
+	 * instead of thrown, so that the results of all collections can be reported in the
+	 * order of the collections.
+	 */
+	private CollectionResult verifyCollection(Map<String, Object> collection, int index) {
+		try {
+			String collectionId = valueAsString(collection.get("id"));
 			Assert.assertNotNull(collectionId, "Collection at index " + index + " must include an 'id' value.");
 			Assert.assertFalse(collectionId.isEmpty(),
 					"Collection at index " + index + " must include a non-empty 'id' value.");
@@ -73,16 +130,13 @@ public class CollectionMapOperation extends CommonDataFixture {
 
 			Map<String, Object> mapLink = findMapLink(descriptionResponse.jsonPath(), collectionId);
 			if (mapLink == null) {
-				continue;
+				return new CollectionResult(false, null);
 			}
-
-			mapCollections++;
 			verifyMapResource(mapLink, collectionId);
+			return new CollectionResult(true, null);
 		}
-
-		if (mapCollections == 0) {
-			throw new SkipException("No collection descriptions include a map link to test Requirement "
-					+ "/req/collection-map/map-operation.");
+		catch (AssertionError e) {
+			return new CollectionResult(true, e);
 		}
 	}
 
@@ -171,4 +225,17 @@ public class CollectionMapOperation extends CommonDataFixture {
 		return value instanceof String ? (String) value : null;
 	}
 
+	private static final class CollectionResult {
+
+		private final boolean hasMapLink;
+
+		private final AssertionError error;
+
+		private CollectionResult(boolean hasMapLink, AssertionError error) {
+			this.hasMapLink = hasMapLink;
+			this.error = error;
+		}
+
+	}
+
 }
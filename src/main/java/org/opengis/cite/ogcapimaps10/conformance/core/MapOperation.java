@@ -52,7 +52,7 @@ public class MapOperation extends CommonFixture {
 	public void verifyMapRetrievalOperation() throws Exception {
 		ObjectMapper objectMapper = new ObjectMapper();
 		String apiUrl = rootUri.toString() + "/collections";
-		HttpURLConnection connection = (HttpURLConnection) new URL(apiUrl).openConnection();
+		HttpURLConnection connection = openConnection(apiUrl);
 		connection.setRequestMethod("GET");
 		connection.setRequestProperty("Accept", "application/json");
 		applyAuth(connection);
@@ -60,7 +60,7 @@ public class MapOperation extends CommonFixture {
 		Map<String, Object> data = objectMapper.readValue(connection.getInputStream(), Map.class);
 		List<Map<String, Object>> collectionsList = (List<Map<String, Object>>) data.get("collections");
 
-		int limit = Math.min(noOfCollections, collectionsList.size());
+		int limit = collectionLimit(noOfCollections, collectionsList.size());
 		for (int i = 0; i < limit; i++) {
 			Map<String, Object> collection = collectionsList.get(i);
 			List<Map<String, Object>> collectionLinks = (List<Map<String, Object>>) collection.get("links");
@@ -81,7 +81,7 @@ public class MapOperation extends CommonFixture {
 			}
 			URL url = uri.toURL();
 
-			HttpURLConnection mapConnection = (HttpURLConnection) url.openConnection();
+			HttpURLConnection mapConnection = openConnection(url);
 			mapConnection.setRequestMethod("GET");
 			mapConnection.setConnectTimeout(5000);
 			mapConnection.setReadTimeout(5000);
@@ -68,7 +68,7 @@ public class MapResponse extends CommonFixture {
 		ObjectMapper objectMapper = new ObjectMapper();
 
 		String apiUrl = rootUri.toString() + "/collections";
-		HttpURLConnection connection = (HttpURLConnection) new URL(apiUrl).openConnection();
+		HttpURLConnection connection = openConnection(apiUrl);
 		connection.setRequestMethod("GET");
 		connection.setRequestProperty("Accept", "application/json");
 
@@ -86,7 +86,7 @@ public class MapResponse extends CommonFixture {
 			.map(item -> (Map<String, Object>) item)
 			.toList();
 
-		int limit = Math.min(noOfCollections, collectionsList.size());
+		int limit = collectionLimit(noOfCollections, collectionsList.size());
 		final String defaultCrs = "https://www.opengis.net/def/crs/OGC/1.3/CRS84";
 
 		boolean validatedAny = false;
@@ -126,7 +126,7 @@ public class MapResponse extends CommonFixture {
 			}
 			URL url = uri.toURL();
 
-			HttpURLConnection mapConnection = (HttpURLConnection) url.openConnection();
+			HttpURLConnection mapConnection = openConnection(url);
 			mapConnection.setRequestMethod("GET");
 
 			Object typeObj = relMap.get("type");
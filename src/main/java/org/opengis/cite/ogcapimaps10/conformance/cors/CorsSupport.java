@@ -2,7 +2,6 @@ package org.opengis.cite.ogcapimaps10.conformance.cors;
 
 import java.net.HttpURLConnection;
 import java.net.URI;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -143,7 +142,7 @@ public class CorsSupport extends CommonFixture {
 				.map(item -> (Map<String, Object>) item)
 				.toList();
 
-			int limit = Math.min(noOfCollections, collections.size());
+			int limit = collectionLimit(noOfCollections, collections.size());
 			return new ArrayList<>(collections.subList(0, limit));
 		}
 		catch (Exception e) {
@@ -341,7 +340,7 @@ public class CorsSupport extends CommonFixture {
 	}
 
 	private HttpURLConnection openConnection(String targetUrl, String method) throws Exception {
-		HttpURLConnection connection = (HttpURLConnection) new URL(targetUrl).openConnection();
+		HttpURLConnection connection = openConnection(targetUrl);
 		connection.setRequestMethod(method);
 		connection.setConnectTimeout(5000);
 		connection.setReadTimeout(5000);
@@ -1,18 +1,17 @@
 package org.opengis.cite.ogcapimaps10.conformance.jpeg;
 
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import javax.imageio.ImageIO;
-
 import org.opengis.cite.ogcapimaps10.conformance.CommonFixture;
 import org.opengis.cite.ogcapimaps10.conformance.SuiteAttribute;
+import org.opengis.cite.ogcapimaps10.domain.DiscoveredResources;
+import org.opengis.cite.ogcapimaps10.domain.ImageHeader;
 import org.opengis.cite.ogcapimaps10.domain.JpegInteractiveTestResult;
+import org.opengis.cite.ogcapimaps10.util.ImageHeaderParser;
+import org.opengis.cite.ogcapimaps10.util.ImageProbe;
 import org.testng.ITestContext;
 import org.testng.SkipException;
 import org.testng.annotations.BeforeClass;
@@ -51,9 +50,9 @@ public class JpegMapContent extends CommonFixture {
 	private static final String REL_MAP = "https://www.opengis.net/def/rel/ogc/1.0/map";
 
 	/**
-	 * JPEG file signature: first 2 bytes are FF D8 (SOI - Start of Image).
+	 * Maximum width and height of the decoded image used by the automated checks.
 	 */
-	private static final byte[] JPEG_SIGNATURE = new byte[] { (byte) 0xFF, (byte) 0xD8 };
+	private static final int PREVIEW_SIZE = 1024;
 
 	private String mapUrl;
 
@@ -129,19 +128,20 @@ public class JpegMapContent extends CommonFixture {
 			byte[] imageBytes = response.asByteArray();
 
 			// Verify JPEG file signature
-			if (!hasJpegSignature(imageBytes)) {
+			if (!ImageHeader.JPEG.equals(ImageHeaderParser.detectFormat(imageBytes))) {
 				errors.add("[Part A] Response body does not have a valid JPEG file signature");
 			}
 
 			// Verify it is a readable JPEG image
-			BufferedImage image = readImage(imageBytes);
-			if (image == null) {
+			ImageHeader header = ImageHeaderParser.parse(imageBytes);
+			BufferedImage preview = header != null ? ImageProbe.readSubsampled(imageBytes, PREVIEW_SIZE) : null;
+			if (preview == null) {
 				errors.add("[Part A] Response body could not be decoded as a valid JPEG image");
 			}
 			else {
-				if (image.getWidth() <= 0 || image.getHeight() <= 0) {
-					errors.add(String.format("[Part A] JPEG image has invalid dimensions: %dx%d", image.getWidth(),
-							image.getHeight()));
+				if (header.getWidth() <= 0 || header.getHeight() <= 0) {
+					errors.add(String.format("[Part A] JPEG image has invalid dimensions: %dx%d", header.getWidth(),
+							header.getHeight()));
 				}
 
 				// ============================================================
@@ -150,7 +150,7 @@ public class JpegMapContent extends CommonFixture {
 				// ============================================================
 
 				// Automated check: verify the image is not completely blank
-				if (isCompletelyBlank(image)) {
+				if (ImageProbe.isUniform(imageBytes, preview)) {
 					errors.add("[Part B] JPEG image appears to be completely blank "
 							+ "(all pixels are the same color). The colors should represent "
 							+ "geospatial features and/or coverage values");
@@ -249,20 +249,8 @@ public class JpegMapContent extends CommonFixture {
 	 * @return The map URL, or null if not found.
 	 */
 	private String findMapUrlFromLandingPage(String landingPageUrl) {
-		try {
-			Response response = init().accept("application/json").when().get(landingPageUrl);
-			if (response.getStatusCode() == 200) {
-				List<Map<String, Object>> links = response.jsonPath().getList("links");
-				String href = findLinkHrefByRel(links, REL_MAP);
-				if (href != null) {
-					return resolveUrl(landingPageUrl, href);
-				}
-			}
-		}
-		catch (Exception e) {
-			// Landing page check failed, continue to collections
-		}
-		return null;
+		String href = getDiscoveredResources().findLandingPageLinkHref(REL_MAP);
+		return href != null ? resolveUrl(landingPageUrl, href) : null;
 	}
 
 	/**
@@ -271,42 +259,14 @@ public class JpegMapContent extends CommonFixture {
 	 * @return The map URL, or null if not found.
 	 */
 	private String findMapUrlFromCollections(String collectionsUrl) {
-		try {
-			Response response = init().accept("application/json").when().get(collectionsUrl);
-			if (response.getStatusCode() == 200) {
-				List<Map<String, Object>> collections = response.jsonPath().getList("collections");
-				if (collections != null) {
-					for (Map<String, Object> collection : collections) {
-						List<Map<String, Object>> links = toMapList(collection.get("links"));
-						String href = findLinkHrefByRel(links, REL_MAP);
-						if (href != null) {
-							return resolveUrl(collectionsUrl, href);
-						}
-					}
-				}
-			}
-		}
-		catch (Exception e) {
-			// Collections check failed
-		}
-		return null;
-	}
-
-	/**
-	 * Finds the href of a link matching the given rel value, with HTTP/HTTPS scheme
-	 * normalization.
-	 * @param links The list of link objects.
-	 * @param rel The expected rel value.
-	 * @return The href string, or null if not found.
-	 */
-	private String findLinkHrefByRel(List<Map<String, Object>> links, String rel) {
-		if (links == null) {
+		DiscoveredResources discovered = getDiscoveredResources();
+		if (discovered.getCollections() == null) {
 			return null;
 		}
-		for (Map<String, Object> link : links) {
-			Object linkRel = link.get("rel");
-			if (linkRel instanceof String && matchesRelIgnoringScheme((String) linkRel, rel)) {
-				return (String) link.get("href");
+		for (Map<String, Object> collection : discovered.getCollections()) {
+			String href = discovered.findLinkHref(collection, REL_MAP);
+			if (href != null) {
+				return resolveUrl(collectionsUrl, href);
 			}
 		}
 		return null;
@@ -343,92 +303,4 @@ public class JpegMapContent extends CommonFixture {
 		}
 	}
 
-	/**
-	 * Reads an image from a byte array.
-	 * @param imageBytes The image bytes.
-	 * @return The BufferedImage, or null if reading fails.
-	 */
-	private BufferedImage readImage(byte[] imageBytes) {
-		try {
-			return ImageIO.read(new ByteArrayInputStream(imageBytes));
-		}
-		catch (IOException e) {
-			return null;
-		}
-	}
-
-	/**
-	 * Checks if the byte array starts with the JPEG file signature (SOI marker: FF D8).
-	 * @param data The byte array to check.
-	 * @return true if the data starts with the JPEG signature.
-	 */
-	private boolean hasJpegSignature(byte[] data) {
-		if (data == null || data.length < JPEG_SIGNATURE.length) {
-			return false;
-		}
-		for (int i = 0; i < JPEG_SIGNATURE.length; i++) {
-			if (data[i] != JPEG_SIGNATURE[i]) {
-				return false;
-			}
-		}
-		return true;
-	}
-
-	/**
-	 * Checks if an image is completely blank (all pixels are the same color).
-	 * @param image The image to check.
-	 * @return true if all pixels have the same RGB value.
-	 */
-	private boolean isCompletelyBlank(BufferedImage image) {
-		if (image.getWidth() == 0 || image.getHeight() == 0) {
-			return true;
-		}
-		int firstPixel = image.getRGB(0, 0);
-		for (int y = 0; y < image.getHeight(); y++) {
-			for (int x = 0; x < image.getWidth(); x++) {
-				if (image.getRGB(x, y) != firstPixel) {
-					return false;
-				}
-			}
-		}
-		return true;
-	}
-
-	private static boolean matchesRelIgnoringScheme(String actual, String expected) {
-		return normalizeScheme(actual).equals(normalizeScheme(expected));
-	}
-
-	private static String normalizeScheme(String rel) {
-		if (rel.startsWith("https://")) {
-			return "http://" + rel.substring("https://".length());
-		}
-		return rel;
-	}
-
-	/**
-	 * Safely converts an Object to a List of Maps.
-	 * @param obj The object to convert.
-	 * @return The list of maps, or null if conversion fails.
-	 */
-	private List<Map<String, Object>> toMapList(Object obj) {
-		if (!(obj instanceof List)) {
-			return null;
-		}
-		List<?> list = (List<?>) obj;
-		List<Map<String, Object>> result = new ArrayList<>();
-		for (Object item : list) {
-			if (item instanceof Map) {
-				Map<?, ?> map = (Map<?, ?>) item;
-				Map<String, Object> typedMap = new HashMap<>();
-				for (Map.Entry<?, ?> entry : map.entrySet()) {
-					if (entry.getKey() instanceof String) {
-						typedMap.put((String) entry.getKey(), entry.getValue());
-					}
-				}
-				result.add(typedMap);
-			}
-		}
-		return result;
-	}
-
 }
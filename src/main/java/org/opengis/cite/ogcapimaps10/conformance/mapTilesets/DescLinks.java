@@ -7,7 +7,6 @@ import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.List;
 import java.util.Map;
 
@@ -125,7 +124,7 @@ public class DescLinks extends CommonFixture {
 
 	protected Map<String, Object> fetchResource(String requestUrl) throws Exception {
 		ObjectMapper objectMapper = new ObjectMapper();
-		HttpURLConnection connection = (HttpURLConnection) new URL(requestUrl).openConnection();
+		HttpURLConnection connection = openConnection(requestUrl);
 		connection.setRequestMethod("GET");
 		connection.setRequestProperty("Accept", "application/json");
 
@@ -5,6 +5,7 @@ import java.util.Map;
 
 import org.opengis.cite.ogcapimaps10.conformance.CommonFixture;
 import org.opengis.cite.ogcapimaps10.conformance.SuiteAttribute;
+import org.opengis.cite.ogcapimaps10.domain.DiscoveredResources;
 import org.testng.ITestContext;
 import org.testng.SkipException;
 import org.testng.annotations.BeforeClass;
@@ -25,6 +26,12 @@ public class TilesParametersFixture extends CommonFixture {
 
 	protected String tilesetsMapUrl;
 
+	/**
+	 * The collection the tilesets-map URL was found in, <code>null</code> if it was found
+	 * in the landing page.
+	 */
+	protected Map<String, Object> tilesetsMapCollection;
+
 	protected ITestContext testContext;
 
 	/**
@@ -65,26 +72,15 @@ public class TilesParametersFixture extends CommonFixture {
 	 * @return true if the SUT declares conformance to the specified class.
 	 */
 	protected boolean hasConformance(String conformanceClassSuffix) {
-		String baseUrl = rootUri.toString();
-		if (baseUrl.endsWith("/")) {
-			baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+		DiscoveredResources discovered = getDiscoveredResources();
+		if (discovered.getConformsTo() == null) {
+			return false;
 		}
-		try {
-			Response response = init().accept("application/json").when().get(baseUrl + "/conformance");
-			if (response.getStatusCode() == 200) {
-				List<String> conformsTo = response.jsonPath().getList("conformsTo");
-				if (conformsTo != null) {
-					for (String uri : conformsTo) {
-						if (uri != null && uri.toLowerCase().contains(conformanceClassSuffix.toLowerCase())) {
-							return true;
-						}
-					}
-				}
+		for (String uri : discovered.getConformsTo()) {
+			if (uri.toLowerCase().contains(conformanceClassSuffix.toLowerCase())) {
+				return true;
 			}
 		}
-		catch (Exception e) {
-			// Failed to check conformance
-		}
 		return false;
 	}
 
@@ -112,38 +108,8 @@ public class TilesParametersFixture extends CommonFixture {
 	 * @return The tilesets-map URL, or null if not found.
 	 */
 	private String findTilesetsMapFromLandingPage(String landingPageUrl) {
-		try {
-			Response response = init().accept("application/json").when().get(landingPageUrl);
-			if (response.getStatusCode() == 200) {
-				List<Map<String, Object>> links = response.jsonPath().getList("links");
-				String tilesetsUrl = findTilesetsMapLink(links);
-				if (tilesetsUrl != null) {
-					return resolveUrl(landingPageUrl, tilesetsUrl);
-				}
-			}
-		}
-		catch (Exception e) {
-			// Landing page check failed, continue to collections
-		}
-		return null;
-	}
-
-	/**
-	 * Finds tilesets-map link from a list of links.
-	 * @param links The list of links.
-	 * @return The href of the tilesets-map link, or null if not found.
-	 */
-	private String findTilesetsMapLink(List<Map<String, Object>> links) {
-		if (links == null) {
-			return null;
-		}
-		for (Map<String, Object> link : links) {
-			String rel = (String) link.get("rel");
-			if (rel != null && matchesRelIgnoringScheme(rel, REL_TILESETS_MAP)) {
-				return (String) link.get("href");
-			}
-		}
-		return null;
+		String tilesetsUrl = getDiscoveredResources().findLandingPageLinkHref(REL_TILESETS_MAP);
+		return tilesetsUrl != null ? resolveUrl(landingPageUrl, tilesetsUrl) : null;
 	}
 
 	/**
@@ -184,24 +150,16 @@ public class TilesParametersFixture extends CommonFixture {
 	 * @return The tilesets-map URL, or null if not found.
 	 */
 	private String findTilesetsMapFromCollections(String collectionsUrl) {
-		try {
-			Response response = init().accept("application/json").when().get(collectionsUrl);
-			if (response.getStatusCode() == 200) {
-				List<Map<String, Object>> collections = response.jsonPath().getList("collections");
-				if (collections != null) {
-					for (Map<String, Object> collection : collections) {
-						Object linksObj = collection.get("links");
-						List<Map<String, Object>> links = toMapList(linksObj);
-						String tilesetsUrl = findTilesetsMapLink(links);
-						if (tilesetsUrl != null) {
-							return resolveUrl(collectionsUrl, tilesetsUrl);
-						}
-					}
-				}
-			}
+		DiscoveredResources discovered = getDiscoveredResources();
+		if (discovered.getCollections() == null) {
+			return null;
 		}
-		catch (Exception e) {
-			// Collections check failed
+		for (Map<String, Object> collection : discovered.getCollections()) {
+			String tilesetsUrl = discovered.findLinkHref(collection, REL_TILESETS_MAP);
+			if (tilesetsUrl != null) {
+				tilesetsMapCollection = collection;
+				return resolveUrl(collectionsUrl, tilesetsUrl);
+			}
 		}
 		return null;
 	}
@@ -1,14 +1,11 @@
 package org.opengis.cite.ogcapimaps10.conformance.mapTilesets;
 
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
-import javax.imageio.ImageIO;
-
+import org.opengis.cite.ogcapimaps10.domain.ImageInfo;
+import org.opengis.cite.ogcapimaps10.util.ImageProbe;
 import org.testng.ITestContext;
 import org.testng.SkipException;
 import org.testng.annotations.Test;
@@ -174,7 +171,7 @@ public class TilesParametersTest extends TilesParametersFixture {
 					errors.add(String.format("[Scaling/width] Expected image content type but got: %s", contentType));
 				}
 				else {
-					BufferedImage image = readImage(response.asByteArray());
+					ImageInfo image = ImageProbe.probe(response.asByteArray());
 					if (image == null) {
 						errors.add("[Scaling/width] Failed to read image from response");
 					}
@@ -198,7 +195,7 @@ public class TilesParametersTest extends TilesParametersFixture {
 				errors.add(String.format("[Scaling/height] Expected status 200 but got %d", response.getStatusCode()));
 			}
 			else {
-				BufferedImage image = readImage(response.asByteArray());
+				ImageInfo image = ImageProbe.probe(response.asByteArray());
 				if (image == null) {
 					errors.add("[Scaling/height] Failed to read image from response");
 				}
@@ -226,7 +223,7 @@ public class TilesParametersTest extends TilesParametersFixture {
 						response.getStatusCode()));
 			}
 			else {
-				BufferedImage image = readImage(response.asByteArray());
+				ImageInfo image = ImageProbe.probe(response.asByteArray());
 				if (image == null) {
 					errors.add("[Scaling/width+height] Failed to read image from response");
 				}
@@ -401,18 +398,4 @@ public class TilesParametersTest extends TilesParametersFixture {
 		return tilesetUrl + "/" + getTileMatrixSet() + "/0/0/0.png";
 	}
 
-	/**
-	 * Reads an image from byte array.
-	 * @param imageBytes The image bytes.
-	 * @return The BufferedImage, or null if reading fails.
-	 */
-	private BufferedImage readImage(byte[] imageBytes) {
-		try {
-			return ImageIO.read(new ByteArrayInputStream(imageBytes));
-		}
-		catch (IOException e) {
-			return null;
-		}
-	}
-
 }
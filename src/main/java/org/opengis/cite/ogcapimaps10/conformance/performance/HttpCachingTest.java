@@ -0,0 +1,160 @@
+package org.opengis.cite.ogcapimaps10.conformance.performance;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+import org.opengis.cite.ogcapimaps10.conformance.SuiteAttribute;
+import org.opengis.cite.ogcapimaps10.conformance.mapTilesets.TilesParametersFixture;
+import org.opengis.cite.ogcapimaps10.domain.DiscoveredResources;
+import org.opengis.cite.ogcapimaps10.util.CachingCheck;
+import org.opengis.cite.ogcapimaps10.util.TestSuiteLogger;
+import org.testng.ITestContext;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Optional checks of the HTTP caching behaviour of the map and tile resources, not part
+ * of the conformance classes of the standard. They are only run if enabled by
+ * {@link org.opengis.cite.ogcapimaps10.TestRunArg#CACHING_TEST_ENABLED}.
+ *
+ * <p>
+ * A map (of the first collection with a map, else the dataset map) and the tile 0/0/0 of
+ * the tileset of the selected TileMatrixSet are requested and replayed with If-None-Match
+ * and If-Modified-Since. Variants of the map by media type and, if the background
+ * conformance class is declared, by bgcolor and transparent are compared. The max-age,
+ * Vary header and the caching efficiency are logged.
+ * </p>
+ */
+public class HttpCachingTest extends TilesParametersFixture {
+
+	private static final String REL_MAP = "https://www.opengis.net/def/rel/ogc/1.0/map";
+
+	private static final String ACCEPT_IMAGE = "image/png, image/jpeg;q=0.9, image/*;q=0.8";
+
+	private CachingCheck.Resource map;
+
+	private CachingCheck.Resource tile;
+
+	private List<String> varyErrors;
+
+	/**
+	 * Requests the map and tile resources.
+	 * @param testContext The test context containing suite attributes.
+	 */
+	@BeforeClass
+	public void runCachingChecks(ITestContext testContext) {
+		Object enabled = testContext.getSuite().getAttribute(SuiteAttribute.CACHING_TEST_ENABLED.getName());
+		if (!Boolean.TRUE.equals(enabled))
+			throw new SkipException("Caching checks are not enabled.");
+		CachingCheck check = new CachingCheck(transport, basicAuthHeader);
+		String mapUrl = findMapUrl();
+		String tileUrl = findTileUrl();
+		try {
+			if (mapUrl != null) {
+				map = check.checkConditionalRequests("map", mapUrl, ACCEPT_IMAGE);
+				varyErrors = check.checkVariants(mapVariants(mapUrl));
+			}
+			if (tileUrl != null)
+				tile = check.checkConditionalRequests("tile", tileUrl, ACCEPT_IMAGE);
+		}
+		catch (IOException e) {
+			throw new SkipException("Caching checks could not be run: " + e.getMessage());
+		}
+		StringWriter summary = new StringWriter();
+		check.writeSummary(summary);
+		TestSuiteLogger.log(Level.INFO, "HTTP caching\n" + summary);
+	}
+
+	/**
+	 * Verifies that a map is answered with 304 Not Modified if requested with the ETag or
+	 * Last-Modified date of the previous response.
+	 */
+	@Test(description = "Verifies that the map resource answers conditional requests with If-None-Match and If-Modified-Since with 304 Not Modified")
+	public void verifyMapConditionalRequests() {
+		verifyConditionalRequests(map, "map");
+	}
+
+	/**
+	 * Verifies that a tile is answered with 304 Not Modified if requested with the ETag
+	 * or Last-Modified date of the previous response.
+	 */
+	@Test(description = "Verifies that the map tile resource answers conditional requests with If-None-Match and If-Modified-Since with 304 Not Modified")
+	public void verifyTileConditionalRequests() {
+		verifyConditionalRequests(tile, "map tile");
+	}
+
+	/**
+	 * Verifies that the map declares <code>Vary: Accept</code> if the same URL returns
+	 * different media types, and that different representations do not share a strong
+	 * ETag.
+	 */
+	@Test(description = "Verifies the Vary header and the ETags of the variants of the map resource by media type, bgcolor and transparent")
+	public void verifyVariants() {
+		if (varyErrors == null)
+			throw new SkipException("No map resource found.");
+		if (!varyErrors.isEmpty())
+			throw new AssertionError("Variants of the map are not distinguishable by caches: " + varyErrors);
+	}
+
+	private void verifyConditionalRequests(CachingCheck.Resource resource, String name) {
+		if (resource == null)
+			throw new SkipException("No " + name + " resource found.");
+		if (resource.getFirst().getStatus() != 200)
+			throw new SkipException(String.format("The %s resource %s returned status %d.", name, resource.getUrl(),
+					resource.getFirst().getStatus()));
+		if (!resource.hasValidators())
+			throw new SkipException(String.format("The %s resource %s has neither an ETag nor a Last-Modified header.",
+					name, resource.getUrl()));
+		List<String> errors = resource.getErrors();
+		if (!errors.isEmpty())
+			throw new AssertionError("Conditional requests are not handled correctly: " + errors);
+	}
+
+	private List<CachingCheck.Variant> mapVariants(String mapUrl) {
+		List<CachingCheck.Variant> variants = new ArrayList<>();
+		variants.add(new CachingCheck.Variant(mapUrl, "image/png"));
+		variants.add(new CachingCheck.Variant(mapUrl, "image/jpeg"));
+		if (hasConformance("/conf/background")) {
+			String separator = mapUrl.contains("?") ? "&" : "?";
+			variants.add(new CachingCheck.Variant(mapUrl + separator + "bgcolor=0xFF0000", "image/png"));
+			variants.add(new CachingCheck.Variant(mapUrl + separator + "transparent=true", "image/png"));
+			variants.add(new CachingCheck.Variant(mapUrl + separator + "transparent=false", "image/png"));
+		}
+		return variants;
+	}
+
+	private String findMapUrl() {
+		DiscoveredResources discovered = getDiscoveredResources();
+		URI landingPageUri = URI.create(withoutTrailingSlash(rootUri.toString()) + "/");
+		if (discovered.getCollections() != null) {
+			for (Map<String, Object> collection : discovered.getCollections()) {
+				String href = discovered.findLinkHref(collection, REL_MAP);
+				if (href != null)
+					return landingPageUri.resolve("collections/").resolve(href).toString();
+			}
+		}
+		String href = discovered.findLandingPageLinkHref(REL_MAP);
+		return href != null ? landingPageUri.resolve(href).toString() : null;
+	}
+
+	private String findTileUrl() {
+		String template = getTileUrlTemplate(getFirstTilesetUrl());
+		if (template == null)
+			return null;
+		return template.replace("{tileMatrixSetId}", getTileMatrixSet())
+			.replace("{tileMatrix}", "0")
+			.replace("{tileRow}", "0")
+			.replace("{tileCol}", "0");
+	}
+
+	private static String withoutTrailingSlash(String url) {
+		return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+	}
+
+}
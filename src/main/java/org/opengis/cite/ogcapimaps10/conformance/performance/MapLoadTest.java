@@ -0,0 +1,169 @@
+package org.opengis.cite.ogcapimaps10.conformance.performance;
+
+import static org.opengis.cite.ogcapimaps10.OgcApiMaps10.DEFAULT_CRS;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+
+import org.opengis.cite.ogcapimaps10.conformance.CommonFixture;
+import org.opengis.cite.ogcapimaps10.conformance.SuiteAttribute;
+import org.opengis.cite.ogcapimaps10.domain.DiscoveredResources;
+import org.opengis.cite.ogcapimaps10.domain.LoadTestSettings;
+import org.opengis.cite.ogcapimaps10.util.BBox;
+import org.opengis.cite.ogcapimaps10.util.JsonUtils;
+import org.opengis.cite.ogcapimaps10.util.MapLoadGenerator;
+import org.opengis.cite.ogcapimaps10.util.TestSuiteLogger;
+import org.testng.ITestContext;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Optional load test of the map resources, not part of the conformance classes of the
+ * standard. It is only run if enabled by
+ * {@link org.opengis.cite.ogcapimaps10.TestRunArg#LOAD_TEST_ENABLED}.
+ *
+ * <p>
+ * The map resources are discovered as in the PNG conformance class: collections with a
+ * link with rel {@code [ogc-rel:map]} are requested for random parts of their spatial
+ * extent, the dataset map of the landing page is requested for random parts of the world
+ * if no collection has a map. The throughput, latency percentiles and error rate are
+ * checked against the thresholds given as test run arguments.
+ * </p>
+ */
+public class MapLoadTest extends CommonFixture {
+
+	private static final String REL_MAP = "https://www.opengis.net/def/rel/ogc/1.0/map";
+
+	private static final BBox WORLD = new BBox(-180, -90, 180, 90, DEFAULT_CRS);
+
+	private LoadTestSettings settings;
+
+	private MapLoadGenerator.Result result;
+
+	/**
+	 * Discovers the map resources and sends the requests.
+	 * @param testContext The test context containing suite attributes.
+	 */
+	@BeforeClass
+	public void runLoadTest(ITestContext testContext) {
+		Object attribute = testContext.getSuite().getAttribute(SuiteAttribute.LOAD_TEST_SETTINGS.getName());
+		settings = attribute instanceof LoadTestSettings ? (LoadTestSettings) attribute : new LoadTestSettings();
+		if (!settings.isEnabled())
+			throw new SkipException("Load test is not enabled.");
+		List<MapLoadGenerator.Target> targets = findTargets();
+		if (targets.isEmpty())
+			throw new SkipException("No map resource URL found. The server must provide a link with "
+					+ "rel='[ogc-rel:map]' in the landing page or collection descriptions.");
+		MapLoadGenerator generator = new MapLoadGenerator(transport, basicAuthHeader, rootUri.hashCode());
+		result = generator.run(targets, settings.getRequests(), settings.getConcurrency());
+		TestSuiteLogger.log(Level.INFO, String.format(Locale.ROOT,
+				"Load test of %d map resources: %d requests, %d concurrent, %.1f requests/s, "
+						+ "p50 %.1f ms, p95 %.1f ms, p99 %.1f ms, %.2f%% errors",
+				targets.size(), result.getRequests(), settings.getConcurrency(), result.getThroughput(),
+				result.getLatencyMillis(50), result.getLatencyMillis(95), result.getLatencyMillis(99),
+				result.getErrorRate()));
+		if (result.isAborted())
+			TestSuiteLogger.log(Level.WARNING, "Load test aborted: " + result.getAbortReason());
+	}
+
+	/**
+	 * Verifies that the server answers at least the minimum number of map requests per
+	 * second.
+	 */
+	@Test(description = "Verifies the map request throughput against the threshold load_test_min_throughput")
+	public void verifyThroughput() {
+		double min = settings.getMinThroughput();
+		if (min <= 0)
+			throw new SkipException("No minimum throughput configured.");
+		checkCompleted();
+		if (result.getThroughput() < min)
+			throw new AssertionError(String.format(Locale.ROOT,
+					"Throughput of %.1f requests/s is below the minimum of %.1f requests/s (%d requests, %d concurrent)",
+					result.getThroughput(), min, result.getRequests(), settings.getConcurrency()));
+	}
+
+	/**
+	 * Verifies the 50th, 95th and 99th percentile of the latency of the map requests.
+	 */
+	@Test(description = "Verifies the map request latency against the thresholds load_test_max_p50, load_test_max_p95 and load_test_max_p99")
+	public void verifyLatency() {
+		if (settings.getMaxP50Millis() <= 0 && settings.getMaxP95Millis() <= 0 && settings.getMaxP99Millis() <= 0)
+			throw new SkipException("No maximum latency configured.");
+		checkCompleted();
+		List<String> errors = new ArrayList<>();
+		checkLatency(50, settings.getMaxP50Millis(), errors);
+		checkLatency(95, settings.getMaxP95Millis(), errors);
+		checkLatency(99, settings.getMaxP99Millis(), errors);
+		if (!errors.isEmpty())
+			throw new AssertionError("Latency exceeds the threshold: " + String.join(", ", errors));
+	}
+
+	/**
+	 * Verifies that the percentage of failed map requests does not exceed the maximum. A
+	 * request fails if the response is not a 200 response with an image media type.
+	 */
+	@Test(description = "Verifies the rate of failed map requests against the threshold load_test_max_error_rate")
+	public void verifyErrorRate() {
+		checkCompleted();
+		if (result.getErrorRate() > settings.getMaxErrorRate())
+			throw new AssertionError(String.format(Locale.ROOT,
+					"%d of %d map requests (%.2f%%) failed, the maximum is %.2f%%. First errors: %s",
+					result.getErrors(), result.getRequests(), result.getErrorRate(), settings.getMaxErrorRate(),
+					result.getErrorMessages()));
+	}
+
+	private void checkCompleted() {
+		if (result.isAborted())
+			throw new AssertionError(String.format(Locale.ROOT, "Load test aborted after %d of %d requests: %s",
+					result.getRequests(), settings.getRequests(), result.getAbortReason()));
+	}
+
+	private void checkLatency(double percentile, double maxMillis, List<String> errors) {
+		if (maxMillis <= 0)
+			return;
+		double millis = result.getLatencyMillis(percentile);
+		if (millis > maxMillis)
+			errors.add(String.format(Locale.ROOT, "p%.0f is %.1f ms (maximum %.1f ms)", percentile, millis, maxMillis));
+	}
+
+	private List<MapLoadGenerator.Target> findTargets() {
+		List<MapLoadGenerator.Target> targets = new ArrayList<>();
+		DiscoveredResources discovered = getDiscoveredResources();
+		URI landingPageUri = URI.create(withoutTrailingSlash(rootUri.toString()) + "/");
+		URI collectionsUri = landingPageUri.resolve("collections/");
+		if (discovered.getCollections() != null) {
+			for (Map<String, Object> collection : discovered.getCollections()) {
+				String href = discovered.findLinkHref(collection, REL_MAP);
+				BBox extent = spatialExtent(collection);
+				if (href != null && extent != null)
+					targets.add(new MapLoadGenerator.Target(collectionsUri.resolve(href).toString(), extent));
+			}
+		}
+		if (targets.isEmpty()) {
+			String href = discovered.findLandingPageLinkHref(REL_MAP);
+			if (href != null)
+				targets.add(new MapLoadGenerator.Target(landingPageUri.resolve(href).toString(), WORLD));
+		}
+		return targets;
+	}
+
+	private static BBox spatialExtent(Map<String, Object> collection) {
+		try {
+			return JsonUtils.parseSpatialExtent(collection);
+		}
+		catch (IllegalArgumentException | ClassCastException e) {
+			// e.g. a bbox with height
+			return null;
+		}
+	}
+
+	private static String withoutTrailingSlash(String url) {
+		return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+	}
+
+}
@@ -0,0 +1,95 @@
+package org.opengis.cite.ogcapimaps10.conformance.performance;
+
+import static org.opengis.cite.ogcapimaps10.OgcApiMaps10.DEFAULT_CRS_CODE;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.logging.Level;
+
+import org.opengis.cite.ogcapimaps10.conformance.SuiteAttribute;
+import org.opengis.cite.ogcapimaps10.conformance.mapTilesets.TilesParametersFixture;
+import org.opengis.cite.ogcapimaps10.domain.TileSweepSettings;
+import org.opengis.cite.ogcapimaps10.util.BBox;
+import org.opengis.cite.ogcapimaps10.util.JsonUtils;
+import org.opengis.cite.ogcapimaps10.util.TestSuiteLogger;
+import org.opengis.cite.ogcapimaps10.util.TileMatrixSets;
+import org.opengis.cite.ogcapimaps10.util.TileSweep;
+import org.testng.ITestContext;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+/**
+ * Optional sweep over the tile pyramid of a map tileset, not part of the conformance
+ * classes of the standard. It is only run if enabled by
+ * {@link org.opengis.cite.ogcapimaps10.TestRunArg#TILE_SWEEP_ENABLED}.
+ *
+ * <p>
+ * The tileset of the selected TileMatrixSet is found as in the tiles-parameters test. For
+ * each zoom level of the configured range the tiles within the spatial extent of the
+ * collection (or of the world for a dataset tileset) are requested, a sample of them if
+ * there are too many. The latency distribution, bytes per tile and cache indicators per
+ * zoom level are logged and written to the report of
+ * {@link org.opengis.cite.ogcapimaps10.listener.TileSweepReporter}.
+ * </p>
+ */
+public class TileSweepTest extends TilesParametersFixture {
+
+	private static final BBox WORLD = new BBox(-180, -90, 180, 90);
+
+	/**
+	 * Requests the tiles of the configured zoom levels and fails if a tile could not be
+	 * retrieved because of a server error, or was not an image.
+	 * @param context The test context containing suite attributes.
+	 */
+	@Test(description = "Requests the map tiles of a range of zoom levels within the extent of the collection")
+	public void sweepTilePyramid(ITestContext context) {
+		Object attribute = context.getSuite().getAttribute(SuiteAttribute.TILE_SWEEP_SETTINGS.getName());
+		TileSweepSettings settings = attribute instanceof TileSweepSettings ? (TileSweepSettings) attribute
+				: new TileSweepSettings();
+		if (!settings.isEnabled())
+			throw new SkipException("Tile sweep is not enabled.");
+		String tilesetUrl = getFirstTilesetUrl();
+		if (tilesetUrl == null)
+			throw new SkipException("No map tileset found for TileMatrixSet " + getTileMatrixSet() + ".");
+		if (!TileMatrixSets.isSupported(getTileMatrixSet()))
+			throw new SkipException("Tiles of TileMatrixSet " + getTileMatrixSet() + " cannot be computed.");
+		String template = getTileUrlTemplate(tilesetUrl);
+		if (template == null)
+			throw new SkipException("No tile URL template with an image media type found in " + tilesetUrl + ".");
+		template = template.replace("{tileMatrixSetId}", getTileMatrixSet());
+
+		List<TileSweep.Tile> tiles = TileSweep.selectTiles(getTileMatrixSet(), sweepExtent(), settings.getMinZoom(),
+				settings.getMaxZoom(), settings.getTilesPerLevel(), template.hashCode());
+		TileSweep sweep = new TileSweep(transport, basicAuthHeader);
+		sweep.run(template, tiles, settings.getConcurrency());
+		context.getSuite().setAttribute(SuiteAttribute.TILE_SWEEP.getName(), sweep);
+		StringWriter summary = new StringWriter();
+		sweep.writeSummary(summary);
+		TestSuiteLogger.log(Level.INFO, "Tile sweep\n" + summary);
+
+		// the tiles are not needed for the failure report
+		clearMessages();
+		if (sweep.isAborted())
+			throw new AssertionError("Tile sweep aborted: " + sweep.getAbortReason());
+		if (sweep.getErrors() > 0)
+			throw new AssertionError(String.format("%d of %d tiles could not be retrieved. First errors: %s",
+					sweep.getErrors(), tiles.size(), sweep.getErrorMessages()));
+	}
+
+	private BBox sweepExtent() {
+		if (tilesetsMapCollection == null)
+			return WORLD;
+		BBox extent;
+		try {
+			extent = JsonUtils.parseSpatialExtent(tilesetsMapCollection);
+		}
+		catch (IllegalArgumentException | ClassCastException e) {
+			// e.g. a bbox with height
+			return WORLD;
+		}
+		if (extent == null || (extent.getCrs() != null && !DEFAULT_CRS_CODE.equals(extent.getCrs().getCode())))
+			return WORLD;
+		return extent;
+	}
+
+}
@@ -1,18 +1,17 @@
 package org.opengis.cite.ogcapimaps10.conformance.png;
 
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import javax.imageio.ImageIO;
-
 import org.opengis.cite.ogcapimaps10.conformance.CommonFixture;
 import org.opengis.cite.ogcapimaps10.conformance.SuiteAttribute;
+import org.opengis.cite.ogcapimaps10.domain.DiscoveredResources;
+import org.opengis.cite.ogcapimaps10.domain.ImageHeader;
 import org.opengis.cite.ogcapimaps10.domain.PngInteractiveTestResult;
+import org.opengis.cite.ogcapimaps10.util.ImageHeaderParser;
+import org.opengis.cite.ogcapimaps10.util.ImageProbe;
 import org.testng.ITestContext;
 import org.testng.SkipException;
 import org.testng.annotations.BeforeClass;
@@ -53,9 +52,9 @@ public class PNGmapContent extends CommonFixture {
 	private static final String REL_MAP = "https://www.opengis.net/def/rel/ogc/1.0/map";
 
 	/**
-	 * PNG file signature: 8 bytes (137 80 78 71 13 10 26 10).
+	 * Maximum width and height of the decoded image used by the automated checks.
 	 */
-	private static final byte[] PNG_SIGNATURE = new byte[] { (byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A };
+	private static final int PREVIEW_SIZE = 1024;
 
 	private String mapUrl;
 
@@ -133,19 +132,20 @@ public class PNGmapContent extends CommonFixture {
 			byte[] imageBytes = response.asByteArray();
 
 			// Verify PNG file signature
-			if (!hasPngSignature(imageBytes)) {
+			if (!ImageHeader.PNG.equals(ImageHeaderParser.detectFormat(imageBytes))) {
 				errors.add("[Part A] Response body does not have a valid PNG file signature");
 			}
 
 			// Verify it is a readable PNG image
-			BufferedImage image = readImage(imageBytes);
-			if (image == null) {
+			ImageHeader header = ImageHeaderParser.parse(imageBytes);
+			BufferedImage preview = header != null ? ImageProbe.readSubsampled(imageBytes, PREVIEW_SIZE) : null;
+			if (preview == null) {
 				errors.add("[Part A] Response body could not be decoded as a valid PNG image");
 			}
 			else {
-				if (image.getWidth() <= 0 || image.getHeight() <= 0) {
-					errors.add(String.format("[Part A] PNG image has invalid dimensions: %dx%d", image.getWidth(),
-							image.getHeight()));
+				if (header.getWidth() <= 0 || header.getHeight() <= 0) {
+					errors.add(String.format("[Part A] PNG image has invalid dimensions: %dx%d", header.getWidth(),
+							header.getHeight()));
 				}
 
 				// ============================================================
@@ -154,7 +154,7 @@ public class PNGmapContent extends CommonFixture {
 				// ============================================================
 
 				// Automated check: verify the image is not completely blank
-				if (isCompletelyBlank(image)) {
+				if (ImageProbe.isUniform(imageBytes, preview)) {
 					errors.add("[Part B] PNG image appears to be completely blank "
 							+ "(all pixels are the same color). The colors should represent "
 							+ "geospatial features or coverage values");
@@ -164,7 +164,7 @@ public class PNGmapContent extends CommonFixture {
 				// Part C: The alpha channel of the PNG SHALL be used when
 				// partial transparency is required
 				// ============================================================
-				if (!image.getColorModel().hasAlpha()) {
+				if (!header.hasAlpha()) {
 					errors.add("[Part C] PNG image does not support alpha channel. "
 							+ "The PNG format SHALL support alpha channel for partial " + "transparency when required");
 				}
@@ -262,20 +262,8 @@ public class PNGmapContent extends CommonFixture {
 	 * @return The map URL, or null if not found.
 	 */
 	private String findMapUrlFromLandingPage(String landingPageUrl) {
-		try {
-			Response response = init().accept("application/json").when().get(landingPageUrl);
-			if (response.getStatusCode() == 200) {
-				List<Map<String, Object>> links = response.jsonPath().getList("links");
-				String href = findLinkHrefByRel(links, REL_MAP);
-				if (href != null) {
-					return resolveUrl(landingPageUrl, href);
-				}
-			}
-		}
-		catch (Exception e) {
-			// Landing page check failed, continue to collections
-		}
-		return null;
+		String href = getDiscoveredResources().findLandingPageLinkHref(REL_MAP);
+		return href != null ? resolveUrl(landingPageUrl, href) : null;
 	}
 
 	/**
@@ -284,42 +272,14 @@ public class PNGmapContent extends CommonFixture {
 	 * @return The map URL, or null if not found.
 	 */
 	private String findMapUrlFromCollections(String collectionsUrl) {
-		try {
-			Response response = init().accept("application/json").when().get(collectionsUrl);
-			if (response.getStatusCode() == 200) {
-				List<Map<String, Object>> collections = response.jsonPath().getList("collections");
-				if (collections != null) {
-					for (Map<String, Object> collection : collections) {
-						List<Map<String, Object>> links = toMapList(collection.get("links"));
-						String href = findLinkHrefByRel(links, REL_MAP);
-						if (href != null) {
-							return resolveUrl(collectionsUrl, href);
-						}
-					}
-				}
-			}
-		}
-		catch (Exception e) {
-			// Collections check failed
-		}
-		return null;
-	}
-
-	/**
-	 * Finds the href of a link matching the given rel value, with HTTP/HTTPS scheme
-	 * normalization.
-	 * @param links The list of link objects.
-	 * @param rel The expected rel value.
-	 * @return The href string, or null if not found.
-	 */
-	private String findLinkHrefByRel(List<Map<String, Object>> links, String rel) {
-		if (links == null) {
+		DiscoveredResources discovered = getDiscoveredResources();
+		if (discovered.getCollections() == null) {
 			return null;
 		}
-		for (Map<String, Object> link : links) {
-			Object linkRel = link.get("rel");
-			if (linkRel instanceof String && matchesRelIgnoringScheme((String) linkRel, rel)) {
-				return (String) link.get("href");
+		for (Map<String, Object> collection : discovered.getCollections()) {
+			String href = discovered.findLinkHref(collection, REL_MAP);
+			if (href != null) {
+				return resolveUrl(collectionsUrl, href);
 			}
 		}
 		return null;
@@ -356,92 +316,4 @@ public class PNGmapContent extends CommonFixture {
 		}
 	}
 
-	/**
-	 * Reads an image from a byte array.
-	 * @param imageBytes The image bytes.
-	 * @return The BufferedImage, or null if reading fails.
-	 */
-	private BufferedImage readImage(byte[] imageBytes) {
-		try {
-			return ImageIO.read(new ByteArrayInputStream(imageBytes));
-		}
-		catch (IOException e) {
-			return null;
-		}
-	}
-
-	/**
-	 * Checks if the byte array starts with the PNG file signature.
-	 * @param data The byte array to check.
-	 * @return true if the data starts with the PNG signature.
-	 */
-	private boolean hasPngSignature(byte[] data) {
-		if (data == null || data.length < PNG_SIGNATURE.length) {
-			return false;
-		}
-		for (int i = 0; i < PNG_SIGNATURE.length; i++) {
-			if (data[i] != PNG_SIGNATURE[i]) {
-				return false;
-			}
-		}
-		return true;
-	}
-
-	/**
-	 * Checks if an image is completely blank (all pixels are the same color).
-	 * @param image The image to check.
-	 * @return true if all pixels have the same RGB value.
-	 */
-	private boolean isCompletelyBlank(BufferedImage image) {
-		if (image.getWidth() == 0 || image.getHeight() == 0) {
-			return true;
-		}
-		int firstPixel = image.getRGB(0, 0);
-		for (int y = 0; y < image.getHeight(); y++) {
-			for (int x = 0; x < image.getWidth(); x++) {
-				if (image.getRGB(x, y) != firstPixel) {
-					return false;
-				}
-			}
-		}
-		return true;
-	}
-
-	private static boolean matchesRelIgnoringScheme(String actual, String expected) {
-		return normalizeScheme(actual).equals(normalizeScheme(expected));
-	}
-
-	private static String normalizeScheme(String rel) {
-		if (rel.startsWith("https://")) {
-			return "http://" + rel.substring("https://".length());
-		}
-		return rel;
-	}
-
-	/**
-	 * Safely converts an Object to a List of Maps.
-	 * @param obj The object to convert.
-	 * @return The list of maps, or null if conversion fails.
-	 */
-	private List<Map<String, Object>> toMapList(Object obj) {
-		if (!(obj instanceof List)) {
-			return null;
-		}
-		List<?> list = (List<?>) obj;
-		List<Map<String, Object>> result = new ArrayList<>();
-		for (Object item : list) {
-			if (item instanceof Map) {
-				Map<?, ?> map = (Map<?, ?>) item;
-				Map<String, Object> typedMap = new HashMap<>();
-				for (Map.Entry<?, ?> entry : map.entrySet()) {
-					if (entry.getKey() instanceof String) {
-						typedMap.put((String) entry.getKey(), entry.getValue());
-					}
-				}
-				result.add(typedMap);
-			}
-		}
-		return result;
-	}
-
 }
@@ -6,7 +6,6 @@ import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -154,29 +153,7 @@ public class StyledMapOperation extends CommonFixture {
 	}
 
 	private List<String> readCollectionIds() {
-		Response response = init().baseUri(resolvePath("/collections")).accept("application/json").when().request(GET);
-		if (response.statusCode() < 200 || response.statusCode() >= 300) {
-			return Collections.emptyList();
-		}
-		List<Map<String, Object>> collections;
-		try {
-			collections = response.jsonPath().getList("collections");
-		}
-		catch (RuntimeException e) {
-			return Collections.emptyList();
-		}
-		if (collections == null) {
-			return Collections.emptyList();
-		}
-
-		List<String> collectionIds = new ArrayList<>();
-		for (Map<String, Object> collection : collections) {
-			Object id = collection.get("id");
-			if (id instanceof String) {
-				collectionIds.add((String) id);
-			}
-		}
-		return collectionIds;
+		return getDiscoveredResources().getCollectionIds();
 	}
 
 	private String findMapLinkHref(Map<String, Object> style) {
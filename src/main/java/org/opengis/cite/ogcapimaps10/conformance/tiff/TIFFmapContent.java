@@ -1,18 +1,16 @@
 package org.opengis.cite.ogcapimaps10.conformance.tiff;
 
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import javax.imageio.ImageIO;
-
 import org.opengis.cite.ogcapimaps10.conformance.CommonFixture;
 import org.opengis.cite.ogcapimaps10.conformance.SuiteAttribute;
+import org.opengis.cite.ogcapimaps10.domain.DiscoveredResources;
+import org.opengis.cite.ogcapimaps10.domain.ImageHeader;
 import org.opengis.cite.ogcapimaps10.domain.TiffInteractiveTestResult;
+import org.opengis.cite.ogcapimaps10.util.ImageHeaderParser;
+import org.opengis.cite.ogcapimaps10.util.ImageProbe;
 import org.testng.ITestContext;
 import org.testng.SkipException;
 import org.testng.annotations.BeforeClass;
@@ -52,13 +50,24 @@ public class TIFFmapContent extends CommonFixture {
 
 	private static final String REL_MAP = "https://www.opengis.net/def/rel/ogc/1.0/map";
 
+	private static final int PHOTOMETRIC_WHITE_IS_ZERO = 0;
+
+	private static final int PHOTOMETRIC_BLACK_IS_ZERO = 1;
+
+	private static final int PHOTOMETRIC_RGB = 2;
+
+	private static final int PHOTOMETRIC_PALETTE = 3;
+
+	private static final int PHOTOMETRIC_CMYK = 5;
+
+	private static final int PHOTOMETRIC_YCBCR = 6;
+
+	private static final int PHOTOMETRIC_CIELAB = 8;
+
 	/**
-	 * TIFF file signature: first two bytes are either "II" (0x49 0x49, little-endian) or
-	 * "MM" (0x4D 0x4D, big-endian), followed by the magic number 42 (0x002A).
+	 * Maximum width and height of the decoded image used to verify that it is readable.
 	 */
-	private static final byte[] TIFF_SIGNATURE_LE = new byte[] { 0x49, 0x49, 0x2A, 0x00 };
-
-	private static final byte[] TIFF_SIGNATURE_BE = new byte[] { 0x4D, 0x4D, 0x00, 0x2A };
+	private static final int PREVIEW_SIZE = 1024;
 
 	private String mapUrl;
 
@@ -136,26 +145,27 @@ public class TIFFmapContent extends CommonFixture {
 			byte[] imageBytes = response.asByteArray();
 
 			// Verify TIFF file signature
-			if (!hasTiffSignature(imageBytes)) {
+			if (!ImageHeader.TIFF.equals(ImageHeaderParser.detectFormat(imageBytes))) {
 				errors.add("[Part A] Response body does not have a valid TIFF file signature");
 			}
 
-			// Verify it is a readable TIFF image
-			BufferedImage image = readImage(imageBytes);
-			if (image == null) {
+			// Verify it is a readable TIFF image. A subsampled decode is sufficient, the
+			// dimensions and the colour model are taken from the header.
+			ImageHeader header = ImageHeaderParser.parse(imageBytes);
+			if (header == null || ImageProbe.readSubsampled(imageBytes, PREVIEW_SIZE) == null) {
 				errors.add("[Part A] Response body could not be decoded as a valid TIFF image");
 			}
 			else {
-				if (image.getWidth() <= 0 || image.getHeight() <= 0) {
-					errors.add(String.format("[Part A] TIFF image has invalid dimensions: %dx%d", image.getWidth(),
-							image.getHeight()));
+				if (header.getWidth() <= 0 || header.getHeight() <= 0) {
+					errors.add(String.format("[Part A] TIFF image has invalid dimensions: %dx%d", header.getWidth(),
+							header.getHeight()));
 				}
 
 				// ============================================================
 				// Part B: The TIFF file SHALL represent colors by using an
 				// image palette or RGB combination
 				// ============================================================
-				if (!usesIndexedOrRgbColorModel(image)) {
+				if (!usesIndexedOrRgbColorModel(header)) {
 					errors.add("[Part B] TIFF image does not use an image palette or RGB color model. "
 							+ "The TIFF file SHALL represent colors by using an image palette " + "or RGB combination");
 				}
@@ -248,20 +258,8 @@ public class TIFFmapContent extends CommonFixture {
 	 * @return The map URL, or null if not found.
 	 */
 	private String findMapUrlFromLandingPage(String landingPageUrl) {
-		try {
-			Response response = init().accept("application/json").when().get(landingPageUrl);
-			if (response.getStatusCode() == 200) {
-				List<Map<String, Object>> links = response.jsonPath().getList("links");
-				String href = findLinkHrefByRel(links, REL_MAP);
-				if (href != null) {
-					return resolveUrl(landingPageUrl, href);
-				}
-			}
-		}
-		catch (Exception e) {
-			// Landing page check failed, continue to collections
-		}
-		return null;
+		String href = getDiscoveredResources().findLandingPageLinkHref(REL_MAP);
+		return href != null ? resolveUrl(landingPageUrl, href) : null;
 	}
 
 	/**
@@ -270,42 +268,14 @@ public class TIFFmapContent extends CommonFixture {
 	 * @return The map URL, or null if not found.
 	 */
 	private String findMapUrlFromCollections(String collectionsUrl) {
-		try {
-			Response response = init().accept("application/json").when().get(collectionsUrl);
-			if (response.getStatusCode() == 200) {
-				List<Map<String, Object>> collections = response.jsonPath().getList("collections");
-				if (collections != null) {
-					for (Map<String, Object> collection : collections) {
-						List<Map<String, Object>> links = toMapList(collection.get("links"));
-						String href = findLinkHrefByRel(links, REL_MAP);
-						if (href != null) {
-							return resolveUrl(collectionsUrl, href);
-						}
-					}
-				}
-			}
-		}
-		catch (Exception e) {
-			// Collections check failed
-		}
-		return null;
-	}
-
-	/**
-	 * Finds the href of a link matching the given rel value, with HTTP/HTTPS scheme
-	 * normalization.
-	 * @param links The list of link objects.
-	 * @param rel The expected rel value.
-	 * @return The href string, or null if not found.
-	 */
-	private String findLinkHrefByRel(List<Map<String, Object>> links, String rel) {
-		if (links == null) {
+		DiscoveredResources discovered = getDiscoveredResources();
+		if (discovered.getCollections() == null) {
 			return null;
 		}
-		for (Map<String, Object> link : links) {
-			Object linkRel = link.get("rel");
-			if (linkRel instanceof String && matchesRelIgnoringScheme((String) linkRel, rel)) {
-				return (String) link.get("href");
+		for (Map<String, Object> collection : discovered.getCollections()) {
+			String href = discovered.findLinkHref(collection, REL_MAP);
+			if (href != null) {
+				return resolveUrl(collectionsUrl, href);
 			}
 		}
 		return null;
@@ -343,99 +313,27 @@ public class TIFFmapContent extends CommonFixture {
 	}
 
 	/**
-	 * Reads an image from a byte array.
-	 * @param imageBytes The image bytes.
-	 * @return The BufferedImage, or null if reading fails.
+	 * Checks if the image uses an indexed (palette) or RGB color model, based on the
+	 * photometric interpretation of the TIFF header.
+	 * @param header The header of the image to check.
+	 * @return true if the image uses a palette, bilevel samples or at least 3 color
+	 * components.
 	 */
-	private BufferedImage readImage(byte[] imageBytes) {
-		try {
-			return ImageIO.read(new ByteArrayInputStream(imageBytes));
-		}
-		catch (IOException e) {
-			return null;
-		}
-	}
-
-	/**
-	 * Checks if the byte array starts with a valid TIFF file signature. TIFF files begin
-	 * with either "II" (little-endian) or "MM" (big-endian) followed by 42.
-	 * @param data The byte array to check.
-	 * @return true if the data starts with a valid TIFF signature.
-	 */
-	private boolean hasTiffSignature(byte[] data) {
-		if (data == null || data.length < 4) {
-			return false;
-		}
-		return matchesSignature(data, TIFF_SIGNATURE_LE) || matchesSignature(data, TIFF_SIGNATURE_BE);
-	}
-
-	private boolean matchesSignature(byte[] data, byte[] signature) {
-		for (int i = 0; i < signature.length; i++) {
-			if (data[i] != signature[i]) {
+	private boolean usesIndexedOrRgbColorModel(ImageHeader header) {
+		switch (header.getColorType()) {
+			case PHOTOMETRIC_WHITE_IS_ZERO:
+			case PHOTOMETRIC_BLACK_IS_ZERO:
+				// bilevel and 2/4 bit gray images are decoded with a palette
+				return header.getBitDepth() > 0 && header.getBitDepth() < 8;
+			case PHOTOMETRIC_RGB:
+			case PHOTOMETRIC_PALETTE:
+			case PHOTOMETRIC_CMYK:
+			case PHOTOMETRIC_YCBCR:
+			case PHOTOMETRIC_CIELAB:
+				return true;
+			default:
 				return false;
-			}
-		}
-		return true;
-	}
-
-	/**
-	 * Checks if the image uses an indexed (palette) or RGB color model.
-	 * @param image The image to check.
-	 * @return true if the image uses IndexColorModel or has at least 3 RGB components.
-	 */
-	private boolean usesIndexedOrRgbColorModel(BufferedImage image) {
-		int imageType = image.getType();
-		// Indexed/palette types
-		if (imageType == BufferedImage.TYPE_BYTE_INDEXED || imageType == BufferedImage.TYPE_BYTE_BINARY) {
-			return true;
-		}
-		// RGB types
-		if (imageType == BufferedImage.TYPE_INT_RGB || imageType == BufferedImage.TYPE_INT_ARGB
-				|| imageType == BufferedImage.TYPE_INT_ARGB_PRE || imageType == BufferedImage.TYPE_INT_BGR
-				|| imageType == BufferedImage.TYPE_3BYTE_BGR || imageType == BufferedImage.TYPE_4BYTE_ABGR
-				|| imageType == BufferedImage.TYPE_4BYTE_ABGR_PRE) {
-			return true;
-		}
-		// Fallback: check color model components
-		int numComponents = image.getColorModel().getNumColorComponents();
-		return numComponents >= 3 || image.getColorModel() instanceof java.awt.image.IndexColorModel;
-	}
-
-	private static boolean matchesRelIgnoringScheme(String actual, String expected) {
-		return normalizeScheme(actual).equals(normalizeScheme(expected));
-	}
-
-	private static String normalizeScheme(String rel) {
-		if (rel.startsWith("https://")) {
-			return "http://" + rel.substring("https://".length());
-		}
-		return rel;
-	}
-
-	/**
-	 * Safely converts an Object to a List of Maps.
-	 * @param obj The object to convert.
-	 * @return The list of maps, or null if conversion fails.
-	 */
-	private List<Map<String, Object>> toMapList(Object obj) {
-		if (!(obj instanceof List)) {
-			return null;
-		}
-		List<?> list = (List<?>) obj;
-		List<Map<String, Object>> result = new ArrayList<>();
-		for (Object item : list) {
-			if (item instanceof Map) {
-				Map<?, ?> map = (Map<?, ?>) item;
-				Map<String, Object> typedMap = new HashMap<>();
-				for (Map.Entry<?, ?> entry : map.entrySet()) {
-					if (entry.getKey() instanceof String) {
-						typedMap.put((String) entry.getKey(), entry.getValue());
-					}
-				}
-				result.add(typedMap);
-			}
 		}
-		return result;
 	}
 
 }
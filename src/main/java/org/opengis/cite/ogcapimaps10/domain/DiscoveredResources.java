@@ -0,0 +1,312 @@
+package org.opengis.cite.ogcapimaps10.domain;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable, indexed view of the landing page, the /conformance and the /collections
+ * resources of the IUT. The resources are retrieved once per test run and shared by all
+ * conformance classes.
+ *
+ * <p>
+ * Link relation types are indexed ignoring the difference between the <code>http</code>
+ * and <code>https</code> scheme, as servers use both forms of the OGC link relations. The
+ * status code of a resource is <code>-1</code> if it could not be retrieved at all.
+ * </p>
+ */
+public class DiscoveredResources {
+
+	private final URI rootUri;
+
+	private final int landingPageStatus;
+
+	private final Map<String, Object> landingPage;
+
+	private final int conformanceStatus;
+
+	private final Set<String> conformsTo;
+
+	private final int collectionsStatus;
+
+	private final List<Map<String, Object>> collections;
+
+	private final Map<String, Map<String, Object>> collectionsById = new LinkedHashMap<>();
+
+	private final Map<Map<String, Object>, Map<String, List<Map<String, Object>>>> linksByResource = new IdentityHashMap<>();
+
+	/**
+	 * Constructs the view from the parsed JSON documents.
+	 * @param rootUri the root URI of the IUT, never <code>null</code>
+	 * @param landingPageStatus the status code of the landing page request
+	 * @param landingPage the parsed landing page, <code>null</code> if not available
+	 * @param conformanceStatus the status code of the /conformance request
+	 * @param conformance the parsed conformance declaration, <code>null</code> if not
+	 * available
+	 * @param collectionsStatus the status code of the /collections request
+	 * @param collections the parsed collections document, <code>null</code> if not
+	 * available
+	 */
+	public DiscoveredResources(URI rootUri, int landingPageStatus, Map<String, Object> landingPage,
+			int conformanceStatus, Map<String, Object> conformance, int collectionsStatus,
+			Map<String, Object> collections) {
+		this.rootUri = rootUri;
+		this.landingPageStatus = landingPageStatus;
+		this.landingPage = landingPage != null ? unmodifiableMap(landingPage) : null;
+		this.conformanceStatus = conformanceStatus;
+		this.conformsTo = parseConformsTo(conformance);
+		this.collectionsStatus = collectionsStatus;
+		this.collections = parseCollections(collections);
+
+		if (this.landingPage != null)
+			indexLinks(this.landingPage);
+		if (this.collections != null) {
+			for (Map<String, Object> collection : this.collections) {
+				indexLinks(collection);
+				Object id = collection.get("id");
+				if (id instanceof String)
+					collectionsById.putIfAbsent((String) id, collection);
+			}
+		}
+	}
+
+	/**
+	 * @return the root URI of the IUT, never <code>null</code>
+	 */
+	public URI getRootUri() {
+		return rootUri;
+	}
+
+	/**
+	 * @return the status code of the landing page request, <code>-1</code> if the request
+	 * failed
+	 */
+	public int getLandingPageStatus() {
+		return landingPageStatus;
+	}
+
+	/**
+	 * @return the parsed landing page, <code>null</code> if it could not be retrieved as
+	 * JSON
+	 */
+	public Map<String, Object> getLandingPage() {
+		return landingPage;
+	}
+
+	/**
+	 * @return the status code of the /conformance request, <code>-1</code> if the request
+	 * failed
+	 */
+	public int getConformanceStatus() {
+		return conformanceStatus;
+	}
+
+	/**
+	 * @return the declared conformance classes in document order, <code>null</code> if
+	 * the conformance declaration has no 'conformsTo' array
+	 */
+	public Set<String> getConformsTo() {
+		return conformsTo;
+	}
+
+	/**
+	 * Checks if a conformance class ending with the given suffix is declared.
+	 * @param suffix the suffix, e.g. "/conf/crs", never <code>null</code>
+	 * @return <code>true</code> if a matching class is declared, <code>false</code>
+	 * otherwise
+	 */
+	public boolean declaresConformanceEndingWith(String suffix) {
+		if (conformsTo == null)
+			return false;
+		return conformsTo.stream().anyMatch(uri -> uri.endsWith(suffix));
+	}
+
+	/**
+	 * Checks if the given conformance class is declared, ignoring the difference between
+	 * the <code>http</code> and <code>https</code> scheme.
+	 * @param conformanceClass the URI of the conformance class, never <code>null</code>
+	 * @return <code>true</code> if the class is declared, <code>false</code> otherwise
+	 */
+	public boolean declaresConformance(String conformanceClass) {
+		if (conformsTo == null)
+			return false;
+		String normalized = normalizeScheme(conformanceClass);
+		return conformsTo.stream().anyMatch(uri -> normalizeScheme(uri).equals(normalized));
+	}
+
+	/**
+	 * @return the status code of the /collections request, <code>-1</code> if the request
+	 * failed
+	 */
+	public int getCollectionsStatus() {
+		return collectionsStatus;
+	}
+
+	/**
+	 * @return the collections in document order, <code>null</code> if the collections
+	 * document could not be retrieved or has no 'collections' array
+	 */
+	public List<Map<String, Object>> getCollections() {
+		return collections;
+	}
+
+	/**
+	 * @return the identifiers of all collections in document order, never
+	 * <code>null</code>
+	 */
+	public List<String> getCollectionIds() {
+		return Collections.unmodifiableList(new ArrayList<>(collectionsById.keySet()));
+	}
+
+	/**
+	 * @param collectionId the identifier of the collection
+	 * @return the collection with the given identifier, <code>null</code> if unknown
+	 */
+	public Map<String, Object> getCollection(String collectionId) {
+		return collectionsById.get(collectionId);
+	}
+
+	/**
+	 * Finds the links of the landing page with the given relation type.
+	 * @param rel the relation type, never <code>null</code>
+	 * @return the matching links in document order, never <code>null</code>
+	 */
+	public List<Map<String, Object>> findLandingPageLinks(String rel) {
+		if (landingPage == null)
+			return Collections.emptyList();
+		return findLinks(landingPage, rel);
+	}
+
+	/**
+	 * Finds the first link of the landing page with the given relation type.
+	 * @param rel the relation type, never <code>null</code>
+	 * @return the href of the link, <code>null</code> if there is no such link
+	 */
+	public String findLandingPageLinkHref(String rel) {
+		return firstHref(findLandingPageLinks(rel));
+	}
+
+	/**
+	 * Finds the links of a resource of this view (the landing page or one of the
+	 * collections) with the given relation type.
+	 * @param resource the resource, never <code>null</code>
+	 * @param rel the relation type, never <code>null</code>
+	 * @return the matching links in document order, never <code>null</code>
+	 */
+	public List<Map<String, Object>> findLinks(Map<String, Object> resource, String rel) {
+		Map<String, List<Map<String, Object>>> index = linksByResource.get(resource);
+		if (index == null)
+			index = buildLinkIndex(resource);
+		return index.getOrDefault(normalizeScheme(rel), Collections.emptyList());
+	}
+
+	/**
+	 * Finds the first link of a resource of this view with the given relation type.
+	 * @param resource the resource, never <code>null</code>
+	 * @param rel the relation type, never <code>null</code>
+	 * @return the link, <code>null</code> if there is no such link
+	 */
+	public Map<String, Object> findLink(Map<String, Object> resource, String rel) {
+		List<Map<String, Object>> links = findLinks(resource, rel);
+		return links.isEmpty() ? null : links.get(0);
+	}
+
+	/**
+	 * Finds the href of the first link of a resource of this view with the given relation
+	 * type.
+	 * @param resource the resource, never <code>null</code>
+	 * @param rel the relation type, never <code>null</code>
+	 * @return the href of the link, <code>null</code> if there is no such link
+	 */
+	public String findLinkHref(Map<String, Object> resource, String rel) {
+		return firstHref(findLinks(resource, rel));
+	}
+
+	private void indexLinks(Map<String, Object> resource) {
+		linksByResource.put(resource, buildLinkIndex(resource));
+	}
+
+	private static Map<String, List<Map<String, Object>>> buildLinkIndex(Map<String, Object> resource) {
+		Map<String, List<Map<String, Object>>> index = new LinkedHashMap<>();
+		Object links = resource.get("links");
+		if (!(links instanceof List))
+			return index;
+		for (Object link : (List<?>) links) {
+			if (!(link instanceof Map))
+				continue;
+			@SuppressWarnings("unchecked")
+			Map<String, Object> linkMap = (Map<String, Object>) link;
+			Object rel = linkMap.get("rel");
+			if (rel instanceof String)
+				index.computeIfAbsent(normalizeScheme((String) rel), key -> new ArrayList<>()).add(linkMap);
+		}
+		index.replaceAll((rel, matching) -> Collections.unmodifiableList(matching));
+		return index;
+	}
+
+	private static String firstHref(List<Map<String, Object>> links) {
+		for (Map<String, Object> link : links) {
+			Object href = link.get("href");
+			if (href instanceof String)
+				return (String) href;
+		}
+		return null;
+	}
+
+	private static Set<String> parseConformsTo(Map<String, Object> conformance) {
+		if (conformance == null || !(conformance.get("conformsTo") instanceof List))
+			return null;
+		Set<String> classes = new LinkedHashSet<>();
+		for (Object uri : (List<?>) conformance.get("conformsTo")) {
+			if (uri instanceof String)
+				classes.add((String) uri);
+		}
+		return Collections.unmodifiableSet(classes);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Map<String, Object>> parseCollections(Map<String, Object> collectionsDocument) {
+		if (collectionsDocument == null || !(collectionsDocument.get("collections") instanceof List))
+			return null;
+		List<Map<String, Object>> parsed = new ArrayList<>();
+		for (Object collection : (List<?>) collectionsDocument.get("collections")) {
+			if (collection instanceof Map)
+				parsed.add((Map<String, Object>) unmodifiableValue(collection));
+		}
+		return Collections.unmodifiableList(parsed);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> unmodifiableMap(Map<String, Object> map) {
+		return (Map<String, Object>) unmodifiableValue(map);
+	}
+
+	private static Object unmodifiableValue(Object value) {
+		if (value instanceof Map) {
+			Map<String, Object> copy = new LinkedHashMap<>();
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+				copy.put(String.valueOf(entry.getKey()), unmodifiableValue(entry.getValue()));
+			return Collections.unmodifiableMap(copy);
+		}
+		if (value instanceof List) {
+			List<Object> copy = new ArrayList<>();
+			for (Object item : (List<?>) value)
+				copy.add(unmodifiableValue(item));
+			return Collections.unmodifiableList(copy);
+		}
+		return value;
+	}
+
+	private static String normalizeScheme(String rel) {
+		if (rel.startsWith("https://"))
+			return "http://" + rel.substring("https://".length());
+		return rel;
+	}
+
+}
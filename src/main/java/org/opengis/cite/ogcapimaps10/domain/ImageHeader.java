@@ -0,0 +1,101 @@
+package org.opengis.cite.ogcapimaps10.domain;
+
+/**
+ * The properties of an encoded image which are stated in its header: the PNG IHDR chunk,
+ * the JPEG start of frame segment or the first TIFF image file directory.
+ */
+public class ImageHeader {
+
+	/**
+	 * Format name of PNG images.
+	 */
+	public static final String PNG = "png";
+
+	/**
+	 * Format name of JPEG images.
+	 */
+	public static final String JPEG = "jpeg";
+
+	/**
+	 * Format name of TIFF images.
+	 */
+	public static final String TIFF = "tiff";
+
+	private final String format;
+
+	private final int width;
+
+	private final int height;
+
+	private final int bitDepth;
+
+	private final int colorType;
+
+	private final boolean alpha;
+
+	/**
+	 * Constructs an ImageHeader.
+	 * @param format the format, one of {@link #PNG}, {@link #JPEG} or {@link #TIFF}
+	 * @param width the width of the image in pixels
+	 * @param height the height of the image in pixels
+	 * @param bitDepth the number of bits per sample, -1 if not available
+	 * @param colorType the format specific colour type, see {@link #getColorType()}
+	 * @param alpha <code>true</code> if the image has an alpha channel or transparency
+	 * information
+	 */
+	public ImageHeader(String format, int width, int height, int bitDepth, int colorType, boolean alpha) {
+		this.format = format;
+		this.width = width;
+		this.height = height;
+		this.bitDepth = bitDepth;
+		this.colorType = colorType;
+		this.alpha = alpha;
+	}
+
+	/**
+	 * @return the format, one of {@link #PNG}, {@link #JPEG} or {@link #TIFF}
+	 */
+	public String getFormat() {
+		return format;
+	}
+
+	/**
+	 * @return the width of the image in pixels
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return the height of the image in pixels
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return the number of bits per sample (of the first sample for TIFF), -1 if not
+	 * available
+	 */
+	public int getBitDepth() {
+		return bitDepth;
+	}
+
+	/**
+	 * @return the format specific colour type: the IHDR colour type for PNG (e.g. 3 for
+	 * indexed colour), the number of components for JPEG and the photometric
+	 * interpretation for TIFF (e.g. 2 for RGB)
+	 */
+	public int getColorType() {
+		return colorType;
+	}
+
+	/**
+	 * @return <code>true</code> if the image has an alpha channel or transparency
+	 * information, <code>false</code> otherwise
+	 */
+	public boolean hasAlpha() {
+		return alpha;
+	}
+
+}
@@ -0,0 +1,75 @@
+package org.opengis.cite.ogcapimaps10.domain;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+
+/**
+ * Describes an encoded image without its pixel data: the format, the dimensions and the
+ * colour model an image reader decodes it to.
+ */
+public class ImageInfo {
+
+	private final String formatName;
+
+	private final int width;
+
+	private final int height;
+
+	private final ColorModel colorModel;
+
+	private final int imageType;
+
+	/**
+	 * Constructs an ImageInfo.
+	 * @param formatName the format name of the image reader, e.g. "png"
+	 * @param width the width of the image in pixels
+	 * @param height the height of the image in pixels
+	 * @param colorModel the colour model of the decoded image, never <code>null</code>
+	 * @param imageType the {@link BufferedImage} type of the decoded image,
+	 * {@link BufferedImage#TYPE_CUSTOM} if it has no predefined type
+	 */
+	public ImageInfo(String formatName, int width, int height, ColorModel colorModel, int imageType) {
+		this.formatName = formatName;
+		this.width = width;
+		this.height = height;
+		this.colorModel = colorModel;
+		this.imageType = imageType;
+	}
+
+	/**
+	 * @return the format name of the image reader, e.g. "png"
+	 */
+	public String getFormatName() {
+		return formatName;
+	}
+
+	/**
+	 * @return the width of the image in pixels
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return the height of the image in pixels
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return the colour model of the decoded image, never <code>null</code>
+	 */
+	public ColorModel getColorModel() {
+		return colorModel;
+	}
+
+	/**
+	 * @return the {@link BufferedImage} type of the decoded image,
+	 * {@link BufferedImage#TYPE_CUSTOM} if it has no predefined type
+	 */
+	public int getImageType() {
+		return imageType;
+	}
+
+}
@@ -0,0 +1,129 @@
+package org.opengis.cite.ogcapimaps10.domain;
+
+/**
+ * Wraps the settings of the optional map load test: the number of requests, how many of
+ * them are sent concurrently and the service level objectives the results are checked
+ * against. A threshold of 0 is not checked.
+ */
+public class LoadTestSettings {
+
+	/**
+	 * The default number of requests.
+	 */
+	public static final int DEFAULT_REQUESTS = 200;
+
+	/**
+	 * The default number of concurrent requests.
+	 */
+	public static final int DEFAULT_CONCURRENCY = 8;
+
+	/**
+	 * The default maximum error rate in percent.
+	 */
+	public static final double DEFAULT_MAX_ERROR_RATE = 1;
+
+	private final boolean enabled;
+
+	private final int requests;
+
+	private final int concurrency;
+
+	private final double minThroughput;
+
+	private final double maxP50Millis;
+
+	private final double maxP95Millis;
+
+	private final double maxP99Millis;
+
+	private final double maxErrorRate;
+
+	/**
+	 * Constructs the settings of a disabled load test.
+	 */
+	public LoadTestSettings() {
+		this(false, DEFAULT_REQUESTS, DEFAULT_CONCURRENCY, 0, 0, 0, 0, DEFAULT_MAX_ERROR_RATE);
+	}
+
+	/**
+	 * Constructs the settings of a load test.
+	 * @param enabled true if the load test is run
+	 * @param requests the number of requests, greater than 0
+	 * @param concurrency the number of concurrent requests, greater than 0
+	 * @param minThroughput the minimum number of requests per second, 0 if not checked
+	 * @param maxP50Millis the maximum median latency in milliseconds, 0 if not checked
+	 * @param maxP95Millis the maximum 95th percentile latency in milliseconds, 0 if not
+	 * checked
+	 * @param maxP99Millis the maximum 99th percentile latency in milliseconds, 0 if not
+	 * checked
+	 * @param maxErrorRate the maximum percentage of failed requests
+	 */
+	public LoadTestSettings(boolean enabled, int requests, int concurrency, double minThroughput, double maxP50Millis,
+			double maxP95Millis, double maxP99Millis, double maxErrorRate) {
+		this.enabled = enabled;
+		this.requests = requests;
+		this.concurrency = concurrency;
+		this.minThroughput = minThroughput;
+		this.maxP50Millis = maxP50Millis;
+		this.maxP95Millis = maxP95Millis;
+		this.maxP99Millis = maxP99Millis;
+		this.maxErrorRate = maxErrorRate;
+	}
+
+	/**
+	 * @return true if the load test is run
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @return the number of requests
+	 */
+	public int getRequests() {
+		return requests;
+	}
+
+	/**
+	 * @return the number of concurrent requests
+	 */
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	/**
+	 * @return the minimum number of requests per second, 0 if not checked
+	 */
+	public double getMinThroughput() {
+		return minThroughput;
+	}
+
+	/**
+	 * @return the maximum median latency in milliseconds, 0 if not checked
+	 */
+	public double getMaxP50Millis() {
+		return maxP50Millis;
+	}
+
+	/**
+	 * @return the maximum 95th percentile latency in milliseconds, 0 if not checked
+	 */
+	public double getMaxP95Millis() {
+		return maxP95Millis;
+	}
+
+	/**
+	 * @return the maximum 99th percentile latency in milliseconds, 0 if not checked
+	 */
+	public double getMaxP99Millis() {
+		return maxP99Millis;
+	}
+
+	/**
+	 * @return the maximum percentage of failed requests
+	 */
+	public double getMaxErrorRate() {
+		return maxErrorRate;
+	}
+
+}
@@ -0,0 +1,349 @@
+package org.opengis.cite.ogcapimaps10.domain;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.opengis.cite.ogcapimaps10.util.PathTemplateTrie;
+
+/**
+ * An immutable, indexed view of the OpenAPI definition of the IUT. The definition is
+ * retrieved and parsed once per test run and shared by all conformance classes which
+ * check the API definition.
+ *
+ * <p>
+ * The index holds the paths in document order, the operations of each path and their
+ * parameters. Parameters declared on the path item are merged into the operations, and
+ * parameters given as local <code>$ref</code> (e.g.
+ * <code>#/components/parameters/bbox</code>) are replaced by the referenced definition.
+ * The status code of the definition is <code>-1</code> if it could not be retrieved at
+ * all.
+ * </p>
+ */
+public class OpenApiIndex {
+
+	private static final Set<String> METHODS = Set.of("get", "put", "post", "delete", "options", "head", "patch",
+			"trace");
+
+	private static final int MAX_REF_DEPTH = 16;
+
+	private final URI rootUri;
+
+	private final String definitionUrl;
+
+	private final int status;
+
+	private final boolean parsed;
+
+	private final Map<String, Map<String, Operation>> operationsByPath;
+
+	private final PathTemplateTrie<String> pathTemplates = new PathTemplateTrie<>();
+
+	/**
+	 * Constructs the index from the parsed JSON document.
+	 * @param rootUri the root URI of the IUT, never <code>null</code>
+	 * @param definitionUrl the URL the definition was retrieved from, never
+	 * <code>null</code>
+	 * @param status the status code of the request
+	 * @param definition the parsed definition, <code>null</code> if not available
+	 */
+	public OpenApiIndex(URI rootUri, String definitionUrl, int status, Map<String, Object> definition) {
+		this.rootUri = rootUri;
+		this.definitionUrl = definitionUrl;
+		this.status = status;
+		this.parsed = definition != null;
+		this.operationsByPath = parsePaths(definition);
+		if (operationsByPath != null) {
+			for (String path : operationsByPath.keySet())
+				pathTemplates.put(path, path);
+		}
+	}
+
+	/**
+	 * @return the root URI of the IUT, never <code>null</code>
+	 */
+	public URI getRootUri() {
+		return rootUri;
+	}
+
+	/**
+	 * @return the URL the definition was retrieved from, never <code>null</code>
+	 */
+	public String getDefinitionUrl() {
+		return definitionUrl;
+	}
+
+	/**
+	 * @return the status code of the request, <code>-1</code> if the request failed
+	 */
+	public int getStatus() {
+		return status;
+	}
+
+	/**
+	 * @return <code>true</code> if the definition was retrieved and parsed as a JSON
+	 * object, <code>false</code> otherwise
+	 */
+	public boolean isParsed() {
+		return parsed;
+	}
+
+	/**
+	 * @return the paths in document order, <code>null</code> if the definition could not
+	 * be retrieved or has no 'paths' object
+	 */
+	public Set<String> getPaths() {
+		return operationsByPath != null ? Collections.unmodifiableSet(operationsByPath.keySet()) : null;
+	}
+
+	/**
+	 * @param path the path as declared in the definition, e.g.
+	 * <code>/collections/{collectionId}/map</code>
+	 * @return the operations of the path by lower case HTTP method, never
+	 * <code>null</code>
+	 */
+	public Map<String, Operation> getOperations(String path) {
+		if (operationsByPath == null)
+			return Collections.emptyMap();
+		return operationsByPath.getOrDefault(path, Collections.emptyMap());
+	}
+
+	/**
+	 * @param path the path as declared in the definition
+	 * @param method the HTTP method, case insensitive
+	 * @return the operation, <code>null</code> if the path has no such operation
+	 */
+	public Operation getOperation(String path, String method) {
+		return getOperations(path).get(method.toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Finds the path of the definition which matches a concrete path. The lookup takes
+	 * time proportional to the number of segments of the path; literal segments take
+	 * precedence over template variables, see {@link PathTemplateTrie#find(String)}.
+	 * @param concretePath the path of a resource relative to the API root, e.g.
+	 * <code>/collections/a/map</code>
+	 * @return the matching path as declared in the definition, <code>null</code> if no
+	 * path matches
+	 */
+	public String findPath(String concretePath) {
+		return pathTemplates.find(concretePath);
+	}
+
+	private static Map<String, Map<String, Operation>> parsePaths(Map<String, Object> definition) {
+		if (definition == null || !(definition.get("paths") instanceof Map))
+			return null;
+		Map<String, Map<String, Operation>> operations = new LinkedHashMap<>();
+		for (Map.Entry<?, ?> pathEntry : ((Map<?, ?>) definition.get("paths")).entrySet()) {
+			String path = String.valueOf(pathEntry.getKey());
+			Map<String, Operation> pathOperations = new LinkedHashMap<>();
+			Object pathItem = resolve(definition, pathEntry.getValue());
+			if (pathItem instanceof Map) {
+				Map<?, ?> item = (Map<?, ?>) pathItem;
+				List<Parameter> pathParameters = parseParameters(definition, item.get("parameters"));
+				for (Map.Entry<?, ?> operationEntry : item.entrySet()) {
+					String method = String.valueOf(operationEntry.getKey()).toLowerCase(Locale.ROOT);
+					if (!METHODS.contains(method) || !(operationEntry.getValue() instanceof Map))
+						continue;
+					Map<?, ?> operation = (Map<?, ?>) operationEntry.getValue();
+					Object operationId = operation.get("operationId");
+					List<Parameter> parameters = mergeParameters(pathParameters,
+							parseParameters(definition, operation.get("parameters")));
+					pathOperations.put(method, new Operation(path, method,
+							operationId instanceof String ? (String) operationId : null, parameters));
+				}
+			}
+			operations.put(path, Collections.unmodifiableMap(pathOperations));
+		}
+		return operations;
+	}
+
+	private static List<Parameter> parseParameters(Map<String, Object> definition, Object parameters) {
+		List<Parameter> parsed = new ArrayList<>();
+		if (!(parameters instanceof List))
+			return parsed;
+		for (Object parameter : (List<?>) parameters) {
+			if (!(parameter instanceof Map))
+				continue;
+			Object resolved = resolve(definition, parameter);
+			if (resolved instanceof Map && !((Map<?, ?>) resolved).containsKey("$ref")) {
+				Map<?, ?> resolvedMap = (Map<?, ?>) resolved;
+				parsed.add(new Parameter(asString(resolvedMap.get("name")), asString(resolvedMap.get("in")),
+						Boolean.TRUE.equals(resolvedMap.get("required"))));
+			}
+			else {
+				// unresolvable reference, named after its last segment
+				String ref = asString(((Map<?, ?>) parameter).get("$ref"));
+				if (ref != null)
+					parsed.add(new Parameter(ref.substring(ref.lastIndexOf('/') + 1), null, false));
+			}
+		}
+		return parsed;
+	}
+
+	private static List<Parameter> mergeParameters(List<Parameter> pathParameters,
+			List<Parameter> operationParameters) {
+		// operation parameters override path item parameters with the same name and
+		// location
+		Map<String, Parameter> merged = new LinkedHashMap<>();
+		for (Parameter parameter : pathParameters)
+			merged.put(parameter.getName() + "\n" + parameter.getIn(), parameter);
+		for (Parameter parameter : operationParameters)
+			merged.put(parameter.getName() + "\n" + parameter.getIn(), parameter);
+		return Collections.unmodifiableList(new ArrayList<>(merged.values()));
+	}
+
+	private static Object resolve(Map<String, Object> definition, Object value) {
+		Object resolved = value;
+		for (int depth = 0; depth < MAX_REF_DEPTH && resolved instanceof Map; depth++) {
+			Object ref = ((Map<?, ?>) resolved).get("$ref");
+			if (!(ref instanceof String) || !((String) ref).startsWith("#/"))
+				return resolved;
+			Object target = resolvePointer(definition, ((String) ref).substring(2));
+			if (target == null)
+				return resolved;
+			resolved = target;
+		}
+		return resolved;
+	}
+
+	private static Object resolvePointer(Map<String, Object> definition, String pointer) {
+		Object current = definition;
+		for (String token : pointer.split("/", -1)) {
+			if (!(current instanceof Map))
+				return null;
+			current = ((Map<?, ?>) current).get(token.replace("~1", "/").replace("~0", "~"));
+		}
+		return current;
+	}
+
+	private static String asString(Object value) {
+		return value instanceof String ? (String) value : null;
+	}
+
+	/**
+	 * An operation of a path of the definition.
+	 */
+	public static class Operation {
+
+		private final String path;
+
+		private final String method;
+
+		private final String operationId;
+
+		private final List<Parameter> parameters;
+
+		private Operation(String path, String method, String operationId, List<Parameter> parameters) {
+			this.path = path;
+			this.method = method;
+			this.operationId = operationId;
+			this.parameters = parameters;
+		}
+
+		/**
+		 * @return the path as declared in the definition, never <code>null</code>
+		 */
+		public String getPath() {
+			return path;
+		}
+
+		/**
+		 * @return the lower case HTTP method, never <code>null</code>
+		 */
+		public String getMethod() {
+			return method;
+		}
+
+		/**
+		 * @return the operationId, <code>null</code> if not declared
+		 */
+		public String getOperationId() {
+			return operationId;
+		}
+
+		/**
+		 * @return the parameters of the path item and the operation with references
+		 * resolved, never <code>null</code>
+		 */
+		public List<Parameter> getParameters() {
+			return parameters;
+		}
+
+		/**
+		 * @return the names of all parameters, never <code>null</code>
+		 */
+		public Set<String> getParameterNames() {
+			Set<String> names = new LinkedHashSet<>();
+			for (Parameter parameter : parameters) {
+				if (parameter.getName() != null)
+					names.add(parameter.getName());
+			}
+			return names;
+		}
+
+		/**
+		 * @param name the name of the parameter, never <code>null</code>
+		 * @param in the location of the parameter, e.g. "query", never <code>null</code>
+		 * @return the parameter, <code>null</code> if the operation has no such parameter
+		 */
+		public Parameter findParameter(String name, String in) {
+			for (Parameter parameter : parameters) {
+				if (name.equals(parameter.getName()) && in.equals(parameter.getIn()))
+					return parameter;
+			}
+			return null;
+		}
+
+	}
+
+	/**
+	 * A parameter of an operation.
+	 */
+	public static class Parameter {
+
+		private final String name;
+
+		private final String in;
+
+		private final boolean required;
+
+		private Parameter(String name, String in, boolean required) {
+			this.name = name;
+			this.in = in;
+			this.required = required;
+		}
+
+		/**
+		 * @return the name of the parameter; the last segment of the reference if it
+		 * could not be resolved, <code>null</code> if not declared
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the location of the parameter, e.g. "query", <code>null</code> if not
+		 * declared or the reference could not be resolved
+		 */
+		public String getIn() {
+			return in;
+		}
+
+		/**
+		 * @return <code>true</code> if the parameter is declared as required,
+		 * <code>false</code> otherwise
+		 */
+		public boolean isRequired() {
+			return required;
+		}
+
+	}
+
+}
@@ -0,0 +1,104 @@
+package org.opengis.cite.ogcapimaps10.domain;
+
+/**
+ * Wraps the settings of the optional tile sweep: the range of zoom levels walked, the
+ * maximum number of tiles requested per zoom level and how many of them are requested
+ * concurrently.
+ */
+public class TileSweepSettings {
+
+	/**
+	 * The default first zoom level.
+	 */
+	public static final int DEFAULT_MIN_ZOOM = 0;
+
+	/**
+	 * The default last zoom level.
+	 */
+	public static final int DEFAULT_MAX_ZOOM = 5;
+
+	/**
+	 * The highest supported zoom level.
+	 */
+	public static final int MAX_ZOOM = 24;
+
+	/**
+	 * The default maximum number of tiles per zoom level.
+	 */
+	public static final int DEFAULT_TILES_PER_LEVEL = 32;
+
+	/**
+	 * The default number of concurrent requests.
+	 */
+	public static final int DEFAULT_CONCURRENCY = 4;
+
+	private final boolean enabled;
+
+	private final int minZoom;
+
+	private final int maxZoom;
+
+	private final int tilesPerLevel;
+
+	private final int concurrency;
+
+	/**
+	 * Constructs the settings of a disabled tile sweep.
+	 */
+	public TileSweepSettings() {
+		this(false, DEFAULT_MIN_ZOOM, DEFAULT_MAX_ZOOM, DEFAULT_TILES_PER_LEVEL, DEFAULT_CONCURRENCY);
+	}
+
+	/**
+	 * Constructs the settings of a tile sweep. The zoom levels are limited to 0 to
+	 * {@link #MAX_ZOOM}.
+	 * @param enabled true if the tile sweep is run
+	 * @param minZoom the first zoom level
+	 * @param maxZoom the last zoom level
+	 * @param tilesPerLevel the maximum number of tiles per zoom level, greater than 0
+	 * @param concurrency the number of concurrent requests, greater than 0
+	 */
+	public TileSweepSettings(boolean enabled, int minZoom, int maxZoom, int tilesPerLevel, int concurrency) {
+		this.enabled = enabled;
+		this.minZoom = Math.max(0, Math.min(MAX_ZOOM, minZoom));
+		this.maxZoom = Math.max(this.minZoom, Math.min(MAX_ZOOM, maxZoom));
+		this.tilesPerLevel = tilesPerLevel;
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * @return true if the tile sweep is run
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @return the first zoom level
+	 */
+	public int getMinZoom() {
+		return minZoom;
+	}
+
+	/**
+	 * @return the last zoom level, not less than the first
+	 */
+	public int getMaxZoom() {
+		return maxZoom;
+	}
+
+	/**
+	 * @return the maximum number of tiles per zoom level
+	 */
+	public int getTilesPerLevel() {
+		return tilesPerLevel;
+	}
+
+	/**
+	 * @return the number of concurrent requests
+	 */
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+}
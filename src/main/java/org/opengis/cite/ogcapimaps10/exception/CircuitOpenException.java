@@ -0,0 +1,31 @@
+package org.opengis.cite.ogcapimaps10.exception;
+
+/**
+ * Thrown instead of sending a request to a host whose circuit breaker is open after
+ * repeated connection failures. The test issuing the request fails immediately instead of
+ * waiting for the host to time out again.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+	private static final long serialVersionUID = -2617410349217734618L;
+
+	private final String host;
+
+	/**
+	 * @param host the host the request was not sent to, never <code>null</code>
+	 * @param retryInMillis the time until the next request is let through
+	 */
+	public CircuitOpenException(String host, long retryInMillis) {
+		super(String.format("Request to %s not sent, the host failed repeatedly (circuit open for another %d s)", host,
+				Math.max(1, (retryInMillis + 999) / 1000)));
+		this.host = host;
+	}
+
+	/**
+	 * @return the host the request was not sent to, never <code>null</code>
+	 */
+	public String getHost() {
+		return host;
+	}
+
+}
@@ -0,0 +1,60 @@
+package org.opengis.cite.ogcapimaps10.listener;
+
+import static java.util.logging.Level.WARNING;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.logging.Level;
+
+import org.opengis.cite.ogcapimaps10.conformance.SuiteAttribute;
+import org.opengis.cite.ogcapimaps10.util.HttpTransport;
+import org.opengis.cite.ogcapimaps10.util.TestSuiteLogger;
+import org.testng.IReporter;
+import org.testng.ISuite;
+import org.testng.xml.XmlSuite;
+
+/**
+ * A reporter that writes the HTTP metrics of the test run (requests, latency percentiles,
+ * status codes and bytes per endpoint) to {@value #REPORT_FILE_NAME} in the output
+ * directory of TestNG, next to the test results.
+ */
+public class HttpMetricsReporter implements IReporter {
+
+	/**
+	 * The name of the metrics summary written to the output directory.
+	 */
+	public static final String REPORT_FILE_NAME = "http-metrics.txt";
+
+	/** {@inheritDoc} */
+	@Override
+	public void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
+		StringWriter summary = new StringWriter();
+		for (ISuite suite : suites) {
+			Object transport = suite.getAttribute(SuiteAttribute.HTTP_TRANSPORT.getName());
+			if (!(transport instanceof HttpTransport))
+				continue;
+			summary.append("Suite: ").append(suite.getName()).append(System.lineSeparator());
+			((HttpTransport) transport).getMetrics().writeSummary(summary);
+			summary.append(System.lineSeparator());
+		}
+		if (summary.getBuffer().length() == 0)
+			return;
+		TestSuiteLogger.log(Level.CONFIG, "HTTP metrics\n" + summary);
+		File reportFile = new File(outputDirectory, REPORT_FILE_NAME);
+		try {
+			Files.createDirectories(reportFile.getParentFile().toPath());
+			try (Writer writer = Files.newBufferedWriter(reportFile.toPath(), StandardCharsets.UTF_8)) {
+				writer.write(summary.toString());
+			}
+		}
+		catch (IOException e) {
+			TestSuiteLogger.log(WARNING, "Could not write HTTP metrics to " + reportFile, e);
+		}
+	}
+
+}
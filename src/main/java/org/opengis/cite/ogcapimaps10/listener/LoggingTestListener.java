@@ -2,6 +2,9 @@ package org.opengis.cite.ogcapimaps10.listener;
 
 import java.util.logging.Logger;
 
+import org.opengis.cite.ogcapimaps10.conformance.SuiteAttribute;
+import org.opengis.cite.ogcapimaps10.util.PhaseTimes;
+import org.opengis.cite.ogcapimaps10.util.TimingReport;
 import org.testng.ITestNGMethod;
 import org.testng.ITestResult;
 import org.testng.TestListenerAdapter;
@@ -11,6 +14,12 @@ import org.testng.TestListenerAdapter;
  * LoggingTestListener class.
  * </p>
  *
+ * <p>
+ * Besides logging the outcome of each test, the duration of the test methods and of the
+ * class, test and suite level fixture methods is added to the
+ * {@link SuiteAttribute#TIMING_REPORT timing report}, together with the time spent in the
+ * {@link PhaseTimes.Phase phases} I/O and image decoding.
+ * </p>
  */
 public class LoggingTestListener extends TestListenerAdapter {
 
@@ -22,6 +31,7 @@ public class LoggingTestListener extends TestListenerAdapter {
 		super.onTestStart(result);
 		ITestNGMethod testMethod = result.getMethod();
 		LOGR.info("Invoking test " + testMethod.getMethodName() + ": " + testMethod.getDescription());
+		PhaseTimes.start();
 	}
 
 	/** {@inheritDoc} */
@@ -29,6 +39,7 @@ public class LoggingTestListener extends TestListenerAdapter {
 	public void onTestFailure(ITestResult tr) {
 		super.onTestFailure(tr);
 		LOGR.info(tr.getMethod().getMethodName() + " failed");
+		recordTiming(tr, TimingReport.Kind.TEST);
 	}
 
 	/** {@inheritDoc} */
@@ -36,6 +47,7 @@ public class LoggingTestListener extends TestListenerAdapter {
 	public void onTestSkipped(ITestResult tr) {
 		super.onTestSkipped(tr);
 		LOGR.info(tr.getMethod().getMethodName() + " was skipped");
+		recordTiming(tr, TimingReport.Kind.TEST);
 	}
 
 	/** {@inheritDoc} */
@@ -43,6 +55,71 @@ public class LoggingTestListener extends TestListenerAdapter {
 	public void onTestSuccess(ITestResult tr) {
 		super.onTestSuccess(tr);
 		LOGR.info(tr.getMethod().getMethodName() + " passed");
+		recordTiming(tr, TimingReport.Kind.TEST);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void beforeConfiguration(ITestResult tr) {
+		super.beforeConfiguration(tr);
+		if (isFixture(tr))
+			PhaseTimes.start();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void onConfigurationSuccess(ITestResult tr) {
+		super.onConfigurationSuccess(tr);
+		if (isFixture(tr))
+			recordTiming(tr, TimingReport.Kind.FIXTURE);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void onConfigurationFailure(ITestResult tr) {
+		super.onConfigurationFailure(tr);
+		if (isFixture(tr))
+			recordTiming(tr, TimingReport.Kind.FIXTURE);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void onConfigurationSkip(ITestResult tr) {
+		super.onConfigurationSkip(tr);
+		if (isFixture(tr))
+			recordTiming(tr, TimingReport.Kind.FIXTURE);
+	}
+
+	private static boolean isFixture(ITestResult tr) {
+		ITestNGMethod method = tr.getMethod();
+		return method.isBeforeClassConfiguration() || method.isBeforeTestConfiguration()
+				|| method.isBeforeSuiteConfiguration();
+	}
+
+	private static void recordTiming(ITestResult tr, TimingReport.Kind kind) {
+		// a test skipped because of a failed dependency was never started
+		PhaseTimes times = PhaseTimes.stop();
+		if (tr.getTestContext() == null)
+			return;
+		Object report = tr.getTestContext().getSuite().getAttribute(SuiteAttribute.TIMING_REPORT.getName());
+		if (!(report instanceof TimingReport))
+			return;
+		long duration = Math.max(0, tr.getEndMillis() - tr.getStartMillis());
+		((TimingReport) report).add(kind, tr.getMethod().getRealClass().getName(), tr.getMethod().getMethodName(),
+				statusOf(tr), duration, times);
+	}
+
+	private static String statusOf(ITestResult tr) {
+		switch (tr.getStatus()) {
+			case ITestResult.SUCCESS:
+				return "SUCCESS";
+			case ITestResult.FAILURE:
+				return "FAILURE";
+			case ITestResult.SKIP:
+				return "SKIP";
+			default:
+				return String.valueOf(tr.getStatus());
+		}
 	}
 
 }
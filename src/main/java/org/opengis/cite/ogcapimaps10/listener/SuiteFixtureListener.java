@@ -5,19 +5,33 @@ import static java.util.logging.Level.WARNING;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.Semaphore;
 import java.util.logging.Level;
 
 import org.opengis.cite.ogcapimaps10.TestRunArg;
 import org.opengis.cite.ogcapimaps10.conformance.SuiteAttribute;
 import org.opengis.cite.ogcapimaps10.domain.PngInteractiveTestResult;
 import org.opengis.cite.ogcapimaps10.domain.JpegInteractiveTestResult;
+import org.opengis.cite.ogcapimaps10.domain.LoadTestSettings;
 import org.opengis.cite.ogcapimaps10.domain.TiffInteractiveTestResult;
+import org.opengis.cite.ogcapimaps10.domain.TileSweepSettings;
+import org.opengis.cite.ogcapimaps10.util.CircuitBreaker;
 import org.opengis.cite.ogcapimaps10.util.ClientUtils;
+import org.opengis.cite.ogcapimaps10.util.HostThrottle;
+import org.opengis.cite.ogcapimaps10.util.HttpTransport;
+import org.opengis.cite.ogcapimaps10.util.MessageCapture;
+import org.opengis.cite.ogcapimaps10.util.RetryPolicy;
 import org.opengis.cite.ogcapimaps10.util.TestSuiteLogger;
+import org.opengis.cite.ogcapimaps10.util.TimingReport;
 import org.opengis.cite.ogcapimaps10.util.URIUtils;
 import org.testng.ISuite;
 import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
 
 import jakarta.ws.rs.client.Client;
 
@@ -34,24 +48,68 @@ import jakarta.ws.rs.client.Client;
  *
  * @see org.testng.ISuite ISuite interface
  */
-public class SuiteFixtureListener implements ISuiteListener {
+public class SuiteFixtureListener implements ISuiteListener, ITestListener {
+
+	/**
+	 * The parameter marking a test block which must not run concurrently with other test
+	 * blocks in the parallel mode, e.g. the performance tests, which measure the IUT.
+	 */
+	static final String EXCLUSIVE_PARAM = "exclusive";
+
+	private volatile Semaphore testBlocks;
+
+	private volatile int testBlockThreads;
 
 	/** {@inheritDoc} */
 	@Override
 	public void onStart(ISuite suite) {
-		processSuiteParameters(suite);
+		suite.setAttribute(SuiteAttribute.TIMING_REPORT.getName(), new TimingReport());
 		registerClientComponent(suite);
+		processSuiteParameters(suite);
+		configureParallelMode(suite);
 	}
 
 	/** {@inheritDoc} */
 	@Override
 	public void onFinish(ISuite suite) {
+		Object transport = suite.getAttribute(SuiteAttribute.HTTP_TRANSPORT.getName());
+		if (transport instanceof HttpTransport) {
+			// the metrics stay available to the reporters
+			((HttpTransport) transport).close();
+		}
 		if (null != System.getProperty("deleteSubjectOnFinish")) {
 			deleteTempFiles(suite);
 			System.getProperties().remove("deleteSubjectOnFinish");
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * In the parallel mode, an {@link #EXCLUSIVE_PARAM exclusive} test block waits until
+	 * the running test blocks finished and keeps the others from starting, so it should
+	 * be the last test block of the suite.
+	 */
+	@Override
+	public void onStart(ITestContext context) {
+		Semaphore gate = testBlocks;
+		if (gate != null)
+			gate.acquireUninterruptibly(permits(context));
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void onFinish(ITestContext context) {
+		Semaphore gate = testBlocks;
+		if (gate != null)
+			gate.release(permits(context));
+	}
+
+	private int permits(ITestContext context) {
+		boolean exclusive = Boolean.parseBoolean(context.getCurrentXmlTest().getParameter(EXCLUSIVE_PARAM));
+		return exclusive ? testBlockThreads : 1;
+	}
+
 	/**
 	 * Processes test suite arguments and sets suite attributes accordingly. The entity
 	 * referenced by the {@link TestRunArg#IUT iut} argument is retrieved and written to a
@@ -70,7 +128,8 @@ public class SuiteFixtureListener implements ISuiteListener {
 		suite.setAttribute(SuiteAttribute.IUT.getName(), iutRef);
 		File entityFile;
 		try {
-			entityFile = URIUtils.dereferenceURI(iutRef);
+			entityFile = URIUtils.dereferenceURI(iutRef,
+					(HttpTransport) suite.getAttribute(SuiteAttribute.HTTP_TRANSPORT.getName()));
 		}
 		catch (IOException iox) {
 			throw new RuntimeException("Failed to dereference resource located at " + iutRef, iox);
@@ -91,6 +150,27 @@ public class SuiteFixtureListener implements ISuiteListener {
 					TestRunArg.NOOFCOLLECTIONS, noOfCollections));
 		}
 
+		int collectionConcurrency = parsePositiveIntParam(params, TestRunArg.COLLECTION_CONCURRENCY, 1);
+		suite.setAttribute(SuiteAttribute.COLLECTION_CONCURRENCY.getName(), collectionConcurrency);
+
+		int messageCaptureBudget = parseNonNegativeIntParam(params, TestRunArg.MESSAGE_CAPTURE_BUDGET,
+				MessageCapture.DEFAULT_BUDGET);
+		suite.setAttribute(SuiteAttribute.MESSAGE_CAPTURE_BUDGET.getName(), messageCaptureBudget);
+
+		String messageCaptureMode = params.get(TestRunArg.MESSAGE_CAPTURE_MODE.toString());
+		MessageCapture.Mode captureMode = MessageCapture.Mode.LAZY;
+		if (messageCaptureMode != null && !messageCaptureMode.isEmpty()) {
+			try {
+				captureMode = MessageCapture.Mode.valueOf(messageCaptureMode.trim().toUpperCase(Locale.ROOT));
+			}
+			catch (IllegalArgumentException e) {
+				TestSuiteLogger.log(WARNING,
+						String.format("Could not parse parameter %s: %s. Expected is 'lazy' or 'eager'",
+								TestRunArg.MESSAGE_CAPTURE_MODE, messageCaptureMode));
+			}
+		}
+		suite.setAttribute(SuiteAttribute.MESSAGE_CAPTURE_MODE.getName(), captureMode);
+
 		// Parse and set TileMatrixSet parameter (default to WebMercatorQuad)
 		String tileMatrixSet = params.get(TestRunArg.TILE_MATRIX_SET.toString());
 		if (tileMatrixSet == null || tileMatrixSet.isEmpty()) {
@@ -110,6 +190,59 @@ public class SuiteFixtureListener implements ISuiteListener {
 		// Parse and set TIFF interactive test results
 		TiffInteractiveTestResult tiffInteractiveTestResult = parseTiffInteractiveTestResults(params);
 		suite.setAttribute(SuiteAttribute.TIFF_INTERACTIVE_TEST_RESULT.getName(), tiffInteractiveTestResult);
+
+		suite.setAttribute(SuiteAttribute.LOAD_TEST_SETTINGS.getName(), parseLoadTestSettings(params));
+		suite.setAttribute(SuiteAttribute.TILE_SWEEP_SETTINGS.getName(), parseTileSweepSettings(params));
+		suite.setAttribute(SuiteAttribute.CACHING_TEST_ENABLED.getName(),
+				parseBooleanParam(params, TestRunArg.CACHING_TEST_ENABLED));
+	}
+
+	/**
+	 * Parses the settings of the optional tile sweep from the test run parameters.
+	 * @param params The test run parameters map.
+	 * @return The settings of the tile sweep, never <code>null</code>.
+	 */
+	TileSweepSettings parseTileSweepSettings(Map<String, String> params) {
+		boolean enabled = parseBooleanParam(params, TestRunArg.TILE_SWEEP_ENABLED);
+		int minZoom = parseNonNegativeIntParam(params, TestRunArg.TILE_SWEEP_MIN_ZOOM,
+				TileSweepSettings.DEFAULT_MIN_ZOOM);
+		int maxZoom = parseNonNegativeIntParam(params, TestRunArg.TILE_SWEEP_MAX_ZOOM,
+				TileSweepSettings.DEFAULT_MAX_ZOOM);
+		int tilesPerLevel = parsePositiveIntParam(params, TestRunArg.TILE_SWEEP_TILES_PER_LEVEL,
+				TileSweepSettings.DEFAULT_TILES_PER_LEVEL);
+		int concurrency = parsePositiveIntParam(params, TestRunArg.TILE_SWEEP_CONCURRENCY,
+				TileSweepSettings.DEFAULT_CONCURRENCY);
+		TileSweepSettings settings = new TileSweepSettings(enabled, minZoom, maxZoom, tilesPerLevel, concurrency);
+		if (enabled)
+			TestSuiteLogger.log(Level.CONFIG,
+					String.format("Tile sweep: zoom levels %d to %d, max. %d tiles per level, %d concurrent",
+							settings.getMinZoom(), settings.getMaxZoom(), tilesPerLevel, concurrency));
+		return settings;
+	}
+
+	/**
+	 * Parses the settings of the optional map load test from the test run parameters.
+	 * @param params The test run parameters map.
+	 * @return The settings of the load test, never <code>null</code>.
+	 */
+	LoadTestSettings parseLoadTestSettings(Map<String, String> params) {
+		boolean enabled = parseBooleanParam(params, TestRunArg.LOAD_TEST_ENABLED);
+		int requests = parsePositiveIntParam(params, TestRunArg.LOAD_TEST_REQUESTS, LoadTestSettings.DEFAULT_REQUESTS);
+		int concurrency = parsePositiveIntParam(params, TestRunArg.LOAD_TEST_CONCURRENCY,
+				LoadTestSettings.DEFAULT_CONCURRENCY);
+		double minThroughput = parseNonNegativeDoubleParam(params, TestRunArg.LOAD_TEST_MIN_THROUGHPUT, 0);
+		double maxP50 = parseNonNegativeDoubleParam(params, TestRunArg.LOAD_TEST_MAX_P50, 0);
+		double maxP95 = parseNonNegativeDoubleParam(params, TestRunArg.LOAD_TEST_MAX_P95, 0);
+		double maxP99 = parseNonNegativeDoubleParam(params, TestRunArg.LOAD_TEST_MAX_P99, 0);
+		double maxErrorRate = parseNonNegativeDoubleParam(params, TestRunArg.LOAD_TEST_MAX_ERROR_RATE,
+				LoadTestSettings.DEFAULT_MAX_ERROR_RATE);
+		if (enabled)
+			TestSuiteLogger.log(Level.CONFIG, String.format(Locale.ROOT,
+					"Load test: %d requests, %d concurrent, min. %.1f requests/s, max. p50/p95/p99 %.1f/%.1f/%.1f ms, "
+							+ "max. %.2f%% errors",
+					requests, concurrency, minThroughput, maxP50, maxP95, maxP99, maxErrorRate));
+		return new LoadTestSettings(enabled, requests, concurrency, minThroughput, maxP50, maxP95, maxP99,
+				maxErrorRate);
 	}
 
 	/**
@@ -161,18 +294,149 @@ public class SuiteFixtureListener implements ISuiteListener {
 	}
 
 	/**
-	 * A client component is added to the suite fixture as the value of the
-	 * {@link SuiteAttribute#CLIENT} attribute; it may be subsequently accessed via the
-	 * {@link org.testng.ITestContext#getSuite()} method.
+	 * A pooled HTTP transport is added to the suite fixture as the value of the
+	 * {@link SuiteAttribute#HTTP_TRANSPORT} attribute and a client component using it as
+	 * the value of the {@link SuiteAttribute#CLIENT} attribute; they may be subsequently
+	 * accessed via the {@link org.testng.ITestContext#getSuite()} method. The number of
+	 * connections per host is read from {@link TestRunArg#MAX_CONNECTIONS_PER_HOST}, the
+	 * size of the response cache from {@link TestRunArg#RESPONSE_CACHE_SIZE}.
 	 * @param suite The test suite instance.
 	 */
 	void registerClientComponent(ISuite suite) {
-		Client client = ClientUtils.buildClient();
+		Map<String, String> params = suite.getXmlSuite().getParameters();
+		int maxConnectionsPerHost = parsePositiveIntParam(params, TestRunArg.MAX_CONNECTIONS_PER_HOST,
+				HttpTransport.DEFAULT_MAX_CONNECTIONS_PER_HOST);
+		int responseCacheSize = parseNonNegativeIntParam(params, TestRunArg.RESPONSE_CACHE_SIZE, 0);
+		int connectTimeout = parseNonNegativeIntParam(params, TestRunArg.CONNECT_TIMEOUT,
+				HttpTransport.DEFAULT_CONNECT_TIMEOUT);
+		int readTimeout = parseNonNegativeIntParam(params, TestRunArg.READ_TIMEOUT, HttpTransport.DEFAULT_READ_TIMEOUT);
+		int maxRetries = parseNonNegativeIntParam(params, TestRunArg.MAX_RETRIES, RetryPolicy.DEFAULT_MAX_RETRIES);
+		int retryBaseDelay = parseNonNegativeIntParam(params, TestRunArg.RETRY_BASE_DELAY,
+				(int) RetryPolicy.DEFAULT_BASE_DELAY);
+		int circuitBreakerThreshold = parseNonNegativeIntParam(params, TestRunArg.CIRCUIT_BREAKER_THRESHOLD,
+				CircuitBreaker.DEFAULT_FAILURE_THRESHOLD);
+		int circuitBreakerCoolDown = parseNonNegativeIntParam(params, TestRunArg.CIRCUIT_BREAKER_COOL_DOWN,
+				(int) CircuitBreaker.DEFAULT_COOL_DOWN);
+		RetryPolicy retryPolicy = new RetryPolicy(maxRetries, retryBaseDelay,
+				Math.max(retryBaseDelay, RetryPolicy.DEFAULT_MAX_DELAY));
+		CircuitBreaker circuitBreaker = new CircuitBreaker(circuitBreakerThreshold, circuitBreakerCoolDown);
+		double maxRequestsPerSecond = parseNonNegativeDoubleParam(params, TestRunArg.MAX_REQUESTS_PER_SECOND, 0);
+		int requestBurst = parseNonNegativeIntParam(params, TestRunArg.REQUEST_BURST, 0);
+		int maxConcurrentRequests = parseNonNegativeIntParam(params, TestRunArg.MAX_CONCURRENT_REQUESTS, 0);
+		HostThrottle throttle = new HostThrottle(maxRequestsPerSecond, requestBurst, maxConcurrentRequests);
+		HttpTransport transport = new HttpTransport(maxConnectionsPerHost, responseCacheSize, connectTimeout,
+				readTimeout, retryPolicy, circuitBreaker, throttle);
+		suite.setAttribute(SuiteAttribute.HTTP_TRANSPORT.getName(), transport);
+		TestSuiteLogger.log(Level.CONFIG, "Using max. connections per host: " + maxConnectionsPerHost);
+		TestSuiteLogger.log(Level.CONFIG, "Using response cache size: " + responseCacheSize);
+		TestSuiteLogger.log(Level.CONFIG,
+				String.format("Using connect timeout: %d ms, read timeout: %d ms", connectTimeout, readTimeout));
+		TestSuiteLogger.log(Level.CONFIG, "Using retry policy: " + retryPolicy);
+		TestSuiteLogger.log(Level.CONFIG, "Using circuit breaker: " + circuitBreaker);
+		TestSuiteLogger.log(Level.CONFIG, "Using request throttle: " + throttle);
+
+		Client client = ClientUtils.buildClient(transport);
 		if (null != client) {
 			suite.setAttribute(SuiteAttribute.CLIENT.getName(), client);
 		}
 	}
 
+	/**
+	 * Enables the parallel execution of the test blocks of the suite if
+	 * {@link TestRunArg#PARALLEL_TESTS} is greater than 1. The test methods of a test
+	 * block are still run sequentially; the thread count is bounded by the number of test
+	 * blocks. {@link #EXCLUSIVE_PARAM Exclusive} test blocks run on their own.
+	 * @param suite The test suite instance.
+	 */
+	void configureParallelMode(ISuite suite) {
+		XmlSuite xmlSuite = suite.getXmlSuite();
+		int parallelTests = parsePositiveIntParam(xmlSuite.getParameters(), TestRunArg.PARALLEL_TESTS, 1);
+		int threadCount = Math.min(parallelTests, Math.max(1, xmlSuite.getTests().size()));
+		if (threadCount <= 1) {
+			return;
+		}
+		for (XmlTest test : xmlSuite.getTests()) {
+			test.setParallel(XmlSuite.ParallelMode.NONE);
+		}
+		xmlSuite.setParallel(XmlSuite.ParallelMode.TESTS);
+		xmlSuite.setThreadCount(threadCount);
+		testBlockThreads = threadCount;
+		testBlocks = new Semaphore(threadCount, true);
+		TestSuiteLogger.log(Level.CONFIG, "Running test blocks in parallel, threads: " + threadCount);
+	}
+
+	/**
+	 * Parses a positive integer value from the parameters map.
+	 * @param params The parameters map.
+	 * @param arg The TestRunArg key to look up.
+	 * @param defaultValue The value to use if the parameter is missing or invalid.
+	 * @return The parsed value, or the default value.
+	 */
+	private int parsePositiveIntParam(Map<String, String> params, TestRunArg arg, int defaultValue) {
+		String value = params != null ? params.get(arg.toString()) : null;
+		if (value == null || value.isEmpty())
+			return defaultValue;
+		try {
+			int intValue = Integer.parseInt(value.trim());
+			if (intValue > 0)
+				return intValue;
+		}
+		catch (NumberFormatException e) {
+			// logged below
+		}
+		TestSuiteLogger.log(WARNING,
+				String.format("Could not parse parameter %s: %s. Expected is a positive integer", arg, value));
+		return defaultValue;
+	}
+
+	/**
+	 * Parses a non-negative integer value from the parameters map.
+	 * @param params The parameters map.
+	 * @param arg The TestRunArg key to look up.
+	 * @param defaultValue The value to use if the parameter is missing or invalid.
+	 * @return The parsed value, or the default value.
+	 */
+	private int parseNonNegativeIntParam(Map<String, String> params, TestRunArg arg, int defaultValue) {
+		String value = params != null ? params.get(arg.toString()) : null;
+		if (value == null || value.isEmpty())
+			return defaultValue;
+		try {
+			int intValue = Integer.parseInt(value.trim());
+			if (intValue >= 0)
+				return intValue;
+		}
+		catch (NumberFormatException e) {
+			// logged below
+		}
+		TestSuiteLogger.log(WARNING,
+				String.format("Could not parse parameter %s: %s. Expected is a non-negative integer", arg, value));
+		return defaultValue;
+	}
+
+	/**
+	 * Parses a non-negative decimal value from the parameters map.
+	 * @param params The parameters map.
+	 * @param arg The TestRunArg key to look up.
+	 * @param defaultValue The value to use if the parameter is missing or invalid.
+	 * @return The parsed value, or the default value.
+	 */
+	private double parseNonNegativeDoubleParam(Map<String, String> params, TestRunArg arg, double defaultValue) {
+		String value = params != null ? params.get(arg.toString()) : null;
+		if (value == null || value.isEmpty())
+			return defaultValue;
+		try {
+			double doubleValue = Double.parseDouble(value.trim());
+			if (doubleValue >= 0 && !Double.isInfinite(doubleValue))
+				return doubleValue;
+		}
+		catch (NumberFormatException e) {
+			// logged below
+		}
+		TestSuiteLogger.log(WARNING,
+				String.format("Could not parse parameter %s: %s. Expected is a non-negative number", arg, value));
+		return defaultValue;
+	}
+
 	/**
 	 * Deletes temporary files created during the test run if TestSuiteLogger is enabled
 	 * at the INFO level or higher (they are left intact at the CONFIG level or lower).
@@ -1,11 +1,14 @@
 package org.opengis.cite.ogcapimaps10.listener;
 
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import org.glassfish.jersey.client.ClientRequest;
 import org.glassfish.jersey.client.ClientResponse;
 import org.opengis.cite.ogcapimaps10.conformance.CommonFixture;
 import org.opengis.cite.ogcapimaps10.util.ClientUtils;
+import org.opengis.cite.ogcapimaps10.util.MessageCapture;
 import org.opengis.cite.ogcapimaps10.util.XMLUtils;
 import org.testng.ITestResult;
 import org.testng.TestListenerAdapter;
@@ -26,7 +29,9 @@ public class TestFailureListener extends TestListenerAdapter {
 	 * Sets the "request" and "response" attributes of a test result. The value of these
 	 * attributes is a string that contains information about the content of an outgoing
 	 * or incoming message: target resource, status code, headers, entity (if present).
-	 * The entity is represented as a String with UTF-8 character encoding.
+	 * The entity is represented as a String with UTF-8 character encoding, limited to the
+	 * message capture budget; the file holding the rest of the entities is kept in the
+	 * output directory of the suite.
 	 */
 	@Override
 	public void onTestFailure(ITestResult result) {
@@ -34,11 +39,26 @@ public class TestFailureListener extends TestListenerAdapter {
 		Object instance = result.getInstance();
 		if (CommonFixture.class.isInstance(instance)) {
 			CommonFixture fixture = CommonFixture.class.cast(instance);
+			MessageCapture capture = fixture.getMessageCapture();
+			// the report references the file, so it has to outlive the suite
+			capture.retain(captureDirectory(result));
 			result.setAttribute("request", fixture.getRequest());
 			result.setAttribute("response", fixture.getResponse());
 		}
 	}
 
+	/**
+	 * @param result the result of a failed test
+	 * @return the directory keeping the captured messages of failed tests,
+	 * <code>null</code> if the suite has no output directory
+	 */
+	Path captureDirectory(ITestResult result) {
+		if (result.getTestContext() == null)
+			return null;
+		String outputDirectory = result.getTestContext().getSuite().getOutputDirectory();
+		return outputDirectory != null ? Paths.get(outputDirectory, "captures") : null;
+	}
+
 	/**
 	 * Gets diagnostic information about a request message. If the request contains a
 	 * message body, it should be represented as a DOM Document node or as an object
@@ -1,5 +1,9 @@
 package org.opengis.cite.ogcapimaps10.listener;
 
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.opengis.cite.ogcapimaps10.util.TestSuiteLogger;
 import org.testng.IExecutionListener;
 
 /**
@@ -17,14 +21,24 @@ import org.testng.IExecutionListener;
  */
 public class TestRunListener implements IExecutionListener {
 
+	private long startNanos;
+
 	/** {@inheritDoc} */
 	@Override
 	public void onExecutionStart() {
+		startNanos = System.nanoTime();
 	}
 
-	/** {@inheritDoc} */
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Logs the duration of the test run; the timings of the individual methods are
+	 * written by the {@link TimingReporter}.
+	 */
 	@Override
 	public void onExecutionFinish() {
+		TestSuiteLogger.log(Level.INFO, String.format("Test run finished in %d ms",
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)));
 	}
 
 }
@@ -0,0 +1,59 @@
+package org.opengis.cite.ogcapimaps10.listener;
+
+import static java.util.logging.Level.WARNING;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.opengis.cite.ogcapimaps10.conformance.SuiteAttribute;
+import org.opengis.cite.ogcapimaps10.util.TestSuiteLogger;
+import org.opengis.cite.ogcapimaps10.util.TileSweep;
+import org.testng.IReporter;
+import org.testng.ISuite;
+import org.testng.xml.XmlSuite;
+
+/**
+ * A reporter that writes the results of the optional tile sweep (latency percentiles,
+ * bytes per tile and cache indicators per zoom level) to {@value #REPORT_FILE_NAME} in
+ * the output directory of TestNG, next to the test results. Nothing is written if the
+ * tile sweep was not run.
+ */
+public class TileSweepReporter implements IReporter {
+
+	/**
+	 * The name of the tile sweep summary written to the output directory.
+	 */
+	public static final String REPORT_FILE_NAME = "tile-sweep.txt";
+
+	/** {@inheritDoc} */
+	@Override
+	public void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
+		StringWriter summary = new StringWriter();
+		for (ISuite suite : suites) {
+			Object sweep = suite.getAttribute(SuiteAttribute.TILE_SWEEP.getName());
+			if (!(sweep instanceof TileSweep))
+				continue;
+			summary.append("Suite: ").append(suite.getName()).append(System.lineSeparator());
+			((TileSweep) sweep).writeSummary(summary);
+			summary.append(System.lineSeparator());
+		}
+		if (summary.getBuffer().length() == 0)
+			return;
+		File reportFile = new File(outputDirectory, REPORT_FILE_NAME);
+		try {
+			Files.createDirectories(reportFile.getParentFile().toPath());
+			try (Writer writer = Files.newBufferedWriter(reportFile.toPath(), StandardCharsets.UTF_8)) {
+				writer.write(summary.toString());
+			}
+		}
+		catch (IOException e) {
+			TestSuiteLogger.log(WARNING, "Could not write tile sweep results to " + reportFile, e);
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+package org.opengis.cite.ogcapimaps10.listener;
+
+import static java.util.logging.Level.WARNING;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.opengis.cite.ogcapimaps10.conformance.SuiteAttribute;
+import org.opengis.cite.ogcapimaps10.util.TestSuiteLogger;
+import org.opengis.cite.ogcapimaps10.util.TimingReport;
+import org.testng.IReporter;
+import org.testng.ISuite;
+import org.testng.xml.XmlSuite;
+
+/**
+ * A reporter that writes the {@link TimingReport} of each suite as
+ * <code>timing-report.json</code> and <code>timing-report.csv</code> to the output
+ * directory of TestNG, next to the test results. If more than one suite was run, the name
+ * of the suite is appended to the file names.
+ */
+public class TimingReporter implements IReporter {
+
+	/**
+	 * The base name of the report files written to the output directory.
+	 */
+	public static final String REPORT_FILE_NAME = "timing-report";
+
+	/** {@inheritDoc} */
+	@Override
+	public void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
+		for (ISuite suite : suites) {
+			Object report = suite.getAttribute(SuiteAttribute.TIMING_REPORT.getName());
+			if (!(report instanceof TimingReport))
+				continue;
+			String baseName = suites.size() > 1 ? REPORT_FILE_NAME + "-" + suite.getName().replaceAll("\\W", "_")
+					: REPORT_FILE_NAME;
+			File jsonFile = new File(outputDirectory, baseName + ".json");
+			File csvFile = new File(outputDirectory, baseName + ".csv");
+			try {
+				Files.createDirectories(jsonFile.getParentFile().toPath());
+				try (Writer writer = Files.newBufferedWriter(jsonFile.toPath(), StandardCharsets.UTF_8)) {
+					((TimingReport) report).writeJson(writer);
+				}
+				try (Writer writer = Files.newBufferedWriter(csvFile.toPath(), StandardCharsets.UTF_8)) {
+					((TimingReport) report).writeCsv(writer);
+				}
+			}
+			catch (IOException e) {
+				TestSuiteLogger.log(WARNING, "Could not write timing report to " + jsonFile.getParent(), e);
+			}
+		}
+	}
+
+}
@@ -8,16 +8,18 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.glassfish.jersey.uri.UriTemplate;
-import org.glassfish.jersey.uri.internal.UriTemplateParser;
 import org.opengis.cite.ogcapimaps10.OgcApiMaps10;
+import org.opengis.cite.ogcapimaps10.util.PathTemplateTrie;
 
 import com.reprezen.kaizen.oasparser.model3.MediaType;
 import com.reprezen.kaizen.oasparser.model3.OpenApi3;
@@ -41,12 +43,11 @@ public class OpenApiUtils {
 	// https://github.com/OAI/OpenAPI-Specification/blob/master/versions/3.0.0.md#fixed-fields
 	private static final String DEFAULT_SERVER_URL = "/";
 
-	@FunctionalInterface
-	private interface PathMatcherFunction<A, B, C> {
-
-		A apply(B b, C c);
-
-	}
+	/**
+	 * The paths of the last API model used, indexed by their path templates. The model is
+	 * compared by identity, as the models implement a deep equals.
+	 */
+	private static volatile PathIndex pathIndex;
 
 	enum PATH {
 
@@ -65,39 +66,36 @@ public class OpenApiUtils {
 
 	}
 
-	private static class PathMatcher implements PathMatcherFunction<Boolean, String, String> {
-
-		@Override
-		public Boolean apply(String pathUnderTest, String pathToMatch) {
-			UriTemplateParser parser = new UriTemplateParser(pathUnderTest);
-			Matcher matcher = parser.getPattern().matcher(pathToMatch);
-			return matcher.matches();
-		}
-
-	}
-
-	private static class ExactMatchFilter implements Predicate<TestPoint> {
-
-		private final String requestedPath;
-
-		ExactMatchFilter(String requestedPath) {
-			this.requestedPath = requestedPath;
-		}
-
-		@Override
-		public boolean test(TestPoint testPoint) {
-			UriTemplate uriTemplate = new UriTemplate(testPoint.getPath());
-			Map<String, String> templateReplacement = new HashMap<>(testPoint.getPredefinedTemplateReplacement());
-			List<String> templateVariables = uriTemplate.getTemplateVariables();
-			for (String templateVariable : templateVariables) {
-				if (!templateReplacement.containsKey(templateVariable))
-					templateReplacement.put(templateVariable, ".*");
+	/**
+	 * Keeps the test points whose path, with the predefined template replacements
+	 * applied, matches the requested path. Remaining template variables match a single
+	 * path segment.
+	 * @param testPoints the test points to filter, never <code>null</code>
+	 * @param requestedPath the requested path, never <code>null</code>
+	 * @return the matching test points in the order passed, never <code>null</code>
+	 */
+	private static List<TestPoint> filterExactMatches(List<TestPoint> testPoints, String requestedPath) {
+		PathTemplateTrie<List<TestPoint>> trie = new PathTemplateTrie<>();
+		for (TestPoint testPoint : testPoints) {
+			String template = applyTemplateReplacements(testPoint);
+			List<TestPoint> sameTemplate = trie.get(template);
+			if (sameTemplate == null) {
+				sameTemplate = new ArrayList<>();
+				trie.put(template, sameTemplate);
 			}
-			String uri = uriTemplate.createURI(templateReplacement);
-			Pattern pattern = Pattern.compile(uri);
-			return pattern.matcher(requestedPath).matches();
+			sameTemplate.add(testPoint);
 		}
+		Set<TestPoint> matching = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (List<TestPoint> sameTemplate : trie.findAll(requestedPath))
+			matching.addAll(sameTemplate);
+		return testPoints.stream().filter(matching::contains).collect(Collectors.toList());
+	}
 
+	private static String applyTemplateReplacements(TestPoint testPoint) {
+		String path = testPoint.getPath();
+		for (Map.Entry<String, String> replacement : testPoint.getPredefinedTemplateReplacement().entrySet())
+			path = path.replace("{" + replacement.getKey() + "}", replacement.getValue());
+		return path;
 	}
 
 	private OpenApiUtils() {
@@ -156,7 +154,7 @@ public class OpenApiUtils {
 		requestedPath.append(collectionName);
 
 		List<TestPoint> testPoints = retrieveTestPoints(apiModel, iut, requestedPath.toString(), true);
-		return testPoints.stream().filter(new ExactMatchFilter(requestedPath.toString())).collect(Collectors.toList());
+		return filterExactMatches(testPoints, requestedPath.toString());
 	}
 
 	/**
@@ -174,8 +172,10 @@ public class OpenApiUtils {
 		requestedPath.append(COLLECTIONS.getPathItem());
 		requestedPath.append("/.*/items");
 
-		List<TestPoint> allTestPoints = retrieveTestPoints(apiModel, iut, requestedPath.toString(),
-				(a, b) -> a.matches(b), true);
+		Pattern requestedPathPattern = Pattern.compile(requestedPath.toString());
+		List<Path> pathItemObjects = identifyTestPoints(apiModel,
+				pathString -> requestedPathPattern.matcher(pathString).matches());
+		List<TestPoint> allTestPoints = retrieveTestPoints(apiModel, iut, pathItemObjects, true);
 		if (noOfCollection < 0 && allTestPoints.size() > OgcApiMaps10.COLLECTIONS_LIMIT) {
 			return allTestPoints.subList(0, OgcApiMaps10.COLLECTIONS_LIMIT);
 		}
@@ -197,7 +197,7 @@ public class OpenApiUtils {
 		String requestedPath = createCollectionPath(apiModel, iut, collectionName);
 
 		List<TestPoint> testPoints = retrieveTestPoints(apiModel, iut, requestedPath, true);
-		return testPoints.stream().filter(new ExactMatchFilter(requestedPath)).collect(Collectors.toList());
+		return filterExactMatches(testPoints, requestedPath);
 	}
 
 	/**
@@ -220,7 +220,7 @@ public class OpenApiUtils {
 		requestedPath.append(featureId);
 
 		List<TestPoint> testPoints = retrieveTestPoints(apiModel, iut, requestedPath.toString(), true);
-		return testPoints.stream().filter(new ExactMatchFilter(requestedPath.toString())).collect(Collectors.toList());
+		return filterExactMatches(testPoints, requestedPath.toString());
 	}
 
 	/**
@@ -258,7 +258,7 @@ public class OpenApiUtils {
 	public static boolean isFreeFormParameterSupportedForCollection(OpenApi3 apiModel, URI iut, String collectionName) {
 		String requestedPath = createCollectionPath(apiModel, iut, collectionName);
 
-		List<Path> paths = identifyTestPoints(apiModel, requestedPath, new PathMatcher());
+		List<Path> paths = identifyTestPoints(apiModel, requestedPath);
 		for (Path path : paths) {
 			Collection<Parameter> parameters = path.getGet().getParameters();
 			for (Parameter parameter : parameters) {
@@ -284,7 +284,7 @@ public class OpenApiUtils {
 			String queryParam) {
 		String requestedPath = createCollectionPath(apiModel, iut, collectionName);
 
-		List<Path> paths = identifyTestPoints(apiModel, requestedPath, new PathMatcher());
+		List<Path> paths = identifyTestPoints(apiModel, requestedPath);
 		for (Path path : paths) {
 			Collection<Parameter> parameters = path.getGet().getParameters();
 			for (Parameter parameter : parameters) {
@@ -314,12 +314,12 @@ public class OpenApiUtils {
 
 	private static List<TestPoint> retrieveTestPoints(OpenApi3 apiModel, URI iut, String requestedPath,
 			boolean allowEmptyTemplateReplacements) {
-		return retrieveTestPoints(apiModel, iut, requestedPath, new PathMatcher(), allowEmptyTemplateReplacements);
+		List<Path> pathItemObjects = identifyTestPoints(apiModel, requestedPath);
+		return retrieveTestPoints(apiModel, iut, pathItemObjects, allowEmptyTemplateReplacements);
 	}
 
-	private static List<TestPoint> retrieveTestPoints(OpenApi3 apiModel, URI iut, String requestedPath,
-			PathMatcherFunction<Boolean, String, String> pathMatcher, boolean allowEmptyTemplateReplacements) {
-		List<Path> pathItemObjects = identifyTestPoints(apiModel, requestedPath, pathMatcher);
+	private static List<TestPoint> retrieveTestPoints(OpenApi3 apiModel, URI iut, List<Path> pathItemObjects,
+			boolean allowEmptyTemplateReplacements) {
 		List<PathItemAndServer> pathItemAndServers = identifyServerUrls(apiModel, iut, pathItemObjects);
 		return processServerObjects(pathItemAndServers, allowEmptyTemplateReplacements);
 	}
@@ -352,17 +352,25 @@ public class OpenApiUtils {
 	private static List<Path> identifyTestPoints(OpenApi3 apiModel) {
 		List<Path> allTestPoints = new ArrayList<>();
 		for (PATH path : PATH.values())
-			allTestPoints.addAll(identifyTestPoints(apiModel, "/" + path.getPathItem(), new PathMatcher()));
+			allTestPoints.addAll(identifyTestPoints(apiModel, "/" + path.getPathItem()));
 		return allTestPoints;
 	}
 
-	private static List<Path> identifyTestPoints(OpenApi3 apiModel, String path,
-			PathMatcherFunction<Boolean, String, String> pathMatch) {
+	private static List<Path> identifyTestPoints(OpenApi3 apiModel, String path) {
+		PathIndex index = pathIndex;
+		if (index == null || index.apiModel != apiModel) {
+			index = new PathIndex(apiModel);
+			pathIndex = index;
+		}
+		return index.paths.findAll(path);
+	}
+
+	private static List<Path> identifyTestPoints(OpenApi3 apiModel, Predicate<String> pathMatch) {
 		List<Path> pathItems = new ArrayList<>();
 		Map<String, Path> pathItemObjects = apiModel.getPaths();
 		for (Path pathItemObject : pathItemObjects.values()) {
 			String pathString = pathItemObject.getPathString();
-			if (pathMatch.apply(pathString, path)) {
+			if (pathMatch.test(pathString)) {
 				pathItems.add(pathItemObject);
 			}
 		}
@@ -610,6 +618,20 @@ public class OpenApiUtils {
 		return urls;
 	}
 
+	private static class PathIndex {
+
+		private final OpenApi3 apiModel;
+
+		private final PathTemplateTrie<Path> paths = new PathTemplateTrie<>();
+
+		private PathIndex(OpenApi3 apiModel) {
+			this.apiModel = apiModel;
+			for (Path pathItemObject : apiModel.getPaths().values())
+				paths.put(pathItemObject.getPathString(), pathItemObject);
+		}
+
+	}
+
 	private static class PathItemAndServer {
 
 		private final Path pathItemObject;
@@ -0,0 +1,460 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Checks the HTTP caching behaviour of map and tile resources: a resource is requested
+ * once and then replayed with If-None-Match and If-Modified-Since using the validators of
+ * the first response, which must be answered with 304 Not Modified, and with a
+ * non-matching If-None-Match, which must not. Variants of a resource are compared to
+ * detect a missing <code>Vary: Accept</code> and strong ETags shared by different
+ * representations.
+ *
+ * <p>
+ * The caching efficiency is the percentage of the bytes of the resources that a client
+ * revalidating its cached copy does not transfer again, as the server answers with 304; a
+ * resource without validators counts as transferred again.
+ * </p>
+ *
+ * @see <a href="https://www.rfc-editor.org/rfc/rfc9110#section-13">RFC 9110, Section 13
+ * Conditional Requests</a>
+ */
+public class CachingCheck {
+
+	private static final Pattern MAX_AGE = Pattern.compile("(?:^|[,\\s])(?:s-maxage|max-age)=\"?(\\d+)");
+
+	private final HttpTransport transport;
+
+	private final String authorization;
+
+	private final List<Resource> resources = new ArrayList<>();
+
+	private final List<String> varyErrors = new ArrayList<>();
+
+	/**
+	 * Creates a check.
+	 * @param transport the transport to send the requests with, never <code>null</code>
+	 * @param authorization the value of the Authorization header, <code>null</code> if
+	 * none
+	 */
+	public CachingCheck(HttpTransport transport, String authorization) {
+		this.transport = transport;
+		this.authorization = authorization;
+	}
+
+	/**
+	 * Requests a resource and replays the request conditionally.
+	 * @param name the name of the resource in the report, e.g. "map"
+	 * @param url the URL of the resource, never <code>null</code>
+	 * @param accept the Accept header, <code>null</code> if none
+	 * @return the result, never <code>null</code>
+	 * @throws IOException if a request failed
+	 */
+	public Resource checkConditionalRequests(String name, String url, String accept) throws IOException {
+		Probe first = request(url, accept, null, null);
+		Resource resource = new Resource(name, url, first);
+		if (first.getStatus() == 200) {
+			if (first.getEtag() != null) {
+				resource.ifNoneMatch = request(url, accept, "If-None-Match", first.getEtag());
+				resource.nonMatching = request(url, accept, "If-None-Match", "\"ets-ogcapi-maps10-no-match\"");
+			}
+			if (first.getLastModified() != null)
+				resource.ifModifiedSince = request(url, accept, "If-Modified-Since", first.getLastModified());
+		}
+		resources.add(resource);
+		return resource;
+	}
+
+	/**
+	 * Requests variants of a resource and records an error if responses of the same URL
+	 * with different media types do not declare <code>Vary: Accept</code>, or if
+	 * different representations share a strong ETag.
+	 * @param variants the variants, never <code>null</code>
+	 * @return the errors found, never <code>null</code>
+	 * @throws IOException if a request failed
+	 */
+	public List<String> checkVariants(List<Variant> variants) throws IOException {
+		List<Variant> requested = new ArrayList<>();
+		List<Probe> probes = new ArrayList<>();
+		for (Variant variant : variants) {
+			Probe probe = request(variant.url, variant.accept, null, null);
+			if (probe.getStatus() == 200) {
+				requested.add(variant);
+				probes.add(probe);
+			}
+		}
+		List<String> errors = new ArrayList<>();
+		for (int i = 0; i < probes.size(); i++) {
+			for (int j = i + 1; j < probes.size(); j++) {
+				String error = compare(requested.get(i), probes.get(i), requested.get(j), probes.get(j));
+				if (error != null)
+					errors.add(error);
+			}
+		}
+		varyErrors.addAll(errors);
+		return errors;
+	}
+
+	private static String compare(Variant variant, Probe probe, Variant other, Probe otherProbe) {
+		if (variant.url.equals(other.url) && !equalsIgnoreCase(probe.getContentType(), otherProbe.getContentType())
+				&& (!varies(probe.getVary(), "Accept") || !varies(otherProbe.getVary(), "Accept")))
+			return String.format("%s returns %s for %s and %s for %s without Vary: Accept", variant.url,
+					probe.getContentType(), variant, otherProbe.getContentType(), other);
+		if (probe.getEtag() != null && !probe.getEtag().startsWith("W/") && probe.getEtag().equals(otherProbe.getEtag())
+				&& !probe.hasSameBody(otherProbe))
+			return String.format("The different representations %s and %s have the same strong ETag %s", variant, other,
+					probe.getEtag());
+		return null;
+	}
+
+	/**
+	 * @return the resources checked, never <code>null</code>
+	 */
+	public List<Resource> getResources() {
+		return new ArrayList<>(resources);
+	}
+
+	/**
+	 * @return the percentage of the bytes of the resources not transferred again on
+	 * revalidation, 0 if no resource was checked
+	 */
+	public double getEfficiency() {
+		long potential = 0;
+		long saved = 0;
+		for (Resource resource : resources) {
+			potential += resource.getFirst().getBytes();
+			saved += resource.getSavedBytes();
+		}
+		return potential > 0 ? 100.0 * saved / potential : 0;
+	}
+
+	/**
+	 * Writes a plain text summary with one line per resource.
+	 * @param writer the writer to write to, never <code>null</code>
+	 */
+	public void writeSummary(Writer writer) {
+		PrintWriter out = new PrintWriter(writer);
+		String format = "%-10s %6s %10s %8s %8s %8s %10s %10s %-12s %s%n";
+		out.printf(Locale.ROOT, format, "Resource", "Status", "Bytes", "ETag", "INM", "IMS", "max-age", "Saved", "Vary",
+				"URL");
+		for (Resource resource : resources) {
+			Probe first = resource.getFirst();
+			out.printf(Locale.ROOT, format, resource.getName(), first.getStatus(), first.getBytes(),
+					first.getEtag() != null ? "yes" : "no", status(resource.getIfNoneMatch()),
+					status(resource.getIfModifiedSince()), first.getMaxAge() >= 0 ? first.getMaxAge() : "-",
+					resource.getSavedBytes(), first.getVary() != null ? first.getVary() : "-", resource.getUrl());
+		}
+		out.printf(Locale.ROOT, "Caching efficiency: %.1f%% of the bytes saved on revalidation%n", getEfficiency());
+		for (String error : varyErrors)
+			out.printf("Vary: %s%n", error);
+		out.flush();
+	}
+
+	/**
+	 * @param cacheControl the value of the Cache-Control header, may be <code>null</code>
+	 * @return the max-age (or s-maxage) in seconds, -1 if none
+	 */
+	static long maxAge(String cacheControl) {
+		if (cacheControl == null)
+			return -1;
+		Matcher matcher = MAX_AGE.matcher(cacheControl.toLowerCase(Locale.ROOT));
+		return matcher.find() ? Long.parseLong(matcher.group(1)) : -1;
+	}
+
+	/**
+	 * @param vary the value of the Vary header, may be <code>null</code>
+	 * @param header the name of a request header, never <code>null</code>
+	 * @return <code>true</code> if the response varies by the header
+	 */
+	static boolean varies(String vary, String header) {
+		if (vary == null)
+			return false;
+		for (String name : vary.split(","))
+			if (name.trim().equals("*") || name.trim().equalsIgnoreCase(header))
+				return true;
+		return false;
+	}
+
+	private static boolean equalsIgnoreCase(String value, String other) {
+		return value == null ? other == null : value.equalsIgnoreCase(other);
+	}
+
+	private static String status(Probe probe) {
+		return probe != null ? Integer.toString(probe.getStatus()) : "-";
+	}
+
+	private Probe request(String url, String accept, String conditionHeader, String condition) throws IOException {
+		HttpURLConnection connection = transport.openConnection(url);
+		try {
+			connection.setRequestMethod("GET");
+			if (accept != null)
+				connection.setRequestProperty("Accept", accept);
+			if (authorization != null)
+				connection.setRequestProperty("Authorization", authorization);
+			if (conditionHeader != null)
+				connection.setRequestProperty(conditionHeader, condition);
+			int status = connection.getResponseCode();
+			byte[] body;
+			try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+				body = in != null ? in.readAllBytes() : new byte[0];
+			}
+			return new Probe(status, connection.getContentType(), connection.getHeaderField("ETag"),
+					connection.getHeaderField("Last-Modified"), connection.getHeaderField("Cache-Control"),
+					connection.getHeaderField("Vary"), body);
+		}
+		finally {
+			connection.disconnect();
+		}
+	}
+
+	/**
+	 * A variant of a resource, i.e. a URL requested with an Accept header.
+	 */
+	public static class Variant {
+
+		private final String url;
+
+		private final String accept;
+
+		/**
+		 * @param url the URL, never <code>null</code>
+		 * @param accept the Accept header, <code>null</code> if none
+		 */
+		public Variant(String url, String accept) {
+			this.url = url;
+			this.accept = accept;
+		}
+
+		@Override
+		public String toString() {
+			return accept != null ? url + " (Accept: " + accept + ")" : url;
+		}
+
+	}
+
+	/**
+	 * The response to one request.
+	 */
+	public static class Probe {
+
+		private final int status;
+
+		private final String contentType;
+
+		private final String etag;
+
+		private final String lastModified;
+
+		private final String cacheControl;
+
+		private final String vary;
+
+		private final long bytes;
+
+		private final int bodyHash;
+
+		Probe(int status, String contentType, String etag, String lastModified, String cacheControl, String vary,
+				byte[] body) {
+			this.status = status;
+			this.contentType = contentType;
+			this.etag = etag;
+			this.lastModified = lastModified;
+			this.cacheControl = cacheControl;
+			this.vary = vary;
+			this.bytes = body.length;
+			this.bodyHash = Arrays.hashCode(body);
+		}
+
+		/**
+		 * @return the status code
+		 */
+		public int getStatus() {
+			return status;
+		}
+
+		/**
+		 * @return the Content-Type header, may be <code>null</code>
+		 */
+		public String getContentType() {
+			return contentType;
+		}
+
+		/**
+		 * @return the ETag header, may be <code>null</code>
+		 */
+		public String getEtag() {
+			return etag;
+		}
+
+		/**
+		 * @return the Last-Modified header, may be <code>null</code>
+		 */
+		public String getLastModified() {
+			return lastModified;
+		}
+
+		/**
+		 * @return the Cache-Control header, may be <code>null</code>
+		 */
+		public String getCacheControl() {
+			return cacheControl;
+		}
+
+		/**
+		 * @return the max-age of the Cache-Control header in seconds, -1 if none
+		 */
+		public long getMaxAge() {
+			return maxAge(cacheControl);
+		}
+
+		/**
+		 * @return the Vary header, may be <code>null</code>
+		 */
+		public String getVary() {
+			return vary;
+		}
+
+		/**
+		 * @return the number of body bytes
+		 */
+		public long getBytes() {
+			return bytes;
+		}
+
+		private boolean hasSameBody(Probe other) {
+			return bytes == other.bytes && bodyHash == other.bodyHash;
+		}
+
+	}
+
+	/**
+	 * The responses to a resource and its conditional replays.
+	 */
+	public static class Resource {
+
+		private final String name;
+
+		private final String url;
+
+		private final Probe first;
+
+		private Probe ifNoneMatch;
+
+		private Probe ifModifiedSince;
+
+		private Probe nonMatching;
+
+		Resource(String name, String url, Probe first) {
+			this.name = name;
+			this.url = url;
+			this.first = first;
+		}
+
+		/**
+		 * @return the name of the resource
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the URL of the resource
+		 */
+		public String getUrl() {
+			return url;
+		}
+
+		/**
+		 * @return the response to the unconditional request, never <code>null</code>
+		 */
+		public Probe getFirst() {
+			return first;
+		}
+
+		/**
+		 * @return the response to the request with the ETag in If-None-Match,
+		 * <code>null</code> if the first response had no ETag
+		 */
+		public Probe getIfNoneMatch() {
+			return ifNoneMatch;
+		}
+
+		/**
+		 * @return the response to the request with the Last-Modified date in
+		 * If-Modified-Since, <code>null</code> if the first response had no Last-Modified
+		 */
+		public Probe getIfModifiedSince() {
+			return ifModifiedSince;
+		}
+
+		/**
+		 * @return the response to the request with a non-matching If-None-Match,
+		 * <code>null</code> if the first response had no ETag
+		 */
+		public Probe getNonMatching() {
+			return nonMatching;
+		}
+
+		/**
+		 * @return <code>true</code> if the first response carried an ETag or
+		 * Last-Modified header
+		 */
+		public boolean hasValidators() {
+			return ifNoneMatch != null || ifModifiedSince != null;
+		}
+
+		/**
+		 * @return the bytes not transferred again on revalidation with one of the
+		 * validators
+		 */
+		public long getSavedBytes() {
+			return Math.max(saved(ifNoneMatch), saved(ifModifiedSince));
+		}
+
+		private long saved(Probe replay) {
+			return replay != null && replay.getStatus() == 304 ? Math.max(0, first.getBytes() - replay.getBytes()) : 0;
+		}
+
+		/**
+		 * Returns the violations of the conditional request handling: a replay with a
+		 * matching validator not answered with 304, a 304 response with a body or without
+		 * the ETag of the first response, and a non-matching If-None-Match answered with
+		 * 304.
+		 * @return the errors, never <code>null</code>
+		 */
+		public List<String> getErrors() {
+			List<String> errors = new ArrayList<>();
+			if (ifNoneMatch != null)
+				checkNotModified("If-None-Match: " + first.getEtag(), ifNoneMatch, errors);
+			if (ifModifiedSince != null)
+				checkNotModified("If-Modified-Since: " + first.getLastModified(), ifModifiedSince, errors);
+			if (nonMatching != null && nonMatching.getStatus() == 304)
+				errors.add(String.format("%s: a non-matching If-None-Match was answered with 304", url));
+			return errors;
+		}
+
+		private void checkNotModified(String condition, Probe replay, List<String> errors) {
+			if (replay.getStatus() != 304) {
+				errors.add(String.format("%s: expected 304 for %s, but was %d", url, condition, replay.getStatus()));
+				return;
+			}
+			if (replay.getBytes() > 0)
+				errors.add(String.format("%s: the 304 response to %s has a body of %d bytes", url, condition,
+						replay.getBytes()));
+			if (first.getEtag() != null && replay.getEtag() == null)
+				errors.add(String.format("%s: the 304 response to %s does not repeat the ETag", url, condition));
+		}
+
+	}
+
+}
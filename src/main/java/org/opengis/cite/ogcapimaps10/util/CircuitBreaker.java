@@ -0,0 +1,193 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+
+import org.opengis.cite.ogcapimaps10.exception.CircuitOpenException;
+
+/**
+ * A circuit breaker per host. After a number of consecutive failed attempts the circuit
+ * of the host is opened and requests to it fail immediately with a
+ * {@link CircuitOpenException}, failing the test instead of waiting for the host again.
+ * Only attempts without a response (refused connections, timeouts) are failures; any
+ * response, including a 5xx, shows that the host is reachable. After the cool-down one
+ * request is let through: if it gets a response the circuit is closed again, otherwise it
+ * stays open for another cool-down. The breaker is disabled by default.
+ */
+public class CircuitBreaker {
+
+	/** The default number of consecutive failures opening the circuit: never open it. */
+	public static final int DEFAULT_FAILURE_THRESHOLD = 0;
+
+	/** The default time in milliseconds the circuit stays open. */
+	public static final long DEFAULT_COOL_DOWN = 30000;
+
+	/** A circuit breaker which never opens. */
+	public static final CircuitBreaker DISABLED = new CircuitBreaker(0, DEFAULT_COOL_DOWN);
+
+	/**
+	 * The state of the circuit of a host.
+	 */
+	public enum State {
+
+		/** Requests are sent. */
+		CLOSED,
+
+		/** Requests fail immediately. */
+		OPEN,
+
+		/** The cool-down is over and a single request is on its way. */
+		HALF_OPEN
+
+	}
+
+	private final int failureThreshold;
+
+	private final long coolDown;
+
+	private final LongSupplier clock;
+
+	private final ConcurrentMap<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a circuit breaker with {@link #DEFAULT_FAILURE_THRESHOLD} and
+	 * {@link #DEFAULT_COOL_DOWN}, i.e. a disabled one.
+	 */
+	public CircuitBreaker() {
+		this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_COOL_DOWN);
+	}
+
+	/**
+	 * @param failureThreshold the number of consecutive failures opening the circuit, 0
+	 * to never open it
+	 * @param coolDown the time in milliseconds the circuit stays open
+	 */
+	public CircuitBreaker(int failureThreshold, long coolDown) {
+		this(failureThreshold, coolDown, System::currentTimeMillis);
+	}
+
+	CircuitBreaker(int failureThreshold, long coolDown, LongSupplier clock) {
+		if (failureThreshold < 0 || coolDown < 0)
+			throw new IllegalArgumentException(
+					"Invalid circuit breaker: failureThreshold " + failureThreshold + ", coolDown " + coolDown);
+		this.failureThreshold = failureThreshold;
+		this.coolDown = coolDown;
+		this.clock = clock;
+	}
+
+	/**
+	 * Checks whether a request to a host may be sent.
+	 * @param host the host (and port), never <code>null</code>
+	 * @throws CircuitOpenException if the circuit of the host is open
+	 */
+	public void acquire(String host) {
+		if (failureThreshold == 0)
+			return;
+		Circuit circuit = circuits.get(host);
+		if (circuit == null)
+			return;
+		synchronized (circuit) {
+			if (circuit.state == State.CLOSED)
+				return;
+			long remaining = circuit.openedAt + coolDown - clock.getAsLong();
+			if (circuit.state == State.OPEN && remaining <= 0) {
+				circuit.state = State.HALF_OPEN;
+				return;
+			}
+			throw new CircuitOpenException(host, remaining > 0 ? remaining : coolDown);
+		}
+	}
+
+	/**
+	 * Records an attempt which got a response, closing the circuit of the host.
+	 * @param host the host (and port), never <code>null</code>
+	 */
+	public void recordSuccess(String host) {
+		if (failureThreshold == 0)
+			return;
+		Circuit circuit = circuits.get(host);
+		if (circuit == null)
+			return;
+		synchronized (circuit) {
+			if (circuit.state != State.CLOSED)
+				TestSuiteLogger.log(Level.INFO, "Circuit of " + host + " closed, the host responds again");
+			circuit.state = State.CLOSED;
+			circuit.failures = 0;
+		}
+	}
+
+	/**
+	 * Records an attempt which failed without a response, opening the circuit of the host
+	 * if the failure threshold is reached or the request after the cool-down failed.
+	 * @param host the host (and port), never <code>null</code>
+	 */
+	public void recordFailure(String host) {
+		if (failureThreshold == 0)
+			return;
+		Circuit circuit = circuits.computeIfAbsent(host, key -> new Circuit());
+		synchronized (circuit) {
+			circuit.failures++;
+			boolean open = circuit.state == State.HALF_OPEN
+					|| circuit.state == State.CLOSED && circuit.failures >= failureThreshold;
+			if (!open)
+				return;
+			if (circuit.state == State.CLOSED)
+				TestSuiteLogger.log(Level.WARNING,
+						String.format("Circuit of %s opened after %d consecutive failures, requests fail for %d ms",
+								host, circuit.failures, coolDown));
+			circuit.state = State.OPEN;
+			circuit.openedAt = clock.getAsLong();
+		}
+	}
+
+	/**
+	 * @param host the host (and port), never <code>null</code>
+	 * @return the state of the circuit of the host, never <code>null</code>
+	 */
+	public State getState(String host) {
+		Circuit circuit = circuits.get(host);
+		if (circuit == null)
+			return State.CLOSED;
+		synchronized (circuit) {
+			return circuit.state;
+		}
+	}
+
+	/**
+	 * @return the number of consecutive failures opening the circuit, 0 if it never opens
+	 */
+	public int getFailureThreshold() {
+		return failureThreshold;
+	}
+
+	/**
+	 * @return the time in milliseconds the circuit stays open
+	 */
+	public long getCoolDown() {
+		return coolDown;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public String toString() {
+		if (failureThreshold == 0)
+			return "disabled";
+		return String.format("open after %d failures for %d ms", failureThreshold, coolDown);
+	}
+
+	/**
+	 * The state of the circuit of one host.
+	 */
+	private static final class Circuit {
+
+		private State state = State.CLOSED;
+
+		private int failures;
+
+		private long openedAt;
+
+	}
+
+}
@@ -13,6 +13,7 @@ import java.util.logging.Logger;
 import javax.xml.transform.Source;
 import javax.xml.transform.dom.DOMSource;
 
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
 import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.client.ClientProperties;
@@ -30,18 +31,38 @@ import jakarta.ws.rs.core.MediaType;
 public class ClientUtils {
 
 	/**
-	 * Builds a client component for interacting with HTTP endpoints. The client will
-	 * automatically redirect to the URI declared in 3xx responses. The connection timeout
-	 * is 10 s. Request and response messages may be logged to a JDK logger (in the
-	 * namespace "com.sun.jersey.api.client").
+	 * Builds a client component for interacting with HTTP endpoints using the
+	 * {@link HttpTransport#shared() shared transport}.
 	 * @return A Client component.
+	 * @see #buildClient(HttpTransport)
 	 */
 	public static Client buildClient() {
+		return buildClient(HttpTransport.shared());
+	}
+
+	/**
+	 * Builds a client component for interacting with HTTP endpoints. The client will
+	 * automatically redirect to the URI declared in 3xx responses. The connect and read
+	 * timeouts are those of the transport. Connections are taken from the pool of the
+	 * given transport and GET responses are revalidated against its response cache. The
+	 * requests are not counted in the metrics of the transport. Request and response
+	 * messages may be logged to a JDK logger (in the namespace
+	 * "com.sun.jersey.api.client").
+	 * @param transport The transport providing pooled connections, never
+	 * <code>null</code>.
+	 * @return A Client component.
+	 */
+	public static Client buildClient(HttpTransport transport) {
 		ClientConfig config = new ClientConfig();
+		config.connectorProvider(new ApacheConnectorProvider());
+		config.property(ApacheClientProperties.CONNECTION_MANAGER, transport.getConnectionManager());
+		config.property(ApacheClientProperties.CONNECTION_MANAGER_SHARED, true);
 		config.property(ClientProperties.FOLLOW_REDIRECTS, true);
-		config.property(ClientProperties.CONNECT_TIMEOUT, 10000);
+		config.property(ClientProperties.CONNECT_TIMEOUT, transport.getConnectTimeout());
+		config.property(ClientProperties.READ_TIMEOUT, transport.getReadTimeout());
 		Client client = ClientBuilder.newClient(config);
 		client.register(new ReusableEntityFilter());
+		client.register(new HttpCacheClientFilter(transport.getResponseCache()));
 		return client;
 	}
 
@@ -151,15 +172,16 @@ public class ClientUtils {
 	/**
 	 * Checks if a GET request to a given URI returns HTTP 200 - OK
 	 * @param uri The URI to check
+	 * @param transport The transport to send the request with, never <code>null</code>
 	 * @return true, if HTTP 200 - OK was returned after a GET request, false otherwise
 	 */
-	public static boolean is200Response(URI uri) {
+	public static boolean is200Response(URI uri, HttpTransport transport) {
 		URL url = null;
 		int code = 0;
 
 		try {
 			url = uri.toURL();
-			HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+			HttpURLConnection connection = transport.openConnection(url);
 			connection.setRequestMethod("GET");
 			connection.connect();
 
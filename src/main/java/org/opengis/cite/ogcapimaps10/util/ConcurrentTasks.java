@@ -0,0 +1,114 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+/**
+ * Runs independent tasks, e.g. the requests for a number of collections, concurrently
+ * with a bounded number of tasks in flight. Virtual threads are used if the runtime
+ * provides them (Java 21 or later), otherwise a pool of platform threads of the size of
+ * the cap.
+ */
+public class ConcurrentTasks {
+
+	private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutorFactory();
+
+	private ConcurrentTasks() {
+	}
+
+	/**
+	 * Applies the task to all inputs. The results are returned in the order of the
+	 * inputs, independent of the order in which the tasks complete.
+	 * @param <T> the type of the inputs
+	 * @param <R> the type of the results
+	 * @param inputs the inputs, never <code>null</code>
+	 * @param maxConcurrency the maximum number of tasks running at the same time; with 1
+	 * or less the tasks are run sequentially in the calling thread
+	 * @param task the task to apply, never <code>null</code>; the first runtime exception
+	 * or error thrown by it, in the order of the inputs, is rethrown as soon as it is
+	 * reached and the tasks still running are interrupted
+	 * @return the results in the order of the inputs, never <code>null</code>
+	 */
+	public static <T, R> List<R> map(List<T> inputs, int maxConcurrency, Function<T, R> task) {
+		List<R> results = new ArrayList<>(inputs.size());
+		if (maxConcurrency <= 1 || inputs.size() <= 1) {
+			for (T input : inputs)
+				results.add(task.apply(input));
+			return results;
+		}
+		Semaphore permits = new Semaphore(maxConcurrency);
+		ExecutorService executor = newExecutor(Math.min(maxConcurrency, inputs.size()));
+		// the workers add to the phase times of the calling test
+		PhaseTimes times = PhaseTimes.current();
+		try {
+			List<Future<R>> futures = new ArrayList<>(inputs.size());
+			for (T input : inputs) {
+				futures.add(executor.submit(() -> {
+					permits.acquire();
+					PhaseTimes.bind(times);
+					try {
+						return task.apply(input);
+					}
+					finally {
+						PhaseTimes.bind(null);
+						permits.release();
+					}
+				}));
+			}
+			for (Future<R> future : futures)
+				results.add(await(future));
+			return results;
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static <R> R await(Future<R> future) {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for concurrent task", e);
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	private static ExecutorService newExecutor(int poolSize) {
+		if (NEW_VIRTUAL_THREAD_EXECUTOR != null) {
+			try {
+				return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+			}
+			catch (ReflectiveOperationException e) {
+				TestSuiteLogger.log(Level.FINE, "Virtual threads are not available, using platform threads", e);
+			}
+		}
+		return Executors.newFixedThreadPool(poolSize);
+	}
+
+	private static Method findVirtualThreadExecutorFactory() {
+		try {
+			return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		}
+		catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,211 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.lang.reflect.Constructor;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Negotiates and decodes compressed response bodies: gzip and deflate, and Brotli if a
+ * decoder (<code>org.brotli:dec</code>) is on the classpath. The bodies are decoded while
+ * they are read, and the bytes read from the wire are counted, so the metrics can tell
+ * how much transfer the compression of the server saves.
+ */
+public class ContentEncoding {
+
+	private static final String BROTLI_INPUT_STREAM = "org.brotli.dec.BrotliInputStream";
+
+	private static final Constructor<?> BROTLI = brotliConstructor();
+
+	private static final String ACCEPT_ENCODING = BROTLI != null ? "gzip, deflate, br" : "gzip, deflate";
+
+	private static final ThreadLocal<CountingInputStream> WIRE_BYTES = new ThreadLocal<>();
+
+	private ContentEncoding() {
+	}
+
+	/**
+	 * @return the value of the Accept-Encoding header listing the supported encodings,
+	 * never <code>null</code>
+	 */
+	public static String acceptEncoding() {
+		return ACCEPT_ENCODING;
+	}
+
+	/**
+	 * Wraps a stream of an encoded body in a decoding stream.
+	 * @param contentEncoding the Content-Encoding header, may be <code>null</code>
+	 * @param in the encoded body, never <code>null</code>
+	 * @return the decoded body, never <code>null</code>
+	 * @throws IOException if an encoding is not supported or the body is invalid
+	 */
+	public static InputStream decode(String contentEncoding, InputStream in) throws IOException {
+		if (contentEncoding == null)
+			return in;
+		// the codings are listed in the order they were applied
+		String[] codings = contentEncoding.split(",");
+		InputStream decoded = in;
+		for (int i = codings.length - 1; i >= 0; i--) {
+			String coding = codings[i].trim().toLowerCase(Locale.ROOT);
+			switch (coding) {
+				case "":
+				case "identity":
+					break;
+				case "gzip":
+				case "x-gzip":
+					decoded = new GZIPInputStream(decoded, 8192);
+					break;
+				case "deflate":
+					decoded = inflate(decoded);
+					break;
+				case "br":
+					decoded = brotli(decoded);
+					break;
+				default:
+					throw new IOException("Unsupported Content-Encoding " + coding);
+			}
+		}
+		return decoded;
+	}
+
+	/**
+	 * Returns an interceptor counting the bytes of the response bodies read from the
+	 * wire, to be added as first interceptor of a client decoding the bodies in a later
+	 * interceptor. The count of the last response of the current thread is returned by
+	 * {@link #takeWireBytes()}.
+	 * @return the interceptor, never <code>null</code>
+	 */
+	public static HttpResponseInterceptor wireBytesInterceptor() {
+		return ContentEncoding::countWireBytes;
+	}
+
+	/**
+	 * Returns and resets the number of bytes read from the wire for the last response
+	 * received by the current thread via a client with the
+	 * {@link #wireBytesInterceptor()}.
+	 * @return the number of bytes, -1 if no response was received since the last call
+	 */
+	public static long takeWireBytes() {
+		CountingInputStream counter = WIRE_BYTES.get();
+		WIRE_BYTES.remove();
+		return counter != null ? counter.getCount() : -1;
+	}
+
+	private static void countWireBytes(HttpResponse response, HttpContext context) {
+		HttpEntity entity = response.getEntity();
+		if (entity == null) {
+			WIRE_BYTES.set(new CountingInputStream(InputStream.nullInputStream()));
+			return;
+		}
+		response.setEntity(new HttpEntityWrapper(entity) {
+
+			private CountingInputStream content;
+
+			@Override
+			public InputStream getContent() throws IOException {
+				if (content == null) {
+					content = new CountingInputStream(wrappedEntity.getContent());
+					WIRE_BYTES.set(content);
+				}
+				return content;
+			}
+
+			@Override
+			public boolean isStreaming() {
+				return content == null || wrappedEntity.isStreaming();
+			}
+
+		});
+	}
+
+	private static InputStream inflate(InputStream in) throws IOException {
+		// "deflate" should be zlib wrapped (RFC 1950), but some servers send raw deflate
+		PushbackInputStream pushback = new PushbackInputStream(in, 2);
+		int first = pushback.read();
+		if (first < 0)
+			return pushback;
+		int second = pushback.read();
+		if (second >= 0)
+			pushback.unread(second);
+		pushback.unread(first);
+		boolean zlib = second >= 0 && (first & 0x0F) == 8 && ((first << 8) | second) % 31 == 0;
+		return new InflaterInputStream(pushback, new Inflater(!zlib), 8192);
+	}
+
+	private static InputStream brotli(InputStream in) throws IOException {
+		if (BROTLI == null)
+			throw new IOException("Unsupported Content-Encoding br, no Brotli decoder on the classpath");
+		try {
+			return (InputStream) BROTLI.newInstance(in);
+		}
+		catch (ReflectiveOperationException e) {
+			throw new IOException("Could not create Brotli decoder", e);
+		}
+	}
+
+	private static Constructor<?> brotliConstructor() {
+		try {
+			return Class.forName(BROTLI_INPUT_STREAM).getConstructor(InputStream.class);
+		}
+		catch (ReflectiveOperationException | LinkageError e) {
+			return null;
+		}
+	}
+
+	/**
+	 * A stream counting the bytes read.
+	 */
+	static class CountingInputStream extends FilterInputStream {
+
+		private long count;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int read = super.read();
+			if (read >= 0)
+				count++;
+			return read;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			int read = super.read(buffer, offset, length);
+			if (read > 0)
+				count += read;
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			count += skipped;
+			return skipped;
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+
+		long getCount() {
+			return count;
+		}
+
+	}
+
+}
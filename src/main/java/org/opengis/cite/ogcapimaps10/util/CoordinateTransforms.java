@@ -0,0 +1,135 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.locationtech.proj4j.CRSFactory;
+import org.locationtech.proj4j.CoordinateReferenceSystem;
+import org.locationtech.proj4j.CoordinateTransform;
+import org.locationtech.proj4j.CoordinateTransformFactory;
+import org.opengis.cite.ogcapimaps10.conformance.crs.query.crs.CoordinateSystem;
+
+/**
+ * Shared, bounded caches of proj4j coordinate reference systems and coordinate
+ * transforms. Resolving a CRS parses its definition from the {@link Proj4Registry}, so
+ * each CRS and each pair of CRSs is only resolved the first time it is used by any test.
+ * The caches are keyed by the authority code (e.g. "EPSG:4326"), so the URN and the http
+ * URI of the same CRS share an entry.
+ *
+ * <p>
+ * The cached {@link CoordinateTransform} instances hold no per-call state and may be used
+ * by several threads. The least recently used entries are evicted once a cache is full.
+ * </p>
+ */
+public class CoordinateTransforms {
+
+	/**
+	 * The maximum number of cached coordinate reference systems.
+	 */
+	static final int MAX_CRS = 128;
+
+	/**
+	 * The maximum number of cached coordinate transforms.
+	 */
+	static final int MAX_TRANSFORMS = 256;
+
+	private static final CRSFactory CRS_FACTORY = new CRSFactory();
+
+	private static final CoordinateTransformFactory TRANSFORM_FACTORY = new CoordinateTransformFactory();
+
+	private static final Map<String, CoordinateReferenceSystem> CRS_CACHE = lruMap(MAX_CRS);
+
+	private static final Map<String, CoordinateTransform> TRANSFORM_CACHE = lruMap(MAX_TRANSFORMS);
+
+	private CoordinateTransforms() {
+	}
+
+	/**
+	 * Returns the coordinate reference system of a coordinate system.
+	 * @param crs the coordinate system, never <code>null</code>
+	 * @return the coordinate reference system, never <code>null</code>
+	 * @throws org.opengis.cite.ogcapimaps10.exception.UnknownCrsException if the
+	 * coordinate system has no supported authority code
+	 * @throws org.locationtech.proj4j.Proj4jException if the code is not known by proj4j
+	 */
+	public static CoordinateReferenceSystem getCrs(CoordinateSystem crs) {
+		return getCrs(crs.getCodeWithAuthority());
+	}
+
+	/**
+	 * Returns the transform between two coordinate systems.
+	 * @param srcCrs the source coordinate system, never <code>null</code>
+	 * @param targetCrs the target coordinate system, never <code>null</code>
+	 * @return the transform, never <code>null</code>
+	 * @throws org.opengis.cite.ogcapimaps10.exception.UnknownCrsException if a coordinate
+	 * system has no supported authority code
+	 * @throws org.locationtech.proj4j.Proj4jException if a code is not known by proj4j
+	 */
+	public static CoordinateTransform getTransform(CoordinateSystem srcCrs, CoordinateSystem targetCrs) {
+		String srcCode = srcCrs.getCodeWithAuthority();
+		String targetCode = targetCrs.getCodeWithAuthority();
+		return computeIfAbsent(TRANSFORM_CACHE, srcCode + " -> " + targetCode,
+				key -> TRANSFORM_FACTORY.createTransform(getCrs(srcCode), getCrs(targetCode)));
+	}
+
+	/**
+	 * Removes all cached entries.
+	 */
+	static void clear() {
+		synchronized (CRS_CACHE) {
+			CRS_CACHE.clear();
+		}
+		synchronized (TRANSFORM_CACHE) {
+			TRANSFORM_CACHE.clear();
+		}
+	}
+
+	/**
+	 * @return the number of cached coordinate transforms
+	 */
+	static int transformCount() {
+		synchronized (TRANSFORM_CACHE) {
+			return TRANSFORM_CACHE.size();
+		}
+	}
+
+	private static CoordinateReferenceSystem getCrs(String codeWithAuthority) {
+		return computeIfAbsent(CRS_CACHE, codeWithAuthority, CoordinateTransforms::createCrs);
+	}
+
+	private static CoordinateReferenceSystem createCrs(String codeWithAuthority) {
+		String parameters = Proj4Registry.getParameters(codeWithAuthority);
+		if (parameters != null)
+			return CRS_FACTORY.createFromParameters(codeWithAuthority, parameters);
+		// not in the bundled registries, proj4j reports why the code could not be
+		// resolved
+		return CRS_FACTORY.createFromName(codeWithAuthority);
+	}
+
+	private static <V> V computeIfAbsent(Map<String, V> cache, String key, Function<String, V> factory) {
+		synchronized (cache) {
+			V cached = cache.get(key);
+			if (cached != null)
+				return cached;
+		}
+		// resolved outside of the lock, so a slow lookup does not block the other threads
+		V created = factory.apply(key);
+		synchronized (cache) {
+			V cached = cache.putIfAbsent(key, created);
+			return cached != null ? cached : created;
+		}
+	}
+
+	private static <V> Map<String, V> lruMap(int maxSize) {
+		return new LinkedHashMap<String, V>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+				return size() > maxSize;
+			}
+
+		};
+	}
+
+}
@@ -1,23 +1,17 @@
 package org.opengis.cite.ogcapimaps10.util;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
-
-import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryCollection;
+import org.locationtech.jts.geom.GeometryComponentFilter;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.LineString;
-import org.locationtech.jts.geom.LinearRing;
 import org.locationtech.jts.geom.MultiLineString;
 import org.locationtech.jts.geom.MultiPoint;
 import org.locationtech.jts.geom.MultiPolygon;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.Polygon;
-import org.locationtech.proj4j.CRSFactory;
 import org.locationtech.proj4j.CoordinateTransform;
-import org.locationtech.proj4j.CoordinateTransformFactory;
 import org.locationtech.proj4j.ProjCoordinate;
 import org.opengis.cite.ogcapimaps10.conformance.crs.query.crs.CoordinateSystem;
 
@@ -26,6 +20,11 @@ import org.opengis.cite.ogcapimaps10.conformance.crs.query.crs.CoordinateSystem;
  * GeometryTransformer class.
  * </p>
  *
+ * <p>
+ * Geometries are copied once and their coordinate sequences are transformed in place,
+ * reusing the same {@link ProjCoordinate} instances for all vertices of a geometry.
+ * </p>
+ *
  * @author <a href="mailto:goltz@lat-lon.de">Lyn Goltz </a>
  */
 public class GeometryTransformer {
@@ -48,11 +47,7 @@ public class GeometryTransformer {
 	public GeometryTransformer(CoordinateSystem srcCrs, CoordinateSystem targetCrs) {
 		this.srcCrs = srcCrs;
 		this.targetCrs = targetCrs;
-		CoordinateTransformFactory coordinateTransformFactory = new CoordinateTransformFactory();
-		CRSFactory crsFactory = new CRSFactory();
-		this.transformer = coordinateTransformFactory.createTransform(
-				crsFactory.createFromName(srcCrs.getCodeWithAuthority()),
-				crsFactory.createFromName(targetCrs.getCodeWithAuthority()));
+		this.transformer = CoordinateTransforms.getTransform(srcCrs, targetCrs);
 	}
 
 	/**
@@ -66,11 +61,47 @@ public class GeometryTransformer {
 	public BBox transform(BBox bbox) {
 		if (srcCrs.equals(targetCrs))
 			return bbox;
-		Coordinate min = new Coordinate(bbox.getMinX(), bbox.getMinY());
-		Coordinate max = new Coordinate(bbox.getMaxX(), bbox.getMaxY());
-		Coordinate transformedMin = transform(min);
-		Coordinate transformedMax = transform(max);
-		return new BBox(transformedMin.x, transformedMin.y, transformedMax.x, transformedMax.y, targetCrs);
+		double[] corners = { bbox.getMinX(), bbox.getMinY(), bbox.getMaxX(), bbox.getMaxY() };
+		transform(corners, 2);
+		return new BBox(corners[0], corners[1], corners[2], corners[3], targetCrs);
+	}
+
+	/**
+	 * Transforms packed coordinates in place.
+	 * @param ordinates the coordinates as x1, y1[, z1], x2, y2[, z2], ..., never
+	 * <code>null</code>
+	 * @param dimension the number of ordinates per coordinate, 2 or 3
+	 */
+	public void transform(double[] ordinates, int dimension) {
+		ProjCoordinate srcCoordinate = new ProjCoordinate();
+		ProjCoordinate targetCoordinate = new ProjCoordinate();
+		for (int i = 0; i + dimension <= ordinates.length; i += dimension) {
+			srcCoordinate.setValue(ordinates[i], ordinates[i + 1], dimension > 2 ? ordinates[i + 2] : Double.NaN);
+			transformer.transform(srcCoordinate, targetCoordinate);
+			ordinates[i] = targetCoordinate.x;
+			ordinates[i + 1] = targetCoordinate.y;
+			if (dimension > 2)
+				ordinates[i + 2] = targetCoordinate.z;
+		}
+	}
+
+	/**
+	 * Transforms the coordinates of a sequence in place. Z values are transformed if the
+	 * sequence has them, measures are kept.
+	 * @param sequence the sequence to transform, never <code>null</code>
+	 */
+	public void transform(CoordinateSequence sequence) {
+		ProjCoordinate srcCoordinate = new ProjCoordinate();
+		ProjCoordinate targetCoordinate = new ProjCoordinate();
+		boolean hasZ = sequence.hasZ();
+		for (int i = 0; i < sequence.size(); i++) {
+			srcCoordinate.setValue(sequence.getX(i), sequence.getY(i), hasZ ? sequence.getZ(i) : Double.NaN);
+			transformer.transform(srcCoordinate, targetCoordinate);
+			sequence.setOrdinate(i, CoordinateSequence.X, targetCoordinate.x);
+			sequence.setOrdinate(i, CoordinateSequence.Y, targetCoordinate.y);
+			if (hasZ)
+				sequence.setOrdinate(i, CoordinateSequence.Z, targetCoordinate.z);
+		}
 	}
 
 	/**
@@ -106,9 +137,7 @@ public class GeometryTransformer {
 	 * @return a {@link org.locationtech.jts.geom.Point} object
 	 */
 	public Point transform(Point geometryToTransform) {
-		Coordinate coordinate = geometryToTransform.getCoordinate();
-		Coordinate transformedCoordinate = transform(coordinate);
-		return geometryFactory.createPoint(transformedCoordinate);
+		return (Point) transformCopy(geometryToTransform);
 	}
 
 	/**
@@ -119,9 +148,7 @@ public class GeometryTransformer {
 	 * @return a {@link org.locationtech.jts.geom.LineString} object
 	 */
 	public LineString transform(LineString geometryToTransform) {
-		Coordinate[] coordinates = geometryToTransform.getCoordinates();
-		Coordinate[] transformedCoordinates = transform(coordinates);
-		return geometryFactory.createLineString(transformedCoordinates);
+		return (LineString) transformCopy(geometryToTransform);
 	}
 
 	/**
@@ -132,16 +159,7 @@ public class GeometryTransformer {
 	 * @return a {@link org.locationtech.jts.geom.Polygon} object
 	 */
 	public Polygon transform(Polygon geometryToTransform) {
-		Coordinate[] coordinatesExteriorRing = geometryToTransform.getExteriorRing().getCoordinates();
-		Coordinate[] transformedCoordinatesExteriorRing = transform(coordinatesExteriorRing);
-		LinearRing exteriorRing = geometryFactory.createLinearRing(transformedCoordinatesExteriorRing);
-		LinearRing[] interiorRings = new LinearRing[geometryToTransform.getNumInteriorRing()];
-		for (int numInteriorRing = 0; numInteriorRing < geometryToTransform.getNumInteriorRing(); numInteriorRing++) {
-			LinearRing interiorRingN = geometryToTransform.getInteriorRingN(numInteriorRing);
-			Coordinate[] transformedCoordinatesInteriorRingN = transform(interiorRingN.getCoordinates());
-			interiorRings[numInteriorRing] = geometryFactory.createLinearRing(transformedCoordinatesInteriorRingN);
-		}
-		return geometryFactory.createPolygon(exteriorRing, interiorRings);
+		return (Polygon) transformCopy(geometryToTransform);
 	}
 
 	/**
@@ -173,12 +191,7 @@ public class GeometryTransformer {
 	 * @return a {@link org.locationtech.jts.geom.MultiPoint} object
 	 */
 	public MultiPoint transform(MultiPoint geometryToTransform) {
-		Point[] points = new Point[geometryToTransform.getNumGeometries()];
-		for (int numGeometry = 0; numGeometry < geometryToTransform.getNumGeometries(); numGeometry++) {
-			Geometry geometryN = geometryToTransform.getGeometryN(numGeometry);
-			points[numGeometry] = transform((Point) geometryN);
-		}
-		return geometryFactory.createMultiPoint(points);
+		return (MultiPoint) transformCopy(geometryToTransform);
 	}
 
 	/**
@@ -190,13 +203,7 @@ public class GeometryTransformer {
 	 * @return a {@link org.locationtech.jts.geom.MultiLineString} object
 	 */
 	public MultiLineString transform(MultiLineString geometryToTransform) {
-		LineString[] lineStrings = new LineString[geometryToTransform.getNumGeometries()];
-		for (int numGeometry = 0; numGeometry < geometryToTransform.getNumGeometries(); numGeometry++) {
-			Geometry geometryN = geometryToTransform.getGeometryN(numGeometry);
-			lineStrings[numGeometry] = transform((LineString) geometryN);
-		}
-		return geometryFactory.createMultiLineString(lineStrings);
-
+		return (MultiLineString) transformCopy(geometryToTransform);
 	}
 
 	/**
@@ -207,26 +214,19 @@ public class GeometryTransformer {
 	 * @return a {@link org.locationtech.jts.geom.MultiPolygon} object
 	 */
 	public MultiPolygon transform(MultiPolygon geometryToTransform) {
-		Polygon[] polygons = new Polygon[geometryToTransform.getNumGeometries()];
-		for (int numGeometry = 0; numGeometry < geometryToTransform.getNumGeometries(); numGeometry++) {
-			Geometry geometryN = geometryToTransform.getGeometryN(numGeometry);
-			polygons[numGeometry] = transform((Polygon) geometryN);
-		}
-		return geometryFactory.createMultiPolygon(polygons);
+		return (MultiPolygon) transformCopy(geometryToTransform);
 	}
 
-	private Coordinate[] transform(Coordinate[] coordinates) {
-		List<Coordinate> transformedCoordinates = Arrays.stream(coordinates)
-			.map(coord -> transform(coord))
-			.collect(Collectors.toList());
-		return transformedCoordinates.toArray(new Coordinate[transformedCoordinates.size()]);
-	}
-
-	private Coordinate transform(Coordinate coord) {
-		ProjCoordinate srcCoordinate = new ProjCoordinate(coord.x, coord.y, coord.z);
-		ProjCoordinate targetCoordinate = new ProjCoordinate();
-		transformer.transform(srcCoordinate, targetCoordinate);
-		return new Coordinate(targetCoordinate.x, targetCoordinate.y, targetCoordinate.z);
+	private Geometry transformCopy(Geometry geometryToTransform) {
+		Geometry transformed = geometryFactory.createGeometry(geometryToTransform);
+		transformed.apply((GeometryComponentFilter) component -> {
+			if (component instanceof LineString)
+				transform(((LineString) component).getCoordinateSequence());
+			else if (component instanceof Point)
+				transform(((Point) component).getCoordinateSequence());
+		});
+		transformed.geometryChanged();
+		return transformed;
 	}
 
 }
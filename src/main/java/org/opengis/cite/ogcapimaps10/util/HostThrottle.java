@@ -0,0 +1,165 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the requests sent to each host: a token bucket limits the rate of requests and
+ * allows bursts up to its size, a semaphore limits the number of requests in flight. A
+ * request is in flight until the head of its response is received. Requests exceeding a
+ * limit wait; the time waited is returned with the {@link Permit}, so it can be counted
+ * separately from the latency of the request.
+ */
+public class HostThrottle {
+
+	/** A throttle not limiting the requests. */
+	public static final HostThrottle UNLIMITED = new HostThrottle(0, 0, 0);
+
+	private static final Permit UNTHROTTLED = new Permit(null, 0);
+
+	private final double requestsPerSecond;
+
+	private final int burst;
+
+	private final int maxConcurrency;
+
+	private final ConcurrentMap<String, Host> hosts = new ConcurrentHashMap<>();
+
+	/**
+	 * @param requestsPerSecond the maximum sustained rate of requests per host, 0 for no
+	 * limit
+	 * @param burst the number of requests which may be sent at once before the rate
+	 * applies, 0 for the rate rounded up
+	 * @param maxConcurrency the maximum number of requests in flight per host, 0 for no
+	 * limit
+	 */
+	public HostThrottle(double requestsPerSecond, int burst, int maxConcurrency) {
+		if (requestsPerSecond < 0 || Double.isNaN(requestsPerSecond) || burst < 0 || maxConcurrency < 0)
+			throw new IllegalArgumentException(String.format("Invalid throttle: %s requests/s, burst %d, max. %d",
+					requestsPerSecond, burst, maxConcurrency));
+		this.requestsPerSecond = requestsPerSecond;
+		this.burst = burst > 0 ? burst : (int) Math.max(1, Math.ceil(requestsPerSecond));
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	/**
+	 * @return <code>true</code> if requests are limited
+	 */
+	public boolean isLimited() {
+		return requestsPerSecond > 0 || maxConcurrency > 0;
+	}
+
+	/**
+	 * Waits until a request may be sent to a host. The returned permit has to be closed
+	 * when the head of the response was received or the request failed.
+	 * @param host the host (and port), never <code>null</code>
+	 * @return the permit, never <code>null</code>
+	 * @throws InterruptedIOException if the thread was interrupted while waiting
+	 */
+	public Permit acquire(String host) throws InterruptedIOException {
+		if (!isLimited())
+			return UNTHROTTLED;
+		Host limits = hosts.computeIfAbsent(host, key -> new Host());
+		long start = System.nanoTime();
+		boolean waited = false;
+		try {
+			if (limits.inFlight != null && !limits.inFlight.tryAcquire()) {
+				waited = true;
+				limits.inFlight.acquire();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a request slot for " + host);
+		}
+		try {
+			long delay = limits.reserve(System.nanoTime());
+			if (delay > 0) {
+				waited = true;
+				TimeUnit.NANOSECONDS.sleep(delay);
+			}
+		}
+		catch (InterruptedException e) {
+			if (limits.inFlight != null)
+				limits.inFlight.release();
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting to send a request to " + host);
+		}
+		return new Permit(limits.inFlight, waited ? System.nanoTime() - start : 0);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public String toString() {
+		if (!isLimited())
+			return "unlimited";
+		String rate = requestsPerSecond > 0 ? String.format("%s requests/s (burst %d)", requestsPerSecond, burst)
+				: "unlimited requests/s";
+		return rate + ", " + (maxConcurrency > 0 ? "max. " + maxConcurrency : "unlimited") + " in flight per host";
+	}
+
+	/**
+	 * The permission to send a request.
+	 */
+	public static final class Permit implements AutoCloseable {
+
+		private Semaphore inFlight;
+
+		private final long waitNanos;
+
+		private Permit(Semaphore inFlight, long waitNanos) {
+			this.inFlight = inFlight;
+			this.waitNanos = waitNanos;
+		}
+
+		/**
+		 * @return the time waited for the permit in nanoseconds
+		 */
+		public long getWaitNanos() {
+			return waitNanos;
+		}
+
+		/**
+		 * Releases the request slot of the host.
+		 */
+		@Override
+		public void close() {
+			if (inFlight != null) {
+				inFlight.release();
+				inFlight = null;
+			}
+		}
+
+	}
+
+	/**
+	 * The token bucket and request slots of one host.
+	 */
+	private final class Host {
+
+		private final Semaphore inFlight = maxConcurrency > 0 ? new Semaphore(maxConcurrency, true) : null;
+
+		private double tokens = burst;
+
+		private long updated = System.nanoTime();
+
+		/**
+		 * Takes a token, going into debt if none is left, so concurrent requests are
+		 * spaced by the rate.
+		 * @return the time to wait until the token is available in nanoseconds
+		 */
+		private synchronized long reserve(long now) {
+			if (requestsPerSecond <= 0)
+				return 0;
+			tokens = Math.min(burst, tokens + (now - updated) * requestsPerSecond / 1e9);
+			updated = now;
+			tokens -= 1;
+			return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / requestsPerSecond * 1e9);
+		}
+
+	}
+
+}
@@ -0,0 +1,90 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.client.ClientResponseContext;
+import jakarta.ws.rs.client.ClientResponseFilter;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+/**
+ * Revalidates the GET requests of the JAX-RS client built by {@link ClientUtils} against
+ * a {@link HttpResponseCache}, the counterpart of {@link HttpCacheFilter}. A 304 answer
+ * to a request made conditional by this filter is replaced by the cached 200 response.
+ */
+public class HttpCacheClientFilter implements ClientRequestFilter, ClientResponseFilter {
+
+	private static final String CACHE_KEY = HttpCacheClientFilter.class.getName() + ".key";
+
+	private static final String CACHED = HttpCacheClientFilter.class.getName() + ".cached";
+
+	private final HttpResponseCache cache;
+
+	/**
+	 * @param cache the cache of the responses, never <code>null</code>
+	 */
+	public HttpCacheClientFilter(HttpResponseCache cache) {
+		this.cache = cache;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void filter(ClientRequestContext requestContext) {
+		if (!cache.isEnabled() || !"GET".equals(requestContext.getMethod())
+				|| HttpResponseCache.isBypassed(requestContext.getHeaderString("Cache-Control"))
+				|| requestContext.getHeaders().containsKey("If-None-Match")
+				|| requestContext.getHeaders().containsKey("If-Modified-Since"))
+			return;
+		String key = HttpResponseCache.key(requestContext.getUri().toString(), requestContext.getHeaderString("Accept"),
+				requestContext.getHeaderString("Authorization"));
+		requestContext.setProperty(CACHE_KEY, key);
+		HttpResponseCache.Entry cached = cache.get(key);
+		if (cached == null)
+			return;
+		requestContext.setProperty(CACHED, cached);
+		if (cached.getEtag() != null)
+			requestContext.getHeaders().putSingle("If-None-Match", cached.getEtag());
+		if (cached.getLastModified() != null)
+			requestContext.getHeaders().putSingle("If-Modified-Since", cached.getLastModified());
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) throws IOException {
+		String key = (String) requestContext.getProperty(CACHE_KEY);
+		if (key == null)
+			return;
+		HttpResponseCache.Entry cached = (HttpResponseCache.Entry) requestContext.getProperty(CACHED);
+		if (cached != null && responseContext.getStatus() == 304) {
+			cache.recordHit();
+			MultivaluedMap<String, String> headers = responseContext.getHeaders();
+			cached.getHeaders().forEach((name, values) -> {
+				if (!headers.containsKey(name) || "Content-Length".equalsIgnoreCase(name))
+					headers.put(name, values);
+			});
+			responseContext.setStatus(200);
+			responseContext.setEntityStream(new ByteArrayInputStream(cached.getBody()));
+			return;
+		}
+		if (cached != null)
+			cache.recordMiss();
+		String etag = responseContext.getHeaderString("ETag");
+		String lastModified = responseContext.getHeaderString("Last-Modified");
+		if (HttpResponseCache.isCacheable(responseContext.getStatus(), responseContext.getHeaderString("Cache-Control"),
+				etag, lastModified) && responseContext.hasEntity()) {
+			byte[] body;
+			try (InputStream in = responseContext.getEntityStream()) {
+				body = in.readAllBytes();
+			}
+			responseContext.setEntityStream(new ByteArrayInputStream(body));
+			cache.put(key, new HttpResponseCache.Entry(body, responseContext.getHeaders(), etag, lastModified));
+		}
+		else if (cached != null) {
+			cache.remove(key);
+		}
+	}
+
+}
@@ -0,0 +1,102 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * Revalidates the RestAssured GET requests of the suite against a
+ * {@link HttpResponseCache}. If a response is cached the request is sent with
+ * If-None-Match and If-Modified-Since; a 304 answer is replaced by the cached 200
+ * response, so the tests see the same response as without cache. Requests that are
+ * conditional already or send <code>Cache-Control: no-cache</code> are passed through
+ * unchanged.
+ */
+public class HttpCacheFilter implements Filter {
+
+	private final HttpResponseCache cache;
+
+	/**
+	 * @param cache the cache of the responses, never <code>null</code>
+	 */
+	public HttpCacheFilter(HttpResponseCache cache) {
+		this.cache = cache;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+			FilterContext ctx) {
+		Headers requestHeaders = requestSpec.getHeaders();
+		if (!cache.isEnabled() || !"GET".equals(requestSpec.getMethod())
+				|| HttpResponseCache.isBypassed(requestHeaders.getValue("Cache-Control"))
+				|| requestHeaders.hasHeaderWithName("If-None-Match")
+				|| requestHeaders.hasHeaderWithName("If-Modified-Since"))
+			return ctx.next(requestSpec, responseSpec);
+
+		String key = HttpResponseCache.key(requestSpec.getURI(), requestHeaders.getValue("Accept"),
+				requestHeaders.getValue("Authorization"));
+		HttpResponseCache.Entry cached = cache.get(key);
+		if (cached != null) {
+			if (cached.getEtag() != null)
+				requestSpec.header("If-None-Match", cached.getEtag());
+			if (cached.getLastModified() != null)
+				requestSpec.header("If-Modified-Since", cached.getLastModified());
+		}
+		Response response = ctx.next(requestSpec, responseSpec);
+		if (cached != null && response.getStatusCode() == 304) {
+			cache.recordHit();
+			return fromCache(response, cached);
+		}
+		if (cached != null)
+			cache.recordMiss();
+		String etag = response.getHeader("ETag");
+		String lastModified = response.getHeader("Last-Modified");
+		if (HttpResponseCache.isCacheable(response.getStatusCode(), response.getHeader("Cache-Control"), etag,
+				lastModified))
+			cache.put(key, new HttpResponseCache.Entry(response.asByteArray(), headers(response), etag, lastModified));
+		else if (cached != null)
+			cache.remove(key);
+		return response;
+	}
+
+	private static Response fromCache(Response notModified, HttpResponseCache.Entry cached) {
+		// headers sent with the 304 update the cached ones
+		Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		headers.putAll(cached.getHeaders());
+		for (Header header : notModified.getHeaders()) {
+			if (!"Content-Length".equalsIgnoreCase(header.getName()))
+				headers.put(header.getName(), List.of(header.getValue()));
+		}
+		List<Header> headerList = new ArrayList<>();
+		headers.forEach((name, values) -> values.forEach(value -> headerList.add(new Header(name, value))));
+		ResponseBuilder builder = new ResponseBuilder().clone(notModified)
+			.setStatusCode(200)
+			.setStatusLine("HTTP/1.1 200 OK")
+			.setHeaders(new Headers(headerList))
+			.setBody(cached.getBody());
+		List<String> contentType = cached.getHeaders().get("Content-Type");
+		if (contentType != null)
+			builder.setContentType(contentType.get(0));
+		return builder.build();
+	}
+
+	private static Map<String, List<String>> headers(Response response) {
+		Map<String, List<String>> headers = new LinkedHashMap<>();
+		for (Header header : response.getHeaders())
+			headers.computeIfAbsent(header.getName(), name -> new ArrayList<>()).add(header.getValue());
+		return headers;
+	}
+
+}
@@ -0,0 +1,305 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Counts the HTTP requests issued by the suite per endpoint: latency histogram, status
+ * codes and bytes sent and received. The bytes received are counted decoded and as read
+ * from the wire, so the saving of compressed responses is visible. An endpoint is the
+ * method and the path of the request, where numeric segments (e.g. tile matrix, row and
+ * column) are replaced by <code>{n}</code>. At most {@link #MAX_ENDPOINTS} endpoints are
+ * distinguished, further requests are counted as {@link #OTHER_ENDPOINT}.
+ *
+ * <p>
+ * Requests which failed without a response are counted with status code 0. The time
+ * requests waited for the {@link HostThrottle} is counted per host and not part of their
+ * latency.
+ * </p>
+ */
+public class HttpMetrics {
+
+	/**
+	 * The maximum number of endpoints distinguished.
+	 */
+	public static final int MAX_ENDPOINTS = 1000;
+
+	/**
+	 * The endpoint of requests exceeding {@link #MAX_ENDPOINTS}.
+	 */
+	public static final String OTHER_ENDPOINT = "(other)";
+
+	private static final Pattern NUMERIC_SEGMENT = Pattern.compile("(?<=/)-?\\d+(\\.\\d+)?(?=/|$)");
+
+	private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<String, Throttled> throttled = new ConcurrentHashMap<>();
+
+	/**
+	 * Records a request.
+	 * @param method the HTTP method, never <code>null</code>
+	 * @param uri the requested URI, never <code>null</code>
+	 * @param status the status code, 0 if the request failed without a response
+	 * @param bytesOut the number of body bytes sent
+	 * @param bytesIn the number of body bytes received
+	 * @param nanos the time from sending the request until the response was read
+	 */
+	public void record(String method, String uri, int status, long bytesOut, long bytesIn, long nanos) {
+		record(method, uri, status, bytesOut, bytesIn, bytesIn, nanos);
+	}
+
+	/**
+	 * Records a request with a possibly compressed response.
+	 * @param method the HTTP method, never <code>null</code>
+	 * @param uri the requested URI, never <code>null</code>
+	 * @param status the status code, 0 if the request failed without a response
+	 * @param bytesOut the number of body bytes sent
+	 * @param bytesIn the number of decoded body bytes received
+	 * @param wireBytesIn the number of body bytes received as read from the wire
+	 * @param nanos the time from sending the request until the response was read
+	 */
+	public void record(String method, String uri, int status, long bytesOut, long bytesIn, long wireBytesIn,
+			long nanos) {
+		String key = endpointOf(method, uri);
+		Endpoint endpoint = endpoints.get(key);
+		if (endpoint == null) {
+			if (endpoints.size() >= MAX_ENDPOINTS)
+				key = OTHER_ENDPOINT;
+			endpoint = endpoints.computeIfAbsent(key, Endpoint::new);
+		}
+		endpoint.record(status, bytesOut, bytesIn, wireBytesIn, nanos);
+	}
+
+	/**
+	 * Records the time a request waited for the throttle of a host.
+	 * @param host the host (and port), never <code>null</code>
+	 * @param nanos the time waited
+	 */
+	public void recordThrottled(String host, long nanos) {
+		throttled.computeIfAbsent(host, key -> new Throttled()).record(nanos);
+	}
+
+	/**
+	 * @return the number of requests which waited for the throttle
+	 */
+	public long getThrottledCount() {
+		long count = 0;
+		for (Throttled host : throttled.values())
+			count += host.count.sum();
+		return count;
+	}
+
+	/**
+	 * @return the total time requests waited for the throttle in nanoseconds
+	 */
+	public long getThrottledNanos() {
+		long nanos = 0;
+		for (Throttled host : throttled.values())
+			nanos += host.nanos.sum();
+		return nanos;
+	}
+
+	/**
+	 * @return the endpoints sorted by name, never <code>null</code>
+	 */
+	public List<Endpoint> getEndpoints() {
+		List<Endpoint> sorted = new ArrayList<>(endpoints.values());
+		sorted.sort((endpoint, other) -> endpoint.getName().compareTo(other.getName()));
+		return sorted;
+	}
+
+	/**
+	 * @return the number of recorded requests
+	 */
+	public long getRequestCount() {
+		long count = 0;
+		for (Endpoint endpoint : endpoints.values())
+			count += endpoint.getLatency().getCount();
+		return count;
+	}
+
+	/**
+	 * Removes all recorded requests.
+	 */
+	public void clear() {
+		endpoints.clear();
+		throttled.clear();
+	}
+
+	/**
+	 * Writes a plain text summary with one line per endpoint, a total and the time waited
+	 * for the throttle per host.
+	 * @param writer the writer to write to, never <code>null</code>
+	 */
+	public void writeSummary(Writer writer) {
+		PrintWriter out = new PrintWriter(writer);
+		String format = "%-60s %8s %10s %10s %10s %10s %12s %12s %12s  %s%n";
+		out.printf(Locale.ROOT, format, "Endpoint", "Requests", "p50 [ms]", "p90 [ms]", "p99 [ms]", "max [ms]",
+				"Bytes out", "Bytes in", "Wire in", "Status codes");
+		long requests = 0;
+		long bytesOut = 0;
+		long bytesIn = 0;
+		long wireBytesIn = 0;
+		for (Endpoint endpoint : getEndpoints()) {
+			LatencyHistogram latency = endpoint.getLatency();
+			out.printf(Locale.ROOT, format, endpoint.getName(), latency.getCount(),
+					millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+					millis(latency.getValueAtPercentile(99)), millis(latency.getMax()), endpoint.getBytesOut(),
+					endpoint.getBytesIn(), endpoint.getWireBytesIn(), endpoint.getStatusCounts());
+			requests += latency.getCount();
+			bytesOut += endpoint.getBytesOut();
+			bytesIn += endpoint.getBytesIn();
+			wireBytesIn += endpoint.getWireBytesIn();
+		}
+		out.printf(Locale.ROOT, "%nTotal: %d requests, %d bytes out, %d bytes in (%d on the wire, %.1f%% saved)%n",
+				requests, bytesOut, bytesIn, wireBytesIn, saving(bytesIn, wireBytesIn));
+		new TreeMap<>(throttled)
+			.forEach((host, waits) -> out.printf(Locale.ROOT, "Throttled %s: %d requests, %s ms waited, max. %s ms%n",
+					host, waits.count.sum(), millis(TimeUnit.NANOSECONDS.toMicros(waits.nanos.sum())),
+					millis(TimeUnit.NANOSECONDS.toMicros(waits.max.get()))));
+		out.flush();
+	}
+
+	/**
+	 * Returns the endpoint a request is counted for.
+	 * @param method the HTTP method, never <code>null</code>
+	 * @param uri the requested URI, never <code>null</code>
+	 * @return the method and the normalised path, never <code>null</code>
+	 */
+	static String endpointOf(String method, String uri) {
+		String path;
+		try {
+			path = URI.create(uri).getRawPath();
+		}
+		catch (IllegalArgumentException e) {
+			// not encoded, e.g. spaces in a query parameter
+			int authority = uri.indexOf("://");
+			int start = authority < 0 ? 0 : uri.indexOf('/', authority + 3);
+			int end = uri.indexOf('?');
+			path = start < 0 ? "" : uri.substring(start, end < start ? uri.length() : end);
+		}
+		if (path == null || path.isEmpty())
+			path = "/";
+		return method.toUpperCase(Locale.ROOT) + " " + NUMERIC_SEGMENT.matcher(path).replaceAll("{n}");
+	}
+
+	private static double saving(long decoded, long wire) {
+		return decoded > 0 ? Math.max(0, decoded - wire) * 100.0 / decoded : 0;
+	}
+
+	private static String millis(long micros) {
+		return String.format(Locale.ROOT, "%.1f", micros / 1000.0);
+	}
+
+	/**
+	 * The metrics of one endpoint.
+	 */
+	public static class Endpoint {
+
+		private final String name;
+
+		private final LatencyHistogram latency = new LatencyHistogram();
+
+		private final ConcurrentMap<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+
+		private final LongAdder bytesOut = new LongAdder();
+
+		private final LongAdder bytesIn = new LongAdder();
+
+		private final LongAdder wireBytesIn = new LongAdder();
+
+		private Endpoint(String name) {
+			this.name = name;
+		}
+
+		private void record(int status, long sent, long received, long receivedOnWire, long nanos) {
+			latency.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+			statusCounts.computeIfAbsent(status, key -> new LongAdder()).increment();
+			bytesOut.add(Math.max(0, sent));
+			bytesIn.add(Math.max(0, received));
+			wireBytesIn.add(Math.max(0, receivedOnWire));
+		}
+
+		/**
+		 * @return the method and normalised path, e.g. <code>GET
+		 * /collections/a/map/tiles/WebMercatorQuad/{n}/{n}/{n}</code>, never
+		 * <code>null</code>
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the latencies in microseconds, never <code>null</code>
+		 */
+		public LatencyHistogram getLatency() {
+			return latency;
+		}
+
+		/**
+		 * @return the number of responses by status code, sorted by status code, never
+		 * <code>null</code>
+		 */
+		public Map<Integer, Long> getStatusCounts() {
+			Map<Integer, Long> counts = new TreeMap<>();
+			statusCounts.forEach((status, count) -> counts.put(status, count.sum()));
+			return Collections.unmodifiableMap(counts);
+		}
+
+		/**
+		 * @return the number of body bytes sent
+		 */
+		public long getBytesOut() {
+			return bytesOut.sum();
+		}
+
+		/**
+		 * @return the number of decoded body bytes received
+		 */
+		public long getBytesIn() {
+			return bytesIn.sum();
+		}
+
+		/**
+		 * @return the number of body bytes received as read from the wire, less than
+		 * {@link #getBytesIn()} if responses were compressed
+		 */
+		public long getWireBytesIn() {
+			return wireBytesIn.sum();
+		}
+
+	}
+
+	/**
+	 * The time requests to one host waited for the throttle.
+	 */
+	private static final class Throttled {
+
+		private final LongAdder count = new LongAdder();
+
+		private final LongAdder nanos = new LongAdder();
+
+		private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+		private void record(long waited) {
+			count.increment();
+			nanos.add(waited);
+			max.accumulate(waited);
+		}
+
+	}
+
+}
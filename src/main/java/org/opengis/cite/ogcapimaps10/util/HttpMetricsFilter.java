@@ -0,0 +1,69 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.nio.charset.StandardCharsets;
+
+import org.opengis.cite.ogcapimaps10.exception.CircuitOpenException;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * Records the RestAssured requests of the suite in {@link HttpMetrics}. Should be the
+ * last filter, so the time of the other filters is not counted as latency. The bytes read
+ * from the wire are taken from the {@link ContentEncoding#wireBytesInterceptor()} of the
+ * {@link HttpTransport}, if the request was sent with its client.
+ */
+public class HttpMetricsFilter implements Filter {
+
+	private final HttpMetrics metrics;
+
+	/**
+	 * @param metrics the metrics to record the requests in, never <code>null</code>
+	 */
+	public HttpMetricsFilter(HttpMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	@SuppressWarnings("try")
+	public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+			FilterContext ctx) {
+		ContentEncoding.takeWireBytes();
+		RetryExecutor.takeWaitNanos();
+		long start = System.nanoTime();
+		Response response;
+		try (PhaseTimes.Span ignored = PhaseTimes.begin(PhaseTimes.Phase.IO)) {
+			response = ctx.next(requestSpec, responseSpec);
+		}
+		catch (CircuitOpenException e) {
+			// nothing was sent
+			throw e;
+		}
+		catch (RuntimeException e) {
+			metrics.record(requestSpec.getMethod(), requestSpec.getURI(), 0, bodyLength(requestSpec.getBody()), 0,
+					System.nanoTime() - start - RetryExecutor.takeWaitNanos());
+			throw e;
+		}
+		// without the time waiting for the throttle and the discarded attempts
+		long nanos = System.nanoTime() - start - RetryExecutor.takeWaitNanos();
+		byte[] body = response.asByteArray();
+		long bytesIn = body != null ? body.length : 0;
+		long wireBytesIn = ContentEncoding.takeWireBytes();
+		metrics.record(requestSpec.getMethod(), requestSpec.getURI(), response.getStatusCode(),
+				bodyLength(requestSpec.getBody()), bytesIn, wireBytesIn < 0 ? bytesIn : wireBytesIn, nanos);
+		return response;
+	}
+
+	private static long bodyLength(Object body) {
+		if (body == null)
+			return 0;
+		if (body instanceof byte[])
+			return ((byte[]) body).length;
+		return String.valueOf(body).getBytes(StandardCharsets.UTF_8).length;
+	}
+
+}
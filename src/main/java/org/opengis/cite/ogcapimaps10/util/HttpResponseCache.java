@@ -0,0 +1,243 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A cache of the bodies of GET responses carrying a validator (ETag or Last-Modified),
+ * keyed by URL and Accept header. A cached response is not served without asking the
+ * server: the request is made conditional (If-None-Match, If-Modified-Since) and the
+ * cached body is only used if the server answers 304 Not Modified. So the tests still see
+ * the current state of the IUT, but the many repeated requests of the landing page,
+ * collections, styles and tilesets do not transfer their bodies again.
+ *
+ * <p>
+ * The entries are evicted in least recently used order when the total size of the cached
+ * bodies exceeds the maximum. A request bypasses the cache if it sends
+ * <code>Cache-Control: no-cache</code> or <code>no-store</code>, see
+ * {@link #isBypassed(String)}.
+ * </p>
+ */
+public class HttpResponseCache {
+
+	/** Header value of a request bypassing the cache. */
+	public static final String NO_CACHE = "no-cache";
+
+	private final long maxBytes;
+
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private long size;
+
+	private long hits;
+
+	private long misses;
+
+	/**
+	 * @param maxBytes the maximum number of cached body bytes, 0 disables the cache
+	 */
+	public HttpResponseCache(long maxBytes) {
+		if (maxBytes < 0)
+			throw new IllegalArgumentException("maxBytes must not be negative");
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * @param url the requested URL, never <code>null</code>
+	 * @param accept the Accept header of the request, may be <code>null</code>
+	 * @param authorization the Authorization header of the request, may be
+	 * <code>null</code>; responses to other credentials are not shared
+	 * @return the key of the response
+	 */
+	public static String key(String url, String accept, String authorization) {
+		StringBuilder key = new StringBuilder(url);
+		if (accept != null)
+			key.append(' ').append(accept);
+		if (authorization != null)
+			key.append(" Authorization=").append(authorization);
+		return key.toString();
+	}
+
+	/**
+	 * @param cacheControl the Cache-Control header of a request, may be <code>null</code>
+	 * @return <code>true</code> if the request must not be answered from the cache
+	 */
+	public static boolean isBypassed(String cacheControl) {
+		if (cacheControl == null)
+			return false;
+		String value = cacheControl.toLowerCase(Locale.ROOT);
+		return value.contains(NO_CACHE) || value.contains("no-store");
+	}
+
+	/**
+	 * @param status the status code of a response
+	 * @param cacheControl the Cache-Control header of the response, may be
+	 * <code>null</code>
+	 * @param etag the ETag header of the response, may be <code>null</code>
+	 * @param lastModified the Last-Modified header of the response, may be
+	 * <code>null</code>
+	 * @return <code>true</code> if the response may be cached
+	 */
+	public static boolean isCacheable(int status, String cacheControl, String etag, String lastModified) {
+		if (status != 200 || (etag == null && lastModified == null))
+			return false;
+		return cacheControl == null || !cacheControl.toLowerCase(Locale.ROOT).contains("no-store");
+	}
+
+	/**
+	 * @return <code>false</code> if nothing is cached
+	 */
+	public boolean isEnabled() {
+		return maxBytes > 0;
+	}
+
+	/**
+	 * @param key the key of the response, never <code>null</code>
+	 * @return the cached response, <code>null</code> if not cached
+	 */
+	public synchronized Entry get(String key) {
+		return entries.get(key);
+	}
+
+	/**
+	 * Caches a response, replacing a previous one with the same key. Bodies larger than a
+	 * quarter of the maximum size are not cached.
+	 * @param key the key of the response, never <code>null</code>
+	 * @param entry the response, never <code>null</code>
+	 */
+	public synchronized void put(String key, Entry entry) {
+		remove(key);
+		if (entry.body.length > maxBytes / 4)
+			return;
+		entries.put(key, entry);
+		size += entry.body.length;
+		Iterator<Entry> eldest = entries.values().iterator();
+		while (size > maxBytes && eldest.hasNext()) {
+			size -= eldest.next().body.length;
+			eldest.remove();
+		}
+	}
+
+	/**
+	 * @param key the key of the response, never <code>null</code>
+	 */
+	public synchronized void remove(String key) {
+		Entry removed = entries.remove(key);
+		if (removed != null)
+			size -= removed.body.length;
+	}
+
+	/**
+	 * Counts a revalidated response, i.e. the server answered 304 and the cached body was
+	 * used.
+	 */
+	public synchronized void recordHit() {
+		hits++;
+	}
+
+	/**
+	 * Counts a conditional request the server answered with a new body.
+	 */
+	public synchronized void recordMiss() {
+		misses++;
+	}
+
+	/**
+	 * @return the number of responses served from the cache after revalidation
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of conditional requests the server answered with a new body
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return the number of cached responses
+	 */
+	public synchronized int getEntryCount() {
+		return entries.size();
+	}
+
+	/**
+	 * @return the total size of the cached bodies in bytes
+	 */
+	public synchronized long getSize() {
+		return size;
+	}
+
+	/**
+	 * @return the maximum total size of the cached bodies in bytes
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * A cached response.
+	 */
+	public static class Entry {
+
+		private final byte[] body;
+
+		private final Map<String, List<String>> headers;
+
+		private final String etag;
+
+		private final String lastModified;
+
+		/**
+		 * @param body the body, never <code>null</code>
+		 * @param headers the response headers, never <code>null</code>
+		 * @param etag the ETag header, may be <code>null</code>
+		 * @param lastModified the Last-Modified header, may be <code>null</code>
+		 */
+		public Entry(byte[] body, Map<String, List<String>> headers, String etag, String lastModified) {
+			this.body = body;
+			Map<String, List<String>> copy = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+			copy.putAll(headers);
+			this.headers = Collections.unmodifiableMap(copy);
+			this.etag = etag;
+			this.lastModified = lastModified;
+		}
+
+		/**
+		 * @return the body, never <code>null</code>
+		 */
+		public byte[] getBody() {
+			return body;
+		}
+
+		/**
+		 * @return the response headers by case-insensitive name, never <code>null</code>
+		 */
+		public Map<String, List<String>> getHeaders() {
+			return headers;
+		}
+
+		/**
+		 * @return the value for the If-None-Match header, may be <code>null</code>
+		 */
+		public String getEtag() {
+			return etag;
+		}
+
+		/**
+		 * @return the value for the If-Modified-Since header, may be <code>null</code>
+		 */
+		public String getLastModified() {
+			return lastModified;
+		}
+
+	}
+
+}
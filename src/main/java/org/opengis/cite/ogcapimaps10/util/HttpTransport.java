@@ -0,0 +1,402 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.protocol.HttpContext;
+
+import io.restassured.config.HttpClientConfig;
+
+/**
+ * A suite-scoped HTTP transport that keeps connections to the IUT alive and pools them,
+ * so that the many requests issued by the conformance classes do not each pay for a new
+ * TCP/TLS handshake. All request paths of the suite use it:
+ * <ul>
+ * <li>plain {@link HttpURLConnection} style requests via
+ * {@link #openConnection(String)},</li>
+ * <li>RestAssured requests via {@link #restAssuredHttpClientConfig()},</li>
+ * <li>the JAX-RS client built by {@link ClientUtils#buildClient()}.</li>
+ * </ul>
+ * RestAssured requires the legacy {@link DefaultHttpClient} API, hence it is backed by a
+ * separate pool with the same per-host limit.
+ *
+ * <p>
+ * The requests are counted in the {@link #getMetrics() metrics} of the transport; plain
+ * requests automatically, RestAssured requests if they use the
+ * {@link #restAssuredMetricsFilter()}. Requests of the JAX-RS client are not counted,
+ * neither in the metrics nor in the bytes read from the wire: it is only used to
+ * dereference the IUT, which is not worth a filter reading every entity. All clients
+ * request compressed responses; plain requests are decoded by {@link ContentEncoding},
+ * the others by the client library.
+ * </p>
+ *
+ * <p>
+ * GET responses with a validator are kept in the {@link #getResponseCache() response
+ * cache} of the transport and revalidated by RestAssured requests using the
+ * {@link #restAssuredCacheFilter()} and by the JAX-RS client.
+ * </p>
+ *
+ * <p>
+ * Plain and RestAssured requests are retried according to the {@link RetryPolicy} of the
+ * transport, pass its {@link CircuitBreaker} and are limited per host by its
+ * {@link HostThrottle}; JAX-RS requests are not. The connect and read timeouts apply to
+ * all clients, unless a plain request sets its own.
+ * </p>
+ */
+public class HttpTransport implements Closeable {
+
+	/** Default maximum number of pooled connections per host. */
+	public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 8;
+
+	private static final int MIN_MAX_CONNECTIONS_TOTAL = 64;
+
+	private static final int POOL_WAIT_TIMEOUT = 60000;
+
+	private static final int IDLE_CONNECTION_TIMEOUT = 30;
+
+	/** Default connect timeout in milliseconds. */
+	public static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+
+	/** Default read timeout in milliseconds. */
+	public static final int DEFAULT_READ_TIMEOUT = 60000;
+
+	private static HttpTransport defaultTransport;
+
+	private final int maxConnectionsPerHost;
+
+	private final int connectTimeout;
+
+	private final int readTimeout;
+
+	private final RetryPolicy retryPolicy;
+
+	private final CircuitBreaker circuitBreaker;
+
+	private final HostThrottle throttle;
+
+	private final RetryExecutor retryExecutor;
+
+	private final PoolingHttpClientConnectionManager connectionManager;
+
+	private final RequestConfig defaultRequestConfig;
+
+	private final CloseableHttpClient httpClient;
+
+	private final RestAssuredClient restAssuredClient;
+
+	private final HttpMetrics metrics = new HttpMetrics();
+
+	private final HttpMetricsFilter metricsFilter = new HttpMetricsFilter(metrics);
+
+	private final HttpResponseCache responseCache;
+
+	private final HttpCacheFilter cacheFilter;
+
+	/**
+	 * Creates a transport with {@link #DEFAULT_MAX_CONNECTIONS_PER_HOST} connections per
+	 * host.
+	 */
+	public HttpTransport() {
+		this(DEFAULT_MAX_CONNECTIONS_PER_HOST);
+	}
+
+	/**
+	 * Creates a transport without response cache.
+	 * @param maxConnectionsPerHost the maximum number of connections kept per host, must
+	 * be greater than 0
+	 */
+	public HttpTransport(int maxConnectionsPerHost) {
+		this(maxConnectionsPerHost, 0);
+	}
+
+	/**
+	 * Creates a transport with the default timeouts, {@link RetryPolicy} and
+	 * {@link CircuitBreaker}.
+	 * @param maxConnectionsPerHost the maximum number of connections kept per host, must
+	 * be greater than 0
+	 * @param responseCacheBytes the maximum number of body bytes kept in the response
+	 * cache, 0 disables the cache
+	 */
+	public HttpTransport(int maxConnectionsPerHost, long responseCacheBytes) {
+		this(maxConnectionsPerHost, responseCacheBytes, DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT,
+				new RetryPolicy(), new CircuitBreaker());
+	}
+
+	/**
+	 * Creates a transport not throttling the requests.
+	 * @param maxConnectionsPerHost the maximum number of connections kept per host, must
+	 * be greater than 0
+	 * @param responseCacheBytes the maximum number of body bytes kept in the response
+	 * cache, 0 disables the cache
+	 * @param connectTimeout the connect timeout in milliseconds, 0 for none
+	 * @param readTimeout the timeout in milliseconds waiting for data of a response, 0
+	 * for none
+	 * @param retryPolicy the policy retrying failed requests, never <code>null</code>
+	 * @param circuitBreaker the circuit breaker of the hosts, never <code>null</code>
+	 */
+	public HttpTransport(int maxConnectionsPerHost, long responseCacheBytes, int connectTimeout, int readTimeout,
+			RetryPolicy retryPolicy, CircuitBreaker circuitBreaker) {
+		this(maxConnectionsPerHost, responseCacheBytes, connectTimeout, readTimeout, retryPolicy, circuitBreaker,
+				HostThrottle.UNLIMITED);
+	}
+
+	/**
+	 * Creates a transport.
+	 * @param maxConnectionsPerHost the maximum number of connections kept per host, must
+	 * be greater than 0
+	 * @param responseCacheBytes the maximum number of body bytes kept in the response
+	 * cache, 0 disables the cache
+	 * @param connectTimeout the connect timeout in milliseconds, 0 for none
+	 * @param readTimeout the timeout in milliseconds waiting for data of a response, 0
+	 * for none
+	 * @param retryPolicy the policy retrying failed requests, never <code>null</code>
+	 * @param circuitBreaker the circuit breaker of the hosts, never <code>null</code>
+	 * @param throttle the limits of the requests per host, never <code>null</code>
+	 */
+	@SuppressWarnings("deprecation")
+	public HttpTransport(int maxConnectionsPerHost, long responseCacheBytes, int connectTimeout, int readTimeout,
+			RetryPolicy retryPolicy, CircuitBreaker circuitBreaker, HostThrottle throttle) {
+		if (maxConnectionsPerHost <= 0)
+			throw new IllegalArgumentException("maxConnectionsPerHost must be greater than 0");
+		if (connectTimeout < 0 || readTimeout < 0)
+			throw new IllegalArgumentException("Timeouts must not be negative");
+		this.maxConnectionsPerHost = maxConnectionsPerHost;
+		this.connectTimeout = connectTimeout;
+		this.readTimeout = readTimeout;
+		this.retryPolicy = retryPolicy;
+		this.circuitBreaker = circuitBreaker;
+		this.throttle = throttle;
+		this.retryExecutor = new RetryExecutor(retryPolicy, circuitBreaker, throttle, metrics);
+		this.responseCache = new HttpResponseCache(responseCacheBytes);
+		this.cacheFilter = new HttpCacheFilter(responseCache);
+		int maxTotal = Math.max(MIN_MAX_CONNECTIONS_TOTAL, maxConnectionsPerHost);
+
+		this.connectionManager = new PoolingHttpClientConnectionManager(IDLE_CONNECTION_TIMEOUT, TimeUnit.SECONDS);
+		this.connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+		this.connectionManager.setMaxTotal(maxTotal);
+		this.defaultRequestConfig = RequestConfig.custom()
+			.setConnectionRequestTimeout(POOL_WAIT_TIMEOUT)
+			.setConnectTimeout(connectTimeout)
+			.setSocketTimeout(readTimeout)
+			.build();
+		this.httpClient = HttpClients.custom()
+			.setConnectionManager(connectionManager)
+			.setConnectionManagerShared(true)
+			.setDefaultRequestConfig(defaultRequestConfig)
+			.disableContentCompression()
+			.disableCookieManagement()
+			.build();
+
+		PoolingClientConnectionManager restAssuredConnectionManager = new PoolingClientConnectionManager();
+		restAssuredConnectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+		restAssuredConnectionManager.setMaxTotal(maxTotal);
+		this.restAssuredClient = new RestAssuredClient(restAssuredConnectionManager, retryExecutor);
+		HttpConnectionParams.setConnectionTimeout(restAssuredClient.getParams(), connectTimeout);
+		HttpConnectionParams.setSoTimeout(restAssuredClient.getParams(), readTimeout);
+		// RestAssured decodes gzip and deflate itself, count the bytes before decoding
+		this.restAssuredClient.addResponseInterceptor(ContentEncoding.wireBytesInterceptor(), 0);
+	}
+
+	/**
+	 * Returns the default transport of code running without a test suite fixture (e.g.
+	 * unit tests, interactive CTL scripts or static utilities). A test suite uses its own
+	 * transport, registered as the <code>httpTransport</code> suite attribute, so
+	 * concurrent runs in the same JVM never share or close each other's transport. The
+	 * default transport is created on first use and kept for the lifetime of the JVM.
+	 * @return the default transport, never <code>null</code>
+	 */
+	public static synchronized HttpTransport shared() {
+		if (defaultTransport == null)
+			defaultTransport = new HttpTransport();
+		return defaultTransport;
+	}
+
+	/**
+	 * Opens a connection to the given URL that is executed on the pooled transport. The
+	 * request is sent on the first call of a method requiring the response (e.g.
+	 * {@link HttpURLConnection#getResponseCode()}).
+	 * @param url the URL to request, never <code>null</code>
+	 * @return a new connection, never <code>null</code>
+	 * @throws MalformedURLException if the URL is invalid
+	 */
+	public HttpURLConnection openConnection(String url) throws MalformedURLException {
+		return openConnection(new URL(url));
+	}
+
+	/**
+	 * Opens a connection to the given URL that is executed on the pooled transport.
+	 * @param url the URL to request, never <code>null</code>
+	 * @return a new connection, never <code>null</code>
+	 */
+	public HttpURLConnection openConnection(URL url) {
+		return openConnection(url, retryPolicy);
+	}
+
+	/**
+	 * Opens a connection to the given URL that is executed on the pooled transport with
+	 * another retry policy than the one of the transport, e.g. {@link RetryPolicy#NONE}
+	 * for measurements which must see every failed request.
+	 * @param url the URL to request, never <code>null</code>
+	 * @param retryPolicy the retry policy of the request, never <code>null</code>
+	 * @return a new connection, never <code>null</code>
+	 */
+	public HttpURLConnection openConnection(URL url, RetryPolicy retryPolicy) {
+		return new PooledHttpURLConnection(url, httpClient, defaultRequestConfig, metrics, retryExecutor, retryPolicy);
+	}
+
+	/**
+	 * Opens a connection to the given URL that is executed on the pooled transport with
+	 * another retry policy and circuit breaker than the ones of the transport, e.g. for a
+	 * load test whose failures must not open the circuit for the other tests.
+	 * @param url the URL to request, never <code>null</code>
+	 * @param retryPolicy the retry policy of the request, never <code>null</code>
+	 * @param circuitBreaker the circuit breaker of the request, never <code>null</code>
+	 * @return a new connection, never <code>null</code>
+	 */
+	public HttpURLConnection openConnection(URL url, RetryPolicy retryPolicy, CircuitBreaker circuitBreaker) {
+		RetryExecutor executor = new RetryExecutor(retryPolicy, circuitBreaker, throttle, metrics);
+		return new PooledHttpURLConnection(url, httpClient, defaultRequestConfig, metrics, executor, retryPolicy);
+	}
+
+	/**
+	 * @return the RestAssured configuration using the pooled client of this transport,
+	 * never <code>null</code>
+	 */
+	public HttpClientConfig restAssuredHttpClientConfig() {
+		return HttpClientConfig.httpClientConfig().reuseHttpClientInstance().httpClientFactory(() -> restAssuredClient);
+	}
+
+	/**
+	 * @return the filter recording RestAssured requests in the metrics of this transport,
+	 * never <code>null</code>
+	 */
+	public HttpMetricsFilter restAssuredMetricsFilter() {
+		return metricsFilter;
+	}
+
+	/**
+	 * @return the filter revalidating RestAssured requests against the response cache of
+	 * this transport, never <code>null</code>
+	 */
+	public HttpCacheFilter restAssuredCacheFilter() {
+		return cacheFilter;
+	}
+
+	/**
+	 * @return the cache of the GET responses with a validator, never <code>null</code>
+	 */
+	public HttpResponseCache getResponseCache() {
+		return responseCache;
+	}
+
+	/**
+	 * @return the metrics of the requests issued via this transport, never
+	 * <code>null</code>
+	 */
+	public HttpMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * @return the connection manager used for plain and JAX-RS requests, never
+	 * <code>null</code>
+	 */
+	public PoolingHttpClientConnectionManager getConnectionManager() {
+		return connectionManager;
+	}
+
+	/**
+	 * @return the maximum number of connections kept per host
+	 */
+	public int getMaxConnectionsPerHost() {
+		return maxConnectionsPerHost;
+	}
+
+	/**
+	 * @return the connect timeout in milliseconds, 0 for none
+	 */
+	public int getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	/**
+	 * @return the read timeout in milliseconds, 0 for none
+	 */
+	public int getReadTimeout() {
+		return readTimeout;
+	}
+
+	/**
+	 * @return the policy retrying failed requests, never <code>null</code>
+	 */
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	/**
+	 * @return the circuit breaker of the hosts, never <code>null</code>
+	 */
+	public CircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+	/**
+	 * @return the limits of the requests per host, never <code>null</code>
+	 */
+	public HostThrottle getThrottle() {
+		return throttle;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	@SuppressWarnings("deprecation")
+	public void close() {
+		try {
+			httpClient.close();
+		}
+		catch (IOException e) {
+			TestSuiteLogger.log(Level.WARNING, "Failed to close HTTP client", e);
+		}
+		connectionManager.shutdown();
+		restAssuredClient.getConnectionManager().shutdown();
+	}
+
+	/**
+	 * The client of RestAssured, sending its requests via the retry executor. RestAssured
+	 * 5 only accepts the legacy client API, hence the deprecated
+	 * {@link DefaultHttpClient} cannot be replaced by the {@link CloseableHttpClient} of
+	 * the other request paths.
+	 */
+	@SuppressWarnings("deprecation")
+	private static final class RestAssuredClient extends DefaultHttpClient {
+
+		private final RetryExecutor retryExecutor;
+
+		private RestAssuredClient(ClientConnectionManager connectionManager, RetryExecutor retryExecutor) {
+			super(connectionManager);
+			this.retryExecutor = retryExecutor;
+		}
+
+		@Override
+		public CloseableHttpResponse execute(HttpUriRequest request, HttpContext context) throws IOException {
+			return retryExecutor.execute(request, () -> super.execute(request, context));
+		}
+
+	}
+
+}
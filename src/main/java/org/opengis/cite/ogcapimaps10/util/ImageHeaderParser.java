@@ -0,0 +1,315 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.opengis.cite.ogcapimaps10.domain.ImageHeader;
+
+/**
+ * Parses the header of PNG, JPEG and TIFF images from a stream. Only the bytes up to the
+ * information needed are read: the chunks before the image data of a PNG, the segments up
+ * to the start of frame of a JPEG and the first image file directory of a TIFF.
+ */
+public class ImageHeaderParser {
+
+	private static final byte[] PNG_SIGNATURE = { (byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A };
+
+	private static final byte[] JPEG_SIGNATURE = { (byte) 0xFF, (byte) 0xD8 };
+
+	private static final byte[] TIFF_SIGNATURE_LE = { 0x49, 0x49, 0x2A, 0x00 };
+
+	private static final byte[] TIFF_SIGNATURE_BE = { 0x4D, 0x4D, 0x00, 0x2A };
+
+	private static final int TIFF_IMAGE_WIDTH = 256;
+
+	private static final int TIFF_IMAGE_LENGTH = 257;
+
+	private static final int TIFF_BITS_PER_SAMPLE = 258;
+
+	private static final int TIFF_PHOTOMETRIC_INTERPRETATION = 262;
+
+	private static final int TIFF_EXTRA_SAMPLES = 338;
+
+	private static final int TIFF_TYPE_SHORT = 3;
+
+	private ImageHeaderParser() {
+	}
+
+	/**
+	 * Detects the format of an image from its signature.
+	 * @param data the first bytes of the image, may be <code>null</code>
+	 * @return {@link ImageHeader#PNG}, {@link ImageHeader#JPEG} or
+	 * {@link ImageHeader#TIFF}, <code>null</code> if the signature is unknown
+	 */
+	public static String detectFormat(byte[] data) {
+		if (data == null)
+			return null;
+		if (startsWith(data, PNG_SIGNATURE))
+			return ImageHeader.PNG;
+		if (startsWith(data, JPEG_SIGNATURE))
+			return ImageHeader.JPEG;
+		if (startsWith(data, TIFF_SIGNATURE_LE) || startsWith(data, TIFF_SIGNATURE_BE))
+			return ImageHeader.TIFF;
+		return null;
+	}
+
+	/**
+	 * Parses the header of an encoded image.
+	 * @param data the encoded image, may be <code>null</code>
+	 * @return the header, <code>null</code> if the format is unknown or the header is
+	 * invalid
+	 */
+	public static ImageHeader parse(byte[] data) {
+		if (data == null)
+			return null;
+		try {
+			return parse(new ByteArrayInputStream(data));
+		}
+		catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Parses the header of an encoded image. The stream is read up to the end of the
+	 * header and not closed.
+	 * @param in the stream positioned at the start of the image, never <code>null</code>
+	 * @return the header, <code>null</code> if the format is unknown
+	 * @throws IOException if the stream could not be read or the header is invalid
+	 */
+	public static ImageHeader parse(InputStream in) throws IOException {
+		HeaderInput input = new HeaderInput(in);
+		byte[] signature = input.readUpTo(PNG_SIGNATURE.length);
+		String format = detectFormat(signature);
+		if (format == null)
+			return null;
+		switch (format) {
+			case ImageHeader.PNG:
+				return parsePng(input);
+			case ImageHeader.JPEG:
+				input.reset(signature, JPEG_SIGNATURE.length);
+				return parseJpeg(input);
+			default:
+				input.reset(signature, TIFF_SIGNATURE_LE.length);
+				return parseTiff(input, signature[0] == 0x49);
+		}
+	}
+
+	private static ImageHeader parsePng(HeaderInput input) throws IOException {
+		int length = input.readInt(false);
+		if (length != 13 || input.readInt(false) != 0x49484452)
+			throw new IOException("PNG does not start with an IHDR chunk");
+		int width = input.readInt(false);
+		int height = input.readInt(false);
+		int bitDepth = input.readUnsignedByte();
+		int colorType = input.readUnsignedByte();
+		input.skip(3 + 4); // compression, filter, interlace, CRC
+		boolean alpha = colorType == 4 || colorType == 6;
+		// tRNS must precede the first IDAT chunk
+		while (!alpha) {
+			int chunkLength = input.readInt(false);
+			int chunkType = input.readInt(false);
+			if (chunkType == 0x74524E53) // tRNS
+				alpha = true;
+			else if (chunkType == 0x49444154 || chunkType == 0x49454E44) // IDAT, IEND
+				break;
+			input.skip(Integer.toUnsignedLong(chunkLength) + 4);
+		}
+		return new ImageHeader(ImageHeader.PNG, width, height, bitDepth, colorType, alpha);
+	}
+
+	private static ImageHeader parseJpeg(HeaderInput input) throws IOException {
+		while (true) {
+			if (input.readUnsignedByte() != 0xFF)
+				throw new IOException("Invalid JPEG marker");
+			int marker = input.readUnsignedByte();
+			while (marker == 0xFF) // fill bytes
+				marker = input.readUnsignedByte();
+			if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD8))
+				continue; // markers without segment
+			if (marker == 0xD9 || marker == 0xDA)
+				throw new IOException("JPEG has no start of frame before the image data");
+			int length = input.readUnsignedShort(false);
+			if (length < 2)
+				throw new IOException("Invalid JPEG segment length");
+			if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC) {
+				int precision = input.readUnsignedByte();
+				int height = input.readUnsignedShort(false);
+				int width = input.readUnsignedShort(false);
+				int components = input.readUnsignedByte();
+				return new ImageHeader(ImageHeader.JPEG, width, height, precision, components, false);
+			}
+			input.skip(length - 2);
+		}
+	}
+
+	private static ImageHeader parseTiff(HeaderInput input, boolean littleEndian) throws IOException {
+		long ifdOffset = Integer.toUnsignedLong(input.readInt(littleEndian));
+		input.skipTo(ifdOffset);
+		int entries = input.readUnsignedShort(littleEndian);
+		int width = -1;
+		int height = -1;
+		int bitDepth = 1; // default of BitsPerSample
+		long bitDepthOffset = -1;
+		int photometric = -1;
+		boolean alpha = false;
+		for (int i = 0; i < entries; i++) {
+			int tag = input.readUnsignedShort(littleEndian);
+			int type = input.readUnsignedShort(littleEndian);
+			long count = Integer.toUnsignedLong(input.readInt(littleEndian));
+			byte[] valueBytes = input.readUpTo(4);
+			if (valueBytes.length < 4)
+				throw new EOFException("Unexpected end of image header");
+			int offset = readInt(valueBytes, littleEndian);
+			int value = type == TIFF_TYPE_SHORT ? readUnsignedShort(valueBytes, littleEndian) : offset;
+			switch (tag) {
+				case TIFF_IMAGE_WIDTH:
+					width = value;
+					break;
+				case TIFF_IMAGE_LENGTH:
+					height = value;
+					break;
+				case TIFF_BITS_PER_SAMPLE:
+					if (type == TIFF_TYPE_SHORT && count > 2)
+						bitDepthOffset = Integer.toUnsignedLong(offset);
+					else
+						bitDepth = value;
+					break;
+				case TIFF_PHOTOMETRIC_INTERPRETATION:
+					photometric = value;
+					break;
+				case TIFF_EXTRA_SAMPLES:
+					// 1: associated alpha, 2: unassociated alpha
+					alpha = count <= 2 && (value == 1 || value == 2);
+					break;
+				default:
+					break;
+			}
+		}
+		if (width < 0 || height < 0)
+			throw new IOException("TIFF image file directory has no image dimensions");
+		if (bitDepthOffset >= input.position()) {
+			input.skipTo(bitDepthOffset);
+			bitDepth = input.readUnsignedShort(littleEndian);
+		}
+		else if (bitDepthOffset >= 0) {
+			// stored before the image file directory, which a forward-only read cannot
+			// reach
+			bitDepth = -1;
+		}
+		return new ImageHeader(ImageHeader.TIFF, width, height, bitDepth, photometric, alpha);
+	}
+
+	private static int readUnsignedShort(byte[] bytes, boolean littleEndian) {
+		int b1 = bytes[0] & 0xFF;
+		int b2 = bytes[1] & 0xFF;
+		return littleEndian ? (b2 << 8) | b1 : (b1 << 8) | b2;
+	}
+
+	private static int readInt(byte[] bytes, boolean littleEndian) {
+		int value = 0;
+		for (int i = 0; i < 4; i++) {
+			int b = bytes[littleEndian ? 3 - i : i] & 0xFF;
+			value = (value << 8) | b;
+		}
+		return value;
+	}
+
+	private static boolean startsWith(byte[] data, byte[] prefix) {
+		return data.length >= prefix.length && Arrays.equals(data, 0, prefix.length, prefix, 0, prefix.length);
+	}
+
+	/**
+	 * Forward-only reader which keeps track of the position in the stream.
+	 */
+	private static final class HeaderInput {
+
+		private final InputStream in;
+
+		private byte[] pushback = new byte[0];
+
+		private int pushbackPos;
+
+		private long position;
+
+		private HeaderInput(InputStream in) {
+			this.in = in;
+		}
+
+		private byte[] readUpTo(int length) throws IOException {
+			byte[] bytes = new byte[length];
+			int read = 0;
+			while (read < length && pushbackPos < pushback.length) {
+				bytes[read++] = pushback[pushbackPos++];
+				position++;
+			}
+			byte[] remaining = in.readNBytes(length - read);
+			System.arraycopy(remaining, 0, bytes, read, remaining.length);
+			position += remaining.length;
+			return read + remaining.length == length ? bytes : Arrays.copyOf(bytes, read + remaining.length);
+		}
+
+		private void reset(byte[] consumed, int offset) {
+			pushback = consumed;
+			pushbackPos = offset;
+			position = offset;
+		}
+
+		private long position() {
+			return position;
+		}
+
+		private int readUnsignedByte() throws IOException {
+			int b;
+			if (pushbackPos < pushback.length)
+				b = pushback[pushbackPos++] & 0xFF;
+			else
+				b = in.read();
+			if (b < 0)
+				throw new EOFException("Unexpected end of image header");
+			position++;
+			return b;
+		}
+
+		private int readUnsignedShort(boolean littleEndian) throws IOException {
+			int b1 = readUnsignedByte();
+			int b2 = readUnsignedByte();
+			return littleEndian ? (b2 << 8) | b1 : (b1 << 8) | b2;
+		}
+
+		private int readInt(boolean littleEndian) throws IOException {
+			int s1 = readUnsignedShort(littleEndian);
+			int s2 = readUnsignedShort(littleEndian);
+			return littleEndian ? (s2 << 16) | s1 : (s1 << 16) | s2;
+		}
+
+		private void skip(long count) throws IOException {
+			long remaining = count;
+			while (remaining > 0 && pushbackPos < pushback.length) {
+				readUnsignedByte();
+				remaining--;
+			}
+			while (remaining > 0) {
+				long skipped = in.skip(remaining);
+				if (skipped <= 0) {
+					if (in.read() < 0)
+						throw new EOFException("Unexpected end of image header");
+					skipped = 1;
+				}
+				remaining -= skipped;
+				position += skipped;
+			}
+		}
+
+		private void skipTo(long offset) throws IOException {
+			if (offset < position)
+				throw new IOException("Image header refers back to offset " + offset);
+			skip(offset - position);
+		}
+
+	}
+
+}
@@ -0,0 +1,148 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+import org.opengis.cite.ogcapimaps10.domain.ImageInfo;
+
+/**
+ * Reads as little of an encoded image as a check needs: only the header
+ * ({@link #probe(byte[])}), a region ({@link #readRegion(byte[], Rectangle)}) or a
+ * subsampled version ({@link #readSubsampled(byte[], int)}) of the image, so large maps
+ * are not decoded to a full size {@link BufferedImage} for every assertion.
+ *
+ * <p>
+ * All methods return <code>null</code> if no image reader is available for the data or
+ * the data could not be decoded, like {@link ImageIO#read(java.io.InputStream)}.
+ * </p>
+ */
+public class ImageProbe {
+
+	private ImageProbe() {
+	}
+
+	/**
+	 * Reads the format, dimensions and colour model of an image without decoding the
+	 * pixel data.
+	 * @param data the encoded image, never <code>null</code>
+	 * @return the image info, <code>null</code> if the image could not be read
+	 */
+	public static ImageInfo probe(byte[] data) {
+		return read(data, reader -> {
+			Iterator<ImageTypeSpecifier> types = reader.getImageTypes(0);
+			ImageTypeSpecifier type = types.hasNext() ? types.next() : reader.getRawImageType(0);
+			if (type == null)
+				return null;
+			return new ImageInfo(reader.getFormatName(), reader.getWidth(0), reader.getHeight(0), type.getColorModel(),
+					type.getBufferedImageType());
+		});
+	}
+
+	/**
+	 * Decodes the complete image.
+	 * @param data the encoded image, never <code>null</code>
+	 * @return the decoded image, <code>null</code> if the image could not be decoded
+	 */
+	public static BufferedImage read(byte[] data) {
+		return read(data, reader -> reader.read(0));
+	}
+
+	/**
+	 * Decodes a region of the image.
+	 * @param data the encoded image, never <code>null</code>
+	 * @param region the region in pixel coordinates of the image, never
+	 * <code>null</code>; it is clipped to the image bounds
+	 * @return the decoded region, <code>null</code> if the image could not be decoded or
+	 * the region lies outside of the image
+	 */
+	public static BufferedImage readRegion(byte[] data, Rectangle region) {
+		return read(data, reader -> {
+			Rectangle clipped = region.intersection(new Rectangle(reader.getWidth(0), reader.getHeight(0)));
+			if (clipped.isEmpty())
+				return null;
+			ImageReadParam param = reader.getDefaultReadParam();
+			param.setSourceRegion(clipped);
+			return reader.read(0, param);
+		});
+	}
+
+	/**
+	 * Decodes the image subsampled to at most the given size in each dimension, keeping
+	 * the aspect ratio. Every n-th pixel of every n-th row is decoded, images which are
+	 * not larger than the given size are decoded completely. A preview like this is
+	 * sufficient to check that an image is readable and not blank, and keeps the heap
+	 * bounded for large maps.
+	 * @param data the encoded image, never <code>null</code>
+	 * @param maxSize the maximum width and height of the decoded image, at least 1
+	 * @return the decoded image, <code>null</code> if the image could not be decoded
+	 */
+	public static BufferedImage readSubsampled(byte[] data, int maxSize) {
+		return read(data, reader -> {
+			int size = Math.max(reader.getWidth(0), reader.getHeight(0));
+			int period = (size + maxSize - 1) / maxSize;
+			ImageReadParam param = reader.getDefaultReadParam();
+			if (period > 1)
+				param.setSourceSubsampling(period, period, 0, 0);
+			return reader.read(0, param);
+		});
+	}
+
+	/**
+	 * Checks if all pixels of an image have the same colour, given a subsampled preview
+	 * of it. The complete image is only decoded if the preview is uniform, which is rare
+	 * for maps.
+	 * @param data the encoded image, never <code>null</code>
+	 * @param preview the image decoded by {@link #readSubsampled(byte[], int)}, never
+	 * <code>null</code>
+	 * @return <code>true</code> if all pixels have the same colour, <code>false</code>
+	 * otherwise
+	 */
+	public static boolean isUniform(byte[] data, BufferedImage preview) {
+		if (!RasterAnalysis.isUniform(preview))
+			return false;
+		ImageInfo info = probe(data);
+		if (info == null || (info.getWidth() == preview.getWidth() && info.getHeight() == preview.getHeight()))
+			return true;
+		BufferedImage image = read(data);
+		return image == null || RasterAnalysis.isUniform(image);
+	}
+
+	@SuppressWarnings("try")
+	private static <T> T read(byte[] data, ReaderTask<T> task) {
+		try (PhaseTimes.Span ignored = PhaseTimes.begin(PhaseTimes.Phase.IMAGE_DECODING);
+				ImageInputStream input = new MemoryCacheImageInputStream(new ByteArrayInputStream(data))) {
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+			if (!readers.hasNext())
+				return null;
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(input, true, true);
+				return task.apply(reader);
+			}
+			finally {
+				reader.dispose();
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	@FunctionalInterface
+	private interface ReaderTask<T> {
+
+		T apply(ImageReader reader) throws IOException;
+
+	}
+
+}
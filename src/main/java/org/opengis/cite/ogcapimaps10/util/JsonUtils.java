@@ -25,6 +25,7 @@ import org.locationtech.jts.io.geojson.GeoJsonReader;
 import org.opengis.cite.ogcapimaps10.OgcApiMaps10;
 import org.opengis.cite.ogcapimaps10.conformance.crs.query.crs.CoordinateSystem;
 
+import io.restassured.config.RestAssuredConfig;
 import io.restassured.path.json.JsonPath;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
@@ -411,10 +412,12 @@ public class JsonUtils {
 	 * @param jsonPath the initial collection, never <code>null</code>
 	 * @param maximumLimit the limit parameter value to use, if &lt;= 0 the parameter is
 	 * omitted
+	 * @param transport the transport to request the next pages with, never
+	 * <code>null</code>
 	 * @return the number of all returned features
 	 * @throws java.net.URISyntaxException if the creation of a uri fails
 	 */
-	public static int collectNumberOfAllReturnedFeatures(JsonPath jsonPath, int maximumLimit)
+	public static int collectNumberOfAllReturnedFeatures(JsonPath jsonPath, int maximumLimit, HttpTransport transport)
 			throws URISyntaxException {
 		int numberOfAllReturnedFeatures = parseAsList("features", jsonPath).size();
 		Map<String, Object> nextLink = findLinkByRel(jsonPath.getList("links"), "next");
@@ -423,7 +426,11 @@ public class JsonUtils {
 			String nextUrl = (String) nextLink.get("href");
 			URI uri = new URI(nextUrl);
 
-			RequestSpecification accept = given().log().all().baseUri(nextUrl).accept(GEOJSON_MIME_TYPE);
+			RequestSpecification accept = given()
+				.config(RestAssuredConfig.config().httpClient(transport.restAssuredHttpClientConfig()))
+				.filter(transport.restAssuredMetricsFilter())
+				.baseUri(nextUrl)
+				.accept(GEOJSON_MIME_TYPE);
 			String[] pairs = uri.getQuery().split("&");
 			String limitParamFromUri = null;
 			for (String pair : pairs) {
@@ -0,0 +1,108 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe histogram of latencies in microseconds with log-linear buckets, as in
+ * HdrHistogram: values below 128 are counted exactly, larger values in 64 linear
+ * sub-buckets per power of two, so percentiles are reported with a relative error below
+ * 1.6% using a fixed amount of memory. Values above about 12 days are counted in the last
+ * bucket.
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 6;
+
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	private static final int EXACT_VALUES = 2 * SUB_BUCKETS;
+
+	private static final int MAX_MAGNITUDE = 40;
+
+	private static final int BUCKETS = EXACT_VALUES + (MAX_MAGNITUDE - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	private final LongAdder count = new LongAdder();
+
+	private final LongAdder sum = new LongAdder();
+
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records a value.
+	 * @param micros the latency in microseconds, negative values are recorded as 0
+	 */
+	public void record(long micros) {
+		long value = Math.max(0, micros);
+		counts.incrementAndGet(indexOf(value));
+		count.increment();
+		sum.add(value);
+		max.accumulateAndGet(value, Math::max);
+	}
+
+	/**
+	 * @return the number of recorded values
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * @return the largest recorded value in microseconds, 0 if no value was recorded
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * @return the mean of the recorded values in microseconds, 0 if no value was recorded
+	 */
+	public double getMean() {
+		long n = count.sum();
+		return n > 0 ? (double) sum.sum() / n : 0;
+	}
+
+	/**
+	 * Returns the value at a percentile, i.e. the upper bound of the bucket holding it,
+	 * limited to the largest recorded value.
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the value in microseconds, 0 if no value was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long n = count.sum();
+		if (n == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * n));
+		long seen = 0;
+		for (int index = 0; index < BUCKETS; index++) {
+			seen += counts.get(index);
+			if (seen >= rank)
+				return Math.min(upperBoundOf(index), max.get());
+		}
+		return max.get();
+	}
+
+	static int indexOf(long value) {
+		if (value < EXACT_VALUES)
+			return (int) value;
+		int magnitude = 63 - Long.numberOfLeadingZeros(value);
+		if (magnitude >= MAX_MAGNITUDE)
+			return BUCKETS - 1;
+		int shift = magnitude - SUB_BUCKET_BITS;
+		int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+		return EXACT_VALUES + (magnitude - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+	}
+
+	static long upperBoundOf(int index) {
+		if (index < EXACT_VALUES)
+			return index;
+		int magnitude = (index - EXACT_VALUES) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+		int subBucket = (index - EXACT_VALUES) % SUB_BUCKETS + SUB_BUCKETS;
+		int shift = magnitude - SUB_BUCKET_BITS;
+		return (((long) subBucket + 1) << shift) - 1;
+	}
+
+}
@@ -0,0 +1,320 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static org.opengis.cite.ogcapimaps10.OgcApiMaps10.DEFAULT_CRS_CODE;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.opengis.cite.ogcapimaps10.exception.CircuitOpenException;
+
+/**
+ * Sends GET requests to map resources concurrently and measures throughput, latency and
+ * error rate. Each request asks for a random part of the spatial extent of a map resource
+ * with a random width and height; a request fails if the response is not a 200 response
+ * with an image media type. The parameters of a request only depend on the seed and the
+ * number of the request, so runs are reproducible.
+ *
+ * <p>
+ * The requests are not retried and have a circuit breaker of their own, configured like
+ * the one of the transport, so the load does not open the circuit for the other tests. If
+ * it opens, the run is aborted. The time a request waits for the throttle of the
+ * transport is not part of its latency.
+ * </p>
+ */
+public class MapLoadGenerator {
+
+	/**
+	 * The minimum width and height of the requested maps in pixels.
+	 */
+	public static final int MIN_SIZE = 256;
+
+	/**
+	 * The maximum width and height of the requested maps in pixels.
+	 */
+	public static final int MAX_SIZE = 1024;
+
+	/**
+	 * The smallest requested part of the extent is 2^-ZOOM_LEVELS of its width.
+	 */
+	private static final int ZOOM_LEVELS = 6;
+
+	private static final int MAX_ERROR_MESSAGES = 5;
+
+	private final HttpTransport transport;
+
+	private final String authorization;
+
+	private final long seed;
+
+	/**
+	 * Constructs a load generator.
+	 * @param transport the transport to send the requests with, never <code>null</code>
+	 * @param authorization the value of the Authorization header, <code>null</code> if
+	 * none
+	 * @param seed the seed of the random map parameters
+	 */
+	public MapLoadGenerator(HttpTransport transport, String authorization, long seed) {
+		this.transport = transport;
+		this.authorization = authorization;
+		this.seed = seed;
+	}
+
+	/**
+	 * Sends the requests, the map resources are requested in turn. The run is aborted if
+	 * the circuit of the server opens.
+	 * @param targets the map resources, never <code>null</code> or empty
+	 * @param requests the number of requests
+	 * @param concurrency the maximum number of requests in flight
+	 * @return the result, never <code>null</code>
+	 */
+	public Result run(List<Target> targets, int requests, int concurrency) {
+		if (targets.isEmpty())
+			throw new IllegalArgumentException("No map resources to request");
+		Result result = new Result();
+		CircuitBreaker suiteBreaker = transport.getCircuitBreaker();
+		CircuitBreaker circuitBreaker = new CircuitBreaker(suiteBreaker.getFailureThreshold(),
+				suiteBreaker.getCoolDown());
+		List<Integer> numbers = IntStream.range(0, requests).boxed().collect(Collectors.toList());
+		long start = System.nanoTime();
+		try {
+			ConcurrentTasks.map(numbers, concurrency, number -> {
+				send(requestUrl(targets.get(number % targets.size()), number), circuitBreaker, result);
+				return null;
+			});
+		}
+		catch (CircuitOpenException e) {
+			result.abortReason = e.getMessage();
+		}
+		result.elapsedNanos = System.nanoTime() - start;
+		return result;
+	}
+
+	/**
+	 * Returns the URL of a request.
+	 * @param target the requested map resource, never <code>null</code>
+	 * @param number the number of the request
+	 * @return the URL with bbox, width and height parameters, never <code>null</code>
+	 */
+	String requestUrl(Target target, int number) {
+		SplittableRandom random = new SplittableRandom(seed + number);
+		int width = random.nextInt(MIN_SIZE, MAX_SIZE + 1);
+		int height = random.nextInt(MIN_SIZE, MAX_SIZE + 1);
+		BBox extent = target.getExtent();
+		double extentWidth = extent.getMaxX() - extent.getMinX();
+		double extentHeight = extent.getMaxY() - extent.getMinY();
+		// zoom levels are equally likely, keep the aspect ratio of the image
+		double bboxWidth = extentWidth * Math.pow(2, -ZOOM_LEVELS * random.nextDouble());
+		double bboxHeight = bboxWidth * height / width;
+		if (bboxHeight > extentHeight) {
+			bboxWidth = bboxWidth * extentHeight / bboxHeight;
+			bboxHeight = extentHeight;
+		}
+		double minX = extent.getMinX() + random.nextDouble() * (extentWidth - bboxWidth);
+		double minY = extent.getMinY() + random.nextDouble() * (extentHeight - bboxHeight);
+		BBox bbox = new BBox(minX, minY, minX + bboxWidth, minY + bboxHeight);
+
+		StringBuilder url = new StringBuilder(target.getUrl());
+		url.append(target.getUrl().indexOf('?') < 0 ? '?' : '&');
+		url.append("bbox=").append(bbox.asQueryParameter());
+		if (extent.getCrs() != null && !DEFAULT_CRS_CODE.equals(extent.getCrs().getCode()))
+			url.append("&bbox-crs=").append(URLEncoder.encode(extent.getCrs().getCode(), StandardCharsets.UTF_8));
+		url.append("&width=").append(width).append("&height=").append(height);
+		return url.toString();
+	}
+
+	private void send(String url, CircuitBreaker circuitBreaker, Result result) {
+		RetryExecutor.takeWaitNanos();
+		long start = System.nanoTime();
+		String error = null;
+		HttpURLConnection connection = null;
+		try {
+			// not retried, every failure counts
+			connection = transport.openConnection(new URL(url), RetryPolicy.NONE, circuitBreaker);
+			connection.setRequestMethod("GET");
+			connection.setRequestProperty("Accept", "image/*");
+			if (authorization != null)
+				connection.setRequestProperty("Authorization", authorization);
+			int status = connection.getResponseCode();
+			String contentType = connection.getContentType();
+			if (status != 200)
+				error = "HTTP " + status + " for " + url;
+			else if (contentType == null || !contentType.startsWith("image/"))
+				error = "Content-Type " + contentType + " for " + url;
+			drain(status < 400 ? connection.getInputStream() : connection.getErrorStream());
+		}
+		catch (CircuitOpenException e) {
+			// nothing was sent, the run is aborted
+			throw e;
+		}
+		catch (IOException | RuntimeException e) {
+			error = e.getClass().getSimpleName() + " for " + url + ": " + e.getMessage();
+		}
+		finally {
+			if (connection != null)
+				connection.disconnect();
+		}
+		// the time waited for the throttle is not latency of the server
+		result.record(System.nanoTime() - start - RetryExecutor.takeWaitNanos(), error);
+	}
+
+	private static void drain(InputStream in) throws IOException {
+		if (in == null)
+			return;
+		try (InputStream body = in) {
+			byte[] buffer = new byte[8192];
+			while (body.read(buffer) >= 0) {
+				// the map is only requested to measure the time to receive it
+			}
+		}
+	}
+
+	/**
+	 * A map resource to request.
+	 */
+	public static class Target {
+
+		private final String url;
+
+		private final BBox extent;
+
+		/**
+		 * @param url the URL of the map resource, never <code>null</code>
+		 * @param extent the spatial extent the bbox is chosen from, never
+		 * <code>null</code>
+		 */
+		public Target(String url, BBox extent) {
+			this.url = url;
+			this.extent = extent;
+		}
+
+		/**
+		 * @return the URL of the map resource, never <code>null</code>
+		 */
+		public String getUrl() {
+			return url;
+		}
+
+		/**
+		 * @return the spatial extent the bbox is chosen from, never <code>null</code>
+		 */
+		public BBox getExtent() {
+			return extent;
+		}
+
+	}
+
+	/**
+	 * The result of a load test.
+	 */
+	public static class Result {
+
+		private final LatencyHistogram latency = new LatencyHistogram();
+
+		private final LongAdder errors = new LongAdder();
+
+		private final List<String> errorMessages = Collections.synchronizedList(new ArrayList<>());
+
+		private long elapsedNanos;
+
+		private String abortReason;
+
+		private void record(long nanos, String error) {
+			latency.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+			if (error != null) {
+				errors.increment();
+				synchronized (errorMessages) {
+					if (errorMessages.size() < MAX_ERROR_MESSAGES)
+						errorMessages.add(error);
+				}
+			}
+		}
+
+		/**
+		 * @return the number of requests sent
+		 */
+		public long getRequests() {
+			return latency.getCount();
+		}
+
+		/**
+		 * @return the number of failed requests
+		 */
+		public long getErrors() {
+			return errors.sum();
+		}
+
+		/**
+		 * @return the percentage of failed requests, 0 if no request was sent
+		 */
+		public double getErrorRate() {
+			long requests = getRequests();
+			return requests > 0 ? 100.0 * getErrors() / requests : 0;
+		}
+
+		/**
+		 * @return the first errors, at most five, never <code>null</code>
+		 */
+		public List<String> getErrorMessages() {
+			synchronized (errorMessages) {
+				return new ArrayList<>(errorMessages);
+			}
+		}
+
+		/**
+		 * @return the latencies of all requests in microseconds, never <code>null</code>
+		 */
+		public LatencyHistogram getLatency() {
+			return latency;
+		}
+
+		/**
+		 * @param percentile the percentile, between 0 and 100
+		 * @return the latency at the percentile in milliseconds
+		 */
+		public double getLatencyMillis(double percentile) {
+			return latency.getValueAtPercentile(percentile) / 1000.0;
+		}
+
+		/**
+		 * @return <code>true</code> if the run was aborted before all requests were sent
+		 */
+		public boolean isAborted() {
+			return abortReason != null;
+		}
+
+		/**
+		 * @return why the run was aborted, <code>null</code> if it was not
+		 */
+		public String getAbortReason() {
+			return abortReason;
+		}
+
+		/**
+		 * @return the wall time of the load test in nanoseconds
+		 */
+		public long getElapsedNanos() {
+			return elapsedNanos;
+		}
+
+		/**
+		 * @return the number of requests per second
+		 */
+		public double getThroughput() {
+			return elapsedNanos > 0 ? getRequests() * 1e9 / elapsedNanos : 0;
+		}
+
+	}
+
+}
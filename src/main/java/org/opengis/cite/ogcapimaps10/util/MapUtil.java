@@ -9,11 +9,11 @@ import java.util.Map;
 
 public class MapUtil {
 
-	public static List<URL> fetchMapUrls(URI rootUri) throws Exception {
+	public static List<URL> fetchMapUrls(URI rootUri, HttpTransport transport) throws Exception {
 		ObjectMapper objectMapper = new ObjectMapper();
 		String apiUrl = rootUri.toString() + "/collections?f=json";
 
-		Map<String, Object> data = objectMapper.readValue(new URL(apiUrl), Map.class);
+		Map<String, Object> data = objectMapper.readValue(transport.openConnection(apiUrl).getInputStream(), Map.class);
 		List<Map<String, Object>> collectionsList = (List<Map<String, Object>>) data.get("collections");
 		List<URL> urls = new ArrayList<>();
 
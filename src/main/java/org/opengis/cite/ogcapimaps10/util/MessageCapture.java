@@ -0,0 +1,592 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static java.util.logging.Level.WARNING;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * Captures the requests and responses of a test for the failure report with a bounded
+ * amount of memory.
+ *
+ * <p>
+ * The request line, status line and headers are always kept. Of the message bodies, at
+ * most {@link #getBudget()} bytes of text per test are kept in memory; binary bodies such
+ * as map images are summarised as hex of their first bytes. The remaining bytes are
+ * appended to a temporary file, up to {@link #MAX_SPILL_BYTES} per test. The report text
+ * is only built when it is requested, i.e. when a test failed.
+ * </p>
+ *
+ * <p>
+ * The budget goes to the newest messages first, as the last exchanges usually show why a
+ * test failed: a message that needs more of the budget than is left takes it from the
+ * oldest messages, whose text is moved to the temporary file. The last response always
+ * keeps up to a quarter of the budget, even if it is followed by further requests.
+ * </p>
+ *
+ * <p>
+ * In {@link Mode#LAZY} mode (the default) an exchange only records references to the
+ * method, URI, headers and body already held by RestAssured in a ring buffer of the last
+ * {@link #RING_SIZE} exchanges; nothing is copied, formatted or written to disk unless
+ * the report is requested. The bodies referenced by the ring are limited to
+ * {@link #MAX_PENDING_BYTES}; beyond that the oldest messages are reduced to the budget
+ * first, so large bodies such as maps are not kept in memory. In {@link Mode#EAGER} mode
+ * each message is reduced to the budget when it is captured, so no body is referenced
+ * after the exchange.
+ * </p>
+ *
+ * <p>
+ * The temporary file is deleted by {@link #discard()} or on JVM exit unless the capture
+ * was {@link #retain(Path) retained} in a directory.
+ * </p>
+ *
+ * <p>
+ * Attempts of a request retried by the {@link HttpTransport} are captured as responses
+ * with their status line (or exception) and the delay before the next attempt; those of
+ * plain requests in the capture {@link #bind(MessageCapture) bound} to the thread.
+ * </p>
+ */
+public class MessageCapture implements Filter {
+
+	/**
+	 * How messages are captured.
+	 */
+	public enum Mode {
+
+		/**
+		 * Reduce each message to the budget when it is captured.
+		 */
+		EAGER,
+
+		/**
+		 * Keep references to the last exchanges and reduce them only when the report is
+		 * requested.
+		 */
+		LAZY
+
+	}
+
+	/**
+	 * The default number of body bytes kept in memory per test.
+	 */
+	public static final int DEFAULT_BUDGET = 64 * 1024;
+
+	/**
+	 * The number of exchanges (request and response) kept in {@link Mode#LAZY} mode.
+	 */
+	public static final int RING_SIZE = 16;
+
+	/**
+	 * The maximum number of body bytes referenced by the ring buffer in {@link Mode#LAZY}
+	 * mode.
+	 */
+	static final long MAX_PENDING_BYTES = 8L * 1024 * 1024;
+
+	/**
+	 * The maximum number of body bytes written to the temporary file per test.
+	 */
+	static final long MAX_SPILL_BYTES = 64L * 1024 * 1024;
+
+	private static final int HEX_SUMMARY_BYTES = 32;
+
+	private static final ThreadLocal<MessageCapture> BOUND = new ThreadLocal<>();
+
+	private final int budget;
+
+	private final Mode mode;
+
+	private final Deque<Pending> pending = new ArrayDeque<>();
+
+	private long pendingBytes;
+
+	private final List<Message> requests = new ArrayList<>();
+
+	private final List<Message> responses = new ArrayList<>();
+
+	private final Deque<Message> inline = new ArrayDeque<>();
+
+	private Message lastResponse;
+
+	private int evictedRequests;
+
+	private int evictedResponses;
+
+	private int remaining;
+
+	private Path spillFile;
+
+	private OutputStream spill;
+
+	private long spilledBytes;
+
+	private boolean retained;
+
+	private boolean spillDeleted;
+
+	/**
+	 * Creates a lazy capture with {@link #DEFAULT_BUDGET}.
+	 */
+	public MessageCapture() {
+		this(DEFAULT_BUDGET, Mode.LAZY);
+	}
+
+	/**
+	 * @param budget the number of body bytes kept in memory, 0 to keep no body text
+	 * @param mode how messages are captured, never <code>null</code>
+	 */
+	public MessageCapture(int budget, Mode mode) {
+		this.budget = Math.max(0, budget);
+		this.remaining = this.budget;
+		this.mode = mode;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+			FilterContext ctx) {
+		String method = requestSpec.getMethod();
+		String uri = requestSpec.getURI();
+		Headers requestHeaders = requestSpec.getHeaders();
+		capture(true, () -> method + " " + uri + "\n" + requestHeaders, requestSpec.getBody(),
+				requestSpec.getContentType());
+		Response response;
+		try {
+			response = ctx.next(requestSpec, responseSpec);
+		}
+		finally {
+			// attempts retried by the transport, before the final response
+			for (String attempt : RetryExecutor.takeDiscardedAttempts())
+				capture(false, () -> attempt, null, null);
+		}
+		String statusLine = response.getStatusLine();
+		Headers responseHeaders = response.getHeaders();
+		capture(false, () -> statusLine + "\n" + responseHeaders, response.asByteArray(), response.getContentType());
+		return response;
+	}
+
+	/**
+	 * Captures a request.
+	 * @param head the request line and headers, never <code>null</code>
+	 * @param body the body, may be <code>null</code>
+	 * @param contentType the content type of the body, may be <code>null</code>
+	 */
+	public void captureRequest(String head, byte[] body, String contentType) {
+		capture(true, () -> head, body, contentType);
+	}
+
+	/**
+	 * Captures a response.
+	 * @param head the status line and headers, never <code>null</code>
+	 * @param body the body, may be <code>null</code>
+	 * @param contentType the content type of the body, may be <code>null</code>
+	 */
+	public void captureResponse(String head, byte[] body, String contentType) {
+		capture(false, () -> head, body, contentType);
+	}
+
+	/**
+	 * Binds a capture to the current thread, e.g. the capture of the test a thread is
+	 * working for, so the retried attempts of plain requests sent via
+	 * {@link HttpTransport#openConnection(String)} are part of its report.
+	 * @param capture the capture, <code>null</code> to unbind
+	 */
+	public static void bind(MessageCapture capture) {
+		if (capture == null)
+			BOUND.remove();
+		else
+			BOUND.set(capture);
+	}
+
+	/**
+	 * @return the capture bound to the current thread, <code>null</code> if none
+	 */
+	public static MessageCapture current() {
+		return BOUND.get();
+	}
+
+	/**
+	 * Captures the attempts discarded by the last request of the current thread in the
+	 * capture bound to the thread, if any.
+	 */
+	static void captureDiscardedAttempts() {
+		List<String> attempts = RetryExecutor.takeDiscardedAttempts();
+		MessageCapture capture = BOUND.get();
+		if (capture == null)
+			return;
+		for (String attempt : attempts)
+			capture.capture(false, () -> attempt, null, null);
+	}
+
+	/**
+	 * @return the capture mode, never <code>null</code>
+	 */
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * @return the number of body bytes kept in memory
+	 */
+	public int getBudget() {
+		return budget;
+	}
+
+	/**
+	 * @return the captured requests, separated by blank lines, never <code>null</code>
+	 */
+	public synchronized String getRequests() {
+		materialize();
+		return render(requests, evictedRequests);
+	}
+
+	/**
+	 * @return the captured responses, separated by blank lines, never <code>null</code>
+	 */
+	public synchronized String getResponses() {
+		materialize();
+		return render(responses, evictedResponses);
+	}
+
+	/**
+	 * @return the temporary file holding the bytes exceeding the budget,
+	 * <code>null</code> if nothing was written
+	 */
+	public synchronized Path getSpillFile() {
+		materialize();
+		return spillFile;
+	}
+
+	/**
+	 * Keeps the bytes exceeding the budget for the report of a failed test by moving the
+	 * temporary file to the given directory, e.g. the output directory of the suite,
+	 * where it is neither deleted by {@link #discard()} nor on JVM exit. Without a
+	 * directory the file is deleted and the report only states the number of bytes not
+	 * kept.
+	 * @param directory the directory to keep the file in, <code>null</code> to keep
+	 * nothing
+	 */
+	public synchronized void retain(Path directory) {
+		if (retained)
+			return;
+		materialize();
+		retained = true;
+		closeSpill();
+		if (spillFile == null)
+			return;
+		if (directory == null) {
+			deleteSpill();
+			return;
+		}
+		try {
+			Files.createDirectories(directory);
+			Path retainedFile = Files.createTempFile(directory, "failed-", ".capture");
+			spillFile = Files.move(spillFile, retainedFile, StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (IOException e) {
+			TestSuiteLogger.log(WARNING, "Could not retain captured messages in " + directory, e);
+			deleteSpill();
+		}
+	}
+
+	/**
+	 * Releases the temporary file, deleting it unless the capture was retained, and the
+	 * references to messages not reduced yet.
+	 */
+	public synchronized void discard() {
+		pending.clear();
+		pendingBytes = 0;
+		closeSpill();
+		if (!retained)
+			deleteSpill();
+	}
+
+	private synchronized void capture(boolean request, Supplier<String> head, Object body, String contentType) {
+		Pending message = new Pending(request, head, body, contentType);
+		if (mode == Mode.EAGER) {
+			reduce(message);
+			return;
+		}
+		if (pending.size() == 2 * RING_SIZE) {
+			Pending evicted = pending.removeFirst();
+			pendingBytes -= evicted.bodyLength;
+			if (evicted.request)
+				evictedRequests++;
+			else
+				evictedResponses++;
+		}
+		pending.addLast(message);
+		pendingBytes += message.bodyLength;
+		while (pendingBytes > MAX_PENDING_BYTES)
+			reduceOldest();
+	}
+
+	private void materialize() {
+		while (!pending.isEmpty())
+			reduceOldest();
+	}
+
+	private void reduceOldest() {
+		Pending oldest = pending.removeFirst();
+		pendingBytes -= oldest.bodyLength;
+		reduce(oldest);
+	}
+
+	private void reduce(Pending pendingMessage) {
+		Message message = new Message(pendingMessage.head.get());
+		(pendingMessage.request ? requests : responses).add(message);
+		// a request must not take the slice of the last response
+		Message reserved = pendingMessage.request ? lastResponse : null;
+		if (!pendingMessage.request)
+			lastResponse = message;
+		byte[] body = pendingMessage.body instanceof byte[] ? (byte[]) pendingMessage.body : pendingMessage.body != null
+				? String.valueOf(pendingMessage.body).getBytes(StandardCharsets.UTF_8) : null;
+		if (body == null || body.length == 0)
+			return;
+		message.bodyLength = body.length;
+		message.contentType = pendingMessage.contentType;
+		int kept = 0;
+		if (isText(pendingMessage.contentType, body)) {
+			kept = Math.min(budget - reservedSlice(reserved), body.length);
+			reclaim(kept - remaining, reserved);
+			kept = Math.min(kept, remaining);
+			message.text = Arrays.copyOf(body, kept);
+			remaining -= kept;
+			if (kept > 0)
+				inline.addLast(message);
+		}
+		else {
+			message.binary = true;
+			message.summary = hex(body, Math.min(HEX_SUMMARY_BYTES, body.length));
+		}
+		spill(message, body, kept, body.length);
+	}
+
+	private int reservedSlice(Message reserved) {
+		return reserved != null ? Math.min(reserved.text.length, budget / 4) : 0;
+	}
+
+	/**
+	 * Moves the text of the oldest messages to the temporary file until the given number
+	 * of bytes of the budget is free.
+	 */
+	private void reclaim(int needed, Message reserved) {
+		Iterator<Message> oldest = inline.iterator();
+		while (needed > 0 && oldest.hasNext()) {
+			Message message = oldest.next();
+			int floor = message == reserved ? reservedSlice(reserved) : 0;
+			int length = message.text.length;
+			int freed = Math.min(needed, length - floor);
+			if (freed <= 0)
+				continue;
+			byte[] text = message.text;
+			message.text = Arrays.copyOf(text, length - freed);
+			// the moved text precedes the bytes spilled so far
+			int segments = message.spilled.size();
+			spill(message, text, length - freed, length);
+			if (message.spilled.size() > segments)
+				message.spilled.add(0, message.spilled.remove(segments));
+			remaining += freed;
+			needed -= freed;
+			if (message.text.length == 0)
+				oldest.remove();
+		}
+	}
+
+	private void spill(Message message, byte[] body, int from, int to) {
+		long length = to - from;
+		if (length <= 0)
+			return;
+		int spilled = spillDeleted ? 0 : (int) Math.min(length, MAX_SPILL_BYTES - spilledBytes);
+		if (spilled > 0) {
+			try {
+				if (spill == null)
+					openSpill();
+				spill.write(body, from, spilled);
+				message.spilled.add(new long[] { spilledBytes, spilled });
+				spilledBytes += spilled;
+			}
+			catch (IOException e) {
+				TestSuiteLogger.log(WARNING, "Could not write captured message to " + spillFile, e);
+				spilled = 0;
+			}
+		}
+		message.dropped += length - spilled;
+	}
+
+	private void openSpill() throws IOException {
+		if (spillFile == null) {
+			spillFile = Files.createTempFile("ets-ogcapi-maps10-", ".capture");
+			spillFile.toFile().deleteOnExit();
+		}
+		spill = Files.newOutputStream(spillFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+	}
+
+	private void deleteSpill() {
+		if (spillFile == null)
+			return;
+		try {
+			Files.deleteIfExists(spillFile);
+		}
+		catch (IOException e) {
+			TestSuiteLogger.log(WARNING, "Could not delete " + spillFile, e);
+		}
+		spillDeleted = true;
+	}
+
+	private void closeSpill() {
+		if (spill == null)
+			return;
+		try {
+			spill.close();
+		}
+		catch (IOException e) {
+			TestSuiteLogger.log(WARNING, "Could not close " + spillFile, e);
+		}
+		spill = null;
+	}
+
+	private String render(List<Message> messages, int evicted) {
+		if (spill != null) {
+			try {
+				spill.flush();
+			}
+			catch (IOException e) {
+				TestSuiteLogger.log(WARNING, "Could not flush " + spillFile, e);
+			}
+		}
+		StringBuilder rendered = new StringBuilder();
+		if (evicted > 0)
+			rendered.append(String.format("[%d earlier messages not captured]", evicted));
+		for (Message message : messages) {
+			if (rendered.length() > 0)
+				rendered.append("\n\n");
+			rendered.append(message.head);
+			if (message.bodyLength == 0)
+				continue;
+			rendered.append("\n\n");
+			if (message.binary)
+				rendered.append("[binary body: ")
+					.append(message.bodyLength)
+					.append(" bytes, ")
+					.append(message.contentType)
+					.append("] ")
+					.append(message.summary);
+			else
+				rendered.append(new String(message.text, StandardCharsets.UTF_8));
+			for (long[] segment : message.spilled) {
+				if (spillDeleted)
+					rendered
+						.append(String.format("%n[%d %sbytes not kept]", segment[1], message.binary ? "" : "more "));
+				else
+					rendered.append(String.format("%n[%d %sbytes in %s at offset %d]", segment[1],
+							message.binary ? "" : "more ", spillFile, segment[0]));
+			}
+			if (message.dropped > 0)
+				rendered.append(String.format("%n[%d bytes not captured]", message.dropped));
+		}
+		return rendered.toString();
+	}
+
+	private static boolean isText(String contentType, byte[] body) {
+		if (contentType != null && !contentType.isEmpty()) {
+			String type = contentType.toLowerCase(Locale.ROOT);
+			return type.startsWith("text/") || type.contains("json") || type.contains("xml") || type.contains("yaml")
+					|| type.contains("javascript") || type.contains("x-www-form-urlencoded");
+		}
+		for (int i = 0; i < Math.min(HEX_SUMMARY_BYTES, body.length); i++) {
+			if (body[i] >= 0 && body[i] < 0x09)
+				return false;
+		}
+		return true;
+	}
+
+	private static String hex(byte[] bytes, int length) {
+		StringBuilder hex = new StringBuilder(length * 3);
+		for (int i = 0; i < length; i++) {
+			if (i > 0)
+				hex.append(' ');
+			hex.append(String.format("%02X", bytes[i] & 0xFF));
+		}
+		if (length < bytes.length)
+			hex.append(" ...");
+		return hex.toString();
+	}
+
+	/**
+	 * A message as captured, referencing the objects of the exchange.
+	 */
+	private static final class Pending {
+
+		private final boolean request;
+
+		private final Supplier<String> head;
+
+		private final Object body;
+
+		private final String contentType;
+
+		private final long bodyLength;
+
+		private Pending(boolean request, Supplier<String> head, Object body, String contentType) {
+			this.request = request;
+			this.head = head;
+			this.body = body;
+			this.contentType = contentType;
+			this.bodyLength = body instanceof byte[] ? ((byte[]) body).length
+					: body instanceof CharSequence ? ((CharSequence) body).length() : 0;
+		}
+
+	}
+
+	/**
+	 * A message reduced to the budget.
+	 */
+	private static final class Message {
+
+		private final String head;
+
+		private byte[] text = new byte[0];
+
+		private String summary;
+
+		private String contentType;
+
+		private boolean binary;
+
+		private int bodyLength;
+
+		/**
+		 * The offset and length of the parts of the body in the temporary file, in the
+		 * order of the body.
+		 */
+		private final List<long[]> spilled = new ArrayList<>(1);
+
+		private long dropped;
+
+		private Message(String head) {
+			this.head = head;
+		}
+
+	}
+
+}
@@ -0,0 +1,231 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maps concrete paths to values registered for path templates, e.g.
+ * <code>/collections/a/map</code> to the value of
+ * <code>/collections/{collectionId}/map</code>. The templates are split into segments and
+ * stored in a trie, so a lookup takes time proportional to the number of segments of the
+ * path instead of the number of templates.
+ *
+ * <p>
+ * A segment consisting of a single template variable matches any non-empty segment, a
+ * segment mixing literal text and variables (e.g. <code>{tileRow}.png</code>) is matched
+ * with a pattern compiled once when the template is added, where each variable matches
+ * one or more characters other than '/'. Other segments must match literally.
+ * </p>
+ *
+ * <p>
+ * Templates differing only in the names of their variables (e.g.
+ * <code>/collections/{collectionId}</code> and <code>/collections/{id}</code>) match the
+ * same paths. OpenAPI forbids them, but both are kept, so no value is lost.
+ * </p>
+ *
+ * <p>
+ * The trie is not synchronized. It may be read concurrently once all templates have been
+ * added.
+ * </p>
+ *
+ * @param <V> the type of the values
+ */
+public class PathTemplateTrie<V> {
+
+	private static final Pattern TEMPLATE_VARIABLE = Pattern.compile("\\{[^}/]+\\}");
+
+	private final Node<V> root = new Node<>();
+
+	private int size;
+
+	/**
+	 * Registers a value for a path template, replacing the value registered before for
+	 * the same template. A template equivalent to one registered before, differing only
+	 * in the names of the variables, is kept in addition to it and logged.
+	 * @param template the path template, e.g. <code>/collections/{collectionId}</code>,
+	 * never <code>null</code>
+	 * @param value the value, never <code>null</code>
+	 */
+	public void put(String template, V value) {
+		Node<V> node = root;
+		for (String segment : split(template)) {
+			Matcher variable = TEMPLATE_VARIABLE.matcher(segment);
+			if (variable.matches()) {
+				if (node.wildcard == null)
+					node.wildcard = new Node<>();
+				node = node.wildcard;
+			}
+			else if (variable.find()) {
+				node = node.patterns.computeIfAbsent(segment, key -> new PatternNode<>(compileSegment(key))).node;
+			}
+			else {
+				node = node.literals.computeIfAbsent(segment, key -> new Node<>());
+			}
+		}
+		for (Entry<V> entry : node.entries) {
+			if (entry.template.equals(template)) {
+				entry.value = value;
+				return;
+			}
+		}
+		if (!node.entries.isEmpty())
+			TestSuiteLogger.log(Level.WARNING,
+					String.format("Path template %s is equivalent to %s, both match the same paths", template,
+							node.entries.get(0).template));
+		node.entries.add(new Entry<>(template, value, size++));
+	}
+
+	/**
+	 * Returns the value registered for a path template.
+	 * @param template the path template as registered, never <code>null</code>
+	 * @return the value, <code>null</code> if no value is registered for the template
+	 */
+	public V get(String template) {
+		Node<V> node = root;
+		for (String segment : split(template)) {
+			Matcher variable = TEMPLATE_VARIABLE.matcher(segment);
+			if (variable.matches())
+				node = node.wildcard;
+			else if (variable.find())
+				node = node.patterns.containsKey(segment) ? node.patterns.get(segment).node : null;
+			else
+				node = node.literals.get(segment);
+			if (node == null)
+				return null;
+		}
+		for (Entry<V> entry : node.entries) {
+			if (entry.template.equals(template))
+				return entry.value;
+		}
+		return null;
+	}
+
+	/**
+	 * Finds the value of the most specific template matching a concrete path. Literal
+	 * segments take precedence over mixed segments, which take precedence over template
+	 * variables, from the first segment to the last. Of equivalent templates the one
+	 * added first is used.
+	 * @param path the concrete path, never <code>null</code>
+	 * @return the value, <code>null</code> if no template matches
+	 */
+	public V find(String path) {
+		Node<V> node = find(root, split(path), 0);
+		return node != null ? node.entries.get(0).value : null;
+	}
+
+	/**
+	 * Finds the values of all templates matching a concrete path.
+	 * @param path the concrete path, never <code>null</code>
+	 * @return the values in the order the templates were added, may be empty but never
+	 * <code>null</code>
+	 */
+	public List<V> findAll(String path) {
+		Map<Integer, V> matches = new TreeMap<>();
+		findAll(root, split(path), 0, matches);
+		return new ArrayList<>(matches.values());
+	}
+
+	private static <V> Node<V> find(Node<V> node, String[] segments, int index) {
+		if (index == segments.length)
+			return !node.entries.isEmpty() ? node : null;
+		String segment = segments[index];
+		Node<V> literal = node.literals.get(segment);
+		if (literal != null) {
+			Node<V> match = find(literal, segments, index + 1);
+			if (match != null)
+				return match;
+		}
+		for (PatternNode<V> pattern : node.patterns.values()) {
+			if (pattern.pattern.matcher(segment).matches()) {
+				Node<V> match = find(pattern.node, segments, index + 1);
+				if (match != null)
+					return match;
+			}
+		}
+		if (node.wildcard != null && !segment.isEmpty())
+			return find(node.wildcard, segments, index + 1);
+		return null;
+	}
+
+	private static <V> void findAll(Node<V> node, String[] segments, int index, Map<Integer, V> matches) {
+		if (index == segments.length) {
+			for (Entry<V> entry : node.entries)
+				matches.put(entry.order, entry.value);
+			return;
+		}
+		String segment = segments[index];
+		Node<V> literal = node.literals.get(segment);
+		if (literal != null)
+			findAll(literal, segments, index + 1, matches);
+		for (PatternNode<V> pattern : node.patterns.values()) {
+			if (pattern.pattern.matcher(segment).matches())
+				findAll(pattern.node, segments, index + 1, matches);
+		}
+		if (node.wildcard != null && !segment.isEmpty())
+			findAll(node.wildcard, segments, index + 1, matches);
+	}
+
+	private static Pattern compileSegment(String segment) {
+		StringBuilder regex = new StringBuilder();
+		Matcher variable = TEMPLATE_VARIABLE.matcher(segment);
+		int start = 0;
+		while (variable.find()) {
+			regex.append(Pattern.quote(segment.substring(start, variable.start()))).append("[^/]+");
+			start = variable.end();
+		}
+		regex.append(Pattern.quote(segment.substring(start)));
+		return Pattern.compile(regex.toString());
+	}
+
+	private static String[] split(String path) {
+		return path.split("/", -1);
+	}
+
+	private static final class Node<V> {
+
+		private final Map<String, Node<V>> literals = new HashMap<>();
+
+		private final Map<String, PatternNode<V>> patterns = new LinkedHashMap<>();
+
+		private Node<V> wildcard;
+
+		private final List<Entry<V>> entries = new ArrayList<>(1);
+
+	}
+
+	private static final class Entry<V> {
+
+		private final String template;
+
+		private V value;
+
+		private final int order;
+
+		private Entry(String template, V value, int order) {
+			this.template = template;
+			this.value = value;
+			this.order = order;
+		}
+
+	}
+
+	private static final class PatternNode<V> {
+
+		private final Pattern pattern;
+
+		private final Node<V> node = new Node<>();
+
+		private PatternNode(Pattern pattern) {
+			this.pattern = pattern;
+		}
+
+	}
+
+}
@@ -0,0 +1,192 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the time a test method or configuration method spends in the phases
+ * {@link Phase#IO I/O} and {@link Phase#IMAGE_DECODING image decoding}. The times are
+ * bound to the current thread by {@link #start()}; code running in a phase wraps itself
+ * in <code>try (PhaseTimes.Span ignored = PhaseTimes.begin(Phase.IO)) { ... }</code>,
+ * which costs nothing if no times are bound.
+ *
+ * <p>
+ * Phases may be nested, the times are exclusive: while an inner phase is running, the
+ * outer phase is paused, e.g. the I/O of a request issued while decoding an image is not
+ * counted as image decoding. Worker threads may add to the times of a test with
+ * {@link #bind(PhaseTimes)}; the times are then summed over all threads.
+ * </p>
+ */
+public class PhaseTimes {
+
+	/**
+	 * A phase of a test.
+	 */
+	public enum Phase {
+
+		/**
+		 * Sending requests and receiving responses.
+		 */
+		IO,
+
+		/**
+		 * Decoding map images.
+		 */
+		IMAGE_DECODING
+
+	}
+
+	/**
+	 * Ends a phase.
+	 */
+	public interface Span extends AutoCloseable {
+
+		/**
+		 * Ends the phase.
+		 */
+		@Override
+		void close();
+
+	}
+
+	private static final Span NO_SPAN = () -> {
+	};
+
+	private static final ThreadLocal<ThreadState> STATE = new ThreadLocal<>();
+
+	private final LongAdder[] nanos = new LongAdder[Phase.values().length];
+
+	private final LongAdder excludedNanos = new LongAdder();
+
+	/**
+	 * Creates empty times, not bound to any thread.
+	 */
+	public PhaseTimes() {
+		for (int i = 0; i < nanos.length; i++)
+			nanos[i] = new LongAdder();
+	}
+
+	/**
+	 * Binds new times to the current thread.
+	 * @return the new times, never <code>null</code>
+	 */
+	public static PhaseTimes start() {
+		PhaseTimes times = new PhaseTimes();
+		bind(times);
+		return times;
+	}
+
+	/**
+	 * Unbinds the times from the current thread.
+	 * @return the times bound to the current thread, <code>null</code> if none
+	 */
+	public static PhaseTimes stop() {
+		ThreadState state = STATE.get();
+		STATE.remove();
+		return state != null ? state.times : null;
+	}
+
+	/**
+	 * @return the times bound to the current thread, <code>null</code> if none
+	 */
+	public static PhaseTimes current() {
+		ThreadState state = STATE.get();
+		return state != null ? state.times : null;
+	}
+
+	/**
+	 * Binds times to the current thread, e.g. the times of the test a worker thread is
+	 * working for.
+	 * @param times the times, <code>null</code> to unbind
+	 */
+	public static void bind(PhaseTimes times) {
+		if (times == null)
+			STATE.remove();
+		else
+			STATE.set(new ThreadState(times));
+	}
+
+	/**
+	 * Begins a phase on the current thread.
+	 * @param phase the phase, never <code>null</code>
+	 * @return the span to close when the phase ends, never <code>null</code>
+	 */
+	public static Span begin(Phase phase) {
+		ThreadState state = STATE.get();
+		if (state == null)
+			return NO_SPAN;
+		state.begin(phase);
+		return state;
+	}
+
+	/**
+	 * @param phase the phase, never <code>null</code>
+	 * @return the time spent in the phase in nanoseconds
+	 */
+	public long getNanos(Phase phase) {
+		return nanos[phase.ordinal()].sum();
+	}
+
+	/**
+	 * @return the time spent in all phases in nanoseconds
+	 */
+	public long getTotalNanos() {
+		long total = 0;
+		for (LongAdder phaseNanos : nanos)
+			total += phaseNanos.sum();
+		return total;
+	}
+
+	/**
+	 * Excludes time from the method these times belong to, e.g. a discovery run by a
+	 * fixture method which is reported on its own.
+	 * @param nanos the time in nanoseconds
+	 */
+	public void exclude(long nanos) {
+		excludedNanos.add(nanos);
+	}
+
+	/**
+	 * @return the time {@link #exclude(long) excluded} from the method in nanoseconds
+	 */
+	public long getExcludedNanos() {
+		return excludedNanos.sum();
+	}
+
+	private void add(Phase phase, long phaseNanos) {
+		nanos[phase.ordinal()].add(phaseNanos);
+	}
+
+	private static final class ThreadState implements Span {
+
+		private final PhaseTimes times;
+
+		private final Deque<Phase> active = new ArrayDeque<>();
+
+		private long since;
+
+		private ThreadState(PhaseTimes times) {
+			this.times = times;
+		}
+
+		private void begin(Phase phase) {
+			long now = System.nanoTime();
+			if (!active.isEmpty())
+				times.add(active.peek(), now - since);
+			active.push(phase);
+			since = now;
+		}
+
+		@Override
+		public void close() {
+			if (active.isEmpty())
+				return;
+			long now = System.nanoTime();
+			times.add(active.pop(), now - since);
+			since = now;
+		}
+
+	}
+
+}
@@ -0,0 +1,313 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.opengis.cite.ogcapimaps10.exception.CircuitOpenException;
+
+/**
+ * A {@link HttpURLConnection} executed on the pooled client of a {@link HttpTransport}.
+ * The response entity is read completely when the request is sent, so the underlying
+ * connection is returned to the pool immediately, even if the caller never reads or
+ * closes the response stream.
+ *
+ * <p>
+ * Mirrors the behaviour of the JDK implementation where the test classes rely on it: a
+ * default Accept header is sent, {@link #getInputStream()} fails for status codes &gt;=
+ * 400 and header lookups are case-insensitive.
+ * </p>
+ *
+ * <p>
+ * Unless the caller sets an Accept-Encoding header, the encodings supported by
+ * {@link ContentEncoding} are requested and the body is decoded while it is read. The
+ * Content-Encoding and Content-Length headers of a decoded response are removed, as they
+ * do not apply to the body returned.
+ * </p>
+ *
+ * <p>
+ * Idempotent requests failing transiently are retried according to the
+ * {@link RetryPolicy} the connection was opened with.
+ * </p>
+ */
+public class PooledHttpURLConnection extends HttpURLConnection {
+
+	private static final String DEFAULT_ACCEPT = "text/html, image/gif, image/jpeg, *; q=.2, */*; q=.2";
+
+	private static final List<String> RESTRICTED_HEADERS = List.of("host", "content-length", "connection",
+			"transfer-encoding");
+
+	private static final List<String> ENCODING_HEADERS = List.of("content-encoding", "content-length");
+
+	private final CloseableHttpClient httpClient;
+
+	private final RequestConfig defaultRequestConfig;
+
+	private final HttpMetrics metrics;
+
+	private final RetryExecutor retryExecutor;
+
+	private final RetryPolicy retryPolicy;
+
+	private ByteArrayOutputStream requestBody;
+
+	private Header[] responseHeaders = new Header[0];
+
+	private String statusLine;
+
+	private byte[] responseBody;
+
+	private boolean decodeResponse;
+
+	PooledHttpURLConnection(URL url, CloseableHttpClient httpClient, RequestConfig defaultRequestConfig,
+			HttpMetrics metrics, RetryExecutor retryExecutor, RetryPolicy retryPolicy) {
+		super(url);
+		this.httpClient = httpClient;
+		this.defaultRequestConfig = defaultRequestConfig;
+		this.metrics = metrics;
+		this.retryExecutor = retryExecutor;
+		this.retryPolicy = retryPolicy;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	@SuppressWarnings("try")
+	public void connect() throws IOException {
+		if (connected)
+			return;
+		HttpUriRequest request = buildRequest();
+		long wireBytes = -1;
+		long start = System.nanoTime();
+		try (PhaseTimes.Span ignored = PhaseTimes.begin(PhaseTimes.Phase.IO);
+				CloseableHttpResponse response = retryExecutor.execute(request, retryPolicy,
+						() -> httpClient.execute(request))) {
+			this.responseCode = response.getStatusLine().getStatusCode();
+			this.responseMessage = response.getStatusLine().getReasonPhrase();
+			this.statusLine = response.getStatusLine().toString();
+			this.responseHeaders = response.getAllHeaders();
+			HttpEntity entity = response.getEntity();
+			if (entity == null) {
+				this.responseBody = new byte[0];
+			}
+			else if (decodeResponse && entity.getContentEncoding() != null) {
+				try (ContentEncoding.CountingInputStream in = new ContentEncoding.CountingInputStream(
+						entity.getContent())) {
+					this.responseBody = ContentEncoding.decode(entity.getContentEncoding().getValue(), in)
+						.readAllBytes();
+					wireBytes = in.getCount();
+				}
+				this.responseHeaders = withoutEncodingHeaders(responseHeaders);
+			}
+			else {
+				this.responseBody = EntityUtils.toByteArray(entity);
+			}
+		}
+		catch (CircuitOpenException e) {
+			// nothing was sent
+			throw e;
+		}
+		catch (IOException | RuntimeException e) {
+			if (metrics != null)
+				metrics.record(method, url.toString(), 0, requestBody != null ? requestBody.size() : 0, 0,
+						System.nanoTime() - start - RetryExecutor.takeWaitNanos());
+			throw e;
+		}
+		finally {
+			MessageCapture.captureDiscardedAttempts();
+		}
+		if (metrics != null)
+			metrics.record(method, url.toString(), responseCode, requestBody != null ? requestBody.size() : 0,
+					responseBody.length, wireBytes < 0 ? responseBody.length : wireBytes,
+					System.nanoTime() - start - RetryExecutor.takeWaitNanos());
+		connected = true;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void disconnect() {
+		responseBody = null;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public boolean usingProxy() {
+		return false;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public OutputStream getOutputStream() throws IOException {
+		if (connected)
+			throw new IllegalStateException("Already connected");
+		if (requestBody == null) {
+			requestBody = new ByteArrayOutputStream();
+			if ("GET".equals(method))
+				method = "POST";
+		}
+		return requestBody;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public int getResponseCode() throws IOException {
+		connect();
+		return responseCode;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public String getResponseMessage() throws IOException {
+		connect();
+		return responseMessage;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public InputStream getInputStream() throws IOException {
+		connect();
+		if (responseCode == HTTP_NOT_FOUND || responseCode == HTTP_GONE)
+			throw new FileNotFoundException(url.toString());
+		if (responseCode >= 400)
+			throw new IOException("Server returned HTTP response code: " + responseCode + " for URL: " + url);
+		return new ByteArrayInputStream(responseBody != null ? responseBody : new byte[0]);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public InputStream getErrorStream() {
+		if (!connected || responseCode < 400 || responseBody == null || responseBody.length == 0)
+			return null;
+		return new ByteArrayInputStream(responseBody);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public String getHeaderField(String name) {
+		if (!connectQuietly() || name == null)
+			return null;
+		for (int i = responseHeaders.length - 1; i >= 0; i--) {
+			if (name.equalsIgnoreCase(responseHeaders[i].getName()))
+				return responseHeaders[i].getValue();
+		}
+		return null;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public String getHeaderFieldKey(int n) {
+		if (!connectQuietly() || n <= 0 || n > responseHeaders.length)
+			return null;
+		return responseHeaders[n - 1].getName();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public String getHeaderField(int n) {
+		if (!connectQuietly())
+			return null;
+		if (n == 0)
+			return statusLine;
+		if (n < 0 || n > responseHeaders.length)
+			return null;
+		return responseHeaders[n - 1].getValue();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Map<String, List<String>> getHeaderFields() {
+		Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		if (!connectQuietly())
+			return headers;
+		for (Header header : responseHeaders) {
+			headers.computeIfAbsent(header.getName(), name -> new ArrayList<>()).add(header.getValue());
+		}
+		headers.replaceAll((name, values) -> Collections.unmodifiableList(values));
+		return Collections.unmodifiableMap(headers);
+	}
+
+	private boolean connectQuietly() {
+		try {
+			connect();
+			return true;
+		}
+		catch (IOException e) {
+			return false;
+		}
+	}
+
+	private HttpUriRequest buildRequest() throws IOException {
+		RequestBuilder builder = RequestBuilder.create(method).setUri(toUri());
+		Map<String, List<String>> requestProperties = getRequestProperties();
+		for (Map.Entry<String, List<String>> property : requestProperties.entrySet()) {
+			String name = property.getKey();
+			if (name == null || RESTRICTED_HEADERS.contains(name.toLowerCase()))
+				continue;
+			for (String value : property.getValue())
+				builder.addHeader(name, value);
+		}
+		if (builder.getFirstHeader("Accept") == null)
+			builder.addHeader("Accept", DEFAULT_ACCEPT);
+		decodeResponse = builder.getFirstHeader("Accept-Encoding") == null;
+		if (decodeResponse)
+			builder.addHeader("Accept-Encoding", ContentEncoding.acceptEncoding());
+		if (requestBody != null)
+			builder.setEntity(new ByteArrayEntity(requestBody.toByteArray()));
+		RequestConfig.Builder config = RequestConfig.copy(defaultRequestConfig)
+			.setRedirectsEnabled(getInstanceFollowRedirects());
+		// the timeouts of the transport apply unless set for this connection
+		if (getConnectTimeout() > 0)
+			config.setConnectTimeout(getConnectTimeout());
+		if (getReadTimeout() > 0)
+			config.setSocketTimeout(getReadTimeout());
+		builder.setConfig(config.build());
+		return builder.build();
+	}
+
+	private static Header[] withoutEncodingHeaders(Header[] headers) {
+		List<Header> kept = new ArrayList<>(headers.length);
+		for (Header header : headers) {
+			if (!ENCODING_HEADERS.contains(header.getName().toLowerCase()))
+				kept.add(header);
+		}
+		return kept.toArray(new Header[0]);
+	}
+
+	private URI toUri() throws IOException {
+		try {
+			return url.toURI();
+		}
+		catch (URISyntaxException e) {
+			// the JDK implementation sends illegal characters as they are, quote them
+			// instead
+			try {
+				return new URI(url.getProtocol(), url.getUserInfo(), url.getHost(), url.getPort(), url.getPath(),
+						url.getQuery(), url.getRef());
+			}
+			catch (URISyntaxException ex) {
+				throw new IOException("Invalid URL " + url, ex);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the proj4 definitions bundled in <code>proj4/nad/</code> (e.g.
+ * <code>proj4/nad/epsg</code>). proj4j scans the registry file of an authority from the
+ * beginning each time a code is resolved; this index reads each file once, on the first
+ * lookup of its authority, and then resolves codes with a hash lookup.
+ *
+ * <p>
+ * Each definition of a registry file is expected on one line in the form
+ * <code>&lt;code&gt; +param=value ... &lt;&gt;</code>; lines starting with '#' are
+ * comments.
+ * </p>
+ */
+public class Proj4Registry {
+
+	private static final String REGISTRY_PATH = "proj4/nad/";
+
+	private static final Map<String, Map<String, String>> DEFINITIONS = new ConcurrentHashMap<>();
+
+	private Proj4Registry() {
+	}
+
+	/**
+	 * Returns the proj4 parameters of a CRS.
+	 * @param codeWithAuthority the code of the CRS with authority, e.g. "EPSG:4326",
+	 * never <code>null</code>
+	 * @return the parameters, e.g. "+proj=longlat +datum=WGS84 +no_defs",
+	 * <code>null</code> if the code has no authority or the authority has no registry or
+	 * does not define the code
+	 */
+	public static String getParameters(String codeWithAuthority) {
+		int separator = codeWithAuthority.indexOf(':');
+		if (separator < 1)
+			return null;
+		String authority = codeWithAuthority.substring(0, separator).toLowerCase(Locale.ROOT);
+		String code = codeWithAuthority.substring(separator + 1).trim();
+		return DEFINITIONS.computeIfAbsent(authority, Proj4Registry::readRegistry).get(code);
+	}
+
+	private static Map<String, String> readRegistry(String authority) {
+		InputStream registry = Proj4Registry.class.getClassLoader().getResourceAsStream(REGISTRY_PATH + authority);
+		if (registry == null)
+			return Collections.emptyMap();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(registry, StandardCharsets.UTF_8))) {
+			return parse(reader);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Could not read proj4 registry " + REGISTRY_PATH + authority, e);
+		}
+	}
+
+	/**
+	 * Parses the definitions of a registry file.
+	 * @param reader the registry file, never <code>null</code>
+	 * @return the parameters by code, never <code>null</code>
+	 * @throws IOException if the file could not be read
+	 */
+	static Map<String, String> parse(BufferedReader reader) throws IOException {
+		Map<String, String> definitions = new HashMap<>();
+		String line;
+		while ((line = reader.readLine()) != null) {
+			line = line.trim();
+			if (!line.startsWith("<"))
+				continue;
+			int codeEnd = line.indexOf('>');
+			int parametersEnd = line.lastIndexOf("<>");
+			if (codeEnd < 0 || parametersEnd <= codeEnd)
+				continue;
+			String code = line.substring(1, codeEnd).trim();
+			String parameters = line.substring(codeEnd + 1, parametersEnd).trim();
+			if (!code.isEmpty() && !parameters.isEmpty())
+				definitions.putIfAbsent(code, parameters);
+		}
+		return definitions;
+	}
+
+}
@@ -0,0 +1,160 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+
+/**
+ * Pixel analysis of decoded map images working on the underlying {@link Raster} instead
+ * of {@link BufferedImage#getRGB(int, int)}, which converts the colour model for every
+ * pixel.
+ *
+ * <p>
+ * Packed int (e.g. ARGB) and interleaved byte images (e.g. 3/4-byte BGR(A), gray and
+ * indexed) are compared on the raw samples of the data buffer; other layouts are compared
+ * row by row on the raster samples. Samples are only converted to sRGB where two pixels
+ * differ, so the results are the same as a comparison of the sRGB values.
+ * </p>
+ */
+public class RasterAnalysis {
+
+	private RasterAnalysis() {
+	}
+
+	/**
+	 * Checks if all pixels of an image have the same sRGB value (including alpha). The
+	 * check stops at the first pixel with a different colour.
+	 * @param image the image to check, never <code>null</code>
+	 * @return <code>true</code> if the image is empty or all pixels have the same colour,
+	 * <code>false</code> otherwise
+	 */
+	public static boolean isUniform(BufferedImage image) {
+		if (image.getWidth() == 0 || image.getHeight() == 0)
+			return true;
+		Raster raster = image.getRaster();
+		SampleModel sampleModel = raster.getSampleModel();
+		DataBuffer buffer = raster.getDataBuffer();
+		if (buffer.getNumBanks() == 1) {
+			if (sampleModel instanceof SinglePixelPackedSampleModel && buffer instanceof DataBufferInt)
+				return isUniformPackedInt(image, (SinglePixelPackedSampleModel) sampleModel, (DataBufferInt) buffer);
+			if (sampleModel instanceof ComponentSampleModel && buffer instanceof DataBufferByte)
+				return isUniformInterleavedByte(image, (ComponentSampleModel) sampleModel, (DataBufferByte) buffer);
+		}
+		return isUniformSamples(image);
+	}
+
+	/**
+	 * Reads the alpha value of a pixel. The value is taken from the alpha sample or the
+	 * palette where possible, without converting the pixel to sRGB.
+	 * @param image the image, never <code>null</code>
+	 * @param x the x coordinate of the pixel
+	 * @param y the y coordinate of the pixel
+	 * @return the alpha value (0 - 255), 255 if the image has no alpha channel
+	 */
+	public static int alphaAt(BufferedImage image, int x, int y) {
+		ColorModel colorModel = image.getColorModel();
+		if (!colorModel.hasAlpha())
+			return 255;
+		if (colorModel instanceof IndexColorModel)
+			return ((IndexColorModel) colorModel).getAlpha(image.getRaster().getSample(x, y, 0));
+		int alphaBand = colorModel.getNumColorComponents();
+		if (colorModel.getComponentSize(alphaBand) == 8 && image.getRaster().getNumBands() > alphaBand)
+			return image.getRaster().getSample(x, y, alphaBand);
+		return image.getRGB(x, y) >>> 24;
+	}
+
+	/**
+	 * Reads the sRGB value of a pixel without alpha.
+	 * @param image the image, never <code>null</code>
+	 * @param x the x coordinate of the pixel
+	 * @param y the y coordinate of the pixel
+	 * @return the RGB value as 0xRRGGBB
+	 */
+	public static int rgb24At(BufferedImage image, int x, int y) {
+		return image.getRGB(x, y) & 0xFFFFFF;
+	}
+
+	private static boolean isUniformPackedInt(BufferedImage image, SinglePixelPackedSampleModel sampleModel,
+			DataBufferInt buffer) {
+		Raster raster = image.getRaster();
+		int[] data = buffer.getData();
+		int scanlineStride = sampleModel.getScanlineStride();
+		int origin = buffer.getOffset() - raster.getSampleModelTranslateY() * scanlineStride
+				- raster.getSampleModelTranslateX();
+		int mask = 0;
+		for (int bitMask : sampleModel.getBitMasks())
+			mask |= bitMask;
+		int first = data[origin] & mask;
+		int firstRgb = image.getRGB(0, 0);
+		for (int y = 0; y < image.getHeight(); y++) {
+			int rowStart = origin + y * scanlineStride;
+			for (int x = 0; x < image.getWidth(); x++) {
+				if ((data[rowStart + x] & mask) != first && image.getRGB(x, y) != firstRgb)
+					return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isUniformInterleavedByte(BufferedImage image, ComponentSampleModel sampleModel,
+			DataBufferByte buffer) {
+		for (int bankIndex : sampleModel.getBankIndices()) {
+			if (bankIndex != 0)
+				return isUniformSamples(image);
+		}
+		Raster raster = image.getRaster();
+		byte[] data = buffer.getData();
+		int[] bandOffsets = sampleModel.getBandOffsets();
+		int pixelStride = sampleModel.getPixelStride();
+		int scanlineStride = sampleModel.getScanlineStride();
+		int origin = buffer.getOffset() - raster.getSampleModelTranslateY() * scanlineStride
+				- raster.getSampleModelTranslateX() * pixelStride;
+		byte[] first = new byte[bandOffsets.length];
+		for (int band = 0; band < bandOffsets.length; band++)
+			first[band] = data[origin + bandOffsets[band]];
+		int firstRgb = image.getRGB(0, 0);
+		for (int y = 0; y < image.getHeight(); y++) {
+			int pixel = origin + y * scanlineStride;
+			for (int x = 0; x < image.getWidth(); x++, pixel += pixelStride) {
+				for (int band = 0; band < bandOffsets.length; band++) {
+					if (data[pixel + bandOffsets[band]] != first[band]) {
+						if (image.getRGB(x, y) != firstRgb)
+							return false;
+						break;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	private static boolean isUniformSamples(BufferedImage image) {
+		Raster raster = image.getRaster();
+		int width = image.getWidth();
+		int numBands = raster.getNumBands();
+		int[] first = raster.getPixel(0, 0, (int[]) null);
+		int[] row = new int[width * numBands];
+		int firstRgb = image.getRGB(0, 0);
+		for (int y = 0; y < image.getHeight(); y++) {
+			raster.getPixels(0, y, width, 1, row);
+			for (int x = 0; x < width; x++) {
+				for (int band = 0; band < numBands; band++) {
+					if (row[x * numBands + band] != first[band]) {
+						if (image.getRGB(x, y) != firstRgb)
+							return false;
+						break;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,141 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.util.Map;
+import java.util.logging.Level;
+
+import org.opengis.cite.ogcapimaps10.domain.DiscoveredResources;
+import org.opengis.cite.ogcapimaps10.domain.OpenApiIndex;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Retrieves the landing page, the /conformance and the /collections resources of the IUT
+ * and builds a {@link DiscoveredResources} view of them, and the API definition for an
+ * {@link OpenApiIndex}. Each resource is requested with
+ * <code>Accept: application/json</code>; if that does not yield a JSON document the
+ * request is repeated with the <code>f=json</code> query parameter.
+ */
+public class ResourceDiscovery {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private static final String REL_SERVICE_DESC = "service-desc";
+
+	private final HttpTransport transport;
+
+	private final String authorizationHeader;
+
+	/**
+	 * Creates a discovery service.
+	 * @param transport the transport to send the requests with, never <code>null</code>
+	 * @param authorizationHeader the value of the Authorization header to send, may be
+	 * <code>null</code>
+	 */
+	public ResourceDiscovery(HttpTransport transport, String authorizationHeader) {
+		this.transport = transport;
+		this.authorizationHeader = authorizationHeader;
+	}
+
+	/**
+	 * Crawls the discovery resources of the IUT.
+	 * @param rootUri the root URI of the IUT, never <code>null</code>
+	 * @return the discovered resources, never <code>null</code>
+	 */
+	public DiscoveredResources discover(URI rootUri) {
+		String baseUrl = rootUri.toString();
+		if (baseUrl.endsWith("/"))
+			baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+		JsonResource landingPage = fetch(baseUrl);
+		JsonResource conformance = fetch(baseUrl + "/conformance");
+		JsonResource collections = fetch(baseUrl + "/collections");
+		return new DiscoveredResources(rootUri, landingPage.status, landingPage.document, conformance.status,
+				conformance.document, collections.status, collections.document);
+	}
+
+	/**
+	 * Retrieves and indexes the API definition of the IUT. The definition is taken from
+	 * the 'service-desc' link of the landing page, preferring a JSON encoding, or from
+	 * /api if the landing page has no such link.
+	 * @param resources the discovered resources of the IUT, never <code>null</code>
+	 * @return the index of the API definition, never <code>null</code>
+	 */
+	public OpenApiIndex discoverApiDefinition(DiscoveredResources resources) {
+		String baseUrl = resources.getRootUri().toString();
+		if (baseUrl.endsWith("/"))
+			baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+		String href = findServiceDescHref(resources);
+		String url = href != null ? resolve(resources.getRootUri(), href) : baseUrl + "/api";
+		JsonResource definition = fetch(url);
+		return new OpenApiIndex(resources.getRootUri(), url, definition.status, definition.document);
+	}
+
+	private static String findServiceDescHref(DiscoveredResources resources) {
+		for (Map<String, Object> link : resources.findLandingPageLinks(REL_SERVICE_DESC)) {
+			Object type = link.get("type");
+			if (link.get("href") instanceof String && type instanceof String && ((String) type).contains("json"))
+				return (String) link.get("href");
+		}
+		return resources.findLandingPageLinkHref(REL_SERVICE_DESC);
+	}
+
+	private static String resolve(URI rootUri, String href) {
+		try {
+			return rootUri.resolve(href).toString();
+		}
+		catch (IllegalArgumentException e) {
+			return href;
+		}
+	}
+
+	private JsonResource fetch(String url) {
+		JsonResource resource = fetchJson(url);
+		if (resource.document != null)
+			return resource;
+		JsonResource fallback = fetchJson(url + (url.indexOf('?') >= 0 ? "&" : "?") + "f=json");
+		return fallback.document != null ? fallback : resource;
+	}
+
+	private JsonResource fetchJson(String url) {
+		try {
+			HttpURLConnection connection = transport.openConnection(url);
+			connection.setRequestMethod("GET");
+			connection.setRequestProperty("Accept", "application/json");
+			if (authorizationHeader != null)
+				connection.setRequestProperty("Authorization", authorizationHeader);
+			int status = connection.getResponseCode();
+			if (status != 200)
+				return new JsonResource(status, null);
+			try (InputStream body = connection.getInputStream()) {
+				return new JsonResource(status, OBJECT_MAPPER.readValue(body, new TypeReference<Map<String, Object>>() {
+				}));
+			}
+			catch (IOException e) {
+				// not a JSON object
+				return new JsonResource(status, null);
+			}
+		}
+		catch (IOException e) {
+			TestSuiteLogger.log(Level.WARNING, "Failed to retrieve " + url, e);
+			return new JsonResource(-1, null);
+		}
+	}
+
+	private static final class JsonResource {
+
+		private final int status;
+
+		private final Map<String, Object> document;
+
+		private JsonResource(int status, Map<String, Object> document) {
+			this.status = status;
+			this.document = document;
+		}
+
+	}
+
+}
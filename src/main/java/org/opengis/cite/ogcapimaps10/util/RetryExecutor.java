@@ -0,0 +1,198 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.util.EntityUtils;
+
+/**
+ * Sends a request of the {@link HttpTransport} with the retry policy, circuit breaker and
+ * throttle of the transport. Every discarded attempt is counted in the metrics, logged
+ * and recorded for the {@link MessageCapture} of the thread, so retries stay visible in
+ * the results. The last attempt is returned to the caller and counted by it as usual; the
+ * time waited before it (throttling, discarded attempts and backoff) is available from
+ * {@link #takeWaitNanos()} to be excluded from its latency.
+ */
+final class RetryExecutor {
+
+	private static final ThreadLocal<List<String>> DISCARDED_ATTEMPTS = new ThreadLocal<>();
+
+	private static final ThreadLocal<Long> WAIT_NANOS = new ThreadLocal<>();
+
+	private final RetryPolicy policy;
+
+	private final CircuitBreaker circuitBreaker;
+
+	private final HostThrottle throttle;
+
+	private final HttpMetrics metrics;
+
+	/**
+	 * Sends a single attempt of a request.
+	 */
+	@FunctionalInterface
+	interface Attempt {
+
+		CloseableHttpResponse send() throws IOException;
+
+	}
+
+	RetryExecutor(RetryPolicy policy, CircuitBreaker circuitBreaker, HostThrottle throttle, HttpMetrics metrics) {
+		this.policy = policy;
+		this.circuitBreaker = circuitBreaker;
+		this.throttle = throttle;
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Sends a request, retrying it according to the policy of the transport if it failed
+	 * transiently.
+	 * @param request the request, never <code>null</code>
+	 * @param attempt sends the request once, never <code>null</code>
+	 * @return the response of the last attempt, never <code>null</code>
+	 * @throws IOException if the last attempt failed
+	 * @throws org.opengis.cite.ogcapimaps10.exception.CircuitOpenException if the circuit
+	 * of the host is open
+	 */
+	CloseableHttpResponse execute(HttpUriRequest request, Attempt attempt) throws IOException {
+		return execute(request, policy, attempt);
+	}
+
+	/**
+	 * Sends a request, retrying it if it failed transiently.
+	 * @param request the request, never <code>null</code>
+	 * @param retryPolicy the retry policy of the request, never <code>null</code>
+	 * @param attempt sends the request once, never <code>null</code>
+	 * @return the response of the last attempt, never <code>null</code>
+	 * @throws IOException if the last attempt failed
+	 * @throws org.opengis.cite.ogcapimaps10.exception.CircuitOpenException if the circuit
+	 * of the host is open
+	 */
+	CloseableHttpResponse execute(HttpUriRequest request, RetryPolicy retryPolicy, Attempt attempt) throws IOException {
+		DISCARDED_ATTEMPTS.remove();
+		long executeStart = System.nanoTime();
+		WAIT_NANOS.set(0L);
+		String host = hostOf(request.getURI());
+		boolean retryable = retryPolicy.isRetryable(request.getMethod());
+		for (int retry = 1;; retry++) {
+			circuitBreaker.acquire(host);
+			HostThrottle.Permit permit = throttle.acquire(host);
+			if (permit.getWaitNanos() > 0 && metrics != null)
+				metrics.recordThrottled(host, permit.getWaitNanos());
+			long start = System.nanoTime();
+			WAIT_NANOS.set(start - executeStart);
+			CloseableHttpResponse response;
+			try (permit) {
+				response = attempt.send();
+			}
+			catch (RuntimeException e) {
+				// the request after the cool-down must not leave the circuit half-open
+				circuitBreaker.recordFailure(host);
+				throw e;
+			}
+			catch (IOException e) {
+				circuitBreaker.recordFailure(host);
+				long delay = retryable && RetryPolicy.isTransient(e) && isClosed(host) ? retryPolicy.delay(retry, null)
+						: -1;
+				if (delay < 0)
+					throw e;
+				discard(request, 0, e.toString(), 0, System.nanoTime() - start, retry, retryPolicy, delay);
+				sleep(delay);
+				continue;
+			}
+			// any response shows that the host is reachable
+			circuitBreaker.recordSuccess(host);
+			int status = response.getStatusLine().getStatusCode();
+			if (!RetryPolicy.isTransient(status))
+				return response;
+			Header retryAfter = response.getFirstHeader("Retry-After");
+			long delay = retryable ? retryPolicy.delay(retry, retryAfter != null ? retryAfter.getValue() : null) : -1;
+			if (delay < 0)
+				return response;
+			long bytesIn;
+			try (response) {
+				// read the body, so the connection can be reused for the next attempt
+				HttpEntity entity = response.getEntity();
+				bytesIn = entity != null ? EntityUtils.toByteArray(entity).length : 0;
+			}
+			catch (IOException e) {
+				bytesIn = 0;
+			}
+			discard(request, status, response.getStatusLine().toString(), bytesIn, System.nanoTime() - start, retry,
+					retryPolicy, delay);
+			sleep(delay);
+		}
+	}
+
+	/**
+	 * Returns and resets the time the last request of the current thread waited before
+	 * its last attempt was sent.
+	 * @return the time in nanoseconds, 0 if no request was sent since the last call
+	 */
+	static long takeWaitNanos() {
+		Long nanos = WAIT_NANOS.get();
+		WAIT_NANOS.remove();
+		return nanos != null ? nanos : 0;
+	}
+
+	/**
+	 * Returns and resets the attempts discarded by the last request of the current
+	 * thread.
+	 * @return the status line or exception of each discarded attempt, with the delay
+	 * before the next attempt, never <code>null</code>
+	 */
+	static List<String> takeDiscardedAttempts() {
+		List<String> attempts = DISCARDED_ATTEMPTS.get();
+		DISCARDED_ATTEMPTS.remove();
+		return attempts != null ? attempts : Collections.emptyList();
+	}
+
+	private void discard(HttpUriRequest request, int status, String outcome, long bytesIn, long nanos, int retry,
+			RetryPolicy retryPolicy, long delay) {
+		String url = request.getURI().toString();
+		if (metrics != null)
+			metrics.record(request.getMethod(), url, status, 0, bytesIn, nanos);
+		String attempt = String.format("%s [attempt %d of %s %s, retried after %d ms]", outcome, retry,
+				request.getMethod(), url, delay);
+		List<String> attempts = DISCARDED_ATTEMPTS.get();
+		if (attempts == null) {
+			attempts = new ArrayList<>();
+			DISCARDED_ATTEMPTS.set(attempts);
+		}
+		attempts.add(attempt);
+		TestSuiteLogger.log(Level.INFO, String.format("Retrying %s %s in %d ms after %s (retry %d of %d)",
+				request.getMethod(), url, delay, outcome, retry, retryPolicy.getMaxRetries()));
+	}
+
+	private boolean isClosed(String host) {
+		// the last failure may have opened the circuit, report it instead of retrying
+		return circuitBreaker.getState(host) == CircuitBreaker.State.CLOSED;
+	}
+
+	private static void sleep(long millis) throws InterruptedIOException {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting to retry");
+		}
+	}
+
+	static String hostOf(URI uri) {
+		int port = uri.getPort();
+		if (port < 0)
+			port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+		return uri.getHost() + ":" + port;
+	}
+
+}
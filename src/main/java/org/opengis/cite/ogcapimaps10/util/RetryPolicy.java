@@ -0,0 +1,157 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.net.ssl.SSLException;
+
+/**
+ * When and how long to wait before an idempotent request is retried: after a connection
+ * failure (e.g. a reset connection) or a 502, 503 or 504 response. The delay grows
+ * exponentially from the base delay and is chosen at random up to that bound ("full
+ * jitter"), so parallel requests do not retry in lockstep. A Retry-After header of the
+ * response is honoured; if it asks for more than the maximum delay the response is not
+ * retried.
+ *
+ * <p>
+ * Timeouts are not retried, as retrying them would multiply the time spent on an
+ * unresponsive host.
+ * </p>
+ */
+public class RetryPolicy {
+
+	/** The default number of retries of a request. */
+	public static final int DEFAULT_MAX_RETRIES = 2;
+
+	/** The default delay in milliseconds before the first retry. */
+	public static final long DEFAULT_BASE_DELAY = 500;
+
+	/** The default maximum delay in milliseconds before a retry. */
+	public static final long DEFAULT_MAX_DELAY = 30000;
+
+	/** A policy never retrying. */
+	public static final RetryPolicy NONE = new RetryPolicy(0, DEFAULT_BASE_DELAY, DEFAULT_MAX_DELAY);
+
+	private static final List<String> IDEMPOTENT_METHODS = List.of("GET", "HEAD", "OPTIONS");
+
+	private static final List<Integer> RETRYABLE_STATUS_CODES = List.of(502, 503, 504);
+
+	private final int maxRetries;
+
+	private final long baseDelay;
+
+	private final long maxDelay;
+
+	/**
+	 * Creates a policy with {@link #DEFAULT_MAX_RETRIES}, {@link #DEFAULT_BASE_DELAY} and
+	 * {@link #DEFAULT_MAX_DELAY}.
+	 */
+	public RetryPolicy() {
+		this(DEFAULT_MAX_RETRIES, DEFAULT_BASE_DELAY, DEFAULT_MAX_DELAY);
+	}
+
+	/**
+	 * @param maxRetries the maximum number of retries of a request, 0 to never retry
+	 * @param baseDelay the delay in milliseconds before the first retry, doubled for each
+	 * further retry
+	 * @param maxDelay the maximum delay in milliseconds before a retry
+	 */
+	public RetryPolicy(int maxRetries, long baseDelay, long maxDelay) {
+		if (maxRetries < 0 || baseDelay < 0 || maxDelay < baseDelay)
+			throw new IllegalArgumentException("Invalid retry policy: maxRetries " + maxRetries + ", baseDelay "
+					+ baseDelay + ", maxDelay " + maxDelay);
+		this.maxRetries = maxRetries;
+		this.baseDelay = baseDelay;
+		this.maxDelay = maxDelay;
+	}
+
+	/**
+	 * @return the maximum number of retries of a request
+	 */
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+
+	/**
+	 * @param method the HTTP method, never <code>null</code>
+	 * @return <code>true</code> if requests with the method may be retried
+	 */
+	public boolean isRetryable(String method) {
+		return maxRetries > 0 && IDEMPOTENT_METHODS.contains(method.toUpperCase(Locale.ROOT));
+	}
+
+	/**
+	 * @param status the status code of a response
+	 * @return <code>true</code> if the status code indicates a transient failure of the
+	 * server or a gateway
+	 */
+	public static boolean isTransient(int status) {
+		return RETRYABLE_STATUS_CODES.contains(status);
+	}
+
+	/**
+	 * @param e the exception a request failed with, never <code>null</code>
+	 * @return <code>true</code> if the exception indicates a transient connection failure
+	 */
+	public static boolean isTransient(IOException e) {
+		return !(e instanceof InterruptedIOException || e instanceof UnknownHostException || e instanceof SSLException);
+	}
+
+	/**
+	 * Returns the delay before a retry.
+	 * @param retry the number of the retry, starting with 1
+	 * @param retryAfter the Retry-After header of the failed response, may be
+	 * <code>null</code>
+	 * @return the delay in milliseconds, -1 if the request is not to be retried (any
+	 * more)
+	 */
+	public long delay(int retry, String retryAfter) {
+		if (retry < 1 || retry > maxRetries)
+			return -1;
+		long requested = parseRetryAfter(retryAfter);
+		if (requested > maxDelay)
+			return -1;
+		long bound = Math.min(maxDelay, baseDelay << Math.min(retry - 1, 30));
+		long jittered = bound > 0 ? ThreadLocalRandom.current().nextLong(bound + 1) : 0;
+		return Math.max(requested, jittered);
+	}
+
+	/**
+	 * Parses a Retry-After header, either a number of seconds or an HTTP date.
+	 * @param retryAfter the header, may be <code>null</code>
+	 * @return the delay in milliseconds, 0 if the header is missing or invalid
+	 */
+	static long parseRetryAfter(String retryAfter) {
+		if (retryAfter == null || retryAfter.isBlank())
+			return 0;
+		String value = retryAfter.trim();
+		try {
+			return Math.max(0, Long.parseLong(value) * 1000);
+		}
+		catch (NumberFormatException e) {
+			// not delay-seconds, try an HTTP date
+		}
+		try {
+			ZonedDateTime date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+			return Math.max(0, Duration.between(ZonedDateTime.now(date.getZone()), date).toMillis());
+		}
+		catch (DateTimeParseException e) {
+			return 0;
+		}
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public String toString() {
+		return String.format("%d retries, %d ms base delay, %d ms max. delay", maxRetries, baseDelay, maxDelay);
+	}
+
+}
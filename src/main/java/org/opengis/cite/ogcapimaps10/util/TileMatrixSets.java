@@ -0,0 +1,173 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.util.List;
+
+/**
+ * The tile matrices of the TileMatrixSets selectable by the
+ * {@link org.opengis.cite.ogcapimaps10.TestRunArg#TILE_MATRIX_SET} argument:
+ * WebMercatorQuad and WorldCRS84Quad, where the identifier of a tile matrix is its zoom
+ * level.
+ *
+ * @see <a href="https://docs.ogc.org/is/17-083r4/17-083r4.html#toc49">OGC Two Dimensional
+ * Tile Matrix Set and Tile Set Metadata</a>
+ */
+public class TileMatrixSets {
+
+	/**
+	 * The identifier of the WebMercatorQuad TileMatrixSet.
+	 */
+	public static final String WEB_MERCATOR_QUAD = "WebMercatorQuad";
+
+	/**
+	 * The identifier of the WorldCRS84Quad TileMatrixSet.
+	 */
+	public static final String WORLD_CRS84_QUAD = "WorldCRS84Quad";
+
+	/**
+	 * The latitude bounding the WebMercatorQuad.
+	 */
+	private static final double MAX_MERCATOR_LATITUDE = 85.0511287798066;
+
+	private TileMatrixSets() {
+	}
+
+	/**
+	 * @param tileMatrixSet the identifier of the TileMatrixSet, may be <code>null</code>
+	 * @return <code>true</code> if the tiles of the TileMatrixSet can be computed
+	 */
+	public static boolean isSupported(String tileMatrixSet) {
+		return WEB_MERCATOR_QUAD.equals(tileMatrixSet) || WORLD_CRS84_QUAD.equals(tileMatrixSet);
+	}
+
+	/**
+	 * Returns the tiles of a tile matrix intersecting an extent, which may cross the
+	 * antimeridian (minX &gt; maxX). Such an extent is split at &plusmn;180&deg; into two
+	 * ranges, unless their tiles meet.
+	 * @param tileMatrixSet the identifier of the TileMatrixSet, never <code>null</code>
+	 * @param zoom the zoom level, i.e. the identifier of the tile matrix
+	 * @param extent the extent in longitude and latitude (CRS84), never <code>null</code>
+	 * @return the disjoint ranges of tiles ordered by column, never <code>null</code> or
+	 * empty
+	 * @throws IllegalArgumentException if the TileMatrixSet is not supported
+	 */
+	public static List<TileRange> tileRanges(String tileMatrixSet, int zoom, BBox extent) {
+		if (extent.getMinX() <= extent.getMaxX())
+			return List.of(tileRange(tileMatrixSet, zoom, extent));
+		TileRange west = tileRange(tileMatrixSet, zoom,
+				new BBox(-180, extent.getMinY(), extent.getMaxX(), extent.getMaxY()));
+		TileRange east = tileRange(tileMatrixSet, zoom,
+				new BBox(extent.getMinX(), extent.getMinY(), 180, extent.getMaxY()));
+		if (west.getMaxCol() + 1 >= east.getMinCol())
+			return List.of(new TileRange(zoom, west.getMinCol(), west.getMinRow(), east.getMaxCol(), west.getMaxRow()));
+		return List.of(west, east);
+	}
+
+	/**
+	 * Returns the tiles of a tile matrix intersecting an extent, which must not cross the
+	 * antimeridian.
+	 * @param tileMatrixSet the identifier of the TileMatrixSet, never <code>null</code>
+	 * @param zoom the zoom level, i.e. the identifier of the tile matrix
+	 * @param extent the extent in longitude and latitude (CRS84), never <code>null</code>
+	 * @return the range of tiles, never <code>null</code>
+	 * @throws IllegalArgumentException if the TileMatrixSet is not supported
+	 */
+	public static TileRange tileRange(String tileMatrixSet, int zoom, BBox extent) {
+		if (WEB_MERCATOR_QUAD.equals(tileMatrixSet)) {
+			int size = 1 << zoom;
+			return new TileRange(zoom, column(extent.getMinX(), size), mercatorRow(extent.getMaxY(), size),
+					column(extent.getMaxX(), size), mercatorRow(extent.getMinY(), size));
+		}
+		if (WORLD_CRS84_QUAD.equals(tileMatrixSet)) {
+			int rows = 1 << zoom;
+			return new TileRange(zoom, column(extent.getMinX(), 2 * rows), crs84Row(extent.getMaxY(), rows),
+					column(extent.getMaxX(), 2 * rows), crs84Row(extent.getMinY(), rows));
+		}
+		throw new IllegalArgumentException("Unsupported TileMatrixSet " + tileMatrixSet);
+	}
+
+	private static int column(double longitude, int columns) {
+		return clamp((int) Math.floor((longitude + 180) / 360 * columns), columns);
+	}
+
+	private static int mercatorRow(double latitude, int rows) {
+		double lat = Math.toRadians(Math.max(-MAX_MERCATOR_LATITUDE, Math.min(MAX_MERCATOR_LATITUDE, latitude)));
+		double y = (1 - Math.log(Math.tan(lat) + 1 / Math.cos(lat)) / Math.PI) / 2;
+		return clamp((int) Math.floor(y * rows), rows);
+	}
+
+	private static int crs84Row(double latitude, int rows) {
+		return clamp((int) Math.floor((90 - latitude) / 180 * rows), rows);
+	}
+
+	private static int clamp(int index, int size) {
+		return Math.max(0, Math.min(size - 1, index));
+	}
+
+	/**
+	 * A rectangular range of tiles of a tile matrix, the bounds are inclusive.
+	 */
+	public static class TileRange {
+
+		private final int zoom;
+
+		private final int minCol;
+
+		private final int minRow;
+
+		private final int maxCol;
+
+		private final int maxRow;
+
+		TileRange(int zoom, int minCol, int minRow, int maxCol, int maxRow) {
+			this.zoom = zoom;
+			this.minCol = minCol;
+			this.minRow = minRow;
+			this.maxCol = maxCol;
+			this.maxRow = maxRow;
+		}
+
+		/**
+		 * @return the zoom level
+		 */
+		public int getZoom() {
+			return zoom;
+		}
+
+		/**
+		 * @return the first column
+		 */
+		public int getMinCol() {
+			return minCol;
+		}
+
+		/**
+		 * @return the first row
+		 */
+		public int getMinRow() {
+			return minRow;
+		}
+
+		/**
+		 * @return the last column
+		 */
+		public int getMaxCol() {
+			return maxCol;
+		}
+
+		/**
+		 * @return the last row
+		 */
+		public int getMaxRow() {
+			return maxRow;
+		}
+
+		/**
+		 * @return the number of tiles
+		 */
+		public long size() {
+			return (long) (maxCol - minCol + 1) * (maxRow - minRow + 1);
+		}
+
+	}
+
+}
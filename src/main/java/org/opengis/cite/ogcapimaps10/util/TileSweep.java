@@ -0,0 +1,459 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.opengis.cite.ogcapimaps10.exception.CircuitOpenException;
+import org.opengis.cite.ogcapimaps10.util.TileMatrixSets.TileRange;
+
+/**
+ * Requests the tiles of a range of zoom levels of a tileset, walking the TileMatrixSet
+ * within an extent, and collects per zoom level the latency distribution, the bytes per
+ * tile and how many responses indicate that they are cacheable or were served from a
+ * cache. Tiles are requested concurrently, with a bounded number of requests in flight.
+ *
+ * <p>
+ * The cache indicators are taken from the response headers: an <code>Age</code> header
+ * greater than 0 means the tile was served by a cache, an <code>ETag</code> allows
+ * revalidation and a <code>Cache-Control</code> header without <code>no-store</code>,
+ * <code>no-cache</code> or <code>max-age=0</code> allows caching.
+ * </p>
+ *
+ * <p>
+ * Like the {@link MapLoadGenerator}, the requests are not retried and have a circuit
+ * breaker of their own, configured like the one of the transport. If it opens, the sweep
+ * is aborted. The time a request waits for the throttle of the transport is not part of
+ * its latency.
+ * </p>
+ */
+public class TileSweep {
+
+	private static final int MAX_ERROR_MESSAGES = 5;
+
+	private final HttpTransport transport;
+
+	private final String authorization;
+
+	private final ConcurrentMap<Integer, Level> levels = new ConcurrentHashMap<>();
+
+	private final List<String> errorMessages = Collections.synchronizedList(new ArrayList<>());
+
+	private String tileUrlTemplate;
+
+	private volatile String abortReason;
+
+	/**
+	 * Creates a sweep.
+	 * @param transport the transport to send the requests with, never <code>null</code>
+	 * @param authorization the value of the Authorization header, <code>null</code> if
+	 * none
+	 */
+	public TileSweep(HttpTransport transport, String authorization) {
+		this.transport = transport;
+		this.authorization = authorization;
+	}
+
+	/**
+	 * Selects the tiles to request: all tiles of each zoom level within the extent, or a
+	 * reproducible random sample of them if there are more than the maximum.
+	 * @param tileMatrixSet the identifier of the TileMatrixSet, never <code>null</code>
+	 * @param extent the extent in longitude and latitude (CRS84), may cross the
+	 * antimeridian, never <code>null</code>
+	 * @param minZoom the first zoom level
+	 * @param maxZoom the last zoom level
+	 * @param maxTilesPerLevel the maximum number of tiles per zoom level
+	 * @param seed the seed of the sample
+	 * @return the tiles ordered by zoom level, never <code>null</code>
+	 * @throws IllegalArgumentException if the TileMatrixSet is not supported
+	 */
+	public static List<Tile> selectTiles(String tileMatrixSet, BBox extent, int minZoom, int maxZoom,
+			int maxTilesPerLevel, long seed) {
+		List<Tile> tiles = new ArrayList<>();
+		for (int zoom = minZoom; zoom <= maxZoom; zoom++) {
+			List<TileRange> ranges = TileMatrixSets.tileRanges(tileMatrixSet, zoom, extent);
+			long size = 0;
+			for (TileRange range : ranges)
+				size += range.size();
+			if (size <= maxTilesPerLevel) {
+				for (long index = 0; index < size; index++)
+					tiles.add(tileAt(ranges, index));
+				continue;
+			}
+			SplittableRandom random = new SplittableRandom(seed + zoom);
+			random.longs(0, size)
+				.distinct()
+				.limit(maxTilesPerLevel)
+				.sorted()
+				.forEach(index -> tiles.add(tileAt(ranges, index)));
+		}
+		return tiles;
+	}
+
+	/**
+	 * Returns a tile of the ranges, the tiles of a range are numbered row by row.
+	 */
+	private static Tile tileAt(List<TileRange> ranges, long index) {
+		for (TileRange range : ranges) {
+			if (index < range.size()) {
+				int columns = range.getMaxCol() - range.getMinCol() + 1;
+				return new Tile(range.getZoom(), range.getMinRow() + (int) (index / columns),
+						range.getMinCol() + (int) (index % columns));
+			}
+			index -= range.size();
+		}
+		throw new IndexOutOfBoundsException("No tile " + index);
+	}
+
+	/**
+	 * Requests the tiles. The sweep is aborted if the circuit of the server opens.
+	 * @param tileUrlTemplate the URL template of the tiles with the variables
+	 * <code>{tileMatrix}</code>, <code>{tileRow}</code> and <code>{tileCol}</code>, never
+	 * <code>null</code>
+	 * @param tiles the tiles to request, never <code>null</code>
+	 * @param window the maximum number of requests in flight
+	 */
+	public void run(String tileUrlTemplate, List<Tile> tiles, int window) {
+		this.tileUrlTemplate = tileUrlTemplate;
+		CircuitBreaker suiteBreaker = transport.getCircuitBreaker();
+		CircuitBreaker circuitBreaker = new CircuitBreaker(suiteBreaker.getFailureThreshold(),
+				suiteBreaker.getCoolDown());
+		try {
+			ConcurrentTasks.map(tiles, window, tile -> {
+				request(tile, circuitBreaker);
+				return null;
+			});
+		}
+		catch (CircuitOpenException e) {
+			abortReason = e.getMessage();
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if the sweep was aborted before all tiles were requested
+	 */
+	public boolean isAborted() {
+		return abortReason != null;
+	}
+
+	/**
+	 * @return why the sweep was aborted, <code>null</code> if it was not
+	 */
+	public String getAbortReason() {
+		return abortReason;
+	}
+
+	/**
+	 * @return the statistics per zoom level, ordered by zoom level, never
+	 * <code>null</code>
+	 */
+	public List<Level> getLevels() {
+		return new ArrayList<>(new TreeMap<>(levels).values());
+	}
+
+	/**
+	 * @return the number of failed requests (IO errors, server errors and responses which
+	 * are not images)
+	 */
+	public long getErrors() {
+		long errors = 0;
+		for (Level level : levels.values())
+			errors += level.getErrors();
+		return errors;
+	}
+
+	/**
+	 * @return the first errors, at most five, never <code>null</code>
+	 */
+	public List<String> getErrorMessages() {
+		synchronized (errorMessages) {
+			return new ArrayList<>(errorMessages);
+		}
+	}
+
+	/**
+	 * Writes a plain text summary with one line per zoom level.
+	 * @param writer the writer to write to, never <code>null</code>
+	 */
+	public void writeSummary(Writer writer) {
+		PrintWriter out = new PrintWriter(writer);
+		if (tileUrlTemplate != null)
+			out.printf(Locale.ROOT, "Tiles: %s%n", tileUrlTemplate);
+		if (abortReason != null)
+			out.printf(Locale.ROOT, "Aborted: %s%n", abortReason);
+		String format = "%4s %6s %6s %10s %10s %10s %10s %12s %6s %6s %9s  %s%n";
+		out.printf(Locale.ROOT, format, "Zoom", "Tiles", "Errors", "p50 [ms]", "p90 [ms]", "p99 [ms]", "max [ms]",
+				"Bytes/tile", "Age", "ETag", "Cacheable", "Status codes");
+		for (Level level : getLevels()) {
+			LatencyHistogram latency = level.getLatency();
+			out.printf(Locale.ROOT, format, level.getZoom(), latency.getCount(), level.getErrors(),
+					millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+					millis(latency.getValueAtPercentile(99)), millis(latency.getMax()), level.getBytesPerTile(),
+					level.getAgeResponses(), level.getEtagResponses(), level.getCacheableResponses(),
+					level.getStatusCounts());
+		}
+		out.flush();
+	}
+
+	/**
+	 * Returns the URL of a tile.
+	 * @param template the URL template, never <code>null</code>
+	 * @param tile the tile, never <code>null</code>
+	 * @return the URL, never <code>null</code>
+	 */
+	static String tileUrl(String template, Tile tile) {
+		return template.replace("{tileMatrix}", Integer.toString(tile.getZoom()))
+			.replace("{tileRow}", Integer.toString(tile.getRow()))
+			.replace("{tileCol}", Integer.toString(tile.getCol()));
+	}
+
+	/**
+	 * @param cacheControl the value of the Cache-Control header, may be <code>null</code>
+	 * @return <code>true</code> if the header allows caching the response
+	 */
+	static boolean isCacheable(String cacheControl) {
+		if (cacheControl == null)
+			return false;
+		String directives = cacheControl.toLowerCase(Locale.ROOT).replace(" ", "");
+		return !directives.contains("no-store") && !directives.contains("no-cache")
+				&& !directives.matches("(.*,)?(s-)?max-age=0(,.*)?");
+	}
+
+	private void request(Tile tile, CircuitBreaker circuitBreaker) {
+		String url = tileUrl(tileUrlTemplate, tile);
+		Level level = levels.computeIfAbsent(tile.getZoom(), Level::new);
+		RetryExecutor.takeWaitNanos();
+		long start = System.nanoTime();
+		HttpURLConnection connection = null;
+		int status = 0;
+		long bytes = 0;
+		String error = null;
+		try {
+			// not retried, every failure counts
+			connection = transport.openConnection(new URL(url), RetryPolicy.NONE, circuitBreaker);
+			connection.setRequestMethod("GET");
+			connection.setRequestProperty("Accept", "image/*");
+			if (authorization != null)
+				connection.setRequestProperty("Authorization", authorization);
+			status = connection.getResponseCode();
+			bytes = drain(status < 400 ? connection.getInputStream() : connection.getErrorStream());
+			String contentType = connection.getContentType();
+			if (status >= 500)
+				error = "HTTP " + status + " for " + url;
+			else if (status == 200 && (contentType == null || !contentType.startsWith("image/")))
+				error = "Content-Type " + contentType + " for " + url;
+			level.recordHeaders(connection.getHeaderField("Age"), connection.getHeaderField("ETag"),
+					connection.getHeaderField("Cache-Control"));
+		}
+		catch (CircuitOpenException e) {
+			// nothing was sent, the sweep is aborted
+			throw e;
+		}
+		catch (IOException | RuntimeException e) {
+			error = e.getClass().getSimpleName() + " for " + url + ": " + e.getMessage();
+		}
+		finally {
+			if (connection != null)
+				connection.disconnect();
+		}
+		// the time waited for the throttle is not latency of the server
+		level.record(status, bytes, System.nanoTime() - start - RetryExecutor.takeWaitNanos(), error != null);
+		if (error != null) {
+			synchronized (errorMessages) {
+				if (errorMessages.size() < MAX_ERROR_MESSAGES)
+					errorMessages.add(error);
+			}
+		}
+	}
+
+	private static long drain(InputStream in) throws IOException {
+		if (in == null)
+			return 0;
+		long bytes = 0;
+		try (InputStream body = in) {
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = body.read(buffer)) >= 0)
+				bytes += read;
+		}
+		return bytes;
+	}
+
+	private static String millis(long micros) {
+		return String.format(Locale.ROOT, "%.1f", micros / 1000.0);
+	}
+
+	/**
+	 * A tile of a tile matrix.
+	 */
+	public static class Tile {
+
+		private final int zoom;
+
+		private final int row;
+
+		private final int col;
+
+		/**
+		 * @param zoom the zoom level, i.e. the identifier of the tile matrix
+		 * @param row the row
+		 * @param col the column
+		 */
+		public Tile(int zoom, int row, int col) {
+			this.zoom = zoom;
+			this.row = row;
+			this.col = col;
+		}
+
+		/**
+		 * @return the zoom level
+		 */
+		public int getZoom() {
+			return zoom;
+		}
+
+		/**
+		 * @return the row
+		 */
+		public int getRow() {
+			return row;
+		}
+
+		/**
+		 * @return the column
+		 */
+		public int getCol() {
+			return col;
+		}
+
+		@Override
+		public String toString() {
+			return zoom + "/" + row + "/" + col;
+		}
+
+	}
+
+	/**
+	 * The statistics of one zoom level.
+	 */
+	public static class Level {
+
+		private final int zoom;
+
+		private final LatencyHistogram latency = new LatencyHistogram();
+
+		private final ConcurrentMap<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+
+		private final LongAdder bytes = new LongAdder();
+
+		private final LongAdder tilesWithBody = new LongAdder();
+
+		private final LongAdder errors = new LongAdder();
+
+		private final LongAdder ageResponses = new LongAdder();
+
+		private final LongAdder etagResponses = new LongAdder();
+
+		private final LongAdder cacheableResponses = new LongAdder();
+
+		private Level(int zoom) {
+			this.zoom = zoom;
+		}
+
+		private void record(int status, long body, long nanos, boolean error) {
+			latency.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+			statusCounts.computeIfAbsent(status, key -> new LongAdder()).increment();
+			if (status == 200) {
+				bytes.add(body);
+				tilesWithBody.increment();
+			}
+			if (error)
+				errors.increment();
+		}
+
+		private void recordHeaders(String age, String etag, String cacheControl) {
+			if (age != null && !age.trim().isEmpty() && !"0".equals(age.trim()))
+				ageResponses.increment();
+			if (etag != null)
+				etagResponses.increment();
+			if (isCacheable(cacheControl))
+				cacheableResponses.increment();
+		}
+
+		/**
+		 * @return the zoom level
+		 */
+		public int getZoom() {
+			return zoom;
+		}
+
+		/**
+		 * @return the latencies in microseconds, never <code>null</code>
+		 */
+		public LatencyHistogram getLatency() {
+			return latency;
+		}
+
+		/**
+		 * @return the number of responses by status code (0 if the request failed without
+		 * a response), sorted by status code, never <code>null</code>
+		 */
+		public Map<Integer, Long> getStatusCounts() {
+			Map<Integer, Long> counts = new TreeMap<>();
+			statusCounts.forEach((status, count) -> counts.put(status, count.sum()));
+			return Collections.unmodifiableMap(counts);
+		}
+
+		/**
+		 * @return the mean number of bytes of the tiles of 200 responses, 0 if none
+		 */
+		public long getBytesPerTile() {
+			long tiles = tilesWithBody.sum();
+			return tiles > 0 ? bytes.sum() / tiles : 0;
+		}
+
+		/**
+		 * @return the number of failed requests
+		 */
+		public long getErrors() {
+			return errors.sum();
+		}
+
+		/**
+		 * @return the number of responses with an Age header greater than 0
+		 */
+		public long getAgeResponses() {
+			return ageResponses.sum();
+		}
+
+		/**
+		 * @return the number of responses with an ETag header
+		 */
+		public long getEtagResponses() {
+			return etagResponses.sum();
+		}
+
+		/**
+		 * @return the number of responses with a Cache-Control header allowing caching
+		 */
+		public long getCacheableResponses() {
+			return cacheableResponses.sum();
+		}
+
+	}
+
+}
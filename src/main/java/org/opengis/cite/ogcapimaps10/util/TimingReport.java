@@ -0,0 +1,167 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.opengis.cite.ogcapimaps10.util.PhaseTimes.Phase;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * The timings of a test run: resource discovery, fixture (configuration) methods and test
+ * methods, each with the time spent in I/O and image decoding. The remaining time
+ * ("other") is mostly the CPU work of the test itself, e.g. parsing JSON documents. A
+ * discovery run by a fixture method is not part of the duration of the fixture method.
+ * Written as JSON and CSV to compare runs against each other.
+ */
+public class TimingReport {
+
+	/**
+	 * The kind of timed entry.
+	 */
+	public enum Kind {
+
+		/**
+		 * A discovery of resources of the IUT shared by all conformance classes.
+		 */
+		DISCOVERY,
+
+		/**
+		 * A fixture (configuration) method, e.g. <code>@BeforeClass</code>.
+		 */
+		FIXTURE,
+
+		/**
+		 * A test method.
+		 */
+		TEST
+
+	}
+
+	private static final String[] COLUMNS = { "kind", "class", "method", "status", "durationMs", "ioMs",
+			"imageDecodingMs", "otherMs" };
+
+	private final List<Entry> entries = Collections.synchronizedList(new ArrayList<>());
+
+	/**
+	 * Adds an entry.
+	 * @param kind the kind of the entry, never <code>null</code>
+	 * @param className the name of the class, never <code>null</code>
+	 * @param methodName the name of the method or discovery step, never <code>null</code>
+	 * @param status the status, e.g. "SUCCESS", never <code>null</code>
+	 * @param durationMillis the wall time in milliseconds, including the time
+	 * {@link PhaseTimes#exclude(long) excluded} from the phase times
+	 * @param times the times spent in the phases, <code>null</code> if not measured
+	 */
+	public void add(Kind kind, String className, String methodName, String status, long durationMillis,
+			PhaseTimes times) {
+		entries.add(new Entry(kind, className, methodName, status, durationMillis, times));
+	}
+
+	/**
+	 * @return a snapshot of the entries in the order they were added, never
+	 * <code>null</code>
+	 */
+	public List<Map<String, Object>> getEntries() {
+		List<Map<String, Object>> snapshot = new ArrayList<>();
+		synchronized (entries) {
+			for (Entry entry : entries)
+				snapshot.add(entry.toMap());
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Writes the entries as JSON array of objects.
+	 * @param writer the writer to write to, never <code>null</code>
+	 * @throws IOException if writing failed
+	 */
+	public void writeJson(Writer writer) throws IOException {
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+			.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+			.writeValue(writer, getEntries());
+	}
+
+	/**
+	 * Writes the entries as CSV with a header line.
+	 * @param writer the writer to write to, never <code>null</code>
+	 * @throws IOException if writing failed
+	 */
+	public void writeCsv(Writer writer) throws IOException {
+		writer.write(String.join(",", COLUMNS));
+		writer.write("\n");
+		for (Map<String, Object> entry : getEntries()) {
+			List<String> values = new ArrayList<>();
+			for (String column : COLUMNS)
+				values.add(csvValue(entry.get(column)));
+			writer.write(String.join(",", values));
+			writer.write("\n");
+		}
+		writer.flush();
+	}
+
+	private static String csvValue(Object value) {
+		String text = value != null ? String.valueOf(value) : "";
+		if (text.contains(",") || text.contains("\"") || text.contains("\n"))
+			return "\"" + text.replace("\"", "\"\"") + "\"";
+		return text;
+	}
+
+	private static final class Entry {
+
+		private final Kind kind;
+
+		private final String className;
+
+		private final String methodName;
+
+		private final String status;
+
+		private final long durationMillis;
+
+		private final long[] phaseMillis = new long[Phase.values().length];
+
+		private Entry(Kind kind, String className, String methodName, String status, long durationMillis,
+				PhaseTimes times) {
+			this.kind = kind;
+			this.className = className;
+			this.methodName = methodName;
+			this.status = status;
+			this.durationMillis = times != null
+					? Math.max(0, durationMillis - TimeUnit.NANOSECONDS.toMillis(times.getExcludedNanos()))
+					: durationMillis;
+			if (times != null) {
+				for (Phase phase : Phase.values())
+					phaseMillis[phase.ordinal()] = TimeUnit.NANOSECONDS.toMillis(times.getNanos(phase));
+			}
+		}
+
+		private Map<String, Object> toMap() {
+			long phasesMillis = 0;
+			for (long millis : phaseMillis)
+				phasesMillis += millis;
+			Map<String, Object> map = new LinkedHashMap<>();
+			map.put("kind", kind.name().toLowerCase(Locale.ROOT));
+			map.put("class", className);
+			map.put("method", methodName);
+			map.put("status", status);
+			map.put("durationMs", durationMillis);
+			map.put("ioMs", phaseMillis[Phase.IO.ordinal()]);
+			map.put("imageDecodingMs", phaseMillis[Phase.IMAGE_DECODING.ordinal()]);
+			// concurrent workers may add up to more than the wall time
+			map.put("otherMs", Math.max(0, durationMillis - phasesMillis));
+			return map;
+		}
+
+	}
+
+}
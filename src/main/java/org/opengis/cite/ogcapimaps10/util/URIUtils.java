@@ -26,15 +26,30 @@ public class URIUtils {
 	 * @return A File containing the content of the resource; it may be empty if
 	 * resolution failed for any reason.
 	 * @throws java.io.IOException If an IO error occurred.
+	 * @see #dereferenceURI(URI, HttpTransport)
 	 */
 	public static File dereferenceURI(URI uriRef) throws IOException {
+		return dereferenceURI(uriRef, HttpTransport.shared());
+	}
+
+	/**
+	 * Dereferences the given URI with the given transport and stores the resulting
+	 * resource representation in a local file. The file will be located in the default
+	 * temporary file directory.
+	 * @param uriRef An absolute URI specifying the location of some resource.
+	 * @param transport The transport of the suite, never <code>null</code>.
+	 * @return A File containing the content of the resource; it may be empty if
+	 * resolution failed for any reason.
+	 * @throws java.io.IOException If an IO error occurred.
+	 */
+	public static File dereferenceURI(URI uriRef, HttpTransport transport) throws IOException {
 		if ((null == uriRef) || !uriRef.isAbsolute()) {
 			throw new IllegalArgumentException("Absolute URI is required, but received " + uriRef);
 		}
 		if (uriRef.getScheme().equalsIgnoreCase("file")) {
 			return new File(uriRef);
 		}
-		Client client = ClientUtils.buildClient();
+		Client client = ClientUtils.buildClient(transport);
 		WebTarget target = client.target(uriRef);
 		Builder builder = target.request();
 		Response rsp = builder.buildGet().invoke();
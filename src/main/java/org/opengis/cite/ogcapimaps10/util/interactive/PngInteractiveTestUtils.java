@@ -10,6 +10,8 @@ import java.util.Map;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import org.opengis.cite.ogcapimaps10.util.HttpTransport;
+
 /**
  * Utility methods for interactive CTL tests related to PNG map content verification.
  * These methods are called from CTL scripts (interactive-png.xml) to build map request
@@ -281,7 +283,7 @@ public final class PngInteractiveTestUtils {
 	private static Map<String, Object> fetchJson(String urlString) {
 		try {
 			URL url = URI.create(urlString).toURL();
-			HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+			HttpURLConnection connection = HttpTransport.shared().openConnection(url);
 			connection.setRequestMethod("GET");
 			connection.setRequestProperty("Accept", "application/json");
 			connection.setConnectTimeout(10000);
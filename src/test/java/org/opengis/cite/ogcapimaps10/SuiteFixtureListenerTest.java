@@ -1,8 +1,11 @@
 package org.opengis.cite.ogcapimaps10;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -10,14 +13,19 @@ import java.io.File;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.opengis.cite.ogcapimaps10.conformance.SuiteAttribute;
 import org.opengis.cite.ogcapimaps10.listener.SuiteFixtureListener;
 import org.testng.ISuite;
+import org.testng.ITestContext;
 import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
 
 public class SuiteFixtureListenerTest {
 
@@ -51,4 +59,82 @@ public class SuiteFixtureListenerTest {
 		verify(suite).setAttribute(eq(SuiteAttribute.TEST_SUBJ_FILE.getName()), isA(File.class));
 	}
 
+	@Test
+	public void processParallelTestsParameter() throws URISyntaxException {
+		URL url = this.getClass().getResource("landingPage.html");
+		Map<String, String> params = new HashMap<>();
+		params.put(TestRunArg.IUT.toString(), url.toURI().toString());
+		params.put(TestRunArg.PARALLEL_TESTS.toString(), "4");
+		XmlTest test1 = mock(XmlTest.class);
+		XmlTest test2 = mock(XmlTest.class);
+		when(xmlSuite.getParameters()).thenReturn(params);
+		when(xmlSuite.getTests()).thenReturn(List.of(test1, test2));
+		SuiteFixtureListener iut = new SuiteFixtureListener();
+		iut.onStart(suite);
+		verify(xmlSuite).setParallel(XmlSuite.ParallelMode.TESTS);
+		verify(xmlSuite).setThreadCount(2);
+		verify(test1).setParallel(XmlSuite.ParallelMode.NONE);
+		verify(test2).setParallel(XmlSuite.ParallelMode.NONE);
+	}
+
+	@Test
+	public void exclusiveTestBlockRunsOnItsOwn() throws Exception {
+		URL url = this.getClass().getResource("landingPage.html");
+		Map<String, String> params = new HashMap<>();
+		params.put(TestRunArg.IUT.toString(), url.toURI().toString());
+		params.put(TestRunArg.PARALLEL_TESTS.toString(), "2");
+		when(xmlSuite.getParameters()).thenReturn(params);
+		when(xmlSuite.getTests()).thenReturn(List.of(mock(XmlTest.class), mock(XmlTest.class)));
+		SuiteFixtureListener iut = new SuiteFixtureListener();
+		iut.onStart(suite);
+		ITestContext conformance = testContext(null);
+		ITestContext performance = testContext("true");
+
+		iut.onStart(conformance);
+		CountDownLatch started = new CountDownLatch(1);
+		Thread worker = new Thread(() -> {
+			iut.onStart(performance);
+			started.countDown();
+		});
+		worker.start();
+		assertFalse(started.await(100, TimeUnit.MILLISECONDS));
+
+		iut.onFinish(conformance);
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		worker.join();
+		iut.onFinish(performance);
+	}
+
+	private static ITestContext testContext(String exclusive) {
+		XmlTest test = mock(XmlTest.class);
+		when(test.getParameter("exclusive")).thenReturn(exclusive);
+		ITestContext context = mock(ITestContext.class);
+		when(context.getCurrentXmlTest()).thenReturn(test);
+		return context;
+	}
+
+	@Test
+	public void sequentialByDefault() throws URISyntaxException {
+		URL url = this.getClass().getResource("landingPage.html");
+		Map<String, String> params = new HashMap<>();
+		params.put(TestRunArg.IUT.toString(), url.toURI().toString());
+		when(xmlSuite.getParameters()).thenReturn(params);
+		when(xmlSuite.getTests()).thenReturn(List.of(mock(XmlTest.class), mock(XmlTest.class)));
+		SuiteFixtureListener iut = new SuiteFixtureListener();
+		iut.onStart(suite);
+		verify(xmlSuite, never()).setParallel(XmlSuite.ParallelMode.TESTS);
+	}
+
+	@Test
+	public void processMessageCaptureBudgetParameter() throws URISyntaxException {
+		URL url = this.getClass().getResource("landingPage.html");
+		Map<String, String> params = new HashMap<>();
+		params.put(TestRunArg.IUT.toString(), url.toURI().toString());
+		params.put(TestRunArg.MESSAGE_CAPTURE_BUDGET.toString(), "0");
+		when(xmlSuite.getParameters()).thenReturn(params);
+		SuiteFixtureListener iut = new SuiteFixtureListener();
+		iut.onStart(suite);
+		verify(suite).setAttribute(SuiteAttribute.MESSAGE_CAPTURE_BUDGET.getName(), 0);
+	}
+
 }
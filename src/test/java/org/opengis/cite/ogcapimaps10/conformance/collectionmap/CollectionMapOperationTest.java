@@ -0,0 +1,61 @@
+package org.opengis.cite.ogcapimaps10.conformance.collectionmap;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.cite.ogcapimaps10.conformance.SuiteAttribute;
+import org.opengis.cite.ogcapimaps10.standin.StandInServer;
+import org.opengis.cite.ogcapimaps10.util.HttpTransport;
+import org.testng.ISuite;
+import org.testng.ITestContext;
+
+public class CollectionMapOperationTest {
+
+	private StandInServer server;
+
+	private final HttpTransport transport = new HttpTransport();
+
+	@Before
+	public void startServer() throws Exception {
+		server = new StandInServer().start();
+	}
+
+	@After
+	public void stopServer() {
+		transport.close();
+		server.close();
+	}
+
+	@Test
+	public void testConcurrentRequestsAreCaptured() {
+		ITestContext testContext = mockTestContext(0, 2);
+		CollectionMapOperation operation = new CollectionMapOperation();
+		operation.initCommonFixture(testContext);
+		operation.noOfCollections(testContext);
+		operation.collectionConcurrency(testContext);
+		operation.clearMessages();
+
+		operation.verifyCollectionMapOperation();
+
+		String requests = operation.getRequest();
+		assertThat(requests, containsString("/collections/buildings/map"));
+		assertThat(requests, containsString("/collections/rivers/map"));
+	}
+
+	private ITestContext mockTestContext(int noOfCollections, int collectionConcurrency) {
+		ITestContext testContext = mock(ITestContext.class);
+		ISuite suite = mock(ISuite.class);
+		when(testContext.getSuite()).thenReturn(suite);
+		when(suite.getAttribute(SuiteAttribute.IUT.getName())).thenReturn(server.getRootUri());
+		when(suite.getAttribute(SuiteAttribute.HTTP_TRANSPORT.getName())).thenReturn(transport);
+		when(suite.getAttribute(SuiteAttribute.NO_OF_COLLECTIONS.getName())).thenReturn(noOfCollections);
+		when(suite.getAttribute(SuiteAttribute.COLLECTION_CONCURRENCY.getName())).thenReturn(collectionConcurrency);
+		return testContext;
+	}
+
+}
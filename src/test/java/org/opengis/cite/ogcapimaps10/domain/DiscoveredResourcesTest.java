@@ -0,0 +1,70 @@
+package org.opengis.cite.ogcapimaps10.domain;
+
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class DiscoveredResourcesTest {
+
+	private static final String REL_MAP_HTTP = "http://www.opengis.net/def/rel/ogc/1.0/map";
+
+	private static final String REL_MAP_HTTPS = "https://www.opengis.net/def/rel/ogc/1.0/map";
+
+	@Test
+	public void testFindLandingPageLinkHref_ignoresScheme() {
+		Map<String, Object> landingPage = Map.of("links",
+				List.of(Map.of("rel", "self", "href", "/"), Map.of("rel", REL_MAP_HTTPS, "href", "/map")));
+		DiscoveredResources resources = new DiscoveredResources(URI.create("http://localhost/"), 200, landingPage, 404,
+				null, 404, null);
+
+		assertThat(resources.findLandingPageLinkHref(REL_MAP_HTTP), is("/map"));
+		assertThat(resources.findLandingPageLinkHref(REL_MAP_HTTPS), is("/map"));
+		assertThat(resources.findLandingPageLinkHref("alternate"), nullValue());
+		assertThat(resources.getConformsTo(), nullValue());
+		assertThat(resources.getCollections(), nullValue());
+	}
+
+	@Test
+	public void testDeclaresConformance() {
+		Map<String, Object> conformance = Map.of("conformsTo",
+				List.of("http://www.opengis.net/spec/ogcapi-maps-1/1.0/conf/core",
+						"https://www.opengis.net/spec/ogcapi-maps-1/1.0/conf/background"));
+		DiscoveredResources resources = new DiscoveredResources(URI.create("http://localhost/"), -1, null, 200,
+				conformance, -1, null);
+
+		assertThat(resources.declaresConformanceEndingWith("/conf/core"), is(true));
+		assertThat(resources.declaresConformanceEndingWith("/conf/crs"), is(false));
+		assertThat(resources.declaresConformance("http://www.opengis.net/spec/ogcapi-maps-1/1.0/conf/background"),
+				is(true));
+	}
+
+	@Test
+	public void testCollections() {
+		Map<String, Object> collections = Map.of("collections",
+				List.of(Map.of("id", "a", "links", List.of(Map.of("rel", REL_MAP_HTTP, "href", "/collections/a/map"))),
+						Map.of("id", "b", "links", List.of())));
+		DiscoveredResources resources = new DiscoveredResources(URI.create("http://localhost/"), 200, null, 200, null,
+				200, collections);
+
+		assertThat(resources.getCollectionIds(), hasItems("a", "b"));
+		assertThat(resources.findLinkHref(resources.getCollection("a"), REL_MAP_HTTPS), is("/collections/a/map"));
+		assertThat(resources.findLink(resources.getCollection("b"), REL_MAP_HTTPS), nullValue());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testCollections_unmodifiable() {
+		Map<String, Object> collections = Map.of("collections", List.of(Map.of("id", "a")));
+		DiscoveredResources resources = new DiscoveredResources(URI.create("http://localhost/"), 200, null, 200, null,
+				200, collections);
+
+		resources.getCollection("a").put("id", "b");
+	}
+
+}
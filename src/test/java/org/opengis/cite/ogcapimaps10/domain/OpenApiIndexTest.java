@@ -0,0 +1,78 @@
+package org.opengis.cite.ogcapimaps10.domain;
+
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class OpenApiIndexTest {
+
+	private static final URI ROOT = URI.create("http://localhost/ogcapi");
+
+	private static final Map<String, Object> DEFINITION = Map
+		.of("paths",
+				Map.of("/map",
+						Map.of("get",
+								Map.of("operationId", "dataset.getMap", "parameters",
+										List.of(Map.of("$ref", "#/components/parameters/collections-maps"),
+												Map.of("name", "bbox", "in", "query")))),
+						"/collections/{collectionId}/map",
+						Map.of("parameters", List.of(Map.of("$ref", "#/components/parameters/collectionId")), "get",
+								Map.of("operationId", "collection.getMap", "parameters",
+										List.of(Map.of("$ref", "#/components/parameters/unknown")))),
+						"/collections/a.b/map", Map.of("post", Map.of())),
+				"components",
+				Map.of("parameters",
+						Map.of("collections-maps", Map.of("name", "collections", "in", "query", "required", false),
+								"collectionId", Map.of("name", "collectionId", "in", "path", "required", true))));
+
+	@Test
+	public void testOperations_resolvesReferences() {
+		OpenApiIndex index = new OpenApiIndex(ROOT, "http://localhost/ogcapi/api", 200, DEFINITION);
+
+		OpenApiIndex.Operation map = index.getOperation("/map", "GET");
+		assertThat(map.getOperationId(), is("dataset.getMap"));
+		assertThat(map.getParameterNames(), hasItems("collections", "bbox"));
+		assertThat(map.findParameter("collections", "query").isRequired(), is(false));
+		assertThat(index.getOperation("/map", "post"), nullValue());
+	}
+
+	@Test
+	public void testOperations_mergesPathItemParameters() {
+		OpenApiIndex index = new OpenApiIndex(ROOT, "http://localhost/ogcapi/api", 200, DEFINITION);
+
+		OpenApiIndex.Operation map = index.getOperation("/collections/{collectionId}/map", "get");
+		assertThat(map.findParameter("collectionId", "path").isRequired(), is(true));
+		// an unresolvable reference is named after its last segment
+		assertThat(map.getParameterNames(), hasItems("collectionId", "unknown"));
+	}
+
+	@Test
+	public void testFindPath() {
+		OpenApiIndex index = new OpenApiIndex(ROOT, "http://localhost/ogcapi/api", 200, DEFINITION);
+
+		assertThat(index.findPath("/map"), is("/map"));
+		assertThat(index.findPath("/collections/a/map"), is("/collections/{collectionId}/map"));
+		assertThat(index.findPath("/collections/a.b/map"), is("/collections/a.b/map"));
+		assertThat(index.findPath("/collections/a/b/map"), nullValue());
+		assertThat(index.findPath("/collections/a/map/tiles"), nullValue());
+	}
+
+	@Test
+	public void testMissingDefinition() {
+		OpenApiIndex index = new OpenApiIndex(ROOT, "http://localhost/ogcapi/api", 404, null);
+
+		assertThat(index.isParsed(), is(false));
+		assertThat(index.getPaths(), nullValue());
+		assertThat(index.getOperations("/map"), notNullValue());
+		assertThat(index.findPath("/map"), nullValue());
+	}
+
+}
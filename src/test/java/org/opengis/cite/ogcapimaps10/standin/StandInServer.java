@@ -0,0 +1,738 @@
+package org.opengis.cite.ogcapimaps10.standin;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.ImageIO;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A stand-in OGC API - Maps server on localhost, to run the suite, the unit tests and the
+ * benchmarks without network access and independent of the variance of a real server. It
+ * serves a landing page, the conformance declaration, an API definition, two collections,
+ * dataset and collection maps, styles and styled maps as well as map tilesets of
+ * WebMercatorQuad and WorldCRS84Quad. Maps are rendered as PNG, JPEG or TIFF and support
+ * the parameters bbox, width, height, bgcolor and transparent. Maps and tiles carry an
+ * ETag, Last-Modified, Cache-Control and <code>Vary: Accept</code> header and conditional
+ * requests are answered with 304 Not Modified.
+ *
+ * <p>
+ * Latency, payload size and failures can be emulated with a {@link Config}: each response
+ * is delayed by the latency plus a random jitter, the default size of maps and tiles
+ * determines the payload, and a percentage of the requests is answered with an error
+ * status.
+ * </p>
+ *
+ * <p>
+ * To run the suite against it, start it with
+ * <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.opengis.cite.ogcapimaps10.standin.StandInServer
+ * -Dexec.args="port=8090 latency=20"</code> and use <code>http://localhost:8090/</code>
+ * as IUT.
+ * </p>
+ */
+public class StandInServer implements Closeable {
+
+	private static final String CRS84 = "http://www.opengis.net/def/crs/OGC/1.3/CRS84";
+
+	private static final String REL_MAP = "http://www.opengis.net/def/rel/ogc/1.0/map";
+
+	private static final String REL_TILESETS_MAP = "http://www.opengis.net/def/rel/ogc/1.0/tilesets-map";
+
+	private static final String REL_STYLES = "http://www.opengis.net/def/rel/ogc/1.0/styles";
+
+	private static final String CONF = "http://www.opengis.net/spec/ogcapi-maps-1/1.0/conf/";
+
+	private static final List<String> CONFORMANCE_CLASSES = List.of(
+			"http://www.opengis.net/spec/ogcapi-common-1/1.0/conf/core",
+			"http://www.opengis.net/spec/ogcapi-common-2/1.0/conf/collections", CONF + "core", CONF + "dataset-map",
+			CONF + "collection-map", CONF + "styled-map", CONF + "tilesets", CONF + "background", CONF + "scaling",
+			CONF + "spatial-subsetting", CONF + "png", CONF + "jpeg", CONF + "tiff");
+
+	private static final List<String> STYLES = List.of("default", "night");
+
+	private static final Map<String, String> TILE_MATRIX_SETS = Map.of("WebMercatorQuad",
+			"http://www.opengis.net/def/crs/EPSG/0/3857", "WorldCRS84Quad", CRS84);
+
+	private static final int MAX_SIZE = 4096;
+
+	private static final int MAX_ZOOM = 24;
+
+	private static final int MAX_RENDERED = 64;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final Map<String, double[]> collections = new LinkedHashMap<>();
+
+	private final Map<String, byte[]> rendered = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+			return size() > MAX_RENDERED;
+		}
+
+	});
+
+	private final AtomicLong requests = new AtomicLong();
+
+	private final Config config;
+
+	private final Random random;
+
+	private final ZonedDateTime lastModified = ZonedDateTime.now(ZoneOffset.UTC).withNano(0);
+
+	private HttpServer server;
+
+	private ExecutorService executor;
+
+	private String baseUrl;
+
+	/**
+	 * Creates a stand-in server without emulated latency or failures.
+	 */
+	public StandInServer() {
+		this(new Config());
+	}
+
+	/**
+	 * Creates a stand-in server.
+	 * @param config the emulated behaviour, never <code>null</code>
+	 */
+	public StandInServer(Config config) {
+		this.config = config;
+		this.random = new Random(config.seed);
+		collections.put("buildings", new double[] { 7.5, 51.8, 7.7, 52.0 });
+		collections.put("rivers", new double[] { 5.8, 50.3, 9.5, 52.5 });
+	}
+
+	/**
+	 * Starts the server.
+	 * @return this server
+	 * @throws IOException if the port could not be bound
+	 */
+	public StandInServer start() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", config.port), 0);
+		executor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "stand-in-server");
+			thread.setDaemon(true);
+			return thread;
+		});
+		server.setExecutor(executor);
+		server.createContext("/", this::handle);
+		server.start();
+		baseUrl = "http://localhost:" + server.getAddress().getPort();
+		return this;
+	}
+
+	/**
+	 * @return the URI of the landing page, never <code>null</code>
+	 * @throws IllegalStateException if the server was not started
+	 */
+	public URI getRootUri() {
+		if (baseUrl == null)
+			throw new IllegalStateException("Server not started");
+		return URI.create(baseUrl + "/");
+	}
+
+	/**
+	 * @return the number of requests received
+	 */
+	public long getRequestCount() {
+		return requests.get();
+	}
+
+	/**
+	 * Stops the server.
+	 */
+	@Override
+	public void close() {
+		if (server != null)
+			server.stop(0);
+		if (executor != null)
+			executor.shutdownNow();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			requests.incrementAndGet();
+			emulateLatency();
+			exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+			String method = exchange.getRequestMethod();
+			if ("OPTIONS".equals(method)) {
+				exchange.getResponseHeaders().set("Allow", "GET, HEAD, OPTIONS");
+				exchange.sendResponseHeaders(204, -1);
+				return;
+			}
+			if (!"GET".equals(method) && !"HEAD".equals(method)) {
+				sendError(exchange, 405, "Method not allowed");
+				return;
+			}
+			if (emulateFailure()) {
+				sendError(exchange, config.failureStatus, "Emulated failure");
+				return;
+			}
+			try {
+				route(exchange, pathSegments(exchange.getRequestURI().getRawPath()), queryParameters(exchange));
+			}
+			catch (IllegalArgumentException e) {
+				sendError(exchange, 400, e.getMessage());
+			}
+		}
+	}
+
+	private void route(HttpExchange exchange, List<String> path, Map<String, String> query) throws IOException {
+		if (path.isEmpty()) {
+			sendJson(exchange, landingPage());
+			return;
+		}
+		String first = path.get(0);
+		if (path.size() == 1 && "conformance".equals(first)) {
+			sendJson(exchange, Map.of("conformsTo", CONFORMANCE_CLASSES));
+			return;
+		}
+		if (path.size() == 1 && "api".equals(first)) {
+			sendJson(exchange, apiDefinition());
+			return;
+		}
+		if (path.size() == 1 && "collections".equals(first)) {
+			List<Object> descriptions = new ArrayList<>();
+			for (String id : collections.keySet())
+				descriptions.add(collection(id));
+			sendJson(exchange, map("links", List.of(link("self", baseUrl + "/collections", "application/json")),
+					"collections", descriptions));
+			return;
+		}
+		String prefix = "";
+		double[] extent = { -180, -90, 180, 90 };
+		List<String> rest = path;
+		if ("collections".equals(first)) {
+			extent = collections.get(path.get(1));
+			if (extent == null) {
+				sendError(exchange, 404, "Unknown collection " + path.get(1));
+				return;
+			}
+			prefix = "/collections/" + path.get(1);
+			if (path.size() == 2) {
+				sendJson(exchange, collection(path.get(1)));
+				return;
+			}
+			rest = path.subList(2, path.size());
+		}
+		routeMapResource(exchange, prefix, extent, rest, query);
+	}
+
+	private void routeMapResource(HttpExchange exchange, String prefix, double[] extent, List<String> path,
+			Map<String, String> query) throws IOException {
+		if (path.equals(List.of("map"))) {
+			sendMap(exchange, prefix, extent, null, query);
+		}
+		else if (path.equals(List.of("styles"))) {
+			sendJson(exchange, styles(prefix));
+		}
+		else if (path.size() == 3 && "styles".equals(path.get(0)) && "map".equals(path.get(2))
+				&& STYLES.contains(path.get(1))) {
+			sendMap(exchange, prefix, extent, path.get(1), query);
+		}
+		else if (path.equals(List.of("map", "tiles"))) {
+			sendJson(exchange, tilesets(prefix));
+		}
+		else if (path.size() >= 3 && "map".equals(path.get(0)) && "tiles".equals(path.get(1))
+				&& TILE_MATRIX_SETS.containsKey(path.get(2))) {
+			if (path.size() == 3)
+				sendJson(exchange, tileset(prefix, path.get(2)));
+			else if (path.size() == 6)
+				sendTile(exchange, path.get(2), path.subList(3, 6), query);
+			else
+				sendError(exchange, 404, "Not found");
+		}
+		else {
+			sendError(exchange, 404, "Not found");
+		}
+	}
+
+	private Map<String, Object> landingPage() {
+		return map("title", "Stand-in OGC API - Maps", "links",
+				List.of(link("self", baseUrl + "/", "application/json"),
+						link("service-desc", baseUrl + "/api", "application/vnd.oai.openapi+json;version=3.0"),
+						link("conformance", baseUrl + "/conformance", "application/json"),
+						link("data", baseUrl + "/collections", "application/json"),
+						link(REL_MAP, baseUrl + "/map", "image/png"),
+						link(REL_TILESETS_MAP, baseUrl + "/map/tiles", "application/json"),
+						link(REL_STYLES, baseUrl + "/styles", "application/json")));
+	}
+
+	private Map<String, Object> collection(String id) {
+		String url = baseUrl + "/collections/" + id;
+		double[] bbox = collections.get(id);
+		return map("id", id, "title", id, "extent",
+				map("spatial", map("bbox", List.of(List.of(bbox[0], bbox[1], bbox[2], bbox[3])), "crs", CRS84)), "crs",
+				List.of(CRS84, "http://www.opengis.net/def/crs/EPSG/0/3857"), "storageCrs", CRS84, "links",
+				List.of(link("self", url, "application/json"), link(REL_MAP, url + "/map", "image/png"),
+						link(REL_TILESETS_MAP, url + "/map/tiles", "application/json"),
+						link(REL_STYLES, url + "/styles", "application/json")));
+	}
+
+	private Map<String, Object> styles(String prefix) {
+		List<Object> styles = new ArrayList<>();
+		for (String style : STYLES)
+			styles.add(map("id", style, "title", style, "links",
+					List.of(link(REL_MAP, baseUrl + prefix + "/styles/" + style + "/map", "image/png"))));
+		return map("default", STYLES.get(0), "styles", styles, "links",
+				List.of(link("self", baseUrl + prefix + "/styles", "application/json")));
+	}
+
+	private Map<String, Object> tilesets(String prefix) {
+		List<Object> tilesets = new ArrayList<>();
+		for (Map.Entry<String, String> tileMatrixSet : new TreeMap<>(TILE_MATRIX_SETS).entrySet())
+			tilesets.add(map("title", tileMatrixSet.getKey(), "dataType", "map", "crs", tileMatrixSet.getValue(),
+					"tileMatrixSetURI", "http://www.opengis.net/def/tilematrixset/OGC/1.0/" + tileMatrixSet.getKey(),
+					"links", List.of(link("self", baseUrl + prefix + "/map/tiles/" + tileMatrixSet.getKey(),
+							"application/json"))));
+		return map("tilesets", tilesets, "links",
+				List.of(link("self", baseUrl + prefix + "/map/tiles", "application/json")));
+	}
+
+	private Map<String, Object> tileset(String prefix, String tileMatrixSet) {
+		String url = baseUrl + prefix + "/map/tiles/" + tileMatrixSet;
+		String template = url + "/{tileMatrix}/{tileRow}/{tileCol}";
+		return map("title", tileMatrixSet, "dataType", "map", "crs", TILE_MATRIX_SETS.get(tileMatrixSet),
+				"tileMatrixSetURI", "http://www.opengis.net/def/tilematrixset/OGC/1.0/" + tileMatrixSet, "links",
+				List.of(link("self", url, "application/json"), templatedLink("item", template, "image/png"),
+						templatedLink("item", template + "?f=jpeg", "image/jpeg")));
+	}
+
+	private Map<String, Object> apiDefinition() {
+		Map<String, Object> paths = new LinkedHashMap<>();
+		paths.put("/", operation("getLandingPage", "application/json"));
+		paths.put("/conformance", operation("getConformance", "application/json"));
+		paths.put("/collections", operation("getCollections", "application/json"));
+		paths.put("/collections/{collectionId}", operation("getCollection", "application/json"));
+		paths.put("/map", operation("getDatasetMap", "image/png"));
+		paths.put("/collections/{collectionId}/map", operation("getCollectionMap", "image/png"));
+		paths.put("/styles/{styleId}/map", operation("getStyledDatasetMap", "image/png"));
+		paths.put("/collections/{collectionId}/styles/{styleId}/map", operation("getStyledCollectionMap", "image/png"));
+		return map("openapi", "3.0.3", "info", map("title", "Stand-in OGC API - Maps", "version", "1.0"), "servers",
+				List.of(map("url", baseUrl)), "paths", paths);
+	}
+
+	private static Map<String, Object> operation(String operationId, String mediaType) {
+		return map("get", map("operationId", operationId, "responses",
+				map("200", map("description", "OK", "content", map(mediaType, map())))));
+	}
+
+	private void sendMap(HttpExchange exchange, String prefix, double[] extent, String style, Map<String, String> query)
+			throws IOException {
+		String format = format(exchange, query);
+		int width = intParameter(query, "width", config.mapWidth);
+		int height = intParameter(query, "height", config.mapHeight);
+		double[] bbox = query.containsKey("bbox") ? bbox(query.get("bbox")) : extent;
+		Color background = color(query.getOrDefault("bgcolor", "night".equals(style) ? "0x202030" : "0xF2EFE9"));
+		boolean transparent = Boolean.parseBoolean(query.get("transparent"));
+		String key = String.join("|", prefix, String.valueOf(style), format, width + "x" + height,
+				Arrays.toString(bbox), Integer.toHexString(background.getRGB()), String.valueOf(transparent));
+		byte[] image = rendered.get(key);
+		if (image == null) {
+			image = render(format, width, height, background, transparent, key.hashCode());
+			rendered.put(key, image);
+		}
+		exchange.getResponseHeaders().set("Content-Crs", "<" + CRS84 + ">");
+		exchange.getResponseHeaders()
+			.set("Content-Bbox", String.format(Locale.ROOT, "%s,%s,%s,%s", bbox[0], bbox[1], bbox[2], bbox[3]));
+		sendImage(exchange, format, image, key);
+	}
+
+	private void sendTile(HttpExchange exchange, String tileMatrixSet, List<String> tile, Map<String, String> query)
+			throws IOException {
+		int zoom = Integer.parseInt(tile.get(0));
+		int row = Integer.parseInt(tile.get(1));
+		int col = Integer.parseInt(tile.get(2));
+		int rows = 1 << Math.min(zoom, MAX_ZOOM);
+		int cols = "WorldCRS84Quad".equals(tileMatrixSet) ? 2 * rows : rows;
+		if (zoom < 0 || zoom > MAX_ZOOM || row < 0 || row >= rows || col < 0 || col >= cols) {
+			sendError(exchange, 404, "Tile out of range");
+			return;
+		}
+		String format = format(exchange, query);
+		String key = String.join("|", tileMatrixSet, format, zoom + "/" + row + "/" + col);
+		byte[] image = rendered.get(key);
+		if (image == null) {
+			image = render(format, config.tileSize, config.tileSize, new Color(0xF2EFE9), false, key.hashCode());
+			rendered.put(key, image);
+		}
+		sendImage(exchange, format, image, key);
+	}
+
+	private void sendImage(HttpExchange exchange, String format, byte[] image, String key) throws IOException {
+		String etag = "\"" + Integer.toHexString(key.hashCode()) + "\"";
+		Headers headers = exchange.getResponseHeaders();
+		headers.set("ETag", etag);
+		headers.set("Last-Modified", DateTimeFormatter.RFC_1123_DATE_TIME.format(lastModified));
+		headers.set("Cache-Control", "public, max-age=3600");
+		headers.set("Vary", "Accept");
+		if (isNotModified(exchange.getRequestHeaders(), etag)) {
+			exchange.sendResponseHeaders(304, -1);
+			return;
+		}
+		send(exchange, 200, "image/" + format, image);
+	}
+
+	private boolean isNotModified(Headers request, String etag) {
+		String ifNoneMatch = request.getFirst("If-None-Match");
+		if (ifNoneMatch != null) {
+			for (String candidate : ifNoneMatch.split(","))
+				if (candidate.trim().equals("*") || candidate.trim().equals(etag))
+					return true;
+			return false;
+		}
+		String ifModifiedSince = request.getFirst("If-Modified-Since");
+		if (ifModifiedSince == null)
+			return false;
+		try {
+			return !lastModified.isAfter(ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME));
+		}
+		catch (DateTimeParseException e) {
+			return false;
+		}
+	}
+
+	private static byte[] render(String format, int width, int height, Color background, boolean transparent, long seed)
+			throws IOException {
+		boolean alpha = transparent && !"jpeg".equals(format);
+		BufferedImage image = new BufferedImage(width, height,
+				alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		if (!alpha) {
+			graphics.setColor(background);
+			graphics.fillRect(0, 0, width, height);
+		}
+		Random random = new Random(seed);
+		for (int i = 0; i < 20; i++) {
+			graphics.setColor(new Color(random.nextInt(0xFFFFFF)));
+			graphics.fillRect(random.nextInt(width), random.nextInt(height), 1 + random.nextInt(width / 4 + 1),
+					1 + random.nextInt(height / 4 + 1));
+		}
+		graphics.setStroke(new BasicStroke(2));
+		graphics.setColor(new Color(0x3070C0));
+		for (int i = 0; i < 10; i++)
+			graphics.drawLine(random.nextInt(width), random.nextInt(height), random.nextInt(width),
+					random.nextInt(height));
+		graphics.dispose();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		if (!ImageIO.write(image, format, out))
+			throw new IOException("No image writer for " + format);
+		return out.toByteArray();
+	}
+
+	private static String format(HttpExchange exchange, Map<String, String> query) {
+		String f = query.get("f");
+		if (f != null) {
+			switch (f.toLowerCase(Locale.ROOT)) {
+				case "png":
+					return "png";
+				case "jpeg":
+				case "jpg":
+					return "jpeg";
+				case "tiff":
+				case "tif":
+					return "tiff";
+				default:
+					throw new IllegalArgumentException("Unsupported format " + f);
+			}
+		}
+		String accept = exchange.getRequestHeaders().getFirst("Accept");
+		if (accept != null) {
+			for (String mediaType : accept.split(",")) {
+				String type = mediaType.split(";")[0].trim();
+				if ("image/png".equals(type))
+					return "png";
+				if ("image/jpeg".equals(type))
+					return "jpeg";
+				if ("image/tiff".equals(type))
+					return "tiff";
+			}
+		}
+		return "png";
+	}
+
+	private static int intParameter(Map<String, String> query, String name, int defaultValue) {
+		String value = query.get(name);
+		if (value == null)
+			return defaultValue;
+		try {
+			int intValue = Integer.parseInt(value);
+			if (intValue > 0 && intValue <= MAX_SIZE)
+				return intValue;
+		}
+		catch (NumberFormatException e) {
+			// reported below
+		}
+		throw new IllegalArgumentException("Invalid " + name + " " + value);
+	}
+
+	private static double[] bbox(String value) {
+		String[] coordinates = value.split(",");
+		if (coordinates.length != 4)
+			throw new IllegalArgumentException("Invalid bbox " + value);
+		double[] bbox = new double[4];
+		try {
+			for (int i = 0; i < 4; i++)
+				bbox[i] = Double.parseDouble(coordinates[i].trim());
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid bbox " + value);
+		}
+		if (bbox[0] > bbox[2] || bbox[1] > bbox[3])
+			throw new IllegalArgumentException("Invalid bbox " + value);
+		return bbox;
+	}
+
+	private static Color color(String value) {
+		String hex = value.startsWith("0x") || value.startsWith("0X") ? value.substring(2) : value;
+		try {
+			return new Color(Integer.parseInt(hex, 16) & 0xFFFFFF);
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid bgcolor " + value);
+		}
+	}
+
+	private void sendJson(HttpExchange exchange, Map<String, Object> document) throws IOException {
+		send(exchange, 200, "application/json", objectMapper.writeValueAsBytes(document));
+	}
+
+	private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+		send(exchange, status, "application/json",
+				objectMapper.writeValueAsBytes(map("code", String.valueOf(status), "description", message)));
+	}
+
+	private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", contentType);
+		boolean head = "HEAD".equals(exchange.getRequestMethod());
+		exchange.sendResponseHeaders(status, head ? -1 : body.length);
+		if (!head) {
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		}
+	}
+
+	private void emulateLatency() {
+		long millis = config.latencyMillis;
+		if (config.jitterMillis > 0)
+			millis += (long) (random.nextDouble() * config.jitterMillis);
+		if (millis <= 0)
+			return;
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private boolean emulateFailure() {
+		return config.failureRate > 0 && random.nextDouble() * 100 < config.failureRate;
+	}
+
+	private static List<String> pathSegments(String rawPath) {
+		List<String> segments = new ArrayList<>();
+		for (String segment : rawPath.split("/"))
+			if (!segment.isEmpty())
+				segments.add(URLDecoder.decode(segment, StandardCharsets.UTF_8));
+		return segments;
+	}
+
+	private static Map<String, String> queryParameters(HttpExchange exchange) {
+		Map<String, String> parameters = new HashMap<>();
+		String query = exchange.getRequestURI().getRawQuery();
+		if (query == null)
+			return parameters;
+		for (String parameter : query.split("&")) {
+			int equals = parameter.indexOf('=');
+			if (equals > 0)
+				parameters.put(URLDecoder.decode(parameter.substring(0, equals), StandardCharsets.UTF_8),
+						URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+		}
+		return parameters;
+	}
+
+	private static Map<String, Object> link(String rel, String href, String type) {
+		return map("rel", rel, "href", href, "type", type);
+	}
+
+	private static Map<String, Object> templatedLink(String rel, String href, String type) {
+		return map("rel", rel, "href", href, "type", type, "templated", true);
+	}
+
+	private static Map<String, Object> map(Object... keysAndValues) {
+		Map<String, Object> map = new LinkedHashMap<>();
+		for (int i = 0; i < keysAndValues.length; i += 2)
+			map.put((String) keysAndValues[i], keysAndValues[i + 1]);
+		return map;
+	}
+
+	/**
+	 * Starts a stand-in server until the process is stopped.
+	 * @param args settings as key=value: port (default 8090), latency and jitter in
+	 * milliseconds, failureRate in percent, failureStatus, width and height of maps,
+	 * tileSize
+	 * @throws IOException if the port could not be bound
+	 */
+	public static void main(String[] args) throws IOException {
+		Config config = new Config().port(8090);
+		for (String arg : args) {
+			String[] keyAndValue = arg.split("=", 2);
+			String value = keyAndValue.length > 1 ? keyAndValue[1] : "";
+			switch (keyAndValue[0]) {
+				case "port":
+					config.port(Integer.parseInt(value));
+					break;
+				case "latency":
+					config.latency(Long.parseLong(value), config.jitterMillis);
+					break;
+				case "jitter":
+					config.latency(config.latencyMillis, Long.parseLong(value));
+					break;
+				case "failureRate":
+					config.failures(Double.parseDouble(value), config.failureStatus);
+					break;
+				case "failureStatus":
+					config.failures(config.failureRate, Integer.parseInt(value));
+					break;
+				case "width":
+					config.mapSize(Integer.parseInt(value), config.mapHeight);
+					break;
+				case "height":
+					config.mapSize(config.mapWidth, Integer.parseInt(value));
+					break;
+				case "tileSize":
+					config.tileSize(Integer.parseInt(value));
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown argument " + arg);
+			}
+		}
+		StandInServer server = new StandInServer(config).start();
+		System.out.println("Stand-in OGC API - Maps server running at " + server.getRootUri());
+	}
+
+	/**
+	 * The emulated behaviour of a stand-in server.
+	 */
+	public static class Config {
+
+		private int port;
+
+		private long latencyMillis;
+
+		private long jitterMillis;
+
+		private double failureRate;
+
+		private int failureStatus = 503;
+
+		private int mapWidth = 512;
+
+		private int mapHeight = 256;
+
+		private int tileSize = 256;
+
+		private long seed = 42;
+
+		/**
+		 * @param port the port to listen on, 0 (the default) for a free port
+		 * @return this config
+		 */
+		public Config port(int port) {
+			this.port = port;
+			return this;
+		}
+
+		/**
+		 * @param latencyMillis the delay of each response in milliseconds
+		 * @param jitterMillis the maximum random delay added to the latency in
+		 * milliseconds
+		 * @return this config
+		 */
+		public Config latency(long latencyMillis, long jitterMillis) {
+			this.latencyMillis = latencyMillis;
+			this.jitterMillis = jitterMillis;
+			return this;
+		}
+
+		/**
+		 * @param failureRate the percentage of requests answered with an error
+		 * @param failureStatus the status code of the errors, e.g. 503
+		 * @return this config
+		 */
+		public Config failures(double failureRate, int failureStatus) {
+			this.failureRate = failureRate;
+			this.failureStatus = failureStatus;
+			return this;
+		}
+
+		/**
+		 * @param width the width of maps requested without width, default 512
+		 * @param height the height of maps requested without height, default 256
+		 * @return this config
+		 */
+		public Config mapSize(int width, int height) {
+			this.mapWidth = width;
+			this.mapHeight = height;
+			return this;
+		}
+
+		/**
+		 * @param tileSize the width and height of tiles, default 256
+		 * @return this config
+		 */
+		public Config tileSize(int tileSize) {
+			this.tileSize = tileSize;
+			return this;
+		}
+
+		/**
+		 * @param seed the seed of the emulated jitter and failures
+		 * @return this config
+		 */
+		public Config seed(long seed) {
+			this.seed = seed;
+			return this;
+		}
+
+	}
+
+}
@@ -0,0 +1,110 @@
+package org.opengis.cite.ogcapimaps10.standin;
+
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.opengis.cite.ogcapimaps10.domain.DiscoveredResources;
+import org.opengis.cite.ogcapimaps10.domain.ImageInfo;
+import org.opengis.cite.ogcapimaps10.domain.OpenApiIndex;
+import org.opengis.cite.ogcapimaps10.util.HttpTransport;
+import org.opengis.cite.ogcapimaps10.util.ImageProbe;
+import org.opengis.cite.ogcapimaps10.util.ResourceDiscovery;
+import org.opengis.cite.ogcapimaps10.util.RetryPolicy;
+
+public class StandInServerTest {
+
+	private StandInServer server;
+
+	private final HttpTransport transport = new HttpTransport();
+
+	@After
+	public void stopServer() {
+		transport.close();
+		if (server != null)
+			server.close();
+	}
+
+	@Test
+	public void testDiscovery() throws Exception {
+		server = new StandInServer().start();
+		ResourceDiscovery discovery = new ResourceDiscovery(transport, null);
+
+		DiscoveredResources resources = discovery.discover(server.getRootUri());
+		assertThat(resources.getLandingPageStatus(), is(200));
+		assertThat(resources.getCollectionIds(), is(List.of("buildings", "rivers")));
+		assertTrue(resources.declaresConformanceEndingWith("/conf/core"));
+		assertThat(resources.findLandingPageLinkHref("http://www.opengis.net/def/rel/ogc/1.0/map"), notNullValue());
+
+		OpenApiIndex api = discovery.discoverApiDefinition(resources);
+		assertTrue(api.isParsed());
+		assertThat(api.getPaths(), hasItem("/collections/{collectionId}/map"));
+	}
+
+	@Test
+	public void testMapFormats() throws Exception {
+		server = new StandInServer().start();
+		String url = server.getRootUri() + "collections/buildings/map?width=300&height=200";
+
+		assertImage(url + "&f=png", "png", 300, 200);
+		assertImage(url + "&f=jpeg", "jpeg", 300, 200);
+		assertImage(url + "&f=tiff", "tif", 300, 200);
+		assertImage(server.getRootUri() + "styles/night/map?f=png", "png", 512, 256);
+		assertImage(server.getRootUri() + "map/tiles/WorldCRS84Quad/1/1/3?f=png", "png", 256, 256);
+	}
+
+	@Test
+	public void testInvalidRequests() throws Exception {
+		server = new StandInServer().start();
+
+		assertThat(status(server.getRootUri() + "map?bbox=1,2,3"), is(400));
+		assertThat(status(server.getRootUri() + "map?width=0"), is(400));
+		assertThat(status(server.getRootUri() + "collections/unknown"), is(404));
+		assertThat(status(server.getRootUri() + "map/tiles/WebMercatorQuad/1/2/0"), is(404));
+	}
+
+	@Test
+	public void testEmulatedFailuresAndLatency() throws Exception {
+		server = new StandInServer(new StandInServer.Config().latency(50, 0).failures(100, 503)).start();
+
+		long start = System.nanoTime();
+		assertThat(status(server.getRootUri().toString()), is(503));
+		assertTrue(System.nanoTime() - start >= 50_000_000L);
+		assertThat(server.getRequestCount(), is(1L));
+	}
+
+	private void assertImage(String url, String formatName, int width, int height) throws IOException {
+		HttpURLConnection connection = transport.openConnection(url);
+		assertThat(connection.getResponseCode(), is(200));
+		byte[] body;
+		try (InputStream in = connection.getInputStream()) {
+			body = in.readAllBytes();
+		}
+		ImageInfo info = ImageProbe.probe(body);
+		assertThat(info.getFormatName().toLowerCase(), is(formatName));
+		assertThat(info.getWidth(), is(width));
+		assertThat(info.getHeight(), is(height));
+	}
+
+	private int status(String url) throws IOException {
+		// not retried, the test checks the responses of the stand-in as they are
+		HttpURLConnection connection = transport.openConnection(new URL(url), RetryPolicy.NONE);
+		int status = connection.getResponseCode();
+		try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+			if (in != null)
+				in.readAllBytes();
+		}
+		return status;
+	}
+
+}
@@ -0,0 +1,124 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.cite.ogcapimaps10.standin.StandInServer;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class CachingCheckTest {
+
+	private StandInServer standIn;
+
+	private HttpServer server;
+
+	private HttpTransport transport;
+
+	private String brokenUrl;
+
+	@Before
+	public void startServers() throws Exception {
+		standIn = new StandInServer().start();
+		// ignores conditional requests and returns PNG or JPEG without Vary
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", exchange -> {
+			String accept = exchange.getRequestHeaders().getFirst("Accept");
+			boolean jpeg = accept != null && accept.startsWith("image/jpeg");
+			byte[] body = jpeg ? new byte[] { 1, 2, 3 } : new byte[] { 4, 5, 6, 7 };
+			exchange.getResponseHeaders().set("Content-Type", jpeg ? "image/jpeg" : "image/png");
+			exchange.getResponseHeaders().set("ETag", "\"same\"");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+		brokenUrl = "http://localhost:" + server.getAddress().getPort() + "/map";
+		transport = new HttpTransport();
+	}
+
+	@After
+	public void stopServers() {
+		transport.close();
+		server.stop(0);
+		standIn.close();
+	}
+
+	@Test
+	public void testConditionalRequests() throws Exception {
+		CachingCheck check = new CachingCheck(transport, null);
+		String url = standIn.getRootUri() + "collections/rivers/map";
+
+		CachingCheck.Resource resource = check.checkConditionalRequests("map", url, "image/png");
+
+		assertTrue(resource.hasValidators());
+		assertThat(resource.getIfNoneMatch().getStatus(), is(304));
+		assertThat(resource.getIfModifiedSince().getStatus(), is(304));
+		assertThat(resource.getNonMatching().getStatus(), is(200));
+		assertThat(resource.getErrors().isEmpty(), is(true));
+		assertThat(resource.getFirst().getMaxAge(), is(3600L));
+		assertThat(check.getEfficiency(), is(100.0));
+		assertThat(check.checkVariants(List.of(new CachingCheck.Variant(url, "image/png"),
+				new CachingCheck.Variant(url, "image/jpeg"), new CachingCheck.Variant(url + "?bgcolor=0xFF0000", null)))
+			.isEmpty(), is(true));
+	}
+
+	@Test
+	public void testConditionalRequestsIgnored() throws Exception {
+		CachingCheck check = new CachingCheck(transport, null);
+
+		CachingCheck.Resource resource = check.checkConditionalRequests("map", brokenUrl, "image/png");
+
+		assertThat(resource.getErrors().size(), is(1));
+		assertThat(resource.getErrors().get(0), containsString("expected 304 for If-None-Match: \"same\""));
+		assertThat(check.getEfficiency(), is(0.0));
+	}
+
+	@Test
+	public void testVariantsWithoutVary() throws Exception {
+		CachingCheck check = new CachingCheck(transport, null);
+
+		List<String> errors = check.checkVariants(List.of(new CachingCheck.Variant(brokenUrl, "image/png"),
+				new CachingCheck.Variant(brokenUrl, "image/jpeg")));
+
+		assertThat(errors.size(), is(1));
+		assertThat(errors.get(0), containsString("without Vary: Accept"));
+		StringWriter summary = new StringWriter();
+		check.writeSummary(summary);
+		assertThat(summary.toString(), containsString("Vary: " + brokenUrl));
+	}
+
+	@Test
+	public void testSharedStrongEtag() throws Exception {
+		CachingCheck check = new CachingCheck(transport, null);
+
+		List<String> errors = check.checkVariants(List.of(new CachingCheck.Variant(brokenUrl, "image/png"),
+				new CachingCheck.Variant(brokenUrl + "?bgcolor=0xFF0000", "image/jpeg")));
+
+		assertThat(errors.size(), is(1));
+		assertThat(errors.get(0), containsString("have the same strong ETag \"same\""));
+	}
+
+	@Test
+	public void testMaxAge() {
+		assertThat(CachingCheck.maxAge(null), is(-1L));
+		assertThat(CachingCheck.maxAge("public, max-age=600"), is(600L));
+		assertThat(CachingCheck.maxAge("s-maxage=60, public"), is(60L));
+		assertThat(CachingCheck.maxAge("no-store"), is(-1L));
+		assertTrue(CachingCheck.varies("Accept-Encoding, accept", "Accept"));
+		assertTrue(CachingCheck.varies("*", "Accept"));
+		assertThat(CachingCheck.varies("Accept-Encoding", "Accept"), is(false));
+	}
+
+}
@@ -0,0 +1,89 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.opengis.cite.ogcapimaps10.exception.CircuitOpenException;
+
+public class CircuitBreakerTest {
+
+	private static final String HOST = "example.org:443";
+
+	private final AtomicLong now = new AtomicLong(1000);
+
+	private final CircuitBreaker breaker = new CircuitBreaker(3, 10000, now::get);
+
+	@Test
+	public void testOpensAfterConsecutiveFailures() {
+		breaker.recordFailure(HOST);
+		breaker.recordFailure(HOST);
+		breaker.recordSuccess(HOST);
+		breaker.recordFailure(HOST);
+		breaker.recordFailure(HOST);
+		breaker.acquire(HOST);
+		assertThat(breaker.getState(HOST), is(CircuitBreaker.State.CLOSED));
+
+		breaker.recordFailure(HOST);
+
+		assertThat(breaker.getState(HOST), is(CircuitBreaker.State.OPEN));
+		try {
+			breaker.acquire(HOST);
+			fail("Expected CircuitOpenException");
+		}
+		catch (CircuitOpenException e) {
+			assertThat(e.getHost(), is(HOST));
+			assertThat(e.getMessage(), containsString("for another 10 s"));
+		}
+		breaker.acquire("other.org:80");
+	}
+
+	@Test
+	public void testHalfOpen() {
+		for (int i = 0; i < 3; i++)
+			breaker.recordFailure(HOST);
+		now.addAndGet(10000);
+
+		breaker.acquire(HOST);
+		assertThat(breaker.getState(HOST), is(CircuitBreaker.State.HALF_OPEN));
+		try {
+			breaker.acquire(HOST);
+			fail("Only one request is let through after the cool-down");
+		}
+		catch (CircuitOpenException e) {
+			// expected
+		}
+		breaker.recordFailure(HOST);
+		assertThat(breaker.getState(HOST), is(CircuitBreaker.State.OPEN));
+
+		now.addAndGet(10000);
+		breaker.acquire(HOST);
+		breaker.recordSuccess(HOST);
+		assertThat(breaker.getState(HOST), is(CircuitBreaker.State.CLOSED));
+		breaker.acquire(HOST);
+	}
+
+	@Test
+	public void testDisabledByDefault() {
+		CircuitBreaker defaultBreaker = new CircuitBreaker();
+		for (int i = 0; i < 10; i++)
+			defaultBreaker.recordFailure(HOST);
+
+		defaultBreaker.acquire(HOST);
+		assertThat(defaultBreaker.getFailureThreshold(), is(0));
+	}
+
+	@Test
+	public void testDisabled() {
+		for (int i = 0; i < 10; i++)
+			CircuitBreaker.DISABLED.recordFailure(HOST);
+
+		CircuitBreaker.DISABLED.acquire(HOST);
+		assertThat(CircuitBreaker.DISABLED.getState(HOST), is(CircuitBreaker.State.CLOSED));
+	}
+
+}
@@ -0,0 +1,63 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class ConcurrentTasksTest {
+
+	@Test
+	public void testMap_keepsOrderOfInputs() {
+		List<Integer> results = ConcurrentTasks.map(List.of(30, 10, 20, 0), 4, delay -> {
+			sleep(delay);
+			return delay;
+		});
+
+		assertThat(results, is(List.of(30, 10, 20, 0)));
+	}
+
+	@Test
+	public void testMap_limitsConcurrency() {
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		ConcurrentTasks.map(List.of(1, 2, 3, 4, 5, 6, 7, 8), 2, input -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			sleep(20);
+			running.decrementAndGet();
+			return input;
+		});
+
+		assertThat(maxRunning.get() <= 2, is(true));
+	}
+
+	@Test
+	public void testMap_sequential() {
+		String callingThread = Thread.currentThread().getName();
+		List<String> threads = ConcurrentTasks.map(List.of(1, 2), 1, input -> Thread.currentThread().getName());
+
+		assertThat(threads, is(List.of(callingThread, callingThread)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMap_rethrowsException() {
+		ConcurrentTasks.map(List.of(1, 2, 3), 3, input -> {
+			if (input == 2)
+				throw new IllegalArgumentException("failed");
+			return input;
+		});
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,151 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.response.Response;
+
+public class ContentEncodingTest {
+
+	private static final String BODY = "{\"collections\":[" + "{\"id\":\"buildings\"},".repeat(500) + "{}]}";
+
+	private HttpServer server;
+
+	private HttpTransport transport;
+
+	private String url;
+
+	@Before
+	public void startServer() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", exchange -> {
+			String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+			byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+			if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+				body = gzip(body);
+				exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+			}
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+		transport = new HttpTransport();
+		url = "http://localhost:" + server.getAddress().getPort() + "/collections";
+	}
+
+	@After
+	public void stopServer() {
+		transport.close();
+		server.stop(0);
+	}
+
+	@Test
+	public void testDecode() throws Exception {
+		byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+
+		assertThat(decode(null, body), is(BODY));
+		assertThat(decode("identity", body), is(BODY));
+		assertThat(decode("GZIP", gzip(body)), is(BODY));
+		assertThat(decode("deflate", deflate(body, false)), is(BODY));
+		assertThat(decode("deflate", deflate(body, true)), is(BODY));
+		assertThat(decode("deflate, gzip", gzip(deflate(body, false))), is(BODY));
+		assertThat(decode("deflate", new byte[0]), is(""));
+	}
+
+	@Test(expected = IOException.class)
+	public void testDecodeUnsupported() throws Exception {
+		ContentEncoding.decode("compress", new ByteArrayInputStream(new byte[0]));
+	}
+
+	@Test
+	public void testPlainConnectionDecodes() throws Exception {
+		HttpURLConnection connection = transport.openConnection(url);
+
+		try (InputStream in = connection.getInputStream()) {
+			assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8), is(BODY));
+		}
+		assertThat(connection.getHeaderField("Content-Encoding"), nullValue());
+		assertThat(connection.getHeaderField("Content-Length"), nullValue());
+		HttpMetrics.Endpoint endpoint = transport.getMetrics().getEndpoints().get(0);
+		assertThat(endpoint.getBytesIn(), is((long) BODY.length()));
+		assertTrue(endpoint.getWireBytesIn() < BODY.length() / 10);
+	}
+
+	@Test
+	public void testPlainConnectionKeepsEncodingRequestedByCaller() throws Exception {
+		HttpURLConnection connection = transport.openConnection(url);
+		connection.setRequestProperty("Accept-Encoding", "gzip");
+
+		byte[] body;
+		try (InputStream in = connection.getInputStream()) {
+			body = in.readAllBytes();
+		}
+		assertThat(connection.getHeaderField("Content-Encoding"), is("gzip"));
+		assertThat(decode("gzip", body), is(BODY));
+		HttpMetrics.Endpoint endpoint = transport.getMetrics().getEndpoints().get(0);
+		assertThat(endpoint.getWireBytesIn(), is(endpoint.getBytesIn()));
+	}
+
+	@Test
+	public void testRestAssuredWireBytes() {
+		Response response = given()
+			.config(RestAssuredConfig.config().httpClient(transport.restAssuredHttpClientConfig()))
+			.filter(transport.restAssuredMetricsFilter())
+			.get(url);
+
+		assertThat(response.asString(), is(BODY));
+		HttpMetrics.Endpoint endpoint = transport.getMetrics().getEndpoints().get(0);
+		assertThat(endpoint.getBytesIn(), is((long) BODY.length()));
+		assertTrue(endpoint.getWireBytesIn() > 0);
+		assertTrue(endpoint.getWireBytesIn() < BODY.length() / 10);
+		assertThat(ContentEncoding.takeWireBytes(), is(-1L));
+	}
+
+	private static String decode(String contentEncoding, byte[] body) throws IOException {
+		try (InputStream in = ContentEncoding.decode(contentEncoding, new ByteArrayInputStream(body))) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+	private static byte[] gzip(byte[] body) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (OutputStream out = new GZIPOutputStream(bytes)) {
+			out.write(body);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static byte[] deflate(byte[] body, boolean raw) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (OutputStream out = new DeflaterOutputStream(bytes, new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+			out.write(body);
+		}
+		return bytes.toByteArray();
+	}
+
+}
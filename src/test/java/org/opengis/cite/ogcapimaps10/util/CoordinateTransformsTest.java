@@ -0,0 +1,58 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.junit.After;
+import org.junit.Test;
+import org.locationtech.proj4j.CoordinateTransform;
+import org.opengis.cite.ogcapimaps10.conformance.crs.query.crs.CoordinateSystem;
+
+public class CoordinateTransformsTest {
+
+	@After
+	public void clearCache() {
+		CoordinateTransforms.clear();
+	}
+
+	@Test
+	public void testGetTransform_samePairReturnsSameInstance() {
+		CoordinateTransform transform = CoordinateTransforms.getTransform(
+				new CoordinateSystem("http://www.opengis.net/def/crs/OGC/1.3/CRS84"),
+				new CoordinateSystem("http://www.opengis.net/def/crs/EPSG/0/3857"));
+		CoordinateTransform sameByUrn = CoordinateTransforms.getTransform(
+				new CoordinateSystem("http://www.opengis.net/def/crs/OGC/1.3/CRS84"),
+				new CoordinateSystem("urn:ogc:def:crs:EPSG::3857"));
+		CoordinateTransform inverse = CoordinateTransforms.getTransform(
+				new CoordinateSystem("http://www.opengis.net/def/crs/EPSG/0/3857"),
+				new CoordinateSystem("http://www.opengis.net/def/crs/OGC/1.3/CRS84"));
+
+		assertThat(sameByUrn, sameInstance(transform));
+		assertThat(inverse, not(sameInstance(transform)));
+		assertThat(CoordinateTransforms.getCrs(new CoordinateSystem("http://www.opengis.net/def/crs/EPSG/0/3857")),
+				sameInstance(transform.getTargetCRS()));
+	}
+
+	@Test
+	public void testGetTransform_isBounded() {
+		CoordinateSystem crs84 = new CoordinateSystem("http://www.opengis.net/def/crs/OGC/1.3/CRS84");
+		for (int zone = 1; zone <= 60; zone++) {
+			CoordinateTransforms.getTransform(crs84,
+					new CoordinateSystem("http://www.opengis.net/def/crs/EPSG/0/" + (32600 + zone)));
+			CoordinateTransforms.getTransform(crs84,
+					new CoordinateSystem("http://www.opengis.net/def/crs/EPSG/0/" + (32700 + zone)));
+			CoordinateTransforms
+				.getTransform(new CoordinateSystem("http://www.opengis.net/def/crs/EPSG/0/" + (32600 + zone)), crs84);
+			CoordinateTransforms
+				.getTransform(new CoordinateSystem("http://www.opengis.net/def/crs/EPSG/0/" + (32700 + zone)), crs84);
+			CoordinateTransforms.getTransform(
+					new CoordinateSystem("http://www.opengis.net/def/crs/EPSG/0/" + (32600 + zone)),
+					new CoordinateSystem("http://www.opengis.net/def/crs/EPSG/0/" + (32700 + zone)));
+		}
+
+		assertThat(CoordinateTransforms.transformCount(), is(CoordinateTransforms.MAX_TRANSFORMS));
+	}
+
+}
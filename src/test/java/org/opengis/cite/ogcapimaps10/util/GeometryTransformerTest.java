@@ -5,8 +5,12 @@ import static org.opengis.cite.ogcapimaps10.OgcApiMaps10.DEFAULT_CRS;
 
 import org.junit.Test;
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.MultiPolygon;
 import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
 import org.opengis.cite.ogcapimaps10.conformance.crs.query.crs.CoordinateSystem;
 
 /**
@@ -78,4 +82,37 @@ public class GeometryTransformerTest {
 		assertEquals(5776983.09, transformedBbox.getMaxY(), 0.01);
 	}
 
+	@Test
+	public void test_transform_MultiPolygon_withHole() {
+		GeometryTransformer geometryTransformer = new GeometryTransformer(DEFAULT_CRS, EPSG_25832);
+		LinearRing shell = geometryFactory.createLinearRing(new Coordinate[] { new Coordinate(7.55, 51.82),
+				new Coordinate(8.11, 51.82), new Coordinate(8.11, 52.14), new Coordinate(7.55, 51.82) });
+		LinearRing hole = geometryFactory.createLinearRing(new Coordinate[] { new Coordinate(7.9, 51.9),
+				new Coordinate(8.0, 51.9), new Coordinate(8.0, 52.0), new Coordinate(7.9, 51.9) });
+		Polygon polygon = geometryFactory.createPolygon(shell, new LinearRing[] { hole });
+		MultiPolygon multiPolygon = geometryFactory.createMultiPolygon(new Polygon[] { polygon });
+
+		Geometry transformed = geometryTransformer.transform((Geometry) multiPolygon);
+
+		Polygon transformedPolygon = (Polygon) transformed.getGeometryN(0);
+		assertEquals(400060.46, transformedPolygon.getExteriorRing().getCoordinateN(0).x, 0.01);
+		assertEquals(5742012.57, transformedPolygon.getExteriorRing().getCoordinateN(0).y, 0.01);
+		assertEquals(1, transformedPolygon.getNumInteriorRing());
+		assertEquals(4, transformedPolygon.getInteriorRingN(0).getNumPoints());
+		assertEquals(439092.40, transformed.getEnvelopeInternal().getMaxX(), 0.5);
+		// the source geometry is not modified
+		assertEquals(7.55, multiPolygon.getCoordinates()[0].x, 0.0);
+	}
+
+	@Test
+	public void test_transform_packedOrdinates() {
+		GeometryTransformer geometryTransformer = new GeometryTransformer(DEFAULT_CRS, EPSG_25832);
+		double[] ordinates = { 7.55, 51.82, 8.11, 52.14 };
+		geometryTransformer.transform(ordinates, 2);
+		assertEquals(400060.46, ordinates[0], 0.01);
+		assertEquals(5742012.57, ordinates[1], 0.01);
+		assertEquals(439092.40, ordinates[2], 0.01);
+		assertEquals(5776983.09, ordinates[3], 0.01);
+	}
+
 }
@@ -0,0 +1,121 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class HostThrottleTest {
+
+	private static final String HOST = "localhost:8080";
+
+	@Test
+	public void testRate() throws Exception {
+		HostThrottle throttle = new HostThrottle(20, 2, 0);
+
+		long start = System.nanoTime();
+		long waited = 0;
+		for (int i = 0; i < 6; i++) {
+			try (HostThrottle.Permit permit = throttle.acquire(HOST)) {
+				waited += permit.getWaitNanos();
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+
+		// a burst of 2, then 4 requests 50 ms apart
+		assertTrue("elapsed " + elapsed, elapsed >= TimeUnit.MILLISECONDS.toNanos(190));
+		assertTrue("waited " + waited, waited >= TimeUnit.MILLISECONDS.toNanos(190));
+		try (HostThrottle.Permit permit = throttle.acquire("other.org:80")) {
+			assertTrue(permit.getWaitNanos() < TimeUnit.MILLISECONDS.toNanos(20));
+		}
+	}
+
+	@Test
+	public void testConcurrency() throws Exception {
+		HostThrottle throttle = new HostThrottle(0, 0, 2);
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicInteger maxInFlight = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(6);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 12; i++) {
+				futures.add(executor.submit(() -> {
+					try (HostThrottle.Permit permit = throttle.acquire(HOST)) {
+						maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+						Thread.sleep(10);
+						inFlight.decrementAndGet();
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures)
+				future.get(10, TimeUnit.SECONDS);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(maxInFlight.get(), is(2));
+	}
+
+	@Test
+	public void testUnlimited() throws Exception {
+		assertThat(HostThrottle.UNLIMITED.isLimited(), is(false));
+		for (int i = 0; i < 100; i++) {
+			try (HostThrottle.Permit permit = HostThrottle.UNLIMITED.acquire(HOST)) {
+				assertThat(permit.getWaitNanos(), is(0L));
+			}
+		}
+		assertThat(new HostThrottle(1.5, 0, 4).toString(), is("1.5 requests/s (burst 2), max. 4 in flight per host"));
+	}
+
+	@Test
+	public void testTransportRecordsThrottledTime() throws Exception {
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", exchange -> {
+			exchange.sendResponseHeaders(200, 2);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(new byte[] { '{', '}' });
+			}
+		});
+		server.start();
+		HttpTransport transport = new HttpTransport(HttpTransport.DEFAULT_MAX_CONNECTIONS_PER_HOST, 0,
+				HttpTransport.DEFAULT_CONNECT_TIMEOUT, HttpTransport.DEFAULT_READ_TIMEOUT, RetryPolicy.NONE,
+				CircuitBreaker.DISABLED, new HostThrottle(2, 1, 1));
+		try {
+			String url = "http://localhost:" + server.getAddress().getPort() + "/collections";
+			for (int i = 0; i < 3; i++)
+				assertThat(transport.openConnection(url).getResponseCode(), is(200));
+
+			HttpMetrics metrics = transport.getMetrics();
+			assertThat(metrics.getThrottledCount(), is(2L));
+			assertTrue(metrics.getThrottledNanos() >= TimeUnit.MILLISECONDS.toNanos(600));
+			// the time waited is not part of the latency
+			assertTrue(metrics.getEndpoints().get(0).getLatency().getMax() < 400_000);
+			StringWriter summary = new StringWriter();
+			metrics.writeSummary(summary);
+			assertThat(summary.toString(),
+					containsString("Throttled localhost:" + server.getAddress().getPort() + ": 2 requests"));
+		}
+		finally {
+			transport.close();
+			server.stop(0);
+		}
+	}
+
+}
@@ -0,0 +1,60 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class HttpMetricsTest {
+
+	@Test
+	public void testEndpointOf() {
+		assertThat(
+				HttpMetrics.endpointOf("get",
+						"http://localhost/ogcapi/collections/a/map/tiles/WebMercatorQuad/3/2/1?f=png"),
+				is("GET /ogcapi/collections/a/map/tiles/WebMercatorQuad/{n}/{n}/{n}"));
+		assertThat(HttpMetrics.endpointOf("GET", "http://localhost"), is("GET /"));
+		assertThat(HttpMetrics.endpointOf("GET", "http://localhost/map?bbox=1 2"), is("GET /map"));
+		assertThat(HttpMetrics.endpointOf("GET", "http://localhost/collections/a1/map"), is("GET /collections/a1/map"));
+	}
+
+	@Test
+	public void testRecord() {
+		HttpMetrics metrics = new HttpMetrics();
+		metrics.record("GET", "http://localhost/collections/1/map", 200, 0, 1000, 2_000_000);
+		metrics.record("GET", "http://localhost/collections/2/map", 400, 0, 50, 1_000_000);
+		metrics.record("GET", "http://localhost/conformance", 0, 10, 0, 500_000);
+
+		List<HttpMetrics.Endpoint> endpoints = metrics.getEndpoints();
+		assertThat(endpoints.size(), is(2));
+		HttpMetrics.Endpoint map = endpoints.get(0);
+		assertThat(map.getName(), is("GET /collections/{n}/map"));
+		assertThat(map.getLatency().getCount(), is(2L));
+		assertThat(map.getLatency().getMax(), is(2000L));
+		assertThat(map.getStatusCounts(), is(Map.of(200, 1L, 400, 1L)));
+		assertThat(map.getBytesIn(), is(1050L));
+		assertThat(endpoints.get(1).getBytesOut(), is(10L));
+		assertThat(metrics.getRequestCount(), is(3L));
+
+		StringWriter summary = new StringWriter();
+		metrics.writeSummary(summary);
+		assertThat(summary.toString(), containsString("GET /collections/{n}/map"));
+		assertThat(summary.toString(), containsString("Total: 3 requests, 10 bytes out, 1050 bytes in"));
+	}
+
+	@Test
+	public void testRecord_boundedEndpoints() {
+		HttpMetrics metrics = new HttpMetrics();
+		for (int i = 0; i < HttpMetrics.MAX_ENDPOINTS + 10; i++)
+			metrics.record("GET", "http://localhost/collections/c" + i, 200, 0, 0, 1000);
+
+		assertThat(metrics.getEndpoints().size(), is(HttpMetrics.MAX_ENDPOINTS + 1));
+		assertThat(metrics.getRequestCount(), is((long) HttpMetrics.MAX_ENDPOINTS + 10));
+	}
+
+}
@@ -0,0 +1,197 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import jakarta.ws.rs.client.Client;
+
+public class HttpResponseCacheTest {
+
+	private static final String BODY = "{\"title\":\"landing page\"}";
+
+	private static final long CACHE_BYTES = 1024 * 1024;
+
+	private HttpServer server;
+
+	private HttpTransport transport;
+
+	private String url;
+
+	private final AtomicInteger notModified = new AtomicInteger();
+
+	private final AtomicInteger requests = new AtomicInteger();
+
+	@Before
+	public void startServer() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", exchange -> {
+			requests.incrementAndGet();
+			exchange.getResponseHeaders().set("ETag", "\"v1\"");
+			if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+				notModified.incrementAndGet();
+				exchange.sendResponseHeaders(304, -1);
+				exchange.close();
+				return;
+			}
+			byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+		transport = new HttpTransport(HttpTransport.DEFAULT_MAX_CONNECTIONS_PER_HOST, CACHE_BYTES);
+		url = "http://localhost:" + server.getAddress().getPort() + "/collections";
+	}
+
+	@After
+	public void stopServer() {
+		transport.close();
+		server.stop(0);
+	}
+
+	@Test
+	public void testEvictsLeastRecentlyUsed() {
+		HttpResponseCache cache = new HttpResponseCache(400);
+		cache.put("a", entry(100));
+		cache.put("b", entry(100));
+		cache.put("c", entry(100));
+		cache.get("a");
+		cache.put("d", entry(100));
+		cache.put("e", entry(100));
+
+		assertThat(cache.getEntryCount(), is(4));
+		assertThat(cache.getSize(), is(400L));
+		assertThat(cache.get("b"), nullValue());
+
+		// larger than a quarter of the cache
+		cache.put("f", entry(101));
+		assertThat(cache.get("f"), nullValue());
+	}
+
+	@Test
+	public void testIsBypassed() {
+		assertThat(HttpResponseCache.isBypassed(null), is(false));
+		assertThat(HttpResponseCache.isBypassed("max-age=0, no-cache"), is(true));
+		assertThat(HttpResponseCache.isBypassed("No-Store"), is(true));
+		assertThat(HttpResponseCache.isCacheable(200, null, null, null), is(false));
+		assertThat(HttpResponseCache.isCacheable(200, "no-store", "\"a\"", null), is(false));
+		assertThat(HttpResponseCache.isCacheable(200, "max-age=60", null, "Wed, 21 Oct 2015 07:28:00 GMT"), is(true));
+	}
+
+	@Test
+	public void testRestAssuredRevalidation() {
+		Response first = get(null);
+		Response second = get(null);
+
+		assertThat(first.getStatusCode(), is(200));
+		assertThat(second.getStatusCode(), is(200));
+		assertThat(second.asString(), is(BODY));
+		assertThat(second.getContentType(), is("application/json"));
+		assertThat(notModified.get(), is(1));
+		assertThat(transport.getResponseCache().getHits(), is(1L));
+	}
+
+	@Test
+	public void testRestAssuredOptOut() {
+		get(null);
+		Response fresh = get("no-cache");
+
+		assertThat(fresh.getStatusCode(), is(200));
+		assertThat(fresh.asString(), is(BODY));
+		assertThat(notModified.get(), is(0));
+		assertThat(requests.get(), is(2));
+	}
+
+	@Test
+	public void testRestAssuredCredentialsAreNotShared() {
+		given().config(config())
+			.filter(transport.restAssuredCacheFilter())
+			.header("Authorization", "Basic YTph")
+			.get(url);
+		Response other = given().config(config())
+			.filter(transport.restAssuredCacheFilter())
+			.header("Authorization", "Basic Yjpi")
+			.get(url);
+
+		assertThat(other.getStatusCode(), is(200));
+		assertThat(notModified.get(), is(0));
+		assertThat(transport.getResponseCache().getEntryCount(), is(2));
+	}
+
+	@Test
+	public void testRestAssuredConditionalRequestIsPassedThrough() {
+		get(null);
+		Response response = given().config(config())
+			.filter(transport.restAssuredCacheFilter())
+			.header("If-None-Match", "\"v1\"")
+			.get(url);
+
+		assertThat(response.getStatusCode(), is(304));
+	}
+
+	@Test
+	public void testJaxRsRevalidation() {
+		Client client = ClientUtils.buildClient(transport);
+		try {
+			String first = client.target(url).request().get(String.class);
+			jakarta.ws.rs.core.Response second = client.target(url).request().get();
+
+			assertThat(first, is(BODY));
+			assertThat(second.getStatus(), is(200));
+			assertThat(second.readEntity(String.class), is(BODY));
+			assertThat(notModified.get(), is(1));
+		}
+		finally {
+			client.close();
+		}
+	}
+
+	@Test
+	public void testDisabledByDefault() {
+		transport.close();
+		transport = new HttpTransport();
+		get(null);
+		get(null);
+
+		assertThat(notModified.get(), is(0));
+		assertThat(transport.getResponseCache().getEntryCount(), is(0));
+	}
+
+	private Response get(String cacheControl) {
+		RequestSpecification request = given().config(config())
+			.filter(transport.restAssuredCacheFilter())
+			.accept("application/json");
+		if (cacheControl != null)
+			request.header("Cache-Control", cacheControl);
+		return request.get(url);
+	}
+
+	private RestAssuredConfig config() {
+		return RestAssuredConfig.config().httpClient(transport.restAssuredHttpClientConfig());
+	}
+
+	private static HttpResponseCache.Entry entry(int size) {
+		return new HttpResponseCache.Entry(new byte[size], Map.of("Content-Type", List.of("image/png")), "\"a\"", null);
+	}
+
+}
@@ -0,0 +1,112 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+import org.opengis.cite.ogcapimaps10.domain.ImageHeader;
+
+public class ImageHeaderParserTest {
+
+	@Test
+	public void testParsePng() throws IOException {
+		ImageHeader argb = ImageHeaderParser.parse(encode(BufferedImage.TYPE_INT_ARGB, "png"));
+		ImageHeader rgb = ImageHeaderParser.parse(encode(BufferedImage.TYPE_INT_RGB, "png"));
+
+		assertThat(argb.getFormat(), is(ImageHeader.PNG));
+		assertThat(argb.getWidth(), is(300));
+		assertThat(argb.getHeight(), is(200));
+		assertThat(argb.getBitDepth(), is(8));
+		assertThat(argb.getColorType(), is(6));
+		assertThat(argb.hasAlpha(), is(true));
+		assertThat(rgb.getColorType(), is(2));
+		assertThat(rgb.hasAlpha(), is(false));
+	}
+
+	@Test
+	public void testParseJpeg() throws IOException {
+		ImageHeader header = ImageHeaderParser.parse(encode(BufferedImage.TYPE_3BYTE_BGR, "jpeg"));
+
+		assertThat(header.getFormat(), is(ImageHeader.JPEG));
+		assertThat(header.getWidth(), is(300));
+		assertThat(header.getHeight(), is(200));
+		assertThat(header.getBitDepth(), is(8));
+		assertThat(header.getColorType(), is(3));
+		assertThat(header.hasAlpha(), is(false));
+	}
+
+	@Test
+	public void testParseTiff() throws IOException {
+		ImageHeader rgb = ImageHeaderParser.parse(encode(BufferedImage.TYPE_3BYTE_BGR, "tiff"));
+		ImageHeader bilevel = ImageHeaderParser.parse(encode(BufferedImage.TYPE_BYTE_BINARY, "tiff"));
+
+		assertThat(rgb.getFormat(), is(ImageHeader.TIFF));
+		assertThat(rgb.getWidth(), is(300));
+		assertThat(rgb.getHeight(), is(200));
+		assertThat(rgb.getBitDepth(), is(8));
+		assertThat(rgb.getColorType(), is(2));
+		assertThat(bilevel.getBitDepth(), is(1));
+	}
+
+	@Test
+	public void testParse_readsHeaderOnly() throws IOException {
+		byte[] png = encode(BufferedImage.TYPE_INT_ARGB, "png");
+		CountingInputStream in = new CountingInputStream(new ByteArrayInputStream(png));
+
+		ImageHeaderParser.parse(in);
+
+		assertThat(in.count < 100, is(true));
+	}
+
+	@Test
+	public void testParse_unknownOrTruncated() throws IOException {
+		byte[] png = encode(BufferedImage.TYPE_INT_ARGB, "png");
+		byte[] truncated = new byte[20];
+		System.arraycopy(png, 0, truncated, 0, truncated.length);
+
+		assertThat(ImageHeaderParser.parse(new byte[] { 'G', 'I', 'F', '8', '9', 'a' }), nullValue());
+		assertThat(ImageHeaderParser.parse(truncated), nullValue());
+		assertThat(ImageHeaderParser.detectFormat(truncated), is(ImageHeader.PNG));
+	}
+
+	private static byte[] encode(int imageType, String format) throws IOException {
+		BufferedImage image = new BufferedImage(300, 200, imageType);
+		Random random = new Random(1);
+		for (int i = 0; i < 100; i++)
+			image.setRGB(random.nextInt(300), random.nextInt(200), random.nextInt());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, format, out);
+		return out.toByteArray();
+	}
+
+	private static final class CountingInputStream extends InputStream {
+
+		private final InputStream in;
+
+		private long count;
+
+		private CountingInputStream(InputStream in) {
+			this.in = in;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = in.read();
+			if (b >= 0)
+				count++;
+			return b;
+		}
+
+	}
+
+}
@@ -0,0 +1,79 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+import org.opengis.cite.ogcapimaps10.domain.ImageInfo;
+
+public class ImageProbeTest {
+
+	@Test
+	public void testProbe() throws IOException {
+		byte[] png = encode(new BufferedImage(300, 200, BufferedImage.TYPE_INT_ARGB), "png");
+
+		ImageInfo info = ImageProbe.probe(png);
+
+		assertThat(info.getFormatName().toLowerCase(), is("png"));
+		assertThat(info.getWidth(), is(300));
+		assertThat(info.getHeight(), is(200));
+		assertThat(info.getColorModel().hasAlpha(), is(true));
+	}
+
+	@Test
+	public void testProbe_invalidData() {
+		assertThat(ImageProbe.probe(new byte[] { 1, 2, 3 }), nullValue());
+		assertThat(ImageProbe.readSubsampled(new byte[] { 1, 2, 3 }, 10), nullValue());
+	}
+
+	@Test
+	public void testReadSubsampled() throws IOException {
+		byte[] png = encode(new BufferedImage(300, 200, BufferedImage.TYPE_3BYTE_BGR), "png");
+
+		BufferedImage preview = ImageProbe.readSubsampled(png, 100);
+
+		assertThat(preview.getWidth(), is(100));
+		assertThat(preview.getHeight(), is(67));
+		assertThat(ImageProbe.readSubsampled(png, 1000).getWidth(), is(300));
+	}
+
+	@Test
+	public void testReadRegion() throws IOException {
+		BufferedImage image = new BufferedImage(300, 200, BufferedImage.TYPE_3BYTE_BGR);
+		image.setRGB(299, 199, 0xFF0000);
+		byte[] png = encode(image, "png");
+
+		BufferedImage corner = ImageProbe.readRegion(png, new Rectangle(290, 190, 20, 20));
+
+		assertThat(corner.getWidth(), is(10));
+		assertThat(RasterAnalysis.rgb24At(corner, 9, 9), is(0xFF0000));
+		assertThat(ImageProbe.readRegion(png, new Rectangle(400, 0, 10, 10)), nullValue());
+	}
+
+	@Test
+	public void testIsUniform() throws IOException {
+		BufferedImage image = new BufferedImage(300, 200, BufferedImage.TYPE_3BYTE_BGR);
+		byte[] blank = encode(image, "png");
+		image.setRGB(1, 1, 0xFFFFFF);
+		byte[] sparse = encode(image, "png");
+
+		assertThat(ImageProbe.isUniform(blank, ImageProbe.readSubsampled(blank, 50)), is(true));
+		// the single pixel is not part of the preview, only of the complete image
+		assertThat(ImageProbe.isUniform(sparse, ImageProbe.readSubsampled(sparse, 50)), is(false));
+	}
+
+	private static byte[] encode(BufferedImage image, String format) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, format, out);
+		return out.toByteArray();
+	}
+
+}
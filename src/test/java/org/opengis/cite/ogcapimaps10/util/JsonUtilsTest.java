@@ -291,7 +291,10 @@ public class JsonUtilsTest {
 		URL json = new URL("http://localhost:8090/collections/lakes/items");
 		JsonPath jsonPath = new JsonPath(json);
 
-		int numberOfAllFeatures = collectNumberOfAllReturnedFeatures(jsonPath, -1);
+		int numberOfAllFeatures;
+		try (HttpTransport transport = new HttpTransport()) {
+			numberOfAllFeatures = collectNumberOfAllReturnedFeatures(jsonPath, -1, transport);
+		}
 
 		assertThat(numberOfAllFeatures, is(25));
 	}
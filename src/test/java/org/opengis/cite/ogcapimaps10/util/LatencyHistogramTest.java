@@ -0,0 +1,51 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void testPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long micros = 1; micros <= 10000; micros++)
+			histogram.record(micros);
+
+		assertThat(histogram.getCount(), is(10000L));
+		assertThat(histogram.getMax(), is(10000L));
+		assertWithinBucketError(histogram.getValueAtPercentile(50), 5000);
+		assertWithinBucketError(histogram.getValueAtPercentile(99), 9900);
+		assertThat(histogram.getValueAtPercentile(100), is(10000L));
+		assertThat(histogram.getMean(), is(5000.5));
+	}
+
+	@Test
+	public void testExactSmallValues() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(3);
+		histogram.record(-1);
+		histogram.record(100);
+
+		assertThat(histogram.getValueAtPercentile(0), is(0L));
+		assertThat(histogram.getValueAtPercentile(50), is(3L));
+		assertThat(histogram.getValueAtPercentile(100), is(100L));
+		assertThat(new LatencyHistogram().getValueAtPercentile(50), is(0L));
+	}
+
+	@Test
+	public void testBuckets() {
+		for (long value : new long[] { 127, 128, 129, 1000, 65535, 1L << 30, (1L << 40) - 1 }) {
+			long upperBound = LatencyHistogram.upperBoundOf(LatencyHistogram.indexOf(value));
+			assertTrue(value + " -> " + upperBound, upperBound >= value && upperBound - value <= value / 64);
+		}
+		assertThat(LatencyHistogram.indexOf(Long.MAX_VALUE), is(LatencyHistogram.indexOf((1L << 40) - 1)));
+	}
+
+	private static void assertWithinBucketError(long actual, long expected) {
+		assertTrue(actual + " not within 1/64 of " + expected, Math.abs(actual - expected) <= expected / 64);
+	}
+
+}
@@ -0,0 +1,139 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.cite.ogcapimaps10.conformance.crs.query.crs.CoordinateSystem;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class MapLoadGeneratorTest {
+
+	private static final BBox EXTENT = new BBox(5, 50, 10, 52);
+
+	private HttpServer server;
+
+	private HttpTransport transport;
+
+	private final AtomicInteger requests = new AtomicInteger();
+
+	@Before
+	public void startServer() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", exchange -> {
+			// every fourth request fails
+			boolean fail = requests.incrementAndGet() % 4 == 0;
+			byte[] body = fail ? "error".getBytes() : new byte[] { (byte) 0x89, 'P', 'N', 'G' };
+			exchange.getResponseHeaders().set("Content-Type", fail ? "text/plain" : "image/png");
+			exchange.sendResponseHeaders(fail ? 500 : 200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+		transport = new HttpTransport();
+	}
+
+	@After
+	public void stopServer() {
+		transport.close();
+		server.stop(0);
+	}
+
+	@Test
+	public void testRequestUrl() {
+		MapLoadGenerator generator = new MapLoadGenerator(transport, null, 42);
+		MapLoadGenerator.Target target = new MapLoadGenerator.Target("http://localhost/map?f=png", EXTENT);
+
+		String url = generator.requestUrl(target, 7);
+		assertThat(url, is(generator.requestUrl(target, 7)));
+		assertThat(url, not(is(generator.requestUrl(target, 8))));
+		assertThat(url, containsString("?f=png&bbox="));
+		assertThat(url, not(containsString("bbox-crs")));
+
+		Map<String, String> params = parseQuery(URI.create(url));
+		String[] bbox = params.get("bbox").split(",");
+		assertTrue(Double.parseDouble(bbox[0]) >= 5 && Double.parseDouble(bbox[2]) <= 10);
+		assertTrue(Double.parseDouble(bbox[1]) >= 50 && Double.parseDouble(bbox[3]) <= 52);
+		int width = Integer.parseInt(params.get("width"));
+		assertTrue(width >= MapLoadGenerator.MIN_SIZE && width <= MapLoadGenerator.MAX_SIZE);
+	}
+
+	@Test
+	public void testRequestUrlWithBBoxCrs() {
+		MapLoadGenerator generator = new MapLoadGenerator(transport, null, 42);
+		BBox extent = new BBox(400000, 5700000, 410000, 5710000,
+				new CoordinateSystem("http://www.opengis.net/def/crs/EPSG/0/25832"));
+
+		String url = generator.requestUrl(new MapLoadGenerator.Target("http://localhost/map", extent), 0);
+		assertThat(url, containsString("&bbox-crs=http%3A%2F%2Fwww.opengis.net%2Fdef%2Fcrs%2FEPSG%2F0%2F25832&"));
+	}
+
+	@Test
+	public void testRun() {
+		MapLoadGenerator generator = new MapLoadGenerator(transport, "Basic dGVzdDp0ZXN0", 42);
+		String url = "http://localhost:" + server.getAddress().getPort() + "/collections/a/map";
+
+		MapLoadGenerator.Result result = generator.run(List.of(new MapLoadGenerator.Target(url, EXTENT)), 40, 4);
+
+		assertThat(result.getRequests(), is(40L));
+		assertThat(result.getErrors(), is(10L));
+		assertThat(result.getErrorRate(), is(25.0));
+		assertThat(result.getErrorMessages().size(), is(5));
+		assertThat(result.getErrorMessages().get(0), containsString("HTTP 500"));
+		assertTrue(result.getThroughput() > 0);
+		assertTrue(result.getLatencyMillis(99) >= result.getLatencyMillis(50));
+		assertThat(transport.getMetrics().getRequestCount(), is(40L));
+		assertThat(result.isAborted(), is(false));
+	}
+
+	@Test
+	public void testRunAbortedWhenCircuitOpens() throws Exception {
+		HttpServer closed = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		int port = closed.getAddress().getPort();
+		closed.stop(0);
+		HttpTransport breakingTransport = new HttpTransport(HttpTransport.DEFAULT_MAX_CONNECTIONS_PER_HOST, 0,
+				HttpTransport.DEFAULT_CONNECT_TIMEOUT, HttpTransport.DEFAULT_READ_TIMEOUT, RetryPolicy.NONE,
+				new CircuitBreaker(2, 60000));
+		try {
+			MapLoadGenerator generator = new MapLoadGenerator(breakingTransport, null, 42);
+			String url = "http://localhost:" + port + "/collections/a/map";
+
+			MapLoadGenerator.Result result = generator.run(List.of(new MapLoadGenerator.Target(url, EXTENT)), 40, 1);
+
+			assertThat(result.isAborted(), is(true));
+			assertThat(result.getAbortReason(), containsString("localhost:" + port));
+			assertThat(result.getRequests(), is(2L));
+			// the load test has a circuit breaker of its own
+			assertThat(breakingTransport.getCircuitBreaker().getState("localhost:" + port),
+					is(CircuitBreaker.State.CLOSED));
+		}
+		finally {
+			breakingTransport.close();
+		}
+	}
+
+	private static Map<String, String> parseQuery(URI uri) {
+		Map<String, String> params = new HashMap<>();
+		for (String param : uri.getRawQuery().split("&")) {
+			int equals = param.indexOf('=');
+			params.put(param.substring(0, equals), param.substring(equals + 1));
+		}
+		return params;
+	}
+
+}
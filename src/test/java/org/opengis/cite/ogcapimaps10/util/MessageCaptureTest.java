@@ -0,0 +1,157 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class MessageCaptureTest {
+
+	@Test
+	public void testCapture_withinBudget() {
+		MessageCapture capture = new MessageCapture(1024, MessageCapture.Mode.EAGER);
+		capture.captureRequest("GET http://localhost/collections\nAccept=application/json", null, null);
+		capture.captureResponse("HTTP/1.1 200 OK", "{\"collections\":[]}".getBytes(StandardCharsets.UTF_8),
+				"application/json");
+
+		assertThat(capture.getRequests(), is("GET http://localhost/collections\nAccept=application/json"));
+		assertThat(capture.getResponses(), is("HTTP/1.1 200 OK\n\n{\"collections\":[]}"));
+		assertThat(capture.getSpillFile(), nullValue());
+	}
+
+	@Test
+	public void testCapture_spillsBytesExceedingBudget() throws Exception {
+		MessageCapture capture = new MessageCapture(4, MessageCapture.Mode.EAGER);
+		capture.captureResponse("HTTP/1.1 200 OK", "abcdefgh".getBytes(StandardCharsets.UTF_8), "text/plain");
+		capture.captureResponse("HTTP/1.1 200 OK", "ijkl".getBytes(StandardCharsets.UTF_8), "text/plain");
+
+		Path spillFile = capture.getSpillFile();
+		String responses = capture.getResponses();
+		// the budget went to the newer response, the older one was moved to the file
+		assertThat(responses, containsString("HTTP/1.1 200 OK\n\n\n[4 more bytes in " + spillFile
+				+ " at offset 4]\n[4 more bytes in " + spillFile + " at offset 0]"));
+		assertThat(responses, containsString("HTTP/1.1 200 OK\n\nijkl"));
+		assertThat(responses, not(containsString("efgh")));
+		assertThat(new String(Files.readAllBytes(spillFile), StandardCharsets.UTF_8), is("efghabcd"));
+
+		capture.discard();
+		assertThat(Files.exists(spillFile), is(false));
+	}
+
+	@Test
+	public void testCapture_keepsSliceOfLastResponse() {
+		MessageCapture capture = new MessageCapture(8, MessageCapture.Mode.EAGER);
+		capture.captureRequest("GET http://localhost/a", null, null);
+		capture.captureResponse("HTTP/1.1 200 OK", "abcdefgh".getBytes(StandardCharsets.UTF_8), "text/plain");
+		capture.captureRequest("POST http://localhost/b", "12345678".getBytes(StandardCharsets.UTF_8), "text/plain");
+
+		try {
+			assertThat(capture.getResponses(), startsWith("HTTP/1.1 200 OK\n\nab\n[6 more bytes in "));
+			assertThat(capture.getRequests(), containsString("POST http://localhost/b\n\n123456\n[2 more bytes in "));
+		}
+		finally {
+			capture.discard();
+		}
+	}
+
+	@Test
+	public void testCapture_binaryBody() throws Exception {
+		byte[] png = Arrays.copyOf(new byte[] { (byte) 0x89, 'P', 'N', 'G' }, 100);
+		MessageCapture capture = new MessageCapture();
+		capture.captureResponse("HTTP/1.1 200 OK", png, "image/png");
+
+		assertThat(capture.getResponses(), containsString("[binary body: 100 bytes, image/png] 89 50 4E 47 00"));
+		assertThat(capture.getResponses(), containsString("[100 bytes in "));
+
+		Path directory = Files.createTempDirectory("captures");
+		capture.retain(directory);
+		capture.discard();
+		Path spillFile = capture.getSpillFile();
+		try {
+			assertThat(spillFile.getParent(), is(directory));
+			assertThat(Files.readAllBytes(spillFile), is(png));
+			assertThat(capture.getResponses(), containsString(spillFile.toString()));
+		}
+		finally {
+			Files.deleteIfExists(spillFile);
+			Files.delete(directory);
+		}
+	}
+
+	@Test
+	public void testCapture_retainWithoutDirectoryKeepsNothing() throws Exception {
+		MessageCapture capture = new MessageCapture(4, MessageCapture.Mode.EAGER);
+		capture.captureResponse("HTTP/1.1 200 OK", "abcdefgh".getBytes(StandardCharsets.UTF_8), "text/plain");
+		Path spillFile = capture.getSpillFile();
+
+		capture.retain(null);
+
+		assertThat(Files.exists(spillFile), is(false));
+		assertThat(capture.getResponses(), is("HTTP/1.1 200 OK\n\nabcd\n[4 more bytes not kept]"));
+	}
+
+	@Test
+	public void testCapture_lazyReducesWhenRendered() {
+		MessageCapture capture = new MessageCapture(4, MessageCapture.Mode.LAZY);
+		byte[] body = "abcdefgh".getBytes(StandardCharsets.UTF_8);
+		capture.captureResponse("HTTP/1.1 200 OK", body, "text/plain");
+		// the body is referenced, not copied, until the report is requested
+		body[0] = 'x';
+
+		assertThat(capture.getResponses(), containsString("xbcd\n[4 more bytes in "));
+		capture.discard();
+	}
+
+	@Test
+	public void testCapture_lazyKeepsLastExchanges() {
+		MessageCapture capture = new MessageCapture(1024, MessageCapture.Mode.LAZY);
+		for (int i = 0; i < MessageCapture.RING_SIZE + 2; i++) {
+			capture.captureRequest("GET http://localhost/" + i, null, null);
+			capture.captureResponse("HTTP/1.1 200 OK " + i, null, null);
+		}
+
+		assertThat(capture.getRequests(), startsWith("[2 earlier messages not captured]\n\nGET http://localhost/2"));
+		assertThat(capture.getResponses(), startsWith("[2 earlier messages not captured]\n\nHTTP/1.1 200 OK 2"));
+		assertThat(capture.getRequests(), not(containsString("localhost/1\n")));
+	}
+
+	@Test
+	public void testCapture_lazyReducesOldestBeyondPendingBytes() throws Exception {
+		MessageCapture capture = new MessageCapture(4, MessageCapture.Mode.LAZY);
+		byte[][] bodies = new byte[3][];
+		for (int i = 0; i < bodies.length; i++) {
+			bodies[i] = new byte[(int) (MessageCapture.MAX_PENDING_BYTES / 2)];
+			Arrays.fill(bodies[i], (byte) 'a');
+			capture.captureResponse("HTTP/1.1 200 OK " + i, bodies[i], "text/plain");
+		}
+		// the first body was reduced when the third exceeded the limit, the others are
+		// still referenced
+		bodies[0][4] = 'x';
+		bodies[2][0] = 'x';
+		bodies[2][4] = 'x';
+
+		try {
+			// the budget goes to the last response
+			String responses = capture.getResponses();
+			assertThat(responses, containsString("HTTP/1.1 200 OK 0\n\n\n"));
+			assertThat(responses, containsString("HTTP/1.1 200 OK 1\n\n\n"));
+			assertThat(responses, containsString("HTTP/1.1 200 OK 2\n\nxaaa\n"));
+			byte[] spilled = Files.readAllBytes(capture.getSpillFile());
+			assertThat(spilled[0], is((byte) 'a'));
+			assertThat(spilled[bodies[0].length + bodies[1].length], is((byte) 'x'));
+		}
+		finally {
+			capture.discard();
+		}
+	}
+
+}
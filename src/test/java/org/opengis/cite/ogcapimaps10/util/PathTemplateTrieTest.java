@@ -0,0 +1,90 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class PathTemplateTrieTest {
+
+	@Test
+	public void testFind() {
+		PathTemplateTrie<String> trie = new PathTemplateTrie<>();
+		trie.put("/collections/{collectionId}/map", "collectionMap");
+		trie.put("/collections/{collectionId}/map/tiles/{tileMatrixSetId}", "tileset");
+		trie.put("/map", "map");
+
+		assertThat(trie.find("/map"), is("map"));
+		assertThat(trie.find("/collections/a:b/map"), is("collectionMap"));
+		assertThat(trie.find("/collections/a/map/tiles/WebMercatorQuad"), is("tileset"));
+		assertThat(trie.find("/collections//map"), nullValue());
+		assertThat(trie.find("/collections/a/b/map"), nullValue());
+		assertThat(trie.find("/collections/a"), nullValue());
+	}
+
+	@Test
+	public void testFind_literalBeforeVariable() {
+		PathTemplateTrie<String> trie = new PathTemplateTrie<>();
+		trie.put("/collections/{collectionId}/map", "template");
+		trie.put("/collections/roads/map", "literal");
+		trie.put("/collections/roads/{tail}", "partial");
+
+		assertThat(trie.find("/collections/roads/map"), is("literal"));
+		assertThat(trie.find("/collections/rivers/map"), is("template"));
+		// backtracks from the literal branch if it does not match the complete path
+		assertThat(trie.find("/collections/roads/tiles"), is("partial"));
+	}
+
+	@Test
+	public void testFind_mixedSegment() {
+		PathTemplateTrie<String> trie = new PathTemplateTrie<>();
+		trie.put("/tiles/{tileRow}/{tileCol}.png", "png");
+		trie.put("/map.{format}", "map");
+
+		assertThat(trie.find("/tiles/1/2.png"), is("png"));
+		assertThat(trie.find("/tiles/1/2.jpg"), nullValue());
+		assertThat(trie.find("/tiles/1/.png"), nullValue());
+		assertThat(trie.find("/map.json"), is("map"));
+		assertThat(trie.find("/mapXjson"), nullValue());
+	}
+
+	@Test
+	public void testFindAll_inInsertionOrder() {
+		PathTemplateTrie<String> trie = new PathTemplateTrie<>();
+		trie.put("/collections/{collectionId}", "template");
+		trie.put("/collections/items", "literal");
+		trie.put("/conformance", "conformance");
+
+		assertThat(trie.findAll("/collections/items"), is(List.of("template", "literal")));
+		assertThat(trie.findAll("/collections/roads"), is(List.of("template")));
+		assertThat(trie.findAll("/collections"), is(List.of()));
+	}
+
+	@Test
+	public void testPutAndGet() {
+		PathTemplateTrie<String> trie = new PathTemplateTrie<>();
+		trie.put("/collections/{collectionId}", "first");
+		trie.put("/collections/{collectionId}", "second");
+
+		assertThat(trie.get("/collections/{collectionId}"), is("second"));
+		assertThat(trie.get("/collections/roads"), nullValue());
+		assertThat(trie.findAll("/collections/roads"), is(List.of("second")));
+	}
+
+	@Test
+	public void testEquivalentTemplates() {
+		PathTemplateTrie<String> trie = new PathTemplateTrie<>();
+		trie.put("/collections/{collectionId}", "collectionId");
+		trie.put("/collections/{id}", "id");
+
+		assertThat(trie.get("/collections/{collectionId}"), is("collectionId"));
+		assertThat(trie.get("/collections/{id}"), is("id"));
+		assertThat(trie.get("/collections/{other}"), nullValue());
+		assertThat(trie.find("/collections/roads"), is("collectionId"));
+		assertThat(trie.findAll("/collections/roads"), is(List.of("collectionId", "id")));
+	}
+
+}
@@ -0,0 +1,62 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.opengis.cite.ogcapimaps10.util.PhaseTimes.Phase;
+
+public class PhaseTimesTest {
+
+	@After
+	public void unbind() {
+		PhaseTimes.stop();
+	}
+
+	@Test
+	public void testNestedPhasesAreExclusive() throws Exception {
+		PhaseTimes times = PhaseTimes.start();
+		try (PhaseTimes.Span decoding = PhaseTimes.begin(Phase.IMAGE_DECODING)) {
+			try (PhaseTimes.Span io = PhaseTimes.begin(Phase.IO)) {
+				Thread.sleep(50);
+			}
+		}
+
+		assertThat(PhaseTimes.stop(), sameInstance(times));
+		assertTrue(times.getNanos(Phase.IO) >= TimeUnit.MILLISECONDS.toNanos(50));
+		assertTrue(times.getNanos(Phase.IMAGE_DECODING) < TimeUnit.MILLISECONDS.toNanos(25));
+		assertThat(times.getExcludedNanos(), is(0L));
+	}
+
+	@Test
+	public void testWithoutTimesBound() {
+		try (PhaseTimes.Span span = PhaseTimes.begin(Phase.IO)) {
+			assertThat(PhaseTimes.current(), nullValue());
+		}
+		assertThat(PhaseTimes.stop(), nullValue());
+	}
+
+	@Test
+	public void testConcurrentTasksAddToCallingThread() {
+		PhaseTimes times = PhaseTimes.start();
+		ConcurrentTasks.map(List.of(1, 2, 3), 3, input -> {
+			try (PhaseTimes.Span span = PhaseTimes.begin(Phase.IMAGE_DECODING)) {
+				Thread.sleep(20);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return input;
+		});
+
+		assertTrue(times.getNanos(Phase.IMAGE_DECODING) >= TimeUnit.MILLISECONDS.toNanos(60));
+	}
+
+}
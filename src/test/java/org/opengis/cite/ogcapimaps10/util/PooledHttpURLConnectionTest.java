@@ -0,0 +1,170 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class PooledHttpURLConnectionTest {
+
+	private static final String BODY = "{\"title\":\"landing page\"}";
+
+	private HttpServer server;
+
+	private HttpTransport transport;
+
+	private String baseUrl;
+
+	@Before
+	public void startServer() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/status/", exchange -> {
+			int status = Integer.parseInt(exchange.getRequestURI().getPath().substring("/status/".length()));
+			send(exchange, status, "error".getBytes(StandardCharsets.UTF_8));
+		});
+		server.createContext("/echo", exchange -> {
+			byte[] requestBody = exchange.getRequestBody().readAllBytes();
+			String echo = exchange.getRequestMethod() + " " + exchange.getRequestURI().getRawQuery() + "\nAccept: "
+					+ exchange.getRequestHeaders().getFirst("Accept") + "\nBody: "
+					+ new String(requestBody, StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("X-Custom", "a");
+			send(exchange, 200, echo.getBytes(StandardCharsets.UTF_8));
+		});
+		server.createContext("/gzip", exchange -> {
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+			try (OutputStream out = new GZIPOutputStream(compressed)) {
+				out.write(BODY.getBytes(StandardCharsets.UTF_8));
+			}
+			exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+			send(exchange, 200, compressed.toByteArray());
+		});
+		server.start();
+		transport = new HttpTransport(HttpTransport.DEFAULT_MAX_CONNECTIONS_PER_HOST, 0, 1000, 1000, RetryPolicy.NONE,
+				CircuitBreaker.DISABLED);
+		baseUrl = "http://localhost:" + server.getAddress().getPort();
+	}
+
+	@After
+	public void stopServer() {
+		transport.close();
+		server.stop(0);
+	}
+
+	@Test
+	public void testNotFoundAndGone() throws Exception {
+		for (int status : new int[] { 404, 410 }) {
+			HttpURLConnection connection = transport.openConnection(baseUrl + "/status/" + status);
+
+			assertThat(connection.getResponseCode(), is(status));
+			try {
+				connection.getInputStream();
+				fail("Expected FileNotFoundException");
+			}
+			catch (FileNotFoundException e) {
+				// expected
+			}
+			assertThat(read(connection.getErrorStream()), is("error"));
+		}
+	}
+
+	@Test
+	public void testServerError() throws Exception {
+		HttpURLConnection connection = transport.openConnection(baseUrl + "/status/500");
+
+		assertThat(connection.getResponseCode(), is(500));
+		try {
+			connection.getInputStream();
+			fail("Expected IOException");
+		}
+		catch (FileNotFoundException e) {
+			fail("Expected IOException for 500, not FileNotFoundException");
+		}
+		catch (IOException e) {
+			assertThat(e.getMessage(), containsString("500"));
+		}
+		assertThat(read(connection.getErrorStream()), is("error"));
+	}
+
+	@Test
+	public void testNoErrorStreamForSuccess() throws Exception {
+		HttpURLConnection connection = transport.openConnection(baseUrl + "/echo");
+
+		assertThat(connection.getResponseCode(), is(200));
+		assertThat(connection.getErrorStream(), nullValue());
+	}
+
+	@Test
+	public void testDefaultAcceptAndCaseInsensitiveHeaders() throws Exception {
+		HttpURLConnection connection = transport.openConnection(baseUrl + "/echo");
+
+		assertThat(read(connection.getInputStream()),
+				containsString("Accept: text/html, image/gif, image/jpeg, *; q=.2, */*; q=.2"));
+		assertThat(connection.getHeaderField("x-custom"), is("a"));
+		Map<String, List<String>> headers = connection.getHeaderFields();
+		assertThat(headers.get("X-CUSTOM"), is(List.of("a")));
+	}
+
+	@Test
+	public void testOutputStreamSwitchesGetToPost() throws Exception {
+		HttpURLConnection connection = transport.openConnection(baseUrl + "/echo");
+		connection.setDoOutput(true);
+		try (OutputStream out = connection.getOutputStream()) {
+			out.write("payload".getBytes(StandardCharsets.UTF_8));
+		}
+
+		String echo = read(connection.getInputStream());
+		assertThat(echo, containsString("POST "));
+		assertThat(echo, containsString("Body: payload"));
+	}
+
+	@Test
+	public void testIllegalCharactersAreQuoted() throws Exception {
+		HttpURLConnection connection = transport.openConnection(new URL(baseUrl + "/echo?q=a b|c"));
+
+		assertThat(read(connection.getInputStream()), containsString("GET q=a%20b%7Cc\n"));
+	}
+
+	@Test
+	public void testDecodedResponseHasNoEncodingHeaders() throws Exception {
+		HttpURLConnection connection = transport.openConnection(baseUrl + "/gzip");
+
+		assertThat(read(connection.getInputStream()), is(BODY));
+		assertThat(connection.getHeaderField("Content-Encoding"), nullValue());
+		assertThat(connection.getHeaderField("Content-Length"), nullValue());
+	}
+
+	private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	private static String read(InputStream in) throws IOException {
+		try (InputStream body = in) {
+			return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+}
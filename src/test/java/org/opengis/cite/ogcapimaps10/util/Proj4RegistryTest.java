@@ -0,0 +1,45 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.Map;
+
+import org.junit.Test;
+import org.locationtech.proj4j.CRSFactory;
+
+public class Proj4RegistryTest {
+
+	@Test
+	public void testGetParameters() {
+		assertThat(Proj4Registry.getParameters("EPSG:4326"), is("+proj=longlat +datum=WGS84 +no_defs +axis=neu"));
+		assertThat(Proj4Registry.getParameters("OGC:CRS84"), is("+proj=longlat +datum=WGS84 +no_defs +axis=enu"));
+		assertThat(Proj4Registry.getParameters("EPSG:1"), nullValue());
+		assertThat(Proj4Registry.getParameters("UNKNOWN:4326"), nullValue());
+		assertThat(Proj4Registry.getParameters("4326"), nullValue());
+	}
+
+	@Test
+	public void testGetParameters_sameAsProj4j() {
+		CRSFactory crsFactory = new CRSFactory();
+		for (String code : new String[] { "EPSG:3857", "EPSG:25832", "EPSG:3035", "EPSG:32633", "OGC:CRS84" }) {
+			assertThat(code,
+					crsFactory.createFromParameters(code, Proj4Registry.getParameters(code)).getParameterString(),
+					is(crsFactory.createFromName(code).getParameterString()));
+		}
+	}
+
+	@Test
+	public void testParse() throws Exception {
+		String registry = "# WGS 84\n<4326> +proj=longlat +datum=WGS84 +no_defs  <>\n<broken +proj=merc\n"
+				+ "<4326> +proj=duplicate <>\n";
+
+		Map<String, String> definitions = Proj4Registry.parse(new BufferedReader(new StringReader(registry)));
+
+		assertThat(definitions, is(Map.of("4326", "+proj=longlat +datum=WGS84 +no_defs")));
+	}
+
+}
@@ -0,0 +1,62 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+
+import org.junit.Test;
+
+public class RasterAnalysisTest {
+
+	private static final int[] IMAGE_TYPES = { BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_RGB,
+			BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_BYTE_INDEXED,
+			BufferedImage.TYPE_BYTE_GRAY, BufferedImage.TYPE_USHORT_GRAY, BufferedImage.TYPE_BYTE_BINARY };
+
+	@Test
+	public void testIsUniform() {
+		for (int type : IMAGE_TYPES) {
+			BufferedImage image = new BufferedImage(64, 32, type);
+			assertThat("type " + type, RasterAnalysis.isUniform(image), is(true));
+
+			image.setRGB(63, 31, 0xFFFFFFFF);
+			assertThat("type " + type, RasterAnalysis.isUniform(image), is(false));
+		}
+	}
+
+	@Test
+	public void testIsUniform_subimage() {
+		BufferedImage image = new BufferedImage(64, 32, BufferedImage.TYPE_3BYTE_BGR);
+		image.setRGB(0, 0, 0xFFFF0000);
+
+		assertThat(RasterAnalysis.isUniform(image.getSubimage(1, 0, 63, 32)), is(true));
+		assertThat(RasterAnalysis.isUniform(image.getSubimage(0, 0, 10, 10)), is(false));
+	}
+
+	@Test
+	public void testIsUniform_indexedWithDuplicatePaletteEntries() {
+		byte[] red = { (byte) 0xFF, (byte) 0xFF };
+		byte[] zero = { 0, 0 };
+		BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_BYTE_INDEXED,
+				new IndexColorModel(8, 2, red, zero, zero));
+		image.getRaster().setSample(7, 7, 0, 1);
+
+		assertThat(RasterAnalysis.isUniform(image), is(true));
+	}
+
+	@Test
+	public void testAlphaAt() {
+		BufferedImage argb = new BufferedImage(2, 1, BufferedImage.TYPE_INT_ARGB);
+		argb.setRGB(1, 0, 0x80FF0000);
+		BufferedImage abgr = new BufferedImage(2, 1, BufferedImage.TYPE_4BYTE_ABGR);
+		abgr.setRGB(1, 0, 0x80FF0000);
+
+		assertThat(RasterAnalysis.alphaAt(argb, 0, 0), is(0));
+		assertThat(RasterAnalysis.alphaAt(argb, 1, 0), is(0x80));
+		assertThat(RasterAnalysis.alphaAt(abgr, 1, 0), is(0x80));
+		assertThat(RasterAnalysis.alphaAt(new BufferedImage(1, 1, BufferedImage.TYPE_3BYTE_BGR), 0, 0), is(255));
+		assertThat(RasterAnalysis.rgb24At(argb, 1, 0), is(0xFF0000));
+	}
+
+}
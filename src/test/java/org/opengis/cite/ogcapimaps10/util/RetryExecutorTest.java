@@ -0,0 +1,219 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.client.methods.HttpGet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.cite.ogcapimaps10.exception.CircuitOpenException;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.response.Response;
+
+public class RetryExecutorTest {
+
+	private HttpServer server;
+
+	private HttpTransport transport;
+
+	private String url;
+
+	/** The number of requests answered with 503 before the server recovers. */
+	private final AtomicInteger failures = new AtomicInteger();
+
+	private final AtomicInteger requests = new AtomicInteger();
+
+	@Before
+	public void startServer() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", exchange -> {
+			requests.incrementAndGet();
+			byte[] body;
+			if (failures.getAndDecrement() > 0) {
+				body = "busy".getBytes(StandardCharsets.UTF_8);
+				exchange.getResponseHeaders().set("Retry-After", "0");
+				exchange.sendResponseHeaders(503, body.length);
+			}
+			else {
+				body = "{}".getBytes(StandardCharsets.UTF_8);
+				exchange.getResponseHeaders().set("Content-Type", "application/json");
+				exchange.sendResponseHeaders(200, body.length);
+			}
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+		transport = new HttpTransport(HttpTransport.DEFAULT_MAX_CONNECTIONS_PER_HOST, 0, 1000, 1000,
+				new RetryPolicy(2, 10, 100), new CircuitBreaker(4, 60000));
+		url = "http://localhost:" + server.getAddress().getPort() + "/collections";
+	}
+
+	@After
+	public void stopServer() {
+		transport.close();
+		server.stop(0);
+	}
+
+	@Test
+	public void testPlainRequestIsRetried() throws Exception {
+		failures.set(2);
+
+		HttpURLConnection connection = transport.openConnection(url);
+
+		assertThat(connection.getResponseCode(), is(200));
+		assertThat(requests.get(), is(3));
+		HttpMetrics.Endpoint endpoint = transport.getMetrics().getEndpoints().get(0);
+		assertThat(endpoint.getLatency().getCount(), is(3L));
+		assertThat(endpoint.getStatusCounts().get(503), is(2L));
+	}
+
+	@Test
+	public void testPlainRequestRetriesAreCaptured() throws Exception {
+		failures.set(1);
+		MessageCapture capture = new MessageCapture(MessageCapture.DEFAULT_BUDGET, MessageCapture.Mode.EAGER);
+		MessageCapture.bind(capture);
+		try {
+			assertThat(transport.openConnection(url).getResponseCode(), is(200));
+		}
+		finally {
+			MessageCapture.bind(null);
+		}
+
+		assertThat(capture.getResponses(), containsString("503 Service Unavailable [attempt 1 of GET " + url));
+	}
+
+	@Test
+	public void testRetriesExhausted() throws Exception {
+		failures.set(3);
+
+		assertThat(transport.openConnection(url).getResponseCode(), is(503));
+		assertThat(requests.get(), is(3));
+	}
+
+	@Test
+	public void testNotRetried() throws Exception {
+		failures.set(1);
+		HttpURLConnection post = transport.openConnection(url);
+		post.setDoOutput(true);
+		post.getOutputStream().write(1);
+
+		assertThat(post.getResponseCode(), is(503));
+		failures.set(1);
+		assertThat(transport.openConnection(new URL(url), RetryPolicy.NONE).getResponseCode(), is(503));
+		assertThat(requests.get(), is(2));
+	}
+
+	@Test
+	public void testRestAssuredRequestIsRetriedAndCaptured() {
+		failures.set(1);
+		MessageCapture capture = new MessageCapture(MessageCapture.DEFAULT_BUDGET, MessageCapture.Mode.EAGER);
+
+		Response response = given()
+			.config(RestAssuredConfig.config().httpClient(transport.restAssuredHttpClientConfig()))
+			.filters(capture, transport.restAssuredMetricsFilter())
+			.get(url);
+
+		assertThat(response.getStatusCode(), is(200));
+		assertThat(requests.get(), is(2));
+		assertThat(capture.getResponses(), containsString("503 Service Unavailable [attempt 1 of GET " + url));
+		assertThat(transport.getMetrics().getRequestCount(), is(2L));
+	}
+
+	@Test
+	public void testCircuitOpensOnConnectionFailures() throws Exception {
+		HttpServer closed = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		int port = closed.getAddress().getPort();
+		closed.stop(0);
+		String closedUrl = "http://localhost:" + port + "/collections";
+		transport.close();
+		transport = new HttpTransport(HttpTransport.DEFAULT_MAX_CONNECTIONS_PER_HOST, 0, 1000, 1000, RetryPolicy.NONE,
+				new CircuitBreaker(2, 60000));
+		for (int i = 0; i < 2; i++) {
+			try {
+				transport.openConnection(closedUrl).getResponseCode();
+				fail("Expected ConnectException");
+			}
+			catch (IOException e) {
+				// expected
+			}
+		}
+
+		try {
+			transport.openConnection(closedUrl).getResponseCode();
+			fail("Expected CircuitOpenException");
+		}
+		catch (CircuitOpenException e) {
+			assertThat(e.getHost(), is("localhost:" + port));
+		}
+		try {
+			given().config(RestAssuredConfig.config().httpClient(transport.restAssuredHttpClientConfig()))
+				.filter(transport.restAssuredMetricsFilter())
+				.get(closedUrl);
+			fail("Expected CircuitOpenException");
+		}
+		catch (CircuitOpenException e) {
+			// expected
+		}
+		assertThat(transport.getMetrics().getRequestCount(), is(2L));
+	}
+
+	@Test
+	public void testCircuitStaysClosedOnErrorResponses() throws Exception {
+		failures.set(100);
+		for (int i = 0; i < 3; i++)
+			assertThat(transport.openConnection(url).getResponseCode(), is(503));
+
+		assertThat(requests.get(), is(9));
+		assertThat(transport.getCircuitBreaker().getState("localhost:" + server.getAddress().getPort()),
+				is(CircuitBreaker.State.CLOSED));
+	}
+
+	@Test
+	public void testFailedRequestAfterCoolDownReopensCircuit() throws Exception {
+		AtomicLong now = new AtomicLong();
+		CircuitBreaker breaker = new CircuitBreaker(1, 1000, now::get);
+		RetryExecutor executor = new RetryExecutor(RetryPolicy.NONE, breaker, HostThrottle.UNLIMITED, null);
+		HttpGet request = new HttpGet("http://example.org/collections");
+		try {
+			executor.execute(request, () -> {
+				throw new ConnectException("refused");
+			});
+			fail("Expected ConnectException");
+		}
+		catch (ConnectException e) {
+			// expected
+		}
+		now.addAndGet(1000);
+
+		try {
+			executor.execute(request, () -> {
+				throw new IllegalStateException("pool shut down");
+			});
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			// expected
+		}
+
+		assertThat(breaker.getState("example.org:80"), is(CircuitBreaker.State.OPEN));
+	}
+
+}
@@ -0,0 +1,72 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.junit.Test;
+
+public class RetryPolicyTest {
+
+	@Test
+	public void testDelay() {
+		RetryPolicy policy = new RetryPolicy(3, 100, 250);
+
+		for (int i = 0; i < 100; i++) {
+			long first = policy.delay(1, null);
+			assertTrue(first >= 0 && first <= 100);
+			long third = policy.delay(3, null);
+			assertTrue(third >= 0 && third <= 250);
+		}
+		assertThat(policy.delay(4, null), is(-1L));
+		assertThat(RetryPolicy.NONE.delay(1, null), is(-1L));
+	}
+
+	@Test
+	public void testDelayHonoursRetryAfter() {
+		RetryPolicy policy = new RetryPolicy(2, 0, 5000);
+
+		assertThat(policy.delay(1, "2"), is(2000L));
+		assertThat(policy.delay(1, "6"), is(-1L));
+		assertThat(policy.delay(1, "soon"), is(0L));
+	}
+
+	@Test
+	public void testParseRetryAfter() {
+		assertThat(RetryPolicy.parseRetryAfter(null), is(0L));
+		assertThat(RetryPolicy.parseRetryAfter(" 120 "), is(120000L));
+		assertThat(RetryPolicy.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT"), is(0L));
+		String inAMinute = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().plusSeconds(60));
+		long delay = RetryPolicy.parseRetryAfter(inAMinute);
+		assertTrue(delay > 55000 && delay <= 60000);
+	}
+
+	@Test
+	public void testIsRetryable() {
+		RetryPolicy policy = new RetryPolicy();
+
+		assertTrue(policy.isRetryable("GET"));
+		assertTrue(policy.isRetryable("head"));
+		assertThat(policy.isRetryable("POST"), is(false));
+		assertThat(RetryPolicy.NONE.isRetryable("GET"), is(false));
+		assertTrue(RetryPolicy.isTransient(503));
+		assertThat(RetryPolicy.isTransient(500), is(false));
+		assertTrue(RetryPolicy.isTransient(new SocketException("Connection reset")));
+		assertTrue(RetryPolicy.isTransient(new ConnectException("Connection refused")));
+		assertTrue(RetryPolicy.isTransient(new IOException()));
+		assertThat(RetryPolicy.isTransient(new SocketTimeoutException("Read timed out")), is(false));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalid() {
+		new RetryPolicy(1, 1000, 100);
+	}
+
+}
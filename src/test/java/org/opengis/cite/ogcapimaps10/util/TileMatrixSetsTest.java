@@ -0,0 +1,65 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.opengis.cite.ogcapimaps10.util.TileMatrixSets.TileRange;
+
+public class TileMatrixSetsTest {
+
+	private static final BBox WORLD = new BBox(-180, -90, 180, 90);
+
+	private static final BBox MUENSTER = new BBox(7.5, 51.8, 7.7, 52.0);
+
+	@Test
+	public void testWebMercatorQuad() {
+		TileRange world = TileMatrixSets.tileRange(TileMatrixSets.WEB_MERCATOR_QUAD, 2, WORLD);
+		assertRange(world, 0, 0, 3, 3);
+		assertThat(world.size(), is(16L));
+
+		TileRange muenster = TileMatrixSets.tileRange(TileMatrixSets.WEB_MERCATOR_QUAD, 10, MUENSTER);
+		assertRange(muenster, 533, 338, 533, 339);
+	}
+
+	@Test
+	public void testWorldCrs84Quad() {
+		TileRange world = TileMatrixSets.tileRange(TileMatrixSets.WORLD_CRS84_QUAD, 0, WORLD);
+		assertRange(world, 0, 0, 1, 0);
+
+		TileRange muenster = TileMatrixSets.tileRange(TileMatrixSets.WORLD_CRS84_QUAD, 8, MUENSTER);
+		assertRange(muenster, 266, 54, 266, 54);
+	}
+
+	@Test
+	public void testAntimeridian() {
+		BBox fiji = new BBox(170, -10, -170, 10);
+		List<TileRange> split = TileMatrixSets.tileRanges(TileMatrixSets.WEB_MERCATOR_QUAD, 2, fiji);
+		assertThat(split.size(), is(2));
+		assertRange(split.get(0), 0, 1, 0, 2);
+		assertRange(split.get(1), 3, 1, 3, 2);
+
+		List<TileRange> merged = TileMatrixSets.tileRanges(TileMatrixSets.WORLD_CRS84_QUAD, 0, fiji);
+		assertThat(merged.size(), is(1));
+		assertRange(merged.get(0), 0, 0, 1, 0);
+
+		List<TileRange> single = TileMatrixSets.tileRanges(TileMatrixSets.WEB_MERCATOR_QUAD, 10, MUENSTER);
+		assertThat(single.size(), is(1));
+		assertRange(single.get(0), 533, 338, 533, 339);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupported() {
+		TileMatrixSets.tileRange("EuropeanETRS89_LAEAQuad", 0, WORLD);
+	}
+
+	private static void assertRange(TileRange range, int minCol, int minRow, int maxCol, int maxRow) {
+		assertThat(range.getMinCol(), is(minCol));
+		assertThat(range.getMinRow(), is(minRow));
+		assertThat(range.getMaxCol(), is(maxCol));
+		assertThat(range.getMaxRow(), is(maxRow));
+	}
+
+}
@@ -0,0 +1,148 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class TileSweepTest {
+
+	private HttpServer server;
+
+	private HttpTransport transport;
+
+	@Before
+	public void startServer() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", exchange -> {
+			// /tiles/{tileMatrix}/{tileRow}/{tileCol}, level 2 is cached, column 3
+			// missing
+			String[] path = exchange.getRequestURI().getPath().split("/");
+			int status = "3".equals(path[4]) ? 404 : 200;
+			byte[] body = new byte[100 * (Integer.parseInt(path[2]) + 1)];
+			exchange.getResponseHeaders().set("Content-Type", "image/png");
+			exchange.getResponseHeaders().set("ETag", "\"" + String.join("-", path) + "\"");
+			if ("2".equals(path[2])) {
+				exchange.getResponseHeaders().set("Age", "30");
+				exchange.getResponseHeaders().set("Cache-Control", "public, max-age=3600");
+			}
+			exchange.sendResponseHeaders(status, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+		transport = new HttpTransport();
+	}
+
+	@After
+	public void stopServer() {
+		transport.close();
+		server.stop(0);
+	}
+
+	@Test
+	public void testSelectTiles() {
+		BBox world = new BBox(-180, -90, 180, 90);
+		List<TileSweep.Tile> tiles = TileSweep.selectTiles(TileMatrixSets.WEB_MERCATOR_QUAD, world, 0, 3, 10, 42);
+
+		// 1 + 4 tiles of level 0 and 1, 10 of 16 and 64 tiles of level 2 and 3
+		assertThat(tiles.size(), is(25));
+		assertThat(tiles.get(0).toString(), is("0/0/0"));
+		assertThat(tiles.get(4).toString(), is("1/1/1"));
+		assertThat(tiles.stream().filter(tile -> tile.getZoom() == 3).map(TileSweep.Tile::toString).distinct().count(),
+				is(10L));
+		assertThat(TileSweep.selectTiles(TileMatrixSets.WEB_MERCATOR_QUAD, world, 0, 3, 10, 42).toString(),
+				is(tiles.toString()));
+	}
+
+	@Test
+	public void testSelectTilesAcrossAntimeridian() {
+		BBox pacific = new BBox(170, -10, -170, 10);
+		List<TileSweep.Tile> tiles = TileSweep.selectTiles(TileMatrixSets.WEB_MERCATOR_QUAD, pacific, 2, 2, 10, 42);
+
+		// the first and the last column of rows 1 and 2
+		assertThat(tiles.toString(), is("[2/1/0, 2/2/0, 2/1/3, 2/2/3]"));
+	}
+
+	@Test
+	public void testIsCacheable() {
+		assertTrue(TileSweep.isCacheable("public, max-age=3600"));
+		assertTrue(TileSweep.isCacheable("s-maxage=60"));
+		assertFalse(TileSweep.isCacheable(null));
+		assertFalse(TileSweep.isCacheable("no-store"));
+		assertFalse(TileSweep.isCacheable("public, max-age=0"));
+	}
+
+	@Test
+	public void testRun() {
+		String template = "http://localhost:" + server.getAddress().getPort()
+				+ "/tiles/{tileMatrix}/{tileRow}/{tileCol}";
+		List<TileSweep.Tile> tiles = TileSweep.selectTiles(TileMatrixSets.WEB_MERCATOR_QUAD,
+				new BBox(-180, -90, 180, 90), 1, 2, 100, 42);
+
+		TileSweep sweep = new TileSweep(transport, null);
+		sweep.run(template, tiles, 4);
+
+		assertThat(sweep.getErrors(), is(0L));
+		List<TileSweep.Level> levels = sweep.getLevels();
+		assertThat(levels.size(), is(2));
+		TileSweep.Level level1 = levels.get(0);
+		assertThat(level1.getZoom(), is(1));
+		assertThat(level1.getLatency().getCount(), is(4L));
+		assertThat(level1.getBytesPerTile(), is(200L));
+		assertThat(level1.getEtagResponses(), is(4L));
+		assertThat(level1.getAgeResponses(), is(0L));
+		TileSweep.Level level2 = levels.get(1);
+		assertThat(level2.getStatusCounts(), is(Map.of(200, 12L, 404, 4L)));
+		assertThat(level2.getBytesPerTile(), is(300L));
+		assertThat(level2.getAgeResponses(), is(16L));
+		assertThat(level2.getCacheableResponses(), is(16L));
+
+		StringWriter summary = new StringWriter();
+		sweep.writeSummary(summary);
+		assertThat(summary.toString(), containsString("{200=12, 404=4}"));
+	}
+
+	@Test
+	public void testRunAbortedWhenCircuitOpens() throws Exception {
+		HttpServer closed = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		int port = closed.getAddress().getPort();
+		closed.stop(0);
+		HttpTransport breakingTransport = new HttpTransport(HttpTransport.DEFAULT_MAX_CONNECTIONS_PER_HOST, 0,
+				HttpTransport.DEFAULT_CONNECT_TIMEOUT, HttpTransport.DEFAULT_READ_TIMEOUT, RetryPolicy.NONE,
+				new CircuitBreaker(2, 60000));
+		try {
+			String template = "http://localhost:" + port + "/tiles/{tileMatrix}/{tileRow}/{tileCol}";
+			List<TileSweep.Tile> tiles = TileSweep.selectTiles(TileMatrixSets.WEB_MERCATOR_QUAD,
+					new BBox(-180, -90, 180, 90), 2, 2, 100, 42);
+
+			TileSweep sweep = new TileSweep(breakingTransport, null);
+			sweep.run(template, tiles, 1);
+
+			assertThat(sweep.isAborted(), is(true));
+			assertThat(sweep.getAbortReason(), containsString("localhost:" + port));
+			assertThat(sweep.getErrors(), is(2L));
+			// the sweep has a circuit breaker of its own
+			assertThat(breakingTransport.getCircuitBreaker().getState("localhost:" + port),
+					is(CircuitBreaker.State.CLOSED));
+		}
+		finally {
+			breakingTransport.close();
+		}
+	}
+
+}
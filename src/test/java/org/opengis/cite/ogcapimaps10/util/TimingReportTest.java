@@ -0,0 +1,57 @@
+package org.opengis.cite.ogcapimaps10.util;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class TimingReportTest {
+
+	@Test
+	public void testWriteCsv() throws Exception {
+		TimingReport report = new TimingReport();
+		report.add(TimingReport.Kind.DISCOVERY, "ResourceDiscovery", "discoverResources", "SUCCESS", 120, null);
+		report.add(TimingReport.Kind.TEST, "a.MapOperation", "mapOperation, with comma", "FAILURE", 50, null);
+
+		StringWriter csv = new StringWriter();
+		report.writeCsv(csv);
+
+		assertThat(csv.toString(),
+				is("kind,class,method,status,durationMs,ioMs,imageDecodingMs,otherMs\n"
+						+ "discovery,ResourceDiscovery,discoverResources,SUCCESS,120,0,0,120\n"
+						+ "test,a.MapOperation,\"mapOperation, with comma\",FAILURE,50,0,0,50\n"));
+	}
+
+	@Test
+	public void testWriteJson() throws Exception {
+		TimingReport report = new TimingReport();
+		report.add(TimingReport.Kind.FIXTURE, "a.MapOperation", "initCommonFixture", "SUCCESS", 10, new PhaseTimes());
+
+		StringWriter json = new StringWriter();
+		report.writeJson(json);
+
+		assertThat(json.toString(), containsString("\"kind\" : \"fixture\""));
+		List<?> entries = new ObjectMapper().readValue(json.toString(), List.class);
+		assertThat(((Map<?, ?>) entries.get(0)).get("otherMs"), is(10));
+	}
+
+	@Test
+	public void testExcludedTimeIsNotPartOfDuration() {
+		PhaseTimes times = new PhaseTimes();
+		times.exclude(TimeUnit.MILLISECONDS.toNanos(30));
+		TimingReport report = new TimingReport();
+		report.add(TimingReport.Kind.FIXTURE, "a.MapOperation", "initCommonFixture", "SUCCESS", 100, times);
+
+		assertThat(report.getEntries().get(0).get("durationMs"), is(70L));
+		assertThat(report.getEntries().get(0).get("otherMs"), is(70L));
+	}
+
+}